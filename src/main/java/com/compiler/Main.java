@@ -1,45 +1,201 @@
 package com.compiler;
 
-import java.util.Map;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
+import com.compiler.driver.BatchDriver;
+import com.compiler.driver.CompileDaemon;
+import com.compiler.driver.LexerSpec;
 import com.compiler.lexer.DfaMinimizer;
 import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.Lexer;
 import com.compiler.lexer.NfaToDfaConverter;
 import com.compiler.lexer.dfa.DFA;
 import com.compiler.lexer.dfa.DfaState;
 import com.compiler.lexer.nfa.NFA;
 import com.compiler.lexer.regex.RegexParser;
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.lr.LALR1Parser;
+import com.compiler.parser.lr.LALR1Table;
+import com.compiler.parser.lr.LRAutomaton;
+
 /**
- * Main class for demonstrating regex to NFA, DFA conversion, minimization, and simulation.
- * This class builds an automaton from a regular expression, minimizes it, and tests several input strings.
- */
-/**
- * Main class for demonstrating regex to NFA, DFA conversion, minimization, and simulation.
+ * Main
+ * ----
+ * Command-line driver: builds a lexer from a spec file (see {@link LexerSpec}) and an LALR(1) parser
+ * from a grammar file (the {@link Grammar} text format), then lexes and parses every file of a
+ * directory tree concurrently with a {@link BatchDriver}, streaming one line per file and ending with
+ * the totals, the throughput and the time of each stage. With {@code --daemon} it instead runs a
+ * {@link CompileDaemon} on a loopback port or a Unix domain socket until a client sends
+ * {@code SHUTDOWN}.
+ *
+ * Usage:
+ * <pre>
+ *     java -jar compiler.jar [--jobs N] [--ext .EXT] [--quiet] LEXER_SPEC GRAMMAR INPUT_DIR
+ *     java -jar compiler.jar --daemon [--port N | --socket PATH]
+ *     java -jar compiler.jar --demo
+ * </pre>
+ * The exit status is 0 if every file parsed, 1 if some did not, and 2 for bad arguments or specs.
+ * {@code --demo} runs the original regex to minimized DFA walkthrough.
  */
 public class Main {
+    private static final String USAGE =
+            "usage: Main [--jobs N] [--ext .EXT] [--quiet] LEXER_SPEC GRAMMAR INPUT_DIR\n"
+            + "       Main --daemon [--port N | --socket PATH]\n"
+            + "       Main --demo";
+
     /**
      * Default constructor for Main.
      */
     public Main() {}
 
     /**
-     * Entry point for the automaton demo.
+     * Entry point; exits with the status of {@link #run(String[], PrintStream, PrintStream)}.
+     *
+     * @param args Command-line arguments.
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Runs the command line.
+     *
+     * @param args Command-line arguments.
+     * @param out Stream of the results and the summary.
+     * @param err Stream of the usage and spec errors.
+     * @return The exit status: 0 if every file parsed, 1 if some did not, 2 for bad arguments.
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        int jobs = Runtime.getRuntime().availableProcessors();
+        String extension = null;
+        boolean quiet = false;
+        boolean daemon = false;
+        int port = 0;
+        String socket = null;
+        List<String> positional = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--demo":
+                        demo(out);
+                        return 0;
+                    case "--jobs":
+                        jobs = Integer.parseInt(args[++i]);
+                        break;
+                    case "--ext":
+                        extension = args[++i];
+                        break;
+                    case "--quiet":
+                        quiet = true;
+                        break;
+                    case "--daemon":
+                        daemon = true;
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--socket":
+                        socket = args[++i];
+                        break;
+                    default:
+                        if (args[i].startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option " + args[i]);
+                        }
+                        positional.add(args[i]);
+                }
+            }
+            if (daemon) {
+                if (!positional.isEmpty()) {
+                    throw new IllegalArgumentException("--daemon takes no lexer spec, grammar or input directory");
+                }
+            } else if (positional.size() != 3) {
+                throw new IllegalArgumentException("Expected a lexer spec, a grammar and an input directory");
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            err.println(e instanceof ArrayIndexOutOfBoundsException ? "Missing option value" : e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        if (daemon) {
+            return serve(socket != null ? UnixDomainSocketAddress.of(socket)
+                    : new InetSocketAddress(InetAddress.getLoopbackAddress(), port), out, err);
+        }
+
+        try {
+            long start = System.nanoTime();
+            Lexer lexer = LexerSpec.load(Path.of(positional.get(0)));
+            long lexerBuilt = System.nanoTime();
+            LALR1Table table = new LALR1Table(new LRAutomaton(
+                    new Grammar(Files.readString(Path.of(positional.get(1)), StandardCharsets.UTF_8))));
+            table.build();
+            long tableBuilt = System.nanoTime();
+            for (String conflict : table.getConflicts()) {
+                err.println("warning: " + conflict);
+            }
+            out.printf("built lexer in %.2f ms, LALR(1) table in %.2f ms%n", (lexerBuilt - start) / 1e6,
+                    (tableBuilt - lexerBuilt) / 1e6);
+
+            BatchDriver driver = new BatchDriver(lexer, new LALR1Parser(table), jobs, out);
+            driver.setQuiet(quiet);
+            BatchDriver.Summary summary = driver.run(Path.of(positional.get(2)), extension);
+            summary.print(out);
+            return summary.getFailedFiles() == 0 ? 0 : 1;
+        } catch (IllegalArgumentException | IllegalStateException | IOException e) {
+            err.println(e.getMessage());
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Interrupted");
+            return 2;
+        }
+    }
+
+    /**
+     * Runs a daemon until a client shuts it down.
+     */
+    private static int serve(SocketAddress address, PrintStream out, PrintStream err) {
+        try (CompileDaemon daemon = new CompileDaemon(address)) {
+            out.println("listening on " + daemon.start());
+            daemon.awaitTermination();
+            return 0;
+        } catch (IOException e) {
+            err.println("Cannot listen on " + address + ": " + e.getMessage());
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Interrupted");
+            return 2;
+        }
+    }
+
+    /**
+     * Demonstrates the automaton pipeline on a fixed regular expression.
      * Steps:
      * 1. Parse regex to NFA
      * 2. Convert NFA to DFA
      * 3. Minimize DFA
      * 4. Simulate DFA with test strings
      *
-     * @param args Command-line arguments (not used)
+     * @param out The stream receiving the walkthrough.
      */
-    public static void main(String[] args) {
+    private static void demo(PrintStream out) {
         // --- CONFIGURATION ---
         String regex = "a(b|c)*";
         Set<Character> alphabet = Set.of('a', 'b', 'c');
         String[] testStrings = {"a", "ab", "ac", "abbc", "acb", "", "b", "abcabc"};
 
-        System.out.println("Testing Regex: " + regex + "\n");
+        out.println("Testing Regex: " + regex + "\n");
 
         // --- STEP 1: Regex -> NFA ---
         RegexParser parser = new RegexParser();
@@ -48,21 +204,21 @@ public class Main {
 
         // --- STEP 2: NFA -> DFA ---
         DFA dfa = NfaToDfaConverter.convertNfaToDfa(nfa, alphabet);
-        System.out.println("--- Original DFA ---");
-        visualizeDfa(dfa);
+        out.println("--- Original DFA ---");
+        visualizeDfa(dfa, out);
 
         // --- STEP 3: DFA Minimization ---
         DFA minimizedDfa = DfaMinimizer.minimizeDfa(dfa, alphabet);
-        System.out.println("--- Minimized DFA ---");
-        visualizeDfa(minimizedDfa);
+        out.println("--- Minimized DFA ---");
+        visualizeDfa(minimizedDfa, out);
 
         // --- STEP 4: DFA Simulation ---
         DfaSimulator dfaSimulator = new DfaSimulator();
-        System.out.println("--- Testing Simulator with Minimized DFA ---");
+        out.println("--- Testing Simulator with Minimized DFA ---");
 
         for (String s : testStrings) {
             boolean accepted = dfaSimulator.simulate(minimizedDfa, s);
-            System.out.println("String '" + s + "': " + (accepted ? "Accepted" : "Rejected"));
+            out.println("String '" + s + "': " + (accepted ? "Accepted" : "Rejected"));
         }
     }
 
@@ -73,7 +229,17 @@ public class Main {
      * @param dfa The DFA to visualize.
      */
     public static void visualizeDfa(DFA dfa) {
-        System.out.println("Start State: D" + dfa.startState.id);
+        visualizeDfa(dfa, System.out);
+    }
+
+    /**
+     * Prints a textual representation of the DFA structure to a stream.
+     *
+     * @param dfa The DFA to visualize.
+     * @param out The stream.
+     */
+    public static void visualizeDfa(DFA dfa, PrintStream out) {
+        out.println("Start State: D" + dfa.startState.id);
         for (DfaState state : dfa.allStates) {
             StringBuilder sb = new StringBuilder();
             sb.append("State D").append(state.id);
@@ -81,14 +247,17 @@ public class Main {
                 sb.append(" (Final)");
             }
             sb.append(":");
-            // Sort transitions by character for consistent output
-            state.transitions.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .forEach(entry -> {
-                    sb.append("\n  --'").append(entry.getKey()).append("'--> D").append(entry.getValue().id);
-                });
-            System.out.println(sb.toString());
+            // Interval transitions cover every edge, including those added one character at a time,
+            // and are kept in increasing code point order
+            for (int i = 0; i < state.getIntervalCount(); i++) {
+                sb.append("\n  --'").appendCodePoint(state.getIntervalLow(i)).append("'");
+                if (state.getIntervalHigh(i) != state.getIntervalLow(i)) {
+                    sb.append("-'").appendCodePoint(state.getIntervalHigh(i)).append("'");
+                }
+                sb.append("--> D").append(state.getIntervalTarget(i).id);
+            }
+            out.println(sb.toString());
         }
-        System.out.println("------------------------\n");
+        out.println("------------------------\n");
     }
 }
\ No newline at end of file
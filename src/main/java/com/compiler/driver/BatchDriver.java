@@ -0,0 +1,345 @@
+package com.compiler.driver;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.Token;
+import com.compiler.metrics.Histogram;
+import com.compiler.metrics.HistogramSummary;
+import com.compiler.metrics.MetricsRegistry;
+import com.compiler.parser.ParseResult;
+import com.compiler.parser.SyntaxError;
+import com.compiler.parser.lr.LALR1Parser;
+
+/**
+ * BatchDriver
+ * -----------
+ * Lexes and parses every file of a directory tree concurrently, one task per file, and streams one
+ * result line per file as soon as it is done: {@code OK path (n tokens)}, or one
+ * {@code path:line:column: message} line per syntax error. Tasks run on virtual threads when the
+ * runtime has them (Java 21 and later, looked up reflectively so the code still builds for Java 17)
+ * and on a fixed pool of platform threads otherwise. A semaphore taken by the directory walk before
+ * each submission bounds the number of files in flight, and with it the memory held by file contents.
+ * Files are lexed as UTF-8 bytes with {@link Lexer#tokenize(byte[])}: only a file that produced error
+ * tokens is decoded, to report malformed UTF-8, and line and column numbers are only computed for the
+ * errors reported.
+ *
+ * The lexer and the parser are shared by all tasks; both only read their tables while scanning and
+ * parsing. Read, lex and parse times are recorded per file in a {@link MetricsRegistry}, together
+ * with the lexer counters, and summarized by {@link Summary#print(PrintStream)}.
+ *
+ * Example usage:
+ * <pre>
+ *     BatchDriver driver = new BatchDriver(LexerSpec.load(spec), parser, 8, System.out);
+ *     BatchDriver.Summary summary = driver.run(Path.of("src"), ".expr");
+ *     summary.print(System.out);
+ * </pre>
+ */
+public class BatchDriver {
+    /** Histogram of the time spent reading each file, in nanoseconds. */
+    public static final String READ = "driver.read";
+    /** Histogram of the time spent lexing each file, in nanoseconds. */
+    public static final String LEX = "driver.lex";
+    /** Histogram of the time spent parsing each file, in nanoseconds. */
+    public static final String PARSE = "driver.parse";
+
+    private final Lexer lexer;
+    private final LALR1Parser parser;
+    private final int maxConcurrent;
+    private final PrintStream out;
+    private final MetricsRegistry metrics;
+    private boolean quiet;
+
+    /**
+     * Creates a driver. The lexer is given the driver's metrics registry.
+     * @param lexer The built lexer.
+     * @param parser The parser; token types of the lexer are its terminals.
+     * @param maxConcurrent The maximum number of files processed at once.
+     * @param out The stream receiving the result lines.
+     * @throws IllegalArgumentException if maxConcurrent is not positive.
+     */
+    public BatchDriver(Lexer lexer, LALR1Parser parser, int maxConcurrent, PrintStream out) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("At least one file must be processed at once");
+        }
+        this.lexer = lexer;
+        this.parser = parser;
+        this.maxConcurrent = maxConcurrent;
+        this.out = out;
+        this.metrics = new MetricsRegistry();
+        lexer.setMetrics(metrics);
+    }
+
+    /**
+     * Stops printing the lines of files without errors.
+     * @param quiet true to print only errors.
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Returns the registry holding the stage histograms and lexer counters.
+     * @return The registry.
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Checks whether files are processed on virtual threads.
+     * @return true if the runtime supports virtual threads.
+     */
+    public static boolean hasVirtualThreads() {
+        return VirtualThreads.isAvailable();
+    }
+
+    /**
+     * Processes the regular files of a directory tree. The metrics of a previous run are reset.
+     * @param root The directory, or a single file.
+     * @param extension Only files whose name ends with it are processed; null or empty for all files.
+     * @return The totals of the run.
+     * @throws IOException if the tree cannot be walked.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the tasks.
+     */
+    public Summary run(Path root, String extension) throws IOException, InterruptedException {
+        metrics.reset();
+        long start = System.nanoTime();
+        Summary summary = new Summary(metrics, maxConcurrent);
+        Semaphore slots = new Semaphore(maxConcurrent);
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor(() -> Executors.newFixedThreadPool(maxConcurrent));
+        try (Stream<Path> paths = Files.walk(root)) {
+            Iterator<Path> files = paths.filter(Files::isRegularFile)
+                    .filter(p -> extension == null || p.getFileName().toString().endsWith(extension))
+                    .sorted()
+                    .iterator();
+            while (files.hasNext()) {
+                Path file = files.next();
+                slots.acquire();
+                try {
+                    executor.execute(() -> {
+                        try {
+                            process(root, file, summary);
+                        } finally {
+                            slots.release();
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    slots.release();
+                    throw e;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        summary.wallNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    private void process(Path root, Path file, Summary summary) {
+        Path name = root.equals(file) ? file.getFileName() : root.relativize(file);
+        try {
+            long start = System.nanoTime();
+            byte[] bytes = Files.readAllBytes(file);
+            long read = System.nanoTime();
+            List<Token> tokens = lexer.tokenize(bytes);
+            long lexed = System.nanoTime();
+            if (hasErrorToken(tokens)) {
+                // Malformed UTF-8 always lexes to error tokens, so only such files need decoding.
+                StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes));
+            }
+            ParseResult result = parser.parseWithRecovery(tokens);
+            long parsed = System.nanoTime();
+            metrics.histogram(READ).record(read - start);
+            metrics.histogram(LEX).record(lexed - read);
+            metrics.histogram(PARSE).record(parsed - lexed);
+            summary.files.increment();
+            summary.bytes.add(bytes.length);
+            if (result.getErrors().isEmpty() && result.isAccepted()) {
+                if (!quiet) {
+                    out.println("OK " + name + " (" + tokens.size() + " tokens)");
+                }
+                return;
+            }
+            summary.failedFiles.increment();
+            summary.errors.add(Math.max(result.getErrors().size(), 1));
+            StringBuilder lines = new StringBuilder();
+            int[] lineStarts = result.getErrors().isEmpty() ? null : lineStarts(bytes);
+            for (SyntaxError error : result.getErrors()) {
+                lines.append(name).append(':').append(position(bytes, lineStarts, error.token.offset)).append(": ")
+                        .append(error.message).append(" at '").append(error.token.lexeme).append("', expected ")
+                        .append(error.expected).append(System.lineSeparator());
+            }
+            if (result.getErrors().isEmpty()) {
+                lines.append(name).append(": rejected").append(System.lineSeparator());
+            }
+            // One print per file keeps the lines of a file together.
+            out.print(lines);
+        } catch (CharacterCodingException e) {
+            fail(summary, name + ": not valid UTF-8");
+        } catch (IOException e) {
+            fail(summary, name + ": cannot read: " + e.getMessage());
+        } catch (RuntimeException e) {
+            fail(summary, name + ": internal error: " + e);
+        }
+    }
+
+    private void fail(Summary summary, String line) {
+        summary.files.increment();
+        summary.failedFiles.increment();
+        summary.errors.increment();
+        out.println(line);
+    }
+
+    private static boolean hasErrorToken(List<Token> tokens) {
+        for (Token token : tokens) {
+            if (token.type.equals(Lexer.ERROR)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the byte offsets at which the lines of a file start, in increasing order.
+     */
+    private static int[] lineStarts(byte[] bytes) {
+        int count = 1;
+        for (byte b : bytes) {
+            if (b == '\n') {
+                count++;
+            }
+        }
+        int[] starts = new int[count];
+        int line = 1;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                starts[line++] = i + 1;
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * Returns the 1-based line and column of a byte offset, or "end" for offset -1 (end of input).
+     * Columns count UTF-16 chars, as an editor would.
+     */
+    private static String position(byte[] bytes, int[] lineStarts, int offset) {
+        if (offset < 0) {
+            return "end";
+        }
+        int line = Arrays.binarySearch(lineStarts, offset);
+        if (line < 0) {
+            line = -line - 2;
+        }
+        int column = 1;
+        for (int i = lineStarts[line]; i < offset && i < bytes.length; i++) {
+            if ((bytes[i] & 0xC0) != 0x80) {
+                column++;
+            }
+            if ((bytes[i] & 0xF8) == 0xF0) {
+                // A four-byte sequence is a surrogate pair.
+                column++;
+            }
+        }
+        return (line + 1) + ":" + column;
+    }
+
+    /**
+     * Totals of a run.
+     */
+    public static final class Summary {
+        private final MetricsRegistry metrics;
+        private final int maxConcurrent;
+        private final LongAdder files = new LongAdder();
+        private final LongAdder failedFiles = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private long wallNanos;
+
+        private Summary(MetricsRegistry metrics, int maxConcurrent) {
+            this.metrics = metrics;
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        /**
+         * Returns the number of files processed.
+         * @return The file count.
+         */
+        public long getFiles() {
+            return files.sum();
+        }
+
+        /**
+         * Returns the number of files that could not be read or had syntax errors.
+         * @return The failed file count.
+         */
+        public long getFailedFiles() {
+            return failedFiles.sum();
+        }
+
+        /**
+         * Returns the number of errors reported.
+         * @return The error count.
+         */
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Returns the number of bytes read.
+         * @return The byte count.
+         */
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        /**
+         * Returns the elapsed time of the run.
+         * @return The time, in nanoseconds.
+         */
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * Prints the totals, the throughput and the per-stage times.
+         * @param out The stream.
+         */
+        public void print(PrintStream out) {
+            double seconds = Math.max(wallNanos, 1) / 1e9;
+            out.printf("%d files (%d with errors, %d errors), %.2f MB, %d tokens in %.3f s%n", getFiles(),
+                    getFailedFiles(), getErrors(), getBytes() / 1e6,
+                    metrics.counter(MetricsRegistry.LEXER_TOKENS).sum(), seconds);
+            out.printf("throughput: %.1f files/s, %.2f MB/s (%s, %d files at once)%n", getFiles() / seconds,
+                    getBytes() / 1e6 / seconds, hasVirtualThreads() ? "virtual threads" : "platform threads",
+                    maxConcurrent);
+            out.printf("%-6s %10s %10s %10s %10s%n", "stage", "total ms", "mean ms", "p99 ms", "max ms");
+            for (String stage : new String[] {READ, LEX, PARSE}) {
+                Histogram histogram = metrics.histogram(stage);
+                HistogramSummary s = histogram.summarize();
+                out.printf("%-6s %10.2f %10.3f %10.3f %10.3f%n", stage.substring(stage.indexOf('.') + 1),
+                        s.getMean() * s.getCount() / 1e6, s.getMean() / 1e6, s.getP99() / 1e6, s.getMax() / 1e6);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.compiler.driver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.compiler.lexer.Token;
+import com.compiler.parser.ParseResult;
+import com.compiler.parser.SyntaxError;
+
+/**
+ * CompileClient
+ * -------------
+ * A connection to a {@link CompileDaemon}. Each method sends one request and waits for its response;
+ * the methods are synchronized, so a client may be shared by threads, but concurrent requests are
+ * better sent over one client per thread. A request the daemon rejects throws an
+ * {@link IllegalStateException} carrying the daemon's message, and the connection stays usable.
+ *
+ * Example usage:
+ * <pre>
+ *     try (CompileClient client = new CompileClient(address)) {
+ *         client.loadLexer("expr", spec);
+ *         client.loadGrammar("expr", grammar);
+ *         ParseResult result = client.parse("expr", "expr", "a + b * c");
+ *     }
+ * </pre>
+ */
+public class CompileClient implements Closeable {
+    private final SocketChannel channel;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    /**
+     * Connects to a daemon.
+     * @param address The address returned by {@link CompileDaemon#start()}.
+     * @throws IOException if the connection fails.
+     */
+    public CompileClient(SocketAddress address) throws IOException {
+        this.channel = SocketChannel.open(address);
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * Checks that the daemon answers.
+     * @throws IOException if the connection fails.
+     */
+    public void ping() throws IOException {
+        call("PING");
+    }
+
+    /**
+     * Builds a lexer on the daemon, replacing any lexer of the same name.
+     * @param name The name later requests use.
+     * @param spec The lexer specification, in the format of {@link LexerSpec}.
+     * @throws IOException if the connection fails.
+     * @throws IllegalStateException if the specification is malformed.
+     */
+    public void loadLexer(String name, String spec) throws IOException {
+        call("LOAD_LEXER", name, spec);
+    }
+
+    /**
+     * Builds an LALR(1) parser on the daemon, replacing any parser of the same name.
+     * @param name The name later requests use.
+     * @param grammar The grammar text.
+     * @return The LALR(1) conflicts of the grammar; empty if there are none.
+     * @throws IOException if the connection fails.
+     * @throws IllegalStateException if the grammar is malformed.
+     */
+    public List<String> loadGrammar(String name, String grammar) throws IOException {
+        return call("LOAD_GRAMMAR", name, grammar);
+    }
+
+    /**
+     * Tokenizes an input with a loaded lexer.
+     * @param lexer The lexer name.
+     * @param input The input.
+     * @return The tokens.
+     * @throws IOException if the connection fails.
+     * @throws IllegalStateException if the lexer is unknown or the input cannot be tokenized.
+     */
+    public List<Token> lex(String lexer, String input) throws IOException {
+        List<String> response = call("LEX", lexer, input);
+        List<Token> tokens = new ArrayList<>(response.size() / 3);
+        for (int i = 0; i + 2 < response.size(); i += 3) {
+            tokens.add(new Token(response.get(i), response.get(i + 2), Integer.parseInt(response.get(i + 1))));
+        }
+        return tokens;
+    }
+
+    /**
+     * Tokenizes and parses an input with a loaded lexer and parser, recovering from syntax errors.
+     * @param lexer The lexer name.
+     * @param grammar The parser name.
+     * @param input The input.
+     * @return The parse result.
+     * @throws IOException if the connection fails.
+     * @throws IllegalStateException if a name is unknown or the input cannot be tokenized.
+     */
+    public ParseResult parse(String lexer, String grammar, String input) throws IOException {
+        List<String> response = call("PARSE", lexer, grammar, input);
+        boolean accepted = Boolean.parseBoolean(response.get(0));
+        int errorCount = Integer.parseInt(response.get(1));
+        List<SyntaxError> errors = new ArrayList<>(errorCount);
+        int i = 2;
+        for (int e = 0; e < errorCount; e++) {
+            int tokenIndex = Integer.parseInt(response.get(i));
+            Token token = new Token(response.get(i + 1), response.get(i + 2), Integer.parseInt(response.get(i + 3)));
+            String message = response.get(i + 4);
+            int expectedCount = Integer.parseInt(response.get(i + 5));
+            i += 6;
+            Set<String> expected = new LinkedHashSet<>(response.subList(i, i + expectedCount));
+            i += expectedCount;
+            errors.add(new SyntaxError(tokenIndex, token, expected, message));
+        }
+        return new ParseResult(accepted, errors);
+    }
+
+    /**
+     * Compiles a pattern on the daemon, which keeps it for later requests.
+     * @param regex The pattern.
+     * @return {@code dfa <states>}, or {@code lazy <reason>} if the pattern fell back to a lazy DFA.
+     * @throws IOException if the connection fails.
+     * @throws IllegalStateException if the pattern is malformed.
+     */
+    public String compile(String regex) throws IOException {
+        return String.join(" ", call("COMPILE", regex));
+    }
+
+    /**
+     * Matches a whole input against a pattern compiled on the daemon.
+     * @param regex The pattern.
+     * @param input The input.
+     * @return true if the input is accepted.
+     * @throws IOException if the connection fails.
+     * @throws IllegalStateException if the pattern is malformed.
+     */
+    public boolean matches(String regex, String input) throws IOException {
+        return Boolean.parseBoolean(call("MATCH", regex, input).get(0));
+    }
+
+    /**
+     * Returns the daemon's counters and histogram summaries.
+     * @return One {@code name=value} string per metric.
+     * @throws IOException if the connection fails.
+     */
+    public List<String> stats() throws IOException {
+        return call("STATS");
+    }
+
+    /**
+     * Stops the daemon.
+     * @throws IOException if the connection fails.
+     */
+    public void shutdown() throws IOException {
+        call("SHUTDOWN");
+    }
+
+    /**
+     * Sends a request and returns the response without its status.
+     */
+    private synchronized List<String> call(String... request) throws IOException {
+        Frames.write(out, Arrays.asList(request));
+        List<String> response = Frames.read(in);
+        if (response == null) {
+            throw new EOFException("Daemon closed the connection");
+        }
+        if (response.isEmpty()) {
+            throw new IOException("Malformed response");
+        }
+        if (response.get(0).equals("ERROR")) {
+            throw new IllegalStateException(response.size() > 1 ? response.get(1) : "Request failed");
+        }
+        return response.subList(1, response.size());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
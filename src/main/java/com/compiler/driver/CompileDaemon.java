@@ -0,0 +1,323 @@
+package com.compiler.driver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import com.compiler.lexer.CompileBudget;
+import com.compiler.lexer.ConcurrentCompiler;
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.PatternStore;
+import com.compiler.lexer.Token;
+import com.compiler.lexer.dfa.CompiledPattern;
+import com.compiler.lexer.dfa.FrozenDfa;
+import com.compiler.metrics.HistogramSummary;
+import com.compiler.metrics.MetricsRegistry;
+import com.compiler.parser.ParseResult;
+import com.compiler.parser.SyntaxError;
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.lr.LALR1Parser;
+import com.compiler.parser.lr.LALR1Table;
+import com.compiler.parser.lr.LRAutomaton;
+
+/**
+ * CompileDaemon
+ * -------------
+ * A long-running server that keeps lexers, LALR(1) parsers and compiled patterns warm in memory, so
+ * that clients pay neither JVM startup and JIT warm-up nor the rebuilding of automata and tables. It
+ * listens on a loopback TCP port or a Unix domain socket and serves each connection on its own virtual
+ * thread (platform threads before Java 21, see {@link VirtualThreads}); requests on one connection are
+ * answered in order. Compiled patterns are kept in a {@link PatternStore}, so patterns of the same
+ * language share one automaton. {@link CompileClient} speaks the protocol.
+ *
+ * Messages are lists of strings ({@link Frames}). Requests and their {@code OK} responses:
+ * <ul>
+ *   <li>{@code PING} → {@code OK}</li>
+ *   <li>{@code LOAD_LEXER name spec} (a {@link LexerSpec} text) → {@code OK}</li>
+ *   <li>{@code LOAD_GRAMMAR name grammar} → {@code OK}, then one string per LALR(1) conflict</li>
+ *   <li>{@code LEX lexer input} → {@code OK}, then type, offset and lexeme of each token</li>
+ *   <li>{@code PARSE lexer grammar input} → {@code OK accepted errorCount}, then per error its token
+ *       index, type, lexeme, offset, message, expected count and expected terminals</li>
+ *   <li>{@code COMPILE regex} → {@code OK dfa states} or {@code OK lazy reason}</li>
+ *   <li>{@code MATCH regex input} → {@code OK true|false}</li>
+ *   <li>{@code STATS} → {@code OK}, then {@code name=value} per counter and histogram summary, and
+ *       the numbers of stored {@code patterns} and of distinct {@code automata} they share</li>
+ *   <li>{@code SHUTDOWN} → {@code OK}, then the daemon stops</li>
+ * </ul>
+ * A failed request gets {@code ERROR message} and leaves the connection usable.
+ *
+ * Example usage:
+ * <pre>
+ *     CompileDaemon daemon = new CompileDaemon(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+ *     SocketAddress address = daemon.start();
+ *     try (CompileClient client = new CompileClient(address)) { ... }
+ *     daemon.close();
+ * </pre>
+ */
+public class CompileDaemon implements Closeable {
+    // Patterns kept by COMPILE and MATCH; later ones are compiled per request.
+    private static final int MAX_PATTERNS = 10_000;
+
+    private final SocketAddress address;
+    private final Map<String, Lexer> lexers = new ConcurrentHashMap<>();
+    private final Map<String, LALR1Parser> parsers = new ConcurrentHashMap<>();
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final PatternStore patterns;
+    // Counted down once close() has released everything, not merely stopped the acceptor.
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private ServerSocketChannel server;
+    private ExecutorService handlers;
+    private Thread acceptor;
+
+    /**
+     * Creates a daemon; nothing is bound until {@link #start()}.
+     * @param address A loopback {@link java.net.InetSocketAddress} (port 0 for any free port) or a
+     *                {@link UnixDomainSocketAddress} whose file does not exist yet.
+     */
+    public CompileDaemon(SocketAddress address) {
+        this.address = address;
+        this.patterns = new PatternStore(
+                new ConcurrentCompiler(ForkJoinPool.commonPool(), false, CompileBudget.DEFAULT, metrics), MAX_PATTERNS);
+    }
+
+    /**
+     * Binds the socket and starts accepting connections.
+     * @return The bound address, with the actual port if port 0 was requested.
+     * @throws IOException if the socket cannot be bound.
+     * @throws IllegalStateException if the daemon was already started.
+     */
+    public synchronized SocketAddress start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Daemon already started");
+        }
+        server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        server.bind(address);
+        handlers = VirtualThreads.newPerTaskExecutor(Executors::newCachedThreadPool);
+        acceptor = new Thread(this::acceptLoop, "compile-daemon-acceptor");
+        acceptor.start();
+        return server.getLocalAddress();
+    }
+
+    /**
+     * Returns the registry of the request counters and latencies.
+     * @return The registry.
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Waits until the daemon is closed, by {@link #close()} or a {@code SHUTDOWN} request: the open
+     * connections are closed and the Unix socket file, if any, is removed.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public void awaitTermination() throws InterruptedException {
+        closed.await();
+        acceptor.join();
+    }
+
+    /**
+     * Stops accepting connections, closes the open ones and removes the Unix socket file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (server == null || !server.isOpen()) {
+            return;
+        }
+        try {
+            server.close();
+            for (SocketChannel connection : connections) {
+                closeQuietly(connection);
+            }
+            handlers.shutdown();
+            if (address instanceof UnixDomainSocketAddress) {
+                Files.deleteIfExists(((UnixDomainSocketAddress) address).getPath());
+            }
+        } finally {
+            closed.countDown();
+        }
+    }
+
+    private void acceptLoop() {
+        while (true) {
+            SocketChannel connection;
+            try {
+                connection = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!server.isOpen()) {
+                    return;
+                }
+                continue;
+            }
+            connections.add(connection);
+            try {
+                handlers.execute(() -> serve(connection));
+            } catch (RuntimeException e) {
+                // Rejected because the daemon is closing.
+                closeQuietly(connection);
+            }
+        }
+    }
+
+    private void serve(SocketChannel connection) {
+        try (connection) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(connection)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(connection)));
+            List<String> request;
+            while ((request = Frames.read(in)) != null) {
+                Frames.write(out, handle(request));
+                if (!request.isEmpty() && request.get(0).equals("SHUTDOWN")) {
+                    close();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // The client went away or sent garbage: drop the connection.
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel connection) {
+        try {
+            connection.close();
+        } catch (IOException e) {
+            // Nothing more to do.
+        }
+    }
+
+    /**
+     * Answers one request.
+     * @param request The command and its arguments.
+     * @return The response.
+     */
+    List<String> handle(List<String> request) {
+        long start = System.nanoTime();
+        String command = request.isEmpty() ? "" : request.get(0);
+        List<String> response = new ArrayList<>();
+        response.add("OK");
+        try {
+            switch (command) {
+                case "PING":
+                case "SHUTDOWN":
+                    arguments(request, 0);
+                    break;
+                case "LOAD_LEXER":
+                    arguments(request, 2);
+                    Lexer lexer = LexerSpec.parse(request.get(2));
+                    lexer.setMetrics(metrics);
+                    lexers.put(request.get(1), lexer);
+                    break;
+                case "LOAD_GRAMMAR":
+                    arguments(request, 2);
+                    LALR1Table table = new LALR1Table(new LRAutomaton(new Grammar(request.get(2))));
+                    table.build();
+                    LALR1Parser parser = new LALR1Parser(table);
+                    parser.setMetrics(metrics, request.get(1));
+                    parsers.put(request.get(1), parser);
+                    response.addAll(table.getConflicts());
+                    break;
+                case "LEX":
+                    arguments(request, 2);
+                    for (Token token : lookup(lexers, "lexer", request.get(1)).tokenize(request.get(2))) {
+                        response.add(token.type);
+                        response.add(Integer.toString(token.offset));
+                        response.add(token.lexeme);
+                    }
+                    break;
+                case "PARSE":
+                    arguments(request, 3);
+                    parse(lookup(lexers, "lexer", request.get(1)), lookup(parsers, "grammar", request.get(2)),
+                            request.get(3), response);
+                    break;
+                case "COMPILE":
+                    arguments(request, 1);
+                    CompiledPattern pattern = patterns.get(request.get(1));
+                    if (pattern instanceof FrozenDfa) {
+                        response.add("dfa");
+                        response.add(Integer.toString(((FrozenDfa) pattern).getStateCount()));
+                    } else {
+                        response.add("lazy");
+                        response.add(String.valueOf(pattern.getFallbackReason()));
+                    }
+                    break;
+                case "MATCH":
+                    arguments(request, 2);
+                    response.add(Boolean.toString(patterns.get(request.get(1)).matches(request.get(2))));
+                    break;
+                case "STATS":
+                    arguments(request, 0);
+                    metrics.getCounters().forEach((name, value) -> response.add(name + "=" + value));
+                    for (Map.Entry<String, HistogramSummary> entry : metrics.getHistograms().entrySet()) {
+                        response.add(entry.getKey() + "=" + entry.getValue());
+                    }
+                    response.add("patterns=" + patterns.size());
+                    response.add("automata=" + patterns.getAutomatonCount());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command '" + command + "'");
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            metrics.counter("daemon.errors").increment();
+            return List.of("ERROR", String.valueOf(e.getMessage()));
+        }
+        metrics.counter("daemon.requests").increment();
+        metrics.histogram("daemon." + command.toLowerCase() + ".latency").record(System.nanoTime() - start);
+        return response;
+    }
+
+    private static void arguments(List<String> request, int count) {
+        if (request.size() != count + 1) {
+            throw new IllegalArgumentException(request.get(0) + " takes " + count + " arguments, not "
+                    + (request.size() - 1));
+        }
+    }
+
+    private static <T> T lookup(Map<String, T> loaded, String kind, String name) {
+        T value = loaded.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("No " + kind + " named '" + name + "' is loaded");
+        }
+        return value;
+    }
+
+    private static void parse(Lexer lexer, LALR1Parser parser, String input, List<String> response) {
+        ParseResult result = parser.parseWithRecovery(lexer.tokenize(input));
+        response.add(Boolean.toString(result.isAccepted()));
+        response.add(Integer.toString(result.getErrors().size()));
+        for (SyntaxError error : result.getErrors()) {
+            response.add(Integer.toString(error.tokenIndex));
+            response.add(error.token.type);
+            response.add(error.token.lexeme);
+            response.add(Integer.toString(error.token.offset));
+            response.add(error.message);
+            response.add(Integer.toString(error.expected.size()));
+            response.addAll(error.expected);
+        }
+    }
+}
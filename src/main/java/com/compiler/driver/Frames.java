@@ -0,0 +1,83 @@
+package com.compiler.driver;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Frames
+ * ------
+ * The wire format of the compile daemon. A message is a list of strings: its length as a big-endian
+ * int, then each string as the int length of its UTF-8 bytes followed by the bytes. Requests start with
+ * the command name and responses with {@code OK} or {@code ERROR}. A whole message, headers included,
+ * is bounded, and payloads are buffered as they arrive rather than at their declared length, so that a
+ * corrupt or hostile stream cannot make the reader allocate unbounded memory.
+ */
+final class Frames {
+    private static final int MAX_MESSAGE_BYTES = 1 << 26;
+    private static final int CHUNK_BYTES = 1 << 16;
+
+    private Frames() {
+    }
+
+    /**
+     * Reads a message.
+     * @param in The stream.
+     * @return The strings of the message, or null if the stream ended before the message started.
+     * @throws IOException if the stream fails, ends inside a message or holds a malformed length.
+     */
+    static List<String> read(DataInputStream in) throws IOException {
+        int count;
+        try {
+            count = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        long remaining = MAX_MESSAGE_BYTES - Integer.BYTES;
+        if (count < 0 || count > remaining / Integer.BYTES) {
+            throw new IOException("Malformed message: " + count + " strings");
+        }
+        remaining -= (long) count * Integer.BYTES;
+        List<String> strings = new ArrayList<>(Math.min(count, 1024));
+        byte[] buffer = new byte[CHUNK_BYTES];
+        for (int i = 0; i < count; i++) {
+            int length = in.readInt();
+            if (length < 0 || length > remaining) {
+                throw new IOException("Malformed message: string of " + length + " bytes");
+            }
+            remaining -= length;
+            int read = 0;
+            while (read < length) {
+                if (read == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, (int) Math.min((long) buffer.length * 2, length));
+                }
+                int n = Math.min(buffer.length, length) - read;
+                in.readFully(buffer, read, n);
+                read += n;
+            }
+            strings.add(new String(buffer, 0, length, StandardCharsets.UTF_8));
+        }
+        return strings;
+    }
+
+    /**
+     * Writes a message and flushes the stream.
+     * @param out The stream.
+     * @param strings The strings of the message.
+     * @throws IOException if the stream fails.
+     */
+    static void write(DataOutputStream out, List<String> strings) throws IOException {
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,88 @@
+package com.compiler.driver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.compiler.lexer.CompileBudget;
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.regex.RegexParser;
+
+/**
+ * LexerSpec
+ * ---------
+ * Reads the token rules of a {@link Lexer} from a text file with one rule per line: the token type,
+ * whitespace, then the regular expression, which runs to the end of the line (leading and trailing
+ * whitespace removed). A line starting with {@code ignore} adds an ignored rule. Blank lines and lines
+ * starting with {@code #} are skipped. Rules keep their file order, which is their priority.
+ *
+ * Example spec:
+ * <pre>
+ *     # identifiers and operators
+ *     id      [a-z_][a-z0-9_]*
+ *     +       \+
+ *     ignore ws [ \t\n]+
+ * </pre>
+ */
+public final class LexerSpec {
+    private LexerSpec() {
+    }
+
+    /**
+     * Builds a lexer from a spec file.
+     * @param file The spec file, in UTF-8.
+     * @return The built lexer.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if a line or a regular expression is malformed; the message names the line.
+     */
+    public static Lexer load(Path file) throws IOException {
+        return parse(Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds a lexer from the text of a spec.
+     * @param spec The spec.
+     * @return The built lexer.
+     * @throws IllegalArgumentException if a line or a regular expression is malformed, or there is no rule.
+     * @throws IllegalStateException if the DFA of the rules exceeds {@link CompileBudget#DEFAULT}; the
+     *         message names the rule whose own DFA is estimated to be the largest.
+     */
+    public static Lexer parse(String spec) {
+        Lexer lexer = new Lexer();
+        RegexParser parser = new RegexParser();
+        String[] lines = spec.split("\r?\n");
+        int rules = 0;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] words = line.split("\\s+", 2);
+            boolean ignored = words[0].equals("ignore") && words.length == 2;
+            if (ignored) {
+                words = words[1].split("\\s+", 2);
+            }
+            if (words.length < 2) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": expected a token type and a regular expression");
+            }
+            try {
+                if (ignored) {
+                    lexer.addIgnoredRule(words[0], words[1]);
+                } else {
+                    lexer.addRule(words[0], words[1]);
+                }
+                // Parse now so that a bad expression is reported with its line.
+                parser.parse(words[1]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+            rules++;
+        }
+        if (rules == 0) {
+            throw new IllegalArgumentException("The lexer spec has no rule");
+        }
+        lexer.build();
+        return lexer;
+    }
+}
@@ -0,0 +1,52 @@
+package com.compiler.driver;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * VirtualThreads
+ * --------------
+ * Creates thread-per-task executors on virtual threads when the runtime has them. The code is built
+ * for Java 17, so {@code Executors.newVirtualThreadPerTaskExecutor()} (Java 21) is looked up
+ * reflectively; on older runtimes a fallback executor of platform threads is used instead.
+ */
+final class VirtualThreads {
+    private static final Method FACTORY = factory();
+
+    private VirtualThreads() {
+    }
+
+    private static Method factory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the runtime has virtual threads.
+     * @return true on Java 21 and later.
+     */
+    static boolean isAvailable() {
+        return FACTORY != null;
+    }
+
+    /**
+     * Creates an executor starting one virtual thread per task.
+     * @param fallback Creates the executor used when virtual threads are not available.
+     * @return The executor.
+     */
+    static ExecutorService newPerTaskExecutor(Supplier<ExecutorService> fallback) {
+        if (FACTORY != null) {
+            try {
+                return (ExecutorService) FACTORY.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Fall back to platform threads.
+            }
+        }
+        return fallback.get();
+    }
+}
@@ -0,0 +1,17 @@
+package com.compiler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * DeterminizeEvent
+ * ----------------
+ * Recorded for each run of NfaToDfaConverter.convertNfaToDfa: input is the number of NFA states,
+ * output the number of DFA states.
+ */
+@Name("com.compiler.DeterminizeEvent")
+@Label("Subset Construction")
+@Description("Input: NFA states; output: DFA states")
+public final class DeterminizeEvent extends StageEvent {
+}
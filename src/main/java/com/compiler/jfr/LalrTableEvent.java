@@ -0,0 +1,18 @@
+package com.compiler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * LalrTableEvent
+ * --------------
+ * Recorded for each run of LALR1Table.build: input is the number of LR(0) states, output the number of
+ * action and goto cells.
+ * An LR(0) automaton built by the table is not included: it is recorded as a {@link LrAutomatonEvent}.
+ */
+@Name("com.compiler.LalrTableEvent")
+@Label("LALR(1) Table")
+@Description("Input: LR states; output: table cells")
+public final class LalrTableEvent extends StageEvent {
+}
@@ -0,0 +1,17 @@
+package com.compiler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * LrAutomatonEvent
+ * ----------------
+ * Recorded for each run of LRAutomaton.build: input is the number of productions, output the number of
+ * LR(0) states.
+ */
+@Name("com.compiler.LrAutomatonEvent")
+@Label("LR(0) Automaton")
+@Description("Input: Productions; output: LR states")
+public final class LrAutomatonEvent extends StageEvent {
+}
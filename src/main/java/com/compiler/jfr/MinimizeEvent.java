@@ -0,0 +1,17 @@
+package com.compiler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * MinimizeEvent
+ * -------------
+ * Recorded for each run of DfaMinimizer.minimizeDfa: input is the number of DFA states, output the
+ * number of minimized states.
+ */
+@Name("com.compiler.MinimizeEvent")
+@Label("DFA Minimization")
+@Description("Input: DFA states; output: minimized states")
+public final class MinimizeEvent extends StageEvent {
+}
@@ -0,0 +1,18 @@
+package com.compiler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * PostfixEvent
+ * ------------
+ * Recorded for each run of ShuntingYard.toPostfix, the front end of the Glushkov and derivative
+ * compilers: input is the number of infix tokens, output the number of postfix tokens. RegexParser
+ * builds a syntax tree instead and records a {@link RegexAstEvent}.
+ */
+@Name("com.compiler.PostfixEvent")
+@Label("Postfix Conversion")
+@Description("Input: Infix tokens; output: postfix tokens")
+public final class PostfixEvent extends StageEvent {
+}
@@ -0,0 +1,17 @@
+package com.compiler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * RegexAstEvent
+ * -------------
+ * Recorded for each run of RegexAstParser.parse, the front end of RegexParser: input is the number of
+ * regex tokens, output the number of nodes of the simplified syntax tree.
+ */
+@Name("com.compiler.RegexAstEvent")
+@Label("Regex Syntax Tree")
+@Description("Input: Regex tokens; output: tree nodes")
+public final class RegexAstEvent extends StageEvent {
+}
@@ -0,0 +1,17 @@
+package com.compiler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * RegexParseEvent
+ * ---------------
+ * Recorded for each run of RegexParser.parse and parseWithCaptures: input is the length of the regular
+ * expression, output the number of NFA states.
+ */
+@Name("com.compiler.RegexParseEvent")
+@Label("Regex Parse")
+@Description("Input: Regex length; output: NFA states")
+public final class RegexParseEvent extends StageEvent {
+}
@@ -0,0 +1,99 @@
+package com.compiler.jfr;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * StageEvent
+ * ----------
+ * Base of the JDK Flight Recorder events of the compile pipeline: one event per run of a stage, with
+ * its duration (from {@link #start()} to {@link #shouldRecord()}), the size of its input and output,
+ * and the bytes the thread allocated over the same span. The meaning of the sizes is given by the label of
+ * each event type.
+ *
+ * When no recording has the event enabled, {@link #start()} and {@link #shouldRecord()} only test a
+ * flag, and the event object itself is usually removed by escape analysis, so the stages run at full
+ * speed; sizes that are expensive to compute should only be computed when {@link #shouldRecord()}
+ * returns true.
+ *
+ * Example usage:
+ * <pre>
+ *     DeterminizeEvent event = new DeterminizeEvent();
+ *     event.start();
+ *     DFA dfa = ...;
+ *     if (event.shouldRecord()) {
+ *         event.record(nfaStates, dfa.allStates.size());
+ *     }
+ * </pre>
+ */
+@Category({"Compiler", "Pipeline"})
+@StackTrace(false)
+public abstract class StageEvent extends Event {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /** Size of the input of the stage. */
+    @Label("Input Size")
+    public long inputSize;
+
+    /** Size of the output of the stage. */
+    @Label("Output Size")
+    public long outputSize;
+
+    /** Bytes allocated by the thread during the stage, or -1 if the JVM cannot tell. */
+    @Label("Allocated")
+    @DataAmount
+    public long allocatedBytes;
+
+    // Not recorded: transient fields are not part of the event.
+    private transient long startAllocated;
+    private transient long endAllocated;
+
+    /**
+     * Starts timing the stage.
+     */
+    public void start() {
+        begin();
+        if (isEnabled()) {
+            startAllocated = allocatedBytes();
+        }
+    }
+
+    /**
+     * Stops timing the stage and reads the allocation counter, so that computing the sizes passed to
+     * {@link #record(long, long)} is not counted as part of the stage.
+     * @return true if the event is recorded, in which case {@link #record(long, long)} must follow.
+     */
+    public boolean shouldRecord() {
+        end();
+        if (!shouldCommit()) {
+            return false;
+        }
+        endAllocated = allocatedBytes();
+        return true;
+    }
+
+    /**
+     * Records the event.
+     * @param inputSize The size of the input of the stage.
+     * @param outputSize The size of the output of the stage.
+     */
+    public void record(long inputSize, long outputSize) {
+        this.inputSize = inputSize;
+        this.outputSize = outputSize;
+        this.allocatedBytes = endAllocated < 0 || startAllocated < 0 ? -1 : endAllocated - startAllocated;
+        commit();
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.compiler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * StaticAnalysisEvent
+ * -------------------
+ * Recorded for each run of StaticAnalyzer.getFirstSets and getFollowSets: input is the number of
+ * productions, output the total size of the sets.
+ */
+@Name("com.compiler.StaticAnalysisEvent")
+@Label("FIRST/FOLLOW Analysis")
+@Description("Input: Productions; output: set entries")
+public final class StaticAnalysisEvent extends StageEvent {
+    /** "FIRST" or "FOLLOW". */
+    @Label("Sets")
+    public String sets;
+}
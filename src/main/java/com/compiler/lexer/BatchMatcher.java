@@ -0,0 +1,239 @@
+package com.compiler.lexer;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.DfaState;
+
+/**
+ * BatchMatcher
+ * ------------
+ * Checks many short inputs against one DFA. The DFA is flattened into a dense table over character
+ * classes (the segments between all transition bounds), with a dead state in row 0, so a step is one
+ * class lookup and one table load. Inputs are stepped {@value #LANES} at a time in an interleaved
+ * loop: the table loads of different inputs do not depend on each other, so their cache misses
+ * overlap instead of being paid one after the other as in {@link DfaSimulator#simulate}. A lane that
+ * finishes its input takes the next one at once. Batches larger than {@value #CHUNK} inputs are split
+ * across the common fork-join pool.
+ *
+ * Example usage:
+ * <pre>
+ *     BatchMatcher matcher = new BatchMatcher(NfaToDfaConverter.convertNfaToDfa(parser.parse("[A-Z]{3}-[0-9]{4}")));
+ *     boolean[] valid = matcher.matchAll(codes);
+ * </pre>
+ */
+public class BatchMatcher {
+    /** Number of inputs stepped together. */
+    public static final int LANES = 8;
+    /** Largest number of inputs matched by one fork-join task. */
+    public static final int CHUNK = 8192;
+
+    // Class of each Latin-1 char; other code points are looked up in bounds.
+    private final int[] latin1Class;
+    // Sorted class bounds: class i holds the code points [bounds[i], bounds[i + 1]).
+    private final int[] bounds;
+    private final int classCount;
+    // next[row + class] is the row of the target state; a state's row is its index times classCount.
+    private final int[] next;
+    private final boolean[] accepting;
+    private final int startRow;
+
+    /**
+     * Flattens a DFA.
+     * @param dfa The DFA.
+     */
+    public BatchMatcher(DFA dfa) {
+        int[] allBounds = new int[2];
+        int count = 0;
+        allBounds[count++] = 0;
+        allBounds[count++] = Character.MAX_CODE_POINT + 1;
+        for (DfaState state : dfa.allStates) {
+            for (int i = 0; i < state.getIntervalCount(); i++) {
+                if (count + 2 > allBounds.length) {
+                    allBounds = Arrays.copyOf(allBounds, allBounds.length * 2);
+                }
+                allBounds[count++] = state.getIntervalLow(i);
+                allBounds[count++] = state.getIntervalHigh(i) + 1;
+            }
+        }
+        Arrays.sort(allBounds, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || allBounds[distinct - 1] != allBounds[i]) {
+                allBounds[distinct++] = allBounds[i];
+            }
+        }
+        this.bounds = Arrays.copyOf(allBounds, distinct);
+        this.classCount = bounds.length - 1;
+        this.latin1Class = new int[256];
+        for (int c = 0; c < 256; c++) {
+            latin1Class[c] = classOf(c);
+        }
+
+        Map<DfaState, Integer> index = new IdentityHashMap<>();
+        for (DfaState state : dfa.allStates) {
+            index.put(state, index.size() + 1);
+        }
+        int stateCount = dfa.allStates.size() + 1;
+        this.next = new int[stateCount * classCount];
+        this.accepting = new boolean[stateCount];
+        for (DfaState state : dfa.allStates) {
+            int row = index.get(state) * classCount;
+            accepting[index.get(state)] = state.isFinal();
+            for (int k = 0; k < classCount; k++) {
+                DfaState target = state.getTransition(bounds[k]);
+                next[row + k] = target == null ? 0 : index.get(target) * classCount;
+            }
+        }
+        this.startRow = index.get(dfa.startState) * classCount;
+    }
+
+    private int classOf(int codePoint) {
+        int k = Arrays.binarySearch(bounds, codePoint);
+        return k >= 0 ? k : -k - 2;
+    }
+
+    /**
+     * Checks one input.
+     * @param input The input.
+     * @return true if the DFA accepts the whole input.
+     */
+    public boolean matches(CharSequence input) {
+        int row = startRow;
+        int length = input.length();
+        for (int p = 0; p < length && row != 0; ) {
+            char c = input.charAt(p);
+            int k;
+            if (c < 256) {
+                k = latin1Class[c];
+                p++;
+            } else {
+                int codePoint = Character.codePointAt(input, p);
+                k = classOf(codePoint);
+                p += Character.charCount(codePoint);
+            }
+            row = next[row + k];
+        }
+        return accepting[row / classCount];
+    }
+
+    /**
+     * Checks a batch of inputs, in parallel if it has more than {@value #CHUNK} inputs.
+     * @param inputs The inputs.
+     * @return For each input, whether the DFA accepts it.
+     */
+    public boolean[] matchAll(List<? extends CharSequence> inputs) {
+        boolean[] results = new boolean[inputs.size()];
+        if (inputs.size() <= CHUNK) {
+            matchRange(inputs, 0, inputs.size(), results);
+        } else {
+            ForkJoinPool.commonPool().invoke(new MatchTask(inputs, 0, inputs.size(), results));
+        }
+        return results;
+    }
+
+    /**
+     * Checks a batch of inputs on the calling thread.
+     * @param inputs The inputs.
+     * @return For each input, whether the DFA accepts it.
+     */
+    public boolean[] matchAllSequential(List<? extends CharSequence> inputs) {
+        boolean[] results = new boolean[inputs.size()];
+        matchRange(inputs, 0, inputs.size(), results);
+        return results;
+    }
+
+    private final class MatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient List<? extends CharSequence> inputs;
+        private final int from;
+        private final int to;
+        private final boolean[] results;
+
+        MatchTask(List<? extends CharSequence> inputs, int from, int to, boolean[] results) {
+            this.inputs = inputs;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                matchRange(inputs, from, to, results);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MatchTask(inputs, from, middle, results), new MatchTask(inputs, middle, to, results));
+        }
+    }
+
+    /**
+     * Steps up to {@value #LANES} inputs at once; lane j holds input ids[j] at position positions[j].
+     */
+    private void matchRange(List<? extends CharSequence> inputs, int from, int to, boolean[] results) {
+        CharSequence[] texts = new CharSequence[LANES];
+        int[] ids = new int[LANES];
+        int[] rows = new int[LANES];
+        int[] positions = new int[LANES];
+        int nextInput = from;
+        int live = 0;
+        for (int j = 0; j < LANES; j++) {
+            ids[j] = -1;
+            if (nextInput < to) {
+                texts[j] = inputs.get(nextInput);
+                ids[j] = nextInput++;
+                rows[j] = startRow;
+                live++;
+            }
+        }
+        while (live > 0) {
+            for (int j = 0; j < LANES; j++) {
+                if (ids[j] < 0) {
+                    continue;
+                }
+                CharSequence text = texts[j];
+                int p = positions[j];
+                int row = rows[j];
+                if (p >= text.length() || row == 0) {
+                    results[ids[j]] = accepting[row / classCount];
+                    if (nextInput < to) {
+                        texts[j] = inputs.get(nextInput);
+                        ids[j] = nextInput++;
+                        rows[j] = startRow;
+                        positions[j] = 0;
+                    } else {
+                        ids[j] = -1;
+                        texts[j] = null;
+                        live--;
+                    }
+                    continue;
+                }
+                char c = text.charAt(p);
+                int k;
+                if (c < 256) {
+                    k = latin1Class[c];
+                    positions[j] = p + 1;
+                } else {
+                    int codePoint = Character.codePointAt(text, p);
+                    k = classOf(codePoint);
+                    positions[j] = p + Character.charCount(codePoint);
+                }
+                rows[j] = next[row + k];
+            }
+        }
+    }
+
+    /**
+     * Returns the number of character classes of the table.
+     * @return The class count.
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+}
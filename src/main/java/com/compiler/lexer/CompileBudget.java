@@ -0,0 +1,101 @@
+package com.compiler.lexer;
+
+import java.util.List;
+
+import com.compiler.lexer.nfa.NFA;
+
+/**
+ * CompileBudget
+ * -------------
+ * Limits on the subset construction of one DFA: its number of states, its approximate memory and the
+ * time spent building it. {@link NfaToDfaConverter#convertNfaToDfa(com.compiler.lexer.nfa.NFA, CompileBudget)}
+ * throws as soon as one limit is exceeded, so a pattern such as {@code (a|b)*a(a|b){20}}, whose DFA has
+ * millions of states, fails quickly instead of exhausting the heap. Memory is estimated from the
+ * sizes of the NFA state sets and transitions built so far, not measured.
+ *
+ * Every builder that determinizes user patterns takes a budget, {@link #DEFAULT} unless set: the
+ * {@link ConcurrentCompiler} falls back to a {@link com.compiler.lexer.dfa.LazyDfa}, while the
+ * {@link Lexer}, {@link com.compiler.lexer.search.RegexSet}, {@link com.compiler.lexer.search.RegexSearcher}
+ * and {@link Utf8Compiler}, which need a complete DFA, fail with a message naming the pattern.
+ *
+ * Example usage:
+ * <pre>
+ *     CompileBudget budget = new CompileBudget(100_000, 64L &lt;&lt; 20, 2_000_000_000L);
+ * </pre>
+ */
+public final class CompileBudget {
+    /** 100,000 states, 256 MB and 10 seconds. */
+    public static final CompileBudget DEFAULT = new CompileBudget(100_000, 256L << 20, 10_000_000_000L);
+    /** No limit. */
+    public static final CompileBudget UNLIMITED = new CompileBudget(Integer.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    // DFA states built by each estimate when naming the pattern behind an overrun.
+    private static final int PROBE_STATES = 1024;
+
+    /** Maximum number of DFA states. */
+    public final int maxStates;
+    /** Maximum estimated memory of the DFA, in bytes. */
+    public final long maxBytes;
+    /** Maximum construction time, in nanoseconds. */
+    public final long maxNanos;
+
+    /**
+     * Creates a budget.
+     * @param maxStates The maximum number of DFA states.
+     * @param maxBytes The maximum estimated memory of the DFA, in bytes.
+     * @param maxNanos The maximum construction time, in nanoseconds.
+     * @throws IllegalArgumentException if a limit is not positive.
+     */
+    public CompileBudget(int maxStates, long maxBytes, long maxNanos) {
+        if (maxStates <= 0 || maxBytes <= 0 || maxNanos <= 0) {
+            throw new IllegalArgumentException("Budget limits must be positive");
+        }
+        this.maxStates = maxStates;
+        this.maxBytes = maxBytes;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Checks the progress of a construction against the budget.
+     * @param states The number of DFA states built so far.
+     * @param bytes The estimated memory of the DFA so far.
+     * @param startNanos The {@link System#nanoTime()} at which the construction started.
+     * @throws IllegalStateException if a limit is exceeded; the message names the limit.
+     */
+    public void check(int states, long bytes, long startNanos) {
+        if (states > maxStates) {
+            throw new IllegalStateException("DFA state budget exceeded: more than " + maxStates + " states");
+        }
+        if (bytes > maxBytes) {
+            throw new IllegalStateException("DFA memory budget exceeded: more than " + maxBytes + " bytes");
+        }
+        if (maxNanos != Long.MAX_VALUE && System.nanoTime() - startNanos > maxNanos) {
+            throw new IllegalStateException("DFA time budget exceeded: more than " + maxNanos / 1_000_000 + " ms");
+        }
+    }
+
+    /**
+     * Explains an overrun of a DFA that combines several patterns, such as the DFA of a lexer, by
+     * naming the pattern whose own DFA is estimated ({@link NfaToDfaConverter#estimateStateCount}) to
+     * be the largest.
+     * @param kind What a pattern is, such as "Lexer rule".
+     * @param names The names of the patterns, as shown in the message.
+     * @param nfas The NFAs of the patterns, in the same order.
+     * @param overrun The exception thrown by the construction.
+     * @return The exception to throw instead, with the overrun as its cause.
+     */
+    public static IllegalStateException blame(String kind, List<String> names, List<NFA> nfas,
+            IllegalStateException overrun) {
+        int largest = 0;
+        long largestEstimate = -1;
+        for (int i = 0; i < nfas.size(); i++) {
+            long estimate = NfaToDfaConverter.estimateStateCount(nfas.get(i), PROBE_STATES);
+            if (estimate > largestEstimate) {
+                largest = i;
+                largestEstimate = estimate;
+            }
+        }
+        return new IllegalStateException(kind + " " + names.get(largest) + " (an estimated " + largestEstimate
+                + " DFA states on its own): " + overrun.getMessage(), overrun);
+    }
+}
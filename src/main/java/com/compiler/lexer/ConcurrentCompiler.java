@@ -0,0 +1,156 @@
+package com.compiler.lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.compiler.lexer.dfa.CompiledPattern;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.FrozenDfa;
+import com.compiler.lexer.dfa.LazyDfa;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.regex.RegexParser;
+import com.compiler.metrics.MetricsRegistry;
+
+/**
+ * ConcurrentCompiler
+ * ------------------
+ * Compiles many regular expressions in parallel on a fork-join pool. Each pattern goes through the
+ * whole pipeline (parse, subset construction, optionally minimization) on one worker; the stages keep
+ * no shared mutable state (DFA states are numbered per automaton and NFA state ids come from an atomic
+ * counter), so workers never contend. The results are normally {@link FrozenDfa} instances, which are
+ * immutable and can be shared by any number of threads without locking.
+ *
+ * Subset construction runs within a {@link CompileBudget}. A pattern whose DFA is estimated up front
+ * ({@link NfaToDfaConverter#estimateStateCount}) to exceed the state budget, or which exceeds any limit
+ * while it is built, is compiled to a {@link LazyDfa} instead, which builds only the states that inputs
+ * visit; {@link CompiledPattern#getFallbackReason()} then names the pattern and the limit.
+ *
+ * Example usage:
+ * <pre>
+ *     List&lt;CompiledPattern&gt; matchers = new ConcurrentCompiler().compileAll(patterns);
+ * </pre>
+ */
+public class ConcurrentCompiler {
+    // Patterns compiled by one task before the rest is split off.
+    private static final int BATCH = 4;
+    // DFA states built by the up-front size estimate.
+    private static final int PROBE_STATES = 1024;
+
+    private final ForkJoinPool pool;
+    private final boolean minimize;
+    private final CompileBudget budget;
+    private final MetricsRegistry metrics;
+
+    /**
+     * Creates a compiler on the common pool, without minimization and with the default budget.
+     */
+    public ConcurrentCompiler() {
+        this(ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * Creates a compiler with the default budget.
+     * @param pool The pool running the compilations.
+     * @param minimize true to minimize every DFA, which costs time quadratic in its size.
+     */
+    public ConcurrentCompiler(ForkJoinPool pool, boolean minimize) {
+        this(pool, minimize, CompileBudget.DEFAULT);
+    }
+
+    /**
+     * Creates a compiler.
+     * @param pool The pool running the compilations.
+     * @param minimize true to minimize every DFA, which costs time quadratic in its size.
+     * @param budget The limits of each subset construction; also the cache size of the lazy fallback.
+     */
+    public ConcurrentCompiler(ForkJoinPool pool, boolean minimize, CompileBudget budget) {
+        this(pool, minimize, budget, null);
+    }
+
+    /**
+     * Creates a compiler whose lazy fallbacks report their cache use to a registry.
+     * @param pool The pool running the compilations.
+     * @param minimize true to minimize every DFA, which costs time quadratic in its size.
+     * @param budget The limits of each subset construction; also the cache size of the lazy fallback.
+     * @param metrics The registry of the lazy fallbacks, or null.
+     */
+    public ConcurrentCompiler(ForkJoinPool pool, boolean minimize, CompileBudget budget, MetricsRegistry metrics) {
+        this.pool = pool;
+        this.minimize = minimize;
+        this.budget = budget;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Compiles one pattern on the calling thread.
+     * @param pattern The regular expression.
+     * @return The compiled automaton: a {@link FrozenDfa}, or a {@link LazyDfa} if the budget is exceeded.
+     * @throws IllegalArgumentException if the pattern is malformed.
+     */
+    public CompiledPattern compile(String pattern) {
+        NFA nfa = new RegexParser().parse(pattern);
+        long estimate = NfaToDfaConverter.estimateStateCount(nfa, PROBE_STATES);
+        if (estimate > budget.maxStates) {
+            return new LazyDfa(nfa, budget.maxStates, budget.maxBytes, "Pattern " + pattern + ": estimated "
+                    + estimate + " DFA states, more than the budget of " + budget.maxStates, metrics);
+        }
+        DFA dfa;
+        try {
+            dfa = NfaToDfaConverter.convertNfaToDfa(nfa, budget);
+        } catch (IllegalStateException e) {
+            return new LazyDfa(nfa, budget.maxStates, budget.maxBytes, "Pattern " + pattern + ": " + e.getMessage(),
+                    metrics);
+        }
+        if (minimize) {
+            dfa = DfaMinimizer.minimizeDfa(dfa, null);
+        }
+        return FrozenDfa.of(dfa);
+    }
+
+    /**
+     * Compiles patterns in parallel.
+     * @param patterns The regular expressions.
+     * @return The compiled automata, in the order of the patterns.
+     * @throws IllegalArgumentException if a pattern is malformed; the message names the pattern.
+     */
+    public List<CompiledPattern> compileAll(List<String> patterns) {
+        CompiledPattern[] results = new CompiledPattern[patterns.size()];
+        pool.invoke(new CompileTask(patterns, 0, patterns.size(), results));
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    private final class CompileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient List<String> patterns;
+        private final int from;
+        private final int to;
+        private final transient CompiledPattern[] results;
+
+        CompileTask(List<String> patterns, int from, int to, CompiledPattern[] results) {
+            this.patterns = patterns;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH) {
+                for (int i = from; i < to; i++) {
+                    try {
+                        results[i] = compile(patterns.get(i));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Pattern " + i + " (" + patterns.get(i) + "): "
+                                + e.getMessage(), e);
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new CompileTask(patterns, from, middle, results), new CompileTask(patterns, middle, to, results));
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.compiler.lexer;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.FrozenDfa;
+
+/**
+ * DfaEquivalence
+ * --------------
+ * Decides whether two DFAs recognize the same language, or whether one language is included in the
+ * other, without minimizing either automaton.
+ *
+ * Equivalence uses the Hopcroft-Karp algorithm: the states of both automata (plus one shared dead
+ * state standing for missing transitions) are the elements of a union-find structure. The start
+ * states are merged and, for each merged pair taken from a work stack, the pairs of successors on
+ * every segment between the interval bounds of the two states are merged in turn; a merge that joins
+ * a final and a non-final state proves the languages differ. Each merge removes a class, so at most
+ * n_a + n_b pairs are ever expanded, each in O(k) union-find lookups where k is the number of
+ * intervals per state: the check is nearly linear in the size of the two automata.
+ *
+ * Inclusion is not symmetric, so it cannot merge classes: it explores the reachable pairs of states
+ * instead, and fails on a pair whose first state is final and second is not. It visits at most
+ * n_a * n_b pairs, and usually far fewer.
+ *
+ * Example usage:
+ * <pre>
+ *     boolean same = DfaEquivalence.areEquivalent(compile("(a|b)*"), compile("(a*b*)*"));
+ * </pre>
+ */
+public final class DfaEquivalence {
+    private DfaEquivalence() {
+    }
+
+    /**
+     * Checks whether two DFAs accept the same language.
+     * @param a The first DFA.
+     * @param b The second DFA.
+     * @return true if every input is accepted by both or by neither.
+     */
+    public static boolean areEquivalent(DFA a, DFA b) {
+        return areEquivalent(FrozenDfa.of(a), FrozenDfa.of(b));
+    }
+
+    /**
+     * Checks whether two frozen DFAs accept the same language.
+     * @param a The first DFA.
+     * @param b The second DFA.
+     * @return true if every input is accepted by both or by neither.
+     */
+    public static boolean areEquivalent(FrozenDfa a, FrozenDfa b) {
+        int na = a.getStateCount();
+        int dead = na + b.getStateCount();
+        int[] parent = new int[dead + 1];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        int start = a.getStartState();
+        int otherStart = b.getStartState();
+        if (a.isFinal(start) != b.isFinal(otherStart)) {
+            return false;
+        }
+        parent[na + otherStart] = start;
+        int[] stack = new int[16];
+        stack[0] = start;
+        stack[1] = otherStart;
+        int top = 2;
+        int[] next = new int[0];
+        while (top > 0) {
+            int q = stack[--top];
+            int p = stack[--top];
+            next = ensureCapacity(next, a, p, b, q);
+            int count = successors(a, p, b, q, next);
+            for (int i = 0; i < count; i += 2) {
+                int sp = next[i];
+                int sq = next[i + 1];
+                int rootP = find(parent, sp < 0 ? dead : sp);
+                int rootQ = find(parent, sq < 0 ? dead : na + sq);
+                if (rootP == rootQ) {
+                    continue;
+                }
+                if (isFinal(a, sp) != isFinal(b, sq)) {
+                    return false;
+                }
+                parent[rootQ] = rootP;
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = sp;
+                stack[top++] = sq;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether every input accepted by one DFA is accepted by another.
+     * @param a The DFA of the smaller language.
+     * @param b The DFA of the larger language.
+     * @return true if L(a) is a subset of L(b).
+     */
+    public static boolean isIncluded(DFA a, DFA b) {
+        return isIncluded(FrozenDfa.of(a), FrozenDfa.of(b));
+    }
+
+    /**
+     * Checks whether every input accepted by one frozen DFA is accepted by another.
+     * @param a The DFA of the smaller language.
+     * @param b The DFA of the larger language.
+     * @return true if L(a) is a subset of L(b).
+     */
+    public static boolean isIncluded(FrozenDfa a, FrozenDfa b) {
+        Set<Long> visited = new HashSet<>();
+        int[] stack = new int[16];
+        int top = 0;
+        int[] next = {a.getStartState(), b.getStartState()};
+        int count = 2;
+        while (true) {
+            for (int i = 0; i < count; i += 2) {
+                int sp = next[i];
+                int sq = next[i + 1];
+                // The dead state of a accepts nothing, so it is included in anything.
+                if (sp < 0 || !visited.add(((long) sp << 32) | (sq & 0xFFFFFFFFL))) {
+                    continue;
+                }
+                if (a.isFinal(sp) && !isFinal(b, sq)) {
+                    return false;
+                }
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = sp;
+                stack[top++] = sq;
+            }
+            if (top == 0) {
+                return true;
+            }
+            int q = stack[--top];
+            int p = stack[--top];
+            next = ensureCapacity(next, a, p, b, q);
+            count = successors(a, p, b, q, next);
+        }
+    }
+
+    private static boolean isFinal(FrozenDfa dfa, int state) {
+        return state >= 0 && dfa.isFinal(state);
+    }
+
+    private static int intervalCount(FrozenDfa dfa, int state) {
+        return state < 0 ? 0 : dfa.getIntervalCount(state);
+    }
+
+    /**
+     * Returns an array large enough for the successor pairs of two states.
+     */
+    private static int[] ensureCapacity(int[] buffer, FrozenDfa a, int p, FrozenDfa b, int q) {
+        // Each interval bound starts at most one segment, and each segment yields one pair.
+        int needed = 2 * (2 * (intervalCount(a, p) + intervalCount(b, q)) + 1);
+        return buffer.length >= needed ? buffer : new int[needed];
+    }
+
+    /**
+     * Walks the interval transitions of two states (-1 for the dead state) in code point order and
+     * writes the pair of targets of each segment on which at least one state has a transition.
+     * @return The number of ints written, two per pair.
+     */
+    private static int successors(FrozenDfa a, int p, FrozenDfa b, int q, int[] out) {
+        int countA = intervalCount(a, p);
+        int countB = intervalCount(b, q);
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        int from = 0;
+        while (i < countA || j < countB) {
+            int lowA = i < countA ? Math.max(a.getIntervalLow(p, i), from) : Integer.MAX_VALUE;
+            int lowB = j < countB ? Math.max(b.getIntervalLow(q, j), from) : Integer.MAX_VALUE;
+            int start = Math.min(lowA, lowB);
+            boolean inA = lowA == start;
+            boolean inB = lowB == start;
+            // The segment ends where the covering interval ends or the other interval begins.
+            int end = Integer.MAX_VALUE;
+            if (inA) {
+                end = a.getIntervalHigh(p, i);
+            } else if (i < countA) {
+                end = lowA - 1;
+            }
+            if (inB) {
+                end = Math.min(end, b.getIntervalHigh(q, j));
+            } else if (j < countB) {
+                end = Math.min(end, lowB - 1);
+            }
+            out[n++] = inA ? a.getIntervalTarget(p, i) : -1;
+            out[n++] = inB ? b.getIntervalTarget(q, j) : -1;
+            from = end + 1;
+            if (inA && a.getIntervalHigh(p, i) < from) {
+                i++;
+            }
+            if (inB && b.getIntervalHigh(q, j) < from) {
+                j++;
+            }
+        }
+        return n;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
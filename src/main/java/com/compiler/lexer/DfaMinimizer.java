@@ -9,19 +9,30 @@
  * Main steps:
  *   1. Initialization: Mark pairs of states as distinguishable if one is final and the other is not.
  *   2. Iterative marking: Mark pairs as distinguishable if their transitions lead to distinguishable states,
- *      or if only one state has a transition for a given symbol.
+ *      or if only one state has a transition for a given symbol. Transitions are intervals, so the symbols
+ *      tried are one representative code point per segment between interval bounds of any state.
  *   3. Partitioning: Group equivalent states and build the minimized DFA.
  *
  * Helper methods are provided for partitioning, union-find operations, and pair representation.
  */
 package com.compiler.lexer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import com.compiler.jfr.MinimizeEvent;
 import com.compiler.lexer.dfa.DFA;
 import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.nfa.IntervalSet;
+import com.compiler.lexer.nfa.State;
 
 
 /**
@@ -34,30 +45,119 @@ public class DfaMinimizer {
     /**
      * Default constructor for DfaMinimizer.
      */
-        public DfaMinimizer() {
-            // TODO: Implement constructor if needed
-        }
+    public DfaMinimizer() {
+    }
 
     /**
      * Minimizes a given DFA using the table-filling algorithm.
      *
      * @param originalDfa The original DFA to be minimized.
-     * @param alphabet The set of input symbols.
+     * @param alphabet The set of input symbols; may be null, since the symbols are also taken from the
+     *                 transition intervals.
      * @return A minimized DFA equivalent to the original.
      */
     public static DFA minimizeDfa(DFA originalDfa, Set<Character> alphabet) {
-    // TODO: Implement minimizeDfa
-    /*
-     Pseudocode:
-     1. Collect and sort all DFA states
-     2. Initialize table of state pairs; mark pairs as distinguishable if one is final and the other is not
-     3. Iteratively mark pairs as distinguishable if their transitions lead to distinguishable states or only one has a transition
-     4. Partition states into equivalence classes (using union-find)
-     5. Create new minimized states for each partition
-     6. Reconstruct transitions for minimized states
-     7. Set start state and return minimized DFA
-    */
-    throw new UnsupportedOperationException("Not implemented");
+        MinimizeEvent event = new MinimizeEvent();
+        event.start();
+        // 1. Collect and sort all DFA states
+        List<DfaState> allStates = new ArrayList<>(originalDfa.allStates);
+        allStates.sort(Comparator.comparingInt(state -> state.id));
+        int[] symbols = representativeSymbols(allStates, alphabet);
+
+        // 2. Initialize table of state pairs; mark pairs as distinguishable if one is final and the other is not
+        Map<Pair, Boolean> table = new HashMap<>();
+        for (int i = 0; i < allStates.size(); i++) {
+            for (int j = i + 1; j < allStates.size(); j++) {
+                DfaState s1 = allStates.get(i);
+                DfaState s2 = allStates.get(j);
+                table.put(new Pair(s1, s2), s1.isFinal() != s2.isFinal());
+            }
+        }
+
+        // 3. Iteratively mark pairs as distinguishable if their transitions lead to distinguishable states or only one has a transition
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<Pair, Boolean> entry : table.entrySet()) {
+                if (entry.getValue()) {
+                    continue;
+                }
+                Pair pair = entry.getKey();
+                for (int symbol : symbols) {
+                    DfaState t1 = pair.s1.getTransition(symbol);
+                    DfaState t2 = pair.s2.getTransition(symbol);
+                    boolean distinguishable = (t1 == null) != (t2 == null)
+                            || (t1 != null && t1 != t2 && table.get(new Pair(t1, t2)));
+                    if (distinguishable) {
+                        entry.setValue(true);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+
+        // 4. Partition states into equivalence classes (using union-find)
+        List<Set<DfaState>> partitions = createPartitions(allStates, table);
+
+        // 5. Create new minimized states for each partition
+        Map<DfaState, DfaState> minimizedOf = new IdentityHashMap<>();
+        List<DfaState> minimizedStates = new ArrayList<>();
+        for (Set<DfaState> partition : partitions) {
+            Set<State> nfaStates = new HashSet<>();
+            boolean isFinal = false;
+            for (DfaState state : partition) {
+                nfaStates.addAll(state.getNfaStates());
+                isFinal |= state.isFinal();
+            }
+            DfaState minimized = new DfaState(minimizedStates.size(), nfaStates);
+            minimized.setFinal(isFinal);
+            minimizedStates.add(minimized);
+            for (DfaState state : partition) {
+                minimizedOf.put(state, minimized);
+            }
+        }
+
+        // 6. Reconstruct transitions for minimized states
+        for (Set<DfaState> partition : partitions) {
+            DfaState representative = partition.iterator().next();
+            DfaState minimized = minimizedOf.get(representative);
+            for (int i = 0; i < representative.getIntervalCount(); i++) {
+                minimized.addIntervalTransition(
+                        IntervalSet.range(representative.getIntervalLow(i), representative.getIntervalHigh(i)),
+                        minimizedOf.get(representative.getIntervalTarget(i)));
+            }
+        }
+
+        // 7. Set start state and return minimized DFA
+        if (event.shouldRecord()) {
+            event.record(originalDfa.allStates.size(), minimizedStates.size());
+        }
+        return new DFA(minimizedOf.get(originalDfa.startState), minimizedStates);
+    }
+
+    /**
+     * Returns one code point per segment delimited by the interval bounds of all states, plus the
+     * symbols of the alphabet. Two states that agree on these code points agree on every code point.
+     */
+    private static int[] representativeSymbols(List<DfaState> allStates, Set<Character> alphabet) {
+        Set<Integer> symbols = new HashSet<>();
+        if (alphabet != null) {
+            for (char c : alphabet) {
+                symbols.add((int) c);
+            }
+        }
+        for (DfaState state : allStates) {
+            for (int i = 0; i < state.getIntervalCount(); i++) {
+                symbols.add(state.getIntervalLow(i));
+                if (state.getIntervalHigh(i) < Character.MAX_CODE_POINT) {
+                    symbols.add(state.getIntervalHigh(i) + 1);
+                }
+            }
+        }
+        int[] result = symbols.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(result);
+        return result;
     }
 
     /**
@@ -68,15 +168,24 @@ public class DfaMinimizer {
      * @return List of partitions, each containing equivalent states.
      */
     private static List<Set<DfaState>> createPartitions(List<DfaState> allStates, Map<Pair, Boolean> table) {
-    // TODO: Implement createPartitions
-    /*
-     Pseudocode:
-     1. Initialize each state as its own parent
-     2. For each pair not marked as distinguishable, union the states
-     3. Group states by their root parent
-     4. Return list of partitions
-    */
-    throw new UnsupportedOperationException("Not implemented");
+        // 1. Initialize each state as its own parent
+        Map<DfaState, DfaState> parent = new IdentityHashMap<>();
+        for (DfaState state : allStates) {
+            parent.put(state, state);
+        }
+        // 2. For each pair not marked as distinguishable, union the states
+        for (Map.Entry<Pair, Boolean> entry : table.entrySet()) {
+            if (!entry.getValue()) {
+                union(parent, entry.getKey().s1, entry.getKey().s2);
+            }
+        }
+        // 3. Group states by their root parent, in state order
+        Map<Integer, Set<DfaState>> groups = new LinkedHashMap<>();
+        for (DfaState state : allStates) {
+            groups.computeIfAbsent(find(parent, state).id, root -> new HashSet<>()).add(state);
+        }
+        // 4. Return list of partitions
+        return new ArrayList<>(groups.values());
     }
 
     /**
@@ -88,14 +197,13 @@ public class DfaMinimizer {
      * @return Root parent of the state.
      */
     private static DfaState find(Map<DfaState, DfaState> parent, DfaState state) {
-    // TODO: Implement find
-    /*
-     Pseudocode:
-     If parent[state] == state, return state
-     Else, recursively find parent and apply path compression
-     Return parent[state]
-    */
-    throw new UnsupportedOperationException("Not implemented");
+        DfaState root = parent.get(state);
+        if (root == state) {
+            return state;
+        }
+        root = find(parent, root);
+        parent.put(state, root);
+        return root;
     }
 
     /**
@@ -106,13 +214,16 @@ public class DfaMinimizer {
      * @param s2 Second state.
      */
     private static void union(Map<DfaState, DfaState> parent, DfaState s1, DfaState s2) {
-    // TODO: Implement union
-    /*
-     Pseudocode:
-     Find roots of s1 and s2
-     If roots are different, set parent of one to the other
-    */
-    throw new UnsupportedOperationException("Not implemented");
+        DfaState root1 = find(parent, s1);
+        DfaState root2 = find(parent, s2);
+        if (root1 != root2) {
+            // Keep the lowest id as root so the start state's partition is stable.
+            if (root1.id < root2.id) {
+                parent.put(root2, root1);
+            } else {
+                parent.put(root1, root2);
+            }
+        }
     }
 
     /**
@@ -129,32 +240,27 @@ public class DfaMinimizer {
          * @param s2 Second state.
          */
         public Pair(DfaState s1, DfaState s2) {
-            // TODO: Implement Pair constructor
-            /*
-             Pseudocode:
-             Assign s1 and s2 so that s1.id <= s2.id
-            */
-            throw new UnsupportedOperationException("Not implemented");
+            if (s1.id <= s2.id) {
+                this.s1 = s1;
+                this.s2 = s2;
+            } else {
+                this.s1 = s2;
+                this.s2 = s1;
+            }
         }
 
         @Override
         public boolean equals(Object o) {
-            // TODO: Implement equals
-            /*
-             Pseudocode:
-             Return true if both s1 and s2 ids match
-            */
-            throw new UnsupportedOperationException("Not implemented");
+            if (!(o instanceof Pair)) {
+                return false;
+            }
+            Pair other = (Pair) o;
+            return s1.id == other.s1.id && s2.id == other.s2.id;
         }
 
         @Override
         public int hashCode() {
-            // TODO: Implement hashCode
-            /*
-             Pseudocode:
-             Return hash of s1.id and s2.id
-            */
-            throw new UnsupportedOperationException("Not implemented");
+            return 31 * s1.id + s2.id;
         }
     }
 }
@@ -1,7 +1,10 @@
 package com.compiler.lexer;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import com.compiler.lexer.dfa.DFA;
 import com.compiler.lexer.dfa.DfaState;
+import com.compiler.metrics.MetricsRegistry;
 
 /**
  * DfaSimulator
@@ -23,11 +26,23 @@ import com.compiler.lexer.dfa.DfaState;
  * Simulator for running input strings on a DFA.
  */
 public class DfaSimulator {
+    // Null unless metrics are enabled.
+    private LongAdder transitionCounter;
+
     /**
      * Default constructor for DfaSimulator.
      */
         public DfaSimulator() {
         }
+
+    /**
+     * Counts the transitions taken by every later simulation under
+     * {@link MetricsRegistry#DFA_TRANSITIONS}, once per call.
+     * @param registry The registry, or null to stop counting.
+     */
+    public void setMetrics(MetricsRegistry registry) {
+        this.transitionCounter = registry == null ? null : registry.counter(MetricsRegistry.DFA_TRANSITIONS);
+    }
     /**
      * Simulates the DFA on the given input string.
      * Starts at the DFA's start state and processes each character, following transitions.
@@ -41,17 +56,21 @@ public class DfaSimulator {
         // 1. Set currentState to DFA start state
         DfaState currentState = dfa.startState;
 
-        //2. For each character in input:
-        for (char c : input.toCharArray()) {
+        //2. For each character (code point) in input:
+        for (int i = 0; i < input.length(); ) {
+            int c = input.codePointAt(i);
+            i += Character.charCount(c);
             // - Get next state using transition for character
             currentState = currentState.getTransition(c);
 
             //- If no transition exists, return false
             if (currentState == null) {
+                count(i);
                 return false;
             }
 
         }
+        count(input.length());
 
         // After processing all characters, return true if currentState is final
         return currentState.isFinal();
@@ -67,4 +86,10 @@ public class DfaSimulator {
 
 
     }
-}
\ No newline at end of file
+
+    private void count(int transitions) {
+        if (transitionCounter != null) {
+            transitionCounter.add(transitions);
+        }
+    }
+}
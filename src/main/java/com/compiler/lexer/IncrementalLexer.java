@@ -0,0 +1,266 @@
+package com.compiler.lexer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IncrementalLexer
+ * ----------------
+ * Keeps the token stream of a text up to date across edits without rescanning the whole text.
+ *
+ * For every token the lexer remembers how far past its end the DFA had to look before deciding
+ * where the token ends. An edit at offset {@code o} can only change the tokens whose examined
+ * range reaches {@code o}; scanning restarts at the first such token and stops as soon as a new
+ * token ends exactly where an old token after the edit started, because the scanner is stateless
+ * at token boundaries and the rest of the text is unchanged.
+ *
+ * Tokens of ignored rules are kept in this stream (they are needed to resynchronize);
+ * use {@link #isIgnored(int)} to skip them.
+ */
+public class IncrementalLexer {
+    /**
+     * Describes which tokens an edit replaced: tokens [first, first + removed) of the old stream
+     * were replaced by tokens [first, first + inserted) of the new stream.
+     */
+    public static class TokenChange {
+        /** Index of the first replaced token. */
+        public final int first;
+        /** Number of old tokens removed. */
+        public final int removed;
+        /** Number of new tokens inserted. */
+        public final int inserted;
+
+        TokenChange(int first, int removed, int inserted) {
+            this.first = first;
+            this.removed = removed;
+            this.inserted = inserted;
+        }
+    }
+
+    private final Lexer lexer;
+    private final StringBuilder text;
+    // Token stream as parallel arrays: rule index, start offset, end offset, and lookahead past the end.
+    private int[] rules;
+    private int[] starts;
+    private int[] ends;
+    private int[] lookaheads;
+    private int count;
+    // Upper bound of every lookahead in the stream; only grows between full scans.
+    private int maxLookahead;
+
+    /**
+     * Constructs an incremental lexer over an empty text.
+     * @param lexer A built lexer.
+     */
+    public IncrementalLexer(Lexer lexer) {
+        this.lexer = lexer;
+        this.text = new StringBuilder();
+        this.rules = new int[16];
+        this.starts = new int[16];
+        this.ends = new int[16];
+        this.lookaheads = new int[16];
+    }
+
+    /**
+     * Replaces the whole text and scans it from the beginning.
+     * @param newText The new text.
+     */
+    public void reset(String newText) {
+        text.setLength(0);
+        text.append(newText);
+        count = 0;
+        maxLookahead = 0;
+        int[] match = new int[2];
+        int position = 0;
+        while (position < text.length()) {
+            position = scanToken(position, match, count);
+            count++;
+        }
+    }
+
+    /**
+     * Applies a text edit and rescans only the tokens it can affect.
+     *
+     * @param offset The offset where the edit starts.
+     * @param removedLength The number of characters removed at the offset.
+     * @param insertedText The text inserted at the offset.
+     * @return The replaced token window.
+     * @throws IllegalArgumentException if the edit is outside the text.
+     */
+    public TokenChange applyEdit(int offset, int removedLength, String insertedText) {
+        if (offset < 0 || removedLength < 0 || offset + removedLength > text.length()) {
+            throw new IllegalArgumentException("Edit out of bounds: offset " + offset + ", length " + removedLength);
+        }
+        int delta = insertedText.length() - removedLength;
+        int editEndOld = offset + removedLength;
+        int editEndNew = offset + insertedText.length();
+
+        // First token whose examined range reaches the edit.
+        int first = firstTokenEndingAfter(offset - maxLookahead);
+        while (first < count && ends[first] + lookaheads[first] <= offset) {
+            first++;
+        }
+        int restart = first < count ? starts[first] : text.length();
+        text.replace(offset, editEndOld, insertedText);
+
+        // Rescan into scratch arrays until a new token boundary meets an old one past the edit.
+        int oldSync = first;
+        int[] match = new int[2];
+        int[] newRules = new int[8];
+        int[] newEnds = new int[8];
+        int[] newLookaheads = new int[8];
+        int scanned = 0;
+        int position = restart;
+        while (position < text.length()) {
+            int rule = lexer.scan(text, position, match);
+            int end = rule < 0 ? position + 1 : match[0];
+            if (scanned == newRules.length) {
+                newRules = Arrays.copyOf(newRules, scanned * 2);
+                newEnds = Arrays.copyOf(newEnds, scanned * 2);
+                newLookaheads = Arrays.copyOf(newLookaheads, scanned * 2);
+            }
+            newRules[scanned] = rule;
+            newEnds[scanned] = end;
+            newLookaheads[scanned] = Math.max(0, match[1] - end);
+            scanned++;
+            position = end;
+            if (end >= editEndNew) {
+                while (oldSync < count && starts[oldSync] + delta < end) {
+                    oldSync++;
+                }
+                if (oldSync < count && starts[oldSync] >= editEndOld && starts[oldSync] + delta == end) {
+                    break;
+                }
+            }
+        }
+        if (position >= text.length()) {
+            oldSync = count;
+        }
+
+        // Splice the new tokens in and shift the tokens after them.
+        int removed = oldSync - first;
+        int newCount = count - removed + scanned;
+        ensureCapacity(newCount);
+        int tail = count - oldSync;
+        System.arraycopy(rules, oldSync, rules, first + scanned, tail);
+        System.arraycopy(starts, oldSync, starts, first + scanned, tail);
+        System.arraycopy(ends, oldSync, ends, first + scanned, tail);
+        System.arraycopy(lookaheads, oldSync, lookaheads, first + scanned, tail);
+        int start = restart;
+        for (int i = 0; i < scanned; i++) {
+            rules[first + i] = newRules[i];
+            starts[first + i] = start;
+            ends[first + i] = newEnds[i];
+            lookaheads[first + i] = newLookaheads[i];
+            maxLookahead = Math.max(maxLookahead, newLookaheads[i]);
+            start = newEnds[i];
+        }
+        for (int i = first + scanned; i < newCount; i++) {
+            starts[i] += delta;
+            ends[i] += delta;
+        }
+        count = newCount;
+        return new TokenChange(first, removed, scanned);
+    }
+
+    /**
+     * Scans one token at a position and stores it at an index of the stream.
+     * @return The end of the token.
+     */
+    private int scanToken(int position, int[] match, int index) {
+        int rule = lexer.scan(text, position, match);
+        int end = rule < 0 ? position + 1 : match[0];
+        ensureCapacity(index + 1);
+        rules[index] = rule;
+        starts[index] = position;
+        ends[index] = end;
+        lookaheads[index] = Math.max(0, match[1] - end);
+        maxLookahead = Math.max(maxLookahead, lookaheads[index]);
+        return end;
+    }
+
+    /**
+     * Binary search for the first token whose end is greater than a position.
+     */
+    private int firstTokenEndingAfter(int position) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > rules.length) {
+            int size = Math.max(capacity, rules.length * 2);
+            rules = Arrays.copyOf(rules, size);
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            lookaheads = Arrays.copyOf(lookaheads, size);
+        }
+    }
+
+    /**
+     * Returns the number of tokens in the stream, including ignored ones.
+     * @return The token count.
+     */
+    public int getTokenCount() {
+        return count;
+    }
+
+    /**
+     * Returns the type of a token.
+     * @param index The token index.
+     * @return The token type.
+     */
+    public String getType(int index) {
+        return lexer.typeOf(rules[index]);
+    }
+
+    /**
+     * Checks whether a token belongs to an ignored rule.
+     * @param index The token index.
+     * @return true if the token should be skipped by the parser.
+     */
+    public boolean isIgnored(int index) {
+        return rules[index] >= 0 && lexer.isIgnored(lexer.typeOf(rules[index]));
+    }
+
+    /**
+     * Returns a token of the stream.
+     * @param index The token index.
+     * @return The token with its current offset.
+     */
+    public Token getToken(int index) {
+        return new Token(getType(index), text.substring(starts[index], ends[index]), starts[index]);
+    }
+
+    /**
+     * Returns the tokens of the stream, without the ignored ones.
+     * @return The tokens in input order.
+     */
+    public List<Token> getTokens() {
+        List<Token> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (!isIgnored(i)) {
+                tokens.add(getToken(i));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the current text.
+     * @return The text.
+     */
+    public String getText() {
+        return text.toString();
+    }
+}
@@ -0,0 +1,359 @@
+package com.compiler.lexer;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.compiler.lexer.dfa.ByteDfa;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.regex.RegexParser;
+import com.compiler.metrics.MetricsRegistry;
+
+/**
+ * Lexer
+ * -----
+ * A table-driven scanner built from a list of token rules (token type + regular expression).
+ * All rules are combined into a single NFA with a fresh start state, which is converted into one DFA.
+ * Tokens are recognized by maximal munch; when two rules match the same longest lexeme, the rule
+ * added first wins. Characters that no rule can match produce a one-character {@link #ERROR} token.
+ * UTF-8 input can also be scanned as raw bytes with {@link #tokenize(byte[])}, which runs a byte-level
+ * DFA compiled from the same rules. DFA states that loop on themselves for all but a few chars are
+ * accelerated: comment and string bodies are skipped in bulk, while identifiers and other tokens
+ * whose states leave on many chars are scanned one char at a time.
+ *
+ * Both DFAs are built within a {@link CompileBudget}, so that a rule whose DFA explodes, such as
+ * {@code (a|b)*a(a|b){20}}, fails the build with an error naming it instead of exhausting the heap.
+ *
+ * Example usage:
+ * <pre>
+ *     Lexer lexer = new Lexer();
+ *     lexer.addRule("id", "(a|b|c)+");
+ *     lexer.addIgnoredRule("ws", " +");
+ *     lexer.build();
+ *     List&lt;Token&gt; tokens = lexer.tokenize("ab c");
+ * </pre>
+ */
+public class Lexer {
+    /**
+     * Token type used for characters that do not start any token.
+     */
+    public static final String ERROR = "<error>";
+
+    private final List<String> types;
+    private final List<String> regexes;
+    private final Set<String> ignoredTypes;
+    private DFA dfa;
+    private Map<DfaState, Integer> acceptingRule;
+    // Kept after build() until the byte DFA is first needed; only read and cleared under the lock of
+    // this lexer, which may be shared by threads scanning bytes.
+    private NFA combinedNfa;
+    private Map<State, Integer> ruleOfEndState;
+    private volatile ByteDfa byteDfa;
+    private boolean accelerationEnabled = true;
+    private CompileBudget budget = CompileBudget.DEFAULT;
+    // Null unless metrics are enabled.
+    private LongAdder tokenCounter;
+    private LongAdder charCounter;
+    private LongAdder byteCounter;
+    private LongAdder transitionCounter;
+
+    /**
+     * Constructs a lexer with no rules.
+     */
+    public Lexer() {
+        this.types = new ArrayList<>();
+        this.regexes = new ArrayList<>();
+        this.ignoredTypes = new HashSet<>();
+    }
+
+    /**
+     * Adds a token rule. Rules added first have priority on ties.
+     * @param type The token type produced by the rule.
+     * @param regex The regular expression of the rule.
+     */
+    public void addRule(String type, String regex) {
+        types.add(type);
+        regexes.add(regex);
+    }
+
+    /**
+     * Adds a rule whose tokens are dropped from the token stream (e.g. whitespace or comments).
+     * @param type The token type produced by the rule.
+     * @param regex The regular expression of the rule.
+     */
+    public void addIgnoredRule(String type, String regex) {
+        addRule(type, regex);
+        ignoredTypes.add(type);
+    }
+
+    /**
+     * Enables or disables the bulk skipping of self-looping DFA states; tokens are the same either way.
+     * @param enabled Whether to accelerate self-looping states (the default).
+     */
+    public void setAccelerationEnabled(boolean enabled) {
+        this.accelerationEnabled = enabled;
+    }
+
+    /**
+     * Sets the limits of the subset constructions of {@link #build()} and of the byte DFA.
+     * @param budget The budget, {@link CompileBudget#DEFAULT} unless set.
+     */
+    public void setCompileBudget(CompileBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Counts the tokens, input and DFA transitions of every later tokenize call in a registry, under
+     * {@link MetricsRegistry#LEXER_TOKENS}, {@link MetricsRegistry#LEXER_CHARS} or
+     * {@link MetricsRegistry#LEXER_BYTES}, and {@link MetricsRegistry#DFA_TRANSITIONS}. The counters
+     * are updated once per call.
+     * @param registry The registry, or null to stop counting.
+     */
+    public void setMetrics(MetricsRegistry registry) {
+        this.tokenCounter = registry == null ? null : registry.counter(MetricsRegistry.LEXER_TOKENS);
+        this.charCounter = registry == null ? null : registry.counter(MetricsRegistry.LEXER_CHARS);
+        this.byteCounter = registry == null ? null : registry.counter(MetricsRegistry.LEXER_BYTES);
+        this.transitionCounter = registry == null ? null : registry.counter(MetricsRegistry.DFA_TRANSITIONS);
+    }
+
+    /**
+     * Compiles the rules into a single DFA.
+     * @throws IllegalStateException if no rule was added, or if the DFA exceeds the compile budget; the
+     *         message then names the rule whose own DFA is estimated to be the largest.
+     */
+    public void build() {
+        if (types.isEmpty()) {
+            throw new IllegalStateException("Lexer has no rules");
+        }
+        RegexParser parser = new RegexParser();
+        State start = new State();
+        Map<State, Integer> ruleOfEndState = new IdentityHashMap<>();
+        List<NFA> nfas = new ArrayList<>();
+        for (int i = 0; i < regexes.size(); i++) {
+            NFA nfa = parser.parse(regexes.get(i));
+            nfa.endState.isFinal = true;
+            start.addTransition(null, nfa.startState);
+            ruleOfEndState.put(nfa.endState, i);
+            nfas.add(nfa);
+        }
+        NFA combined = new NFA(start, null);
+        try {
+            dfa = NfaToDfaConverter.convertNfaToDfa(combined, budget);
+        } catch (IllegalStateException e) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < types.size(); i++) {
+                names.add(types.get(i) + " = " + regexes.get(i));
+            }
+            throw CompileBudget.blame("Lexer rule", names, nfas, e);
+        }
+        acceptingRule = acceptingRules(dfa, ruleOfEndState);
+        synchronized (this) {
+            combinedNfa = combined;
+            this.ruleOfEndState = ruleOfEndState;
+            byteDfa = null;
+        }
+    }
+
+    /**
+     * Maps each accepting DFA state to the first rule whose end state it contains.
+     */
+    private static Map<DfaState, Integer> acceptingRules(DFA dfa, Map<State, Integer> ruleOfEndState) {
+        Map<DfaState, Integer> acceptingRule = new IdentityHashMap<>();
+        for (DfaState state : dfa.allStates) {
+            int best = -1;
+            for (State nfaState : state.getNfaStates()) {
+                Integer rule = ruleOfEndState.get(nfaState);
+                if (rule != null && (best < 0 || rule < best)) {
+                    best = rule;
+                }
+            }
+            if (best >= 0) {
+                acceptingRule.put(state, best);
+            }
+        }
+        return acceptingRule;
+    }
+
+    /**
+     * Returns the UTF-8 byte DFA of the rules, compiling it on first use. Threads that need it at the
+     * same time wait for a single compilation.
+     */
+    private ByteDfa byteDfa() {
+        ByteDfa automaton = byteDfa;
+        if (automaton != null) {
+            return automaton;
+        }
+        synchronized (this) {
+            if (dfa == null) {
+                throw new IllegalStateException("Lexer has not been built");
+            }
+            if (byteDfa == null) {
+                byteDfa = compileByteDfa();
+                combinedNfa = null;
+                ruleOfEndState = null;
+            }
+            return byteDfa;
+        }
+    }
+
+    private ByteDfa compileByteDfa() {
+        Map<State, State> copies = new IdentityHashMap<>();
+        NFA byteNfa = Utf8Compiler.toByteNfa(combinedNfa, copies);
+        Map<State, Integer> byteRules = new IdentityHashMap<>();
+        for (Map.Entry<State, Integer> entry : ruleOfEndState.entrySet()) {
+            byteRules.put(copies.get(entry.getKey()), entry.getValue());
+        }
+        DFA dfaOverBytes;
+        try {
+            dfaOverBytes = NfaToDfaConverter.convertNfaToDfa(byteNfa, budget);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("UTF-8 byte DFA of the lexer: " + e.getMessage(), e);
+        }
+        return new ByteDfa(dfaOverBytes, acceptingRules(dfaOverBytes, byteRules));
+    }
+
+    /**
+     * Splits an input string into tokens, dropping the tokens of ignored rules.
+     * @param input The text to scan.
+     * @return The tokens in input order.
+     */
+    public List<Token> tokenize(String input) {
+        List<Token> tokens = new ArrayList<>();
+        int[] match = new int[2];
+        int position = 0;
+        int count = 0;
+        long transitions = 0;
+        while (position < input.length()) {
+            int rule = scan(input, position, match);
+            String type = rule < 0 ? ERROR : types.get(rule);
+            int end = rule < 0 ? position + 1 : match[0];
+            if (!ignoredTypes.contains(type)) {
+                tokens.add(new Token(type, input.substring(position, end), position));
+            }
+            count++;
+            transitions += Math.min(match[1], input.length()) - position;
+            position = end;
+        }
+        if (tokenCounter != null) {
+            tokenCounter.add(count);
+            charCounter.add(input.length());
+            transitionCounter.add(transitions);
+        }
+        return tokens;
+    }
+
+    /**
+     * Splits UTF-8 encoded input into tokens without decoding it first; only the lexeme of each
+     * token is decoded. Token offsets are byte offsets. A byte that no rule can match, including a
+     * byte of a malformed UTF-8 sequence, produces a one-byte {@link #ERROR} token.
+     * @param input The UTF-8 bytes to scan.
+     * @return The tokens in input order.
+     */
+    public List<Token> tokenize(byte[] input) {
+        return tokenize(ByteBuffer.wrap(input));
+    }
+
+    /**
+     * Splits the UTF-8 bytes of a buffer, from its position to its limit, into tokens. The buffer
+     * position is not changed; token offsets are absolute buffer indexes.
+     * @param input The UTF-8 bytes to scan.
+     * @return The tokens in input order.
+     */
+    public List<Token> tokenize(ByteBuffer input) {
+        ByteDfa automaton = byteDfa();
+        List<Token> tokens = new ArrayList<>();
+        int[] match = new int[2];
+        int position = input.position();
+        int count = 0;
+        long transitions = 0;
+        while (position < input.limit()) {
+            int rule = automaton.longestMatch(input, position, match);
+            String type = rule < 0 ? ERROR : types.get(rule);
+            int end = rule < 0 ? position + 1 : match[0];
+            if (!ignoredTypes.contains(type)) {
+                byte[] lexeme = new byte[end - position];
+                input.get(position, lexeme);
+                tokens.add(new Token(type, new String(lexeme, StandardCharsets.UTF_8), position));
+            }
+            count++;
+            transitions += Math.min(match[1], input.limit()) - position;
+            position = end;
+        }
+        if (tokenCounter != null) {
+            tokenCounter.add(count);
+            byteCounter.add(input.limit() - input.position());
+            transitionCounter.add(transitions);
+        }
+        return tokens;
+    }
+
+    /**
+     * Recognizes the longest non-empty token starting at a position.
+     *
+     * @param input The text to scan.
+     * @param start The position where the token starts.
+     * @param match Output array: match[0] is the end of the token and match[1] the position just past
+     *              the last character examined, or input.length() + 1 if the scan reached the end of the input.
+     * @return The index of the matching rule, or -1 if no rule matches.
+     */
+    int scan(CharSequence input, int start, int[] match) {
+        if (dfa == null) {
+            throw new IllegalStateException("Lexer has not been built");
+        }
+        DfaState state = dfa.startState;
+        int rule = -1;
+        int end = start;
+        int position = start;
+        int length = input.length();
+        while (true) {
+            if (position == length) {
+                position = length + 1;
+                break;
+            }
+            int c = Character.codePointAt(input, position);
+            state = state.getTransition(c);
+            position += Character.charCount(c);
+            if (state == null || state.getNfaStates().isEmpty()) {
+                break;
+            }
+            Integer accepted = acceptingRule.get(state);
+            if (accelerationEnabled && state.getEscapeChars() != null) {
+                position = state.skipSelfLoop(input, position);
+            }
+            if (accepted != null) {
+                rule = accepted;
+                end = position;
+            }
+        }
+        match[0] = end;
+        match[1] = position;
+        return rule;
+    }
+
+    /**
+     * Returns the token type of a rule.
+     * @param rule The rule index.
+     * @return The token type.
+     */
+    String typeOf(int rule) {
+        return rule < 0 ? ERROR : types.get(rule);
+    }
+
+    /**
+     * Checks whether tokens of a type are dropped from the token stream.
+     * @param type The token type.
+     * @return true if the type belongs to an ignored rule.
+     */
+    public boolean isIgnored(String type) {
+        return ignoredTypes.contains(type);
+    }
+}
@@ -1,10 +1,10 @@
 package com.compiler.lexer;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.compiler.lexer.nfa.CompactNfa;
 import com.compiler.lexer.nfa.NFA;
-import com.compiler.lexer.nfa.State;
-import com.compiler.lexer.nfa.Transition;
+import com.compiler.metrics.MetricsRegistry;
 
 
 
@@ -21,19 +21,32 @@ import com.compiler.lexer.nfa.Transition;
  *   and include all states reachable via ε-transitions from those states.
  * - After processing the input, check if any of the current states is a final (accepting) state.
  *
- * The class also provides a helper method to compute the ε-closure of a given state, which is the set of all states
- * reachable from the given state using only ε-transitions.
+ * The NFA is first frozen into a {@link CompactNfa}, whose ε-closure helper adds all states reachable using only
+ * ε-transitions. For an NFA marked {@link NFA#epsilonFree}, such as a Glushkov automaton, closures are skipped.
+ * {@link #simulate(NFA, String)} freezes the NFA on every call; callers that run one NFA on many inputs should
+ * freeze it once with {@link CompactNfa#of(NFA)} and call {@link #simulate(CompactNfa, String)}.
  */
 /**
  * Simulator for running input strings on an NFA.
  */
 public class NfaSimulator {
+    // Null unless metrics are enabled.
+    private LongAdder stepCounter;
+
     /**
      * Default constructor for NfaSimulator.
      */
-        public NfaSimulator() {
-            // TODO: Implement constructor if needed
-        }
+    public NfaSimulator() {
+    }
+
+    /**
+     * Counts the input processed by every later simulation under {@link MetricsRegistry#NFA_STEPS},
+     * once per call.
+     * @param registry The registry, or null to stop counting.
+     */
+    public void setMetrics(MetricsRegistry registry) {
+        this.stepCounter = registry == null ? null : registry.counter(MetricsRegistry.NFA_STEPS);
+    }
 
     /**
      * Simulates the NFA on the given input string.
@@ -45,76 +58,67 @@ public class NfaSimulator {
      * @return True if the input is accepted by the NFA, false otherwise.
      */
     public boolean simulate(NFA nfa, String input) {
-        // TODO: Implement simulate
-        /*
-         Pseudocode:
-         1. Initialize currentStates with epsilon-closure of NFA start state
-         2. For each character in input:
-              - For each state in currentStates:
-                  - For each transition:
-                      - If transition symbol matches character:
-                          - Add epsilon-closure of destination state to nextStates
-              - Set currentStates to nextStates
-         3. After input, if any state in currentStates is final, return true
-         4. Otherwise, return false
-        */
+        return simulate(CompactNfa.of(nfa), input);
+    }
+
+    /**
+     * Simulates a frozen NFA on the given input string. The current and next state sets are two
+     * preallocated arrays with a membership mark per state, so no memory is allocated per character.
+     *
+     * @param nfa The NFA to simulate.
+     * @param input The input string to test.
+     * @return True if the input is accepted by the NFA, false otherwise.
+     */
+    public boolean simulate(CompactNfa nfa, String input) {
+        int[] currentStates = new int[nfa.getStateCount()];
+        int[] nextStates = new int[nfa.getStateCount()];
+        int[] marks = new int[nfa.getStateCount()];
+        int mark = 1;
 
         //1. Initialize currentStates with epsilon-closure of NFA start state
-        Set<State> currentStates = new HashSet<>();
-        addEpsilonClosure(nfa.getStartState(), currentStates);
+        currentStates[0] = 0;
+        marks[0] = mark;
+        int currentSize = nfa.closure(currentStates, 1, marks, mark);
 
-        //2. For each character in input:
-        for (char c : input.toCharArray()) {
-            Set<State> nextStates = new HashSet<>();
+        //2. For each character (code point) in input:
+        int i = 0;
+        while (i < input.length() && currentSize > 0) {
+            int c = input.codePointAt(i);
+            i += Character.charCount(c);
+            mark++;
+            int nextSize = 0;
 
            // - For each state in currentStates:
-            for (State state : currentStates) {
+            for (int j = 0; j < currentSize; j++) {
+                int state = currentStates[j];
 
                 // For each transition (state) that matches the current character:
-                // - Add epsilon-closure of destination state to nextStates
-                for (State t : state.getTransitions(c)) {
-                    addEpsilonClosure(t, nextStates);
+                for (int e = nfa.edgeStart(state); e < nfa.edgeEnd(state); e++) {
+                    int target = nfa.getTarget(e);
+                    if (marks[target] != mark && nfa.matches(e, c)) {
+                        marks[target] = mark;
+                        nextStates[nextSize++] = target;
+                    }
                 }
             }
+            // - Add epsilon-closure of destination states to nextStates
+            nextSize = nfa.closure(nextStates, nextSize, marks, mark);
             // - Set currentStates to nextStates
+            int[] swap = currentStates;
             currentStates = nextStates;
+            nextStates = swap;
+            currentSize = nextSize;
+        }
+        if (stepCounter != null) {
+            stepCounter.add(i);
         }
 
         // 3/ 4.After processing all input characters, check if any current state is final
-        for (State state : currentStates) {
-            if (state.isFinal) {
+        for (int j = 0; j < currentSize; j++) {
+            if (nfa.isFinal(currentStates[j])) {
                 return true;
             }
         }
         return false;
     }
-
-    /**
-     * Computes the epsilon-closure: all states reachable from 'start' using only epsilon (null) transitions.
-     *
-     * @param start The starting state.
-     * @param closureSet The set to accumulate reachable states.
-     */
-    private void addEpsilonClosure(State start, Set<State> closureSet) {
-        // TODO: Implement addEpsilonClosure
-        /*
-         Pseudocode:
-         If start not in closureSet:
-             - Add start to closureSet
-             - For each transition in start:
-                 - If transition symbol is null:
-                     - Recursively add epsilon-closure of destination state
-        */
-        //  If start not in closureSet:
-        if (!closureSet.contains(start)) {
-            // - Add start to closureSet
-            closureSet.add(start);
-
-            //- For each state to reached with epsilon-transition of start:
-            for (State t : start.getEpsilonTransitions()) {
-                     //- Recursively add epsilon-closure of destination state
-                addEpsilonClosure(t, closureSet);
-            }
-        }
-    }
 }
\ No newline at end of file
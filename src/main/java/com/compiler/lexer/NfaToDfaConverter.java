@@ -1,15 +1,33 @@
 package com.compiler.lexer;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
  
+import com.compiler.jfr.DeterminizeEvent;
 import com.compiler.lexer.dfa.DFA;
 import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.dfa.TaggedDfa;
+import com.compiler.lexer.nfa.CompactNfa;
+import com.compiler.lexer.nfa.IntervalSet;
 import com.compiler.lexer.nfa.NFA;
 import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.nfa.Transition;
 
 /**
  * NfaToDfaConverter
@@ -48,10 +66,12 @@ public class NfaToDfaConverter {
 		 3. Mark DFA states as final if any NFA state in their set is final
 		 4. Return DFA with start state and all DFA states
 		*/
+		DeterminizeEvent event = new DeterminizeEvent();
+		event.start();
 		//1. Create initial DFA state from epsilon-closure of NFA start state
 		State startStateNFA = nfa.startState;
-		Set<State> startClosure = epsilonClosure(Set.of(startStateNFA));
-		DfaState startStateDFA = new DfaState(startClosure);
+		Set<State> startClosure = closure(Set.of(startStateNFA), nfa.epsilonFree);
+		DfaState startStateDFA = new DfaState(0, startClosure);
 
 		/**
 		 *  2. While there are unmarked DFA states:
@@ -63,20 +83,20 @@ public class NfaToDfaConverter {
 		List<DfaState> dfaStates = new ArrayList<>(); // to final DFA 
 		dfaStates.add(startStateDFA);
 
-		List<DfaState> unmarkedStates = new ArrayList<>();
+		Deque<DfaState> unmarkedStates = new ArrayDeque<>();
 		unmarkedStates.add(startStateDFA);
 
 		while (!unmarkedStates.isEmpty()) {
-			DfaState currentDFAState = unmarkedStates.remove(0);
+			DfaState currentDFAState = unmarkedStates.poll();
 			// For each symbol in alphabet:
 			for (char symbol : alphabet) {
 				// Compute move and epsilon-closure for current DFA state
 				Set<State> movedStates = move(currentDFAState.getNfaStates(), symbol);
-				Set<State> targetClosure = epsilonClosure(movedStates);
+				Set<State> targetClosure = closure(movedStates, nfa.epsilonFree);
 				// If target set is new, create new DFA state and add to list/queue
 				DfaState targetDFAState = findDfaState(dfaStates, targetClosure);
 				if (targetDFAState == null) {
-					targetDFAState = new DfaState(targetClosure);
+					targetDFAState = new DfaState(dfaStates.size(), targetClosure);
 					dfaStates.add(targetDFAState);
 					unmarkedStates.add(targetDFAState);
 				}
@@ -97,9 +117,870 @@ public class NfaToDfaConverter {
 		}
 
 		// 4. Return DFA with start state and all DFA states
+		if (event.shouldRecord()) {
+			event.record(CompactNfa.of(nfa).getStateCount(), dfaStates.size());
+		}
 		return new DFA(startStateDFA, dfaStates);
 	}
 
+	/**
+	 * Converts an NFA with interval-labelled transitions to a DFA, without an explicit alphabet.
+	 * For each DFA state, the bounds of all outgoing labels split the code points into segments on which
+	 * every NFA transition either always or never applies; each segment is moved once and the resulting
+	 * DFA transitions are interval ranges, so [a-z] costs one move instead of 26.
+	 * No dead state is created: a code point without a transition has no target.
+	 * The NFA is walked in its frozen {@link CompactNfa} form: subsets are sorted arrays of state
+	 * numbers, and moves and closures reuse two scratch arrays instead of allocating sets.
+	 *
+	 * @param nfa The input NFA
+	 * @return The resulting DFA
+	 */
+	public static DFA convertNfaToDfa(NFA nfa) {
+		return convertNfaToDfa(nfa, CompileBudget.UNLIMITED);
+	}
+
+	// Approximate sizes used for the memory budget: a DFA state with its transition arrays, one NFA
+	// state of its set (HashSet entry and sorted array slot), and one interval transition.
+	private static final long STATE_BYTES = 160;
+	private static final long SET_ENTRY_BYTES = 44;
+	private static final long TRANSITION_BYTES = 16;
+
+	/**
+	 * Converts an NFA to a DFA like {@link #convertNfaToDfa(NFA)}, within a budget. The budget is
+	 * checked after each DFA state is expanded, so construction stops soon after a limit is crossed.
+	 *
+	 * @param nfa The input NFA
+	 * @param budget The limits on states, estimated memory and time.
+	 * @return The resulting DFA
+	 * @throws IllegalStateException if the budget is exceeded.
+	 */
+	public static DFA convertNfaToDfa(NFA nfa, CompileBudget budget) {
+		DeterminizeEvent event = new DeterminizeEvent();
+		event.start();
+		long startNanos = System.nanoTime();
+		List<State> nfaStates = new ArrayList<>();
+		CompactNfa compact = CompactNfa.of(nfa, nfaStates);
+		Scratch scratch = new Scratch(compact.getStateCount());
+		StateSet startClosure = scratch.startClosure(compact);
+		DfaState startStateDFA = newDfaState(0, startClosure, compact, nfaStates);
+		List<DfaState> dfaStates = new ArrayList<>();
+		dfaStates.add(startStateDFA);
+		Map<StateSet, DfaState> statesBySet = new HashMap<>();
+		statesBySet.put(startClosure, startStateDFA);
+		Deque<StateSet> unmarkedStates = new ArrayDeque<>();
+		unmarkedStates.add(startClosure);
+		long bytes = STATE_BYTES + SET_ENTRY_BYTES * startClosure.states.length;
+
+		while (!unmarkedStates.isEmpty()) {
+			StateSet current = unmarkedStates.poll();
+			DfaState currentDFAState = statesBySet.get(current);
+			Successors successors = expand(compact, current, scratch);
+			for (int j = 0; j < successors.count; j++) {
+				StateSet targetClosure = successors.targets[j];
+				DfaState targetDFAState = statesBySet.get(targetClosure);
+				if (targetDFAState == null) {
+					targetDFAState = newDfaState(dfaStates.size(), targetClosure, compact, nfaStates);
+					statesBySet.put(targetClosure, targetDFAState);
+					dfaStates.add(targetDFAState);
+					unmarkedStates.add(targetClosure);
+					bytes += STATE_BYTES + SET_ENTRY_BYTES * targetClosure.states.length;
+				}
+				currentDFAState.addIntervalTransition(
+						IntervalSet.range(successors.lows[j], successors.highs[j]), targetDFAState);
+			}
+			bytes += TRANSITION_BYTES * successors.count;
+			budget.check(dfaStates.size(), bytes, startNanos);
+		}
+		if (event.shouldRecord()) {
+			event.record(compact.getStateCount(), dfaStates.size());
+		}
+		return new DFA(startStateDFA, dfaStates);
+	}
+
+	// Above this many DFA states per NFA state reached, the probe is taken to be in a combinatorial regime.
+	private static final double COMBINATORIAL_RATIO = 4;
+
+	/**
+	 * Estimates the number of states of the DFA of an NFA without building it. A breadth-first probe
+	 * runs the subset construction for up to {@code probeStates} states; if it completes, the count is
+	 * exact. Otherwise the probe is extrapolated:
+	 * <ul>
+	 *   <li>if its DFA states are few compared to the NFA states they contain (as in a keyword lexer,
+	 *       where each DFA state is about one trie node), growth is taken to be linear in the size of
+	 *       the NFA;</li>
+	 *   <li>otherwise the DFA states are new combinations of the same NFA states (as in
+	 *       {@code (a|b)*a(a|b){n}}, which remembers the last n symbols), and the growth of the last
+	 *       breadth-first level is continued geometrically down to the longest loop-free path of the
+	 *       NFA.</li>
+	 * </ul>
+	 * This is a heuristic meant to reject hopeless patterns early; {@link CompileBudget} remains the
+	 * actual limit.
+	 *
+	 * @param nfa The input NFA
+	 * @param probeStates The number of DFA states the probe may build.
+	 * @return The exact state count if the probe completed, otherwise an estimate.
+	 */
+	public static long estimateStateCount(NFA nfa, int probeStates) {
+		CompactNfa compact = CompactNfa.of(nfa);
+		Scratch scratch = new Scratch(compact.getStateCount());
+		Set<StateSet> seen = new HashSet<>();
+		boolean[] covered = new boolean[compact.getStateCount()];
+		int coveredCount = 0;
+		List<StateSet> level = new ArrayList<>();
+		level.add(scratch.startClosure(compact));
+		seen.add(level.get(0));
+		int previousSize = 1;
+		int depth = 0;
+		while (!level.isEmpty() && seen.size() < probeStates) {
+			List<StateSet> next = new ArrayList<>();
+			for (StateSet current : level) {
+				for (int state : current.states) {
+					if (!covered[state]) {
+						covered[state] = true;
+						coveredCount++;
+					}
+				}
+				Successors successors = expand(compact, current, scratch);
+				for (int j = 0; j < successors.count; j++) {
+					if (seen.add(successors.targets[j])) {
+						next.add(successors.targets[j]);
+					}
+				}
+			}
+			previousSize = level.size();
+			level = next;
+			depth++;
+		}
+		if (level.isEmpty()) {
+			return seen.size();
+		}
+		double perState = (double) seen.size() / Math.max(1, coveredCount);
+		if (perState < COMBINATORIAL_RATIO) {
+			return Math.max(seen.size(), (long) Math.ceil(perState * compact.getStateCount()));
+		}
+		double ratio = Math.max(1.0, (double) level.size() / previousSize);
+		int remaining = Math.max(0, longestAcyclicPath(compact) - depth);
+		double estimate = seen.size();
+		double levelSize = level.size();
+		for (int i = 0; i < remaining && estimate < Long.MAX_VALUE; i++) {
+			levelSize *= ratio;
+			estimate += levelSize;
+		}
+		return estimate >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) estimate;
+	}
+
+	/**
+	 * Returns the largest number of labelled edges on a path of a compact NFA once back edges (found
+	 * by depth-first search from the start state) are removed.
+	 */
+	private static int longestAcyclicPath(CompactNfa compact) {
+		int n = compact.getStateCount();
+		// 0 = unvisited, 1 = on the stack, 2 = done.
+		byte[] color = new byte[n];
+		int[] longest = new int[n];
+		int[] stack = new int[n];
+		int[] next = new int[n];
+		int top = 0;
+		stack[top++] = 0;
+		color[0] = 1;
+		while (top > 0) {
+			int state = stack[top - 1];
+			int labelled = compact.edgeEnd(state) - compact.edgeStart(state);
+			int degree = labelled + compact.epsilonEnd(state) - compact.epsilonStart(state);
+			if (next[state] < degree) {
+				int k = next[state]++;
+				int target = k < labelled ? compact.getTarget(compact.edgeStart(state) + k)
+						: compact.getEpsilonTarget(compact.epsilonStart(state) + k - labelled);
+				if (color[target] == 0) {
+					color[target] = 1;
+					stack[top++] = target;
+				}
+				continue;
+			}
+			// All successors are done or on the stack (back edges, ignored).
+			for (int k = 0; k < degree; k++) {
+				int target = k < labelled ? compact.getTarget(compact.edgeStart(state) + k)
+						: compact.getEpsilonTarget(compact.epsilonStart(state) + k - labelled);
+				if (color[target] == 2) {
+					longest[state] = Math.max(longest[state], longest[target] + (k < labelled ? 1 : 0));
+				}
+			}
+			color[state] = 2;
+			top--;
+		}
+		return longest[0];
+	}
+
+	// Frontier states expanded by one fork-join task before the rest is split off.
+	private static final int FRONTIER_BATCH = 8;
+
+	/**
+	 * Converts an NFA to a DFA like {@link #convertNfaToDfa(NFA)}, expanding the DFA states of each
+	 * breadth-first level concurrently on a fork-join pool. The moves and closures of a level run in
+	 * parallel, with work stealing between the tasks, and the resulting NFA state sets are interned in
+	 * a concurrent map so that a set reached by several tasks is materialized once. Ids are then given
+	 * in a sequential pass over the level, in frontier order and then segment order: this is the order
+	 * in which the sequential construction discovers the states, so the result is the same DFA, with
+	 * the same ids, whatever the number of threads. The scratch arrays of the tasks are pooled per
+	 * conversion rather than per thread, so they are released with the result and do not stay attached
+	 * to the threads of a long-lived pool.
+	 *
+	 * @param nfa The input NFA
+	 * @param pool The pool expanding the frontier.
+	 * @return The resulting DFA
+	 */
+	public static DFA convertNfaToDfa(NFA nfa, ForkJoinPool pool) {
+		return convertNfaToDfa(nfa, pool, CompileBudget.UNLIMITED);
+	}
+
+	/**
+	 * Converts an NFA to a DFA like {@link #convertNfaToDfa(NFA, ForkJoinPool)}, within a budget. The
+	 * tasks check the budget after each DFA state they expand, counting every interned NFA state set as
+	 * a DFA state, so a level stops growing soon after a limit is crossed; the first overrun is rethrown
+	 * on the calling thread once the level's tasks have returned.
+	 *
+	 * @param nfa The input NFA
+	 * @param pool The pool expanding the frontier.
+	 * @param budget The limits on states, estimated memory and time.
+	 * @return The resulting DFA
+	 * @throws IllegalStateException if the budget is exceeded.
+	 */
+	public static DFA convertNfaToDfa(NFA nfa, ForkJoinPool pool, CompileBudget budget) {
+		DeterminizeEvent event = new DeterminizeEvent();
+		event.start();
+		List<State> nfaStates = new ArrayList<>();
+		CompactNfa compact = CompactNfa.of(nfa, nfaStates);
+		Conversion conversion = new Conversion(compact, nfaStates, budget);
+		InternedSet start = conversion.intern(new Scratch(compact.getStateCount()).startClosure(compact));
+		start.dfaState = new DfaState(0, start.nfaStates);
+		start.dfaState.setFinal(start.isFinal);
+		List<DfaState> dfaStates = new ArrayList<>();
+		dfaStates.add(start.dfaState);
+
+		List<InternedSet> frontier = new ArrayList<>();
+		frontier.add(start);
+		while (!frontier.isEmpty()) {
+			Successors[] successors = new Successors[frontier.size()];
+			InternedSet[][] targets = new InternedSet[frontier.size()][];
+			pool.invoke(new ExpandTask(conversion, frontier, 0, frontier.size(), successors, targets));
+			IllegalStateException overrun = conversion.overrun.get();
+			if (overrun != null) {
+				throw overrun;
+			}
+			List<InternedSet> next = new ArrayList<>();
+			for (int i = 0; i < frontier.size(); i++) {
+				DfaState currentDFAState = frontier.get(i).dfaState;
+				for (int j = 0; j < successors[i].count; j++) {
+					InternedSet target = targets[i][j];
+					if (target.dfaState == null) {
+						target.dfaState = new DfaState(dfaStates.size(), target.nfaStates);
+						target.dfaState.setFinal(target.isFinal);
+						dfaStates.add(target.dfaState);
+						next.add(target);
+					}
+					currentDFAState.addIntervalTransition(
+							IntervalSet.range(successors[i].lows[j], successors[i].highs[j]), target.dfaState);
+				}
+			}
+			frontier = next;
+		}
+		if (event.shouldRecord()) {
+			event.record(compact.getStateCount(), dfaStates.size());
+		}
+		return new DFA(start.dfaState, dfaStates);
+	}
+
+	/**
+	 * The state one parallel conversion shares between its tasks: the interned sets, the idle scratch
+	 * arrays and the budget accounting.
+	 */
+	private static final class Conversion {
+		final CompactNfa compact;
+		final List<State> nfaStates;
+		final CompileBudget budget;
+		final long startNanos = System.nanoTime();
+		// Idle scratch arrays; a task takes one, or makes one if none is idle, and returns it when done.
+		final ConcurrentLinkedQueue<Scratch> scratches = new ConcurrentLinkedQueue<>();
+		final ConcurrentHashMap<StateSet, InternedSet> interned = new ConcurrentHashMap<>();
+		// Estimated memory of the interned sets and the transitions found so far.
+		final AtomicLong bytes = new AtomicLong();
+		// The first budget overrun of a task; the others stop at their next check.
+		final AtomicReference<IllegalStateException> overrun = new AtomicReference<>();
+
+		Conversion(CompactNfa compact, List<State> nfaStates, CompileBudget budget) {
+			this.compact = compact;
+			this.nfaStates = nfaStates;
+			this.budget = budget;
+		}
+
+		InternedSet intern(StateSet set) {
+			InternedSet existing = interned.get(set);
+			if (existing != null) {
+				return existing;
+			}
+			Set<State> states = new HashSet<>();
+			boolean isFinal = false;
+			for (int state : set.states) {
+				states.add(nfaStates.get(state));
+				isFinal |= compact.isFinal(state);
+			}
+			InternedSet created = new InternedSet(set, states, isFinal);
+			existing = interned.putIfAbsent(set, created);
+			if (existing != null) {
+				return existing;
+			}
+			bytes.addAndGet(STATE_BYTES + SET_ENTRY_BYTES * set.states.length);
+			return created;
+		}
+
+		/**
+		 * Checks the budget, recording the first overrun instead of throwing it on a pool thread.
+		 */
+		void checkBudget() {
+			try {
+				budget.check(interned.size(), bytes.get(), startNanos);
+			} catch (IllegalStateException e) {
+				overrun.compareAndSet(null, e);
+			}
+		}
+	}
+
+	/**
+	 * Expands the frontier states [from, to) of a level: their successors and the interned target sets.
+	 */
+	private static final class ExpandTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final transient Conversion conversion;
+		private final transient List<InternedSet> frontier;
+		private final int from;
+		private final int to;
+		private final transient Successors[] successors;
+		private final transient InternedSet[][] targets;
+
+		ExpandTask(Conversion conversion, List<InternedSet> frontier, int from, int to, Successors[] successors,
+				InternedSet[][] targets) {
+			this.conversion = conversion;
+			this.frontier = frontier;
+			this.from = from;
+			this.to = to;
+			this.successors = successors;
+			this.targets = targets;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= FRONTIER_BATCH) {
+				Scratch scratch = conversion.scratches.poll();
+				if (scratch == null) {
+					scratch = new Scratch(conversion.compact.getStateCount());
+				}
+				for (int i = from; i < to && conversion.overrun.get() == null; i++) {
+					Successors result = expand(conversion.compact, frontier.get(i).set, scratch);
+					InternedSet[] resultTargets = new InternedSet[result.count];
+					for (int j = 0; j < result.count; j++) {
+						resultTargets[j] = conversion.intern(result.targets[j]);
+					}
+					conversion.bytes.addAndGet(TRANSITION_BYTES * result.count);
+					successors[i] = result;
+					targets[i] = resultTargets;
+					conversion.checkBudget();
+				}
+				conversion.scratches.offer(scratch);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ExpandTask(conversion, frontier, from, middle, successors, targets),
+					new ExpandTask(conversion, frontier, middle, to, successors, targets));
+		}
+	}
+
+	/**
+	 * An interned NFA state set of the parallel construction, with its materialized NFA states. The
+	 * DFA state is only set by the sequential numbering pass.
+	 */
+	private static final class InternedSet {
+		final StateSet set;
+		final Set<State> nfaStates;
+		final boolean isFinal;
+		DfaState dfaState;
+
+		InternedSet(StateSet set, Set<State> nfaStates, boolean isFinal) {
+			this.set = set;
+			this.nfaStates = nfaStates;
+			this.isFinal = isFinal;
+		}
+	}
+
+	/**
+	 * Scratch arrays of one task at a time. States of the set being built are marked with the current mark, so
+	 * no set is allocated to test membership.
+	 */
+	private static final class Scratch {
+		final int[] marks;
+		final int[] buffer;
+		int[] edges = new int[16];
+		int mark;
+
+		Scratch(int stateCount) {
+			this.marks = new int[stateCount];
+			this.buffer = new int[stateCount];
+		}
+
+		StateSet startClosure(CompactNfa compact) {
+			mark++;
+			buffer[0] = 0;
+			marks[0] = mark;
+			return StateSet.of(buffer, compact.closure(buffer, 1, marks, mark));
+		}
+	}
+
+	/**
+	 * The transitions of one DFA state: segment [lows[j], highs[j]] leads to the closure targets[j].
+	 */
+	private static final class Successors {
+		int count;
+		int[] lows = new int[4];
+		int[] highs = new int[4];
+		StateSet[] targets = new StateSet[4];
+
+		void add(int low, int high, StateSet target) {
+			if (count == lows.length) {
+				lows = Arrays.copyOf(lows, 2 * count);
+				highs = Arrays.copyOf(highs, 2 * count);
+				targets = Arrays.copyOf(targets, 2 * count);
+			}
+			lows[count] = low;
+			highs[count] = high;
+			targets[count++] = target;
+		}
+	}
+
+	/**
+	 * Computes the transitions of the DFA state of a set of compact NFA states, in segment order.
+	 */
+	private static Successors expand(CompactNfa compact, StateSet current, Scratch scratch) {
+		int[] marks = scratch.marks;
+		int[] buffer = scratch.buffer;
+		int edgeCount = 0;
+		for (int state : current.states) {
+			for (int e = compact.edgeStart(state); e < compact.edgeEnd(state); e++) {
+				if (edgeCount == scratch.edges.length) {
+					scratch.edges = Arrays.copyOf(scratch.edges, 2 * edgeCount);
+				}
+				scratch.edges[edgeCount++] = e;
+			}
+		}
+		int[] edges = scratch.edges;
+		int[] bounds = segmentBounds(compact, edges, edgeCount);
+		Successors successors = new Successors();
+		// Segments with the same move set share one closure computation.
+		Map<StateSet, StateSet> closureByMove = new HashMap<>();
+		for (int i = 0; i + 1 < bounds.length; i++) {
+			int low = bounds[i];
+			int mark = ++scratch.mark;
+			int size = 0;
+			for (int k = 0; k < edgeCount; k++) {
+				int target = compact.getTarget(edges[k]);
+				if (marks[target] != mark && compact.matches(edges[k], low)) {
+					marks[target] = mark;
+					buffer[size++] = target;
+				}
+			}
+			if (size == 0) {
+				continue;
+			}
+			StateSet movedStates = StateSet.of(buffer, size);
+			StateSet targetClosure = closureByMove.get(movedStates);
+			if (targetClosure == null) {
+				targetClosure = StateSet.of(buffer, compact.closure(buffer, size, marks, mark));
+				closureByMove.put(movedStates, targetClosure);
+			}
+			successors.add(low, bounds[i + 1] - 1, targetClosure);
+		}
+		return successors;
+	}
+
+	/**
+	 * A set of states of a {@link CompactNfa}, as a sorted array, usable as a map key.
+	 */
+	private static final class StateSet {
+		final int[] states;
+		final int hash;
+
+		private StateSet(int[] states) {
+			this.states = states;
+			this.hash = Arrays.hashCode(states);
+		}
+
+		static StateSet of(int[] buffer, int size) {
+			int[] states = Arrays.copyOf(buffer, size);
+			Arrays.sort(states);
+			return new StateSet(states);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof StateSet && hash == ((StateSet) obj).hash && Arrays.equals(states, ((StateSet) obj).states);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+	}
+
+	/**
+	 * Creates the DFA state of a set of compact NFA states, final if any of them is.
+	 */
+	private static DfaState newDfaState(int id, StateSet set, CompactNfa compact, List<State> nfaStates) {
+		Set<State> states = new HashSet<>();
+		boolean isFinal = false;
+		for (int state : set.states) {
+			states.add(nfaStates.get(state));
+			isFinal |= compact.isFinal(state);
+		}
+		DfaState dfaState = new DfaState(id, states);
+		dfaState.setFinal(isFinal);
+		return dfaState;
+	}
+
+	// Register values of a tagged configuration besides register indexes.
+	private static final int UNSET = -1;
+	private static final int NEW = -2;
+
+	/**
+	 * A thread of the tagged subset construction: an NFA state and, for each tag, the register of the
+	 * current DFA state holding its value, or UNSET, or NEW when it is the current position.
+	 */
+	private static final class TaggedConfig {
+		final State state;
+		final int[] registers;
+
+		TaggedConfig(State state, int[] registers) {
+			this.state = state;
+			this.registers = registers;
+		}
+	}
+
+	// Approximate sizes used for the memory budget of a tagged DFA: one configuration of a state
+	// (its list slot, its key entries and its register array) per tag, and one register operation.
+	private static final long CONFIG_BYTES = 48;
+	private static final long TAG_BYTES = 20;
+	private static final long OP_BYTES = 4;
+
+	/**
+	 * Converts an NFA with tagged epsilon transitions, as built by
+	 * {@link com.compiler.lexer.regex.RegexParser#parseWithCaptures(String)}, into a tagged DFA within
+	 * {@link CompileBudget#DEFAULT}: unlike plain subset construction, short patterns with nested or
+	 * bounded repetition of groups can need tens of thousands of tagged states.
+	 *
+	 * @param nfa The input NFA
+	 * @return The resulting tagged DFA
+	 * @throws IllegalStateException if the default budget is exceeded.
+	 */
+	public static TaggedDfa convertTaggedNfaToDfa(NFA nfa) {
+		return convertTaggedNfaToDfa(nfa, CompileBudget.DEFAULT);
+	}
+
+	/**
+	 * Converts an NFA with tagged epsilon transitions into a tagged DFA, within a budget.
+	 * This is the interval subset construction above, except that a DFA state is an ordered list of
+	 * configurations instead of a set: each NFA state keeps the registers of the highest-priority path
+	 * reaching it, and the epsilon-closure is a depth-first search in transition order, so the first
+	 * path to a state wins. Registers are renumbered in order of first use in each state, which makes
+	 * equal configuration lists equal states and yields the register operations of each transition.
+	 * A tag that every path from an NFA state to acceptance sets again is dead in that state: its old
+	 * value can never be read, so it holds no register and does not tell states apart.
+	 *
+	 * The budget is checked after each tagged state is expanded, like in
+	 * {@link #convertNfaToDfa(NFA, CompileBudget)}.
+	 *
+	 * @param nfa The input NFA
+	 * @param budget The limits on states, estimated memory and time.
+	 * @return The resulting tagged DFA
+	 * @throws IllegalStateException if the budget is exceeded.
+	 */
+	public static TaggedDfa convertTaggedNfaToDfa(NFA nfa, CompileBudget budget) {
+		long startNanos = System.nanoTime();
+		int tagCount = countTags(nfa);
+		Map<State, BitSet> live = liveTags(nfa, tagCount);
+		TaggedDfa tdfa = new TaggedDfa((tagCount + 1) / 2);
+		Map<List<Integer>, Integer> statesByKey = new HashMap<>();
+		List<List<TaggedConfig>> configsOf = new ArrayList<>();
+		Deque<Integer> unmarkedStates = new ArrayDeque<>();
+
+		int[] unset = new int[tagCount];
+		Arrays.fill(unset, UNSET);
+		List<TaggedConfig> start = taggedClosure(List.of(new TaggedConfig(nfa.startState, unset)));
+		internTaggedState(tdfa, start, live, new ArrayList<>(), statesByKey, configsOf, unmarkedStates);
+		long bytes = STATE_BYTES + (CONFIG_BYTES + TAG_BYTES * tagCount) * start.size();
+
+		while (!unmarkedStates.isEmpty()) {
+			int current = unmarkedStates.poll();
+			List<TaggedConfig> configs = configsOf.get(current);
+			List<Transition> labelled = new ArrayList<>();
+			for (TaggedConfig config : configs) {
+				for (Transition t : config.state.transitions) {
+					if (!t.isEpsilon()) {
+						labelled.add(t);
+					}
+				}
+			}
+			int[] bounds = segmentBounds(labelled);
+			for (int i = 0; i + 1 < bounds.length; i++) {
+				int low = bounds[i];
+				List<TaggedConfig> moved = new ArrayList<>();
+				for (TaggedConfig config : configs) {
+					for (Transition t : config.state.transitions) {
+						if (!t.isEpsilon() && t.label.contains(low)) {
+							moved.add(new TaggedConfig(t.toState, config.registers));
+						}
+					}
+				}
+				if (moved.isEmpty()) {
+					continue;
+				}
+				int stateCount = configsOf.size();
+				List<Integer> ops = new ArrayList<>();
+				List<TaggedConfig> closure = taggedClosure(moved);
+				int target = internTaggedState(tdfa, closure, live, ops, statesByKey, configsOf, unmarkedStates);
+				tdfa.addTransition(current, low, bounds[i + 1] - 1, target,
+						ops.stream().mapToInt(Integer::intValue).toArray());
+				bytes += TRANSITION_BYTES + OP_BYTES * ops.size();
+				if (configsOf.size() > stateCount) {
+					bytes += STATE_BYTES + (CONFIG_BYTES + TAG_BYTES * tagCount) * closure.size();
+				}
+			}
+			try {
+				budget.check(configsOf.size(), bytes, startNanos);
+			} catch (IllegalStateException e) {
+				throw new IllegalStateException("Tagged DFA for capture groups: " + e.getMessage()
+						+ "; match without captures instead", e);
+			}
+		}
+		return tdfa;
+	}
+
+	/**
+	 * Renumbers the registers of a configuration list, dropping dead tags, finds or creates its tagged
+	 * DFA state and fills ops with the source of each register of that state (-1 for the current
+	 * position).
+	 */
+	private static int internTaggedState(TaggedDfa tdfa, List<TaggedConfig> configs, Map<State, BitSet> live,
+			List<Integer> ops, Map<List<Integer>, Integer> statesByKey, List<List<TaggedConfig>> configsOf,
+			Deque<Integer> unmarkedStates) {
+		Map<Integer, Integer> renumbered = new HashMap<>();
+		List<TaggedConfig> canonical = new ArrayList<>();
+		List<Integer> key = new ArrayList<>();
+		int[] finalTags = null;
+		for (TaggedConfig config : configs) {
+			int[] registers = new int[config.registers.length];
+			BitSet liveTags = live.get(config.state);
+			key.add(config.state.id);
+			for (int t = 0; t < registers.length; t++) {
+				int value = config.registers[t];
+				if (value == UNSET || !liveTags.get(t)) {
+					registers[t] = UNSET;
+				} else {
+					Integer register = renumbered.get(value);
+					if (register == null) {
+						register = renumbered.size();
+						renumbered.put(value, register);
+						ops.add(value == NEW ? -1 : value);
+					}
+					registers[t] = register;
+				}
+				key.add(registers[t]);
+			}
+			canonical.add(new TaggedConfig(config.state, registers));
+			if (finalTags == null && config.state.isFinal) {
+				finalTags = registers;
+			}
+		}
+		Integer id = statesByKey.get(key);
+		if (id == null) {
+			id = tdfa.addState(renumbered.size(), finalTags);
+			statesByKey.put(key, id);
+			configsOf.add(canonical);
+			unmarkedStates.add(id);
+		}
+		return id;
+	}
+
+	/**
+	 * Computes the epsilon-closure of configurations in priority order: a depth-first search from each
+	 * configuration in turn, following epsilon transitions in the order they were added. Taking a
+	 * tagged transition sets its tag to NEW. Only the states that can read input or accept are kept.
+	 */
+	private static List<TaggedConfig> taggedClosure(List<TaggedConfig> configs) {
+		Map<State, TaggedConfig> reached = new LinkedHashMap<>();
+		Deque<TaggedConfig> stack = new ArrayDeque<>();
+		for (TaggedConfig seed : configs) {
+			stack.push(seed);
+			while (!stack.isEmpty()) {
+				TaggedConfig config = stack.pop();
+				if (reached.containsKey(config.state)) {
+					continue;
+				}
+				reached.put(config.state, config);
+				List<Transition> transitions = config.state.transitions;
+				for (int i = transitions.size() - 1; i >= 0; i--) {
+					Transition t = transitions.get(i);
+					if (!t.isEpsilon() || reached.containsKey(t.toState)) {
+						continue;
+					}
+					int[] registers = config.registers;
+					if (t.tag >= 0) {
+						registers = registers.clone();
+						registers[t.tag] = NEW;
+					}
+					stack.push(new TaggedConfig(t.toState, registers));
+				}
+			}
+		}
+		List<TaggedConfig> kernel = new ArrayList<>();
+		for (TaggedConfig config : reached.values()) {
+			boolean reads = false;
+			for (Transition t : config.state.transitions) {
+				reads |= !t.isEpsilon();
+			}
+			if (reads || config.state.isFinal) {
+				kernel.add(config);
+			}
+		}
+		return kernel;
+	}
+
+	/**
+	 * Computes the tags whose value can still be read from each NFA state: those recorded at
+	 * acceptance and not set again on some path from the state to a final state. Iterates the
+	 * backward data-flow equations until no set grows.
+	 */
+	private static Map<State, BitSet> liveTags(NFA nfa, int tagCount) {
+		List<State> states = new ArrayList<>();
+		Set<State> seen = new HashSet<>();
+		Deque<State> pending = new ArrayDeque<>();
+		seen.add(nfa.startState);
+		pending.push(nfa.startState);
+		while (!pending.isEmpty()) {
+			State state = pending.pop();
+			states.add(state);
+			for (Transition t : state.transitions) {
+				if (seen.add(t.toState)) {
+					pending.push(t.toState);
+				}
+			}
+		}
+		Map<State, BitSet> live = new HashMap<>();
+		for (State state : states) {
+			BitSet tags = new BitSet(tagCount);
+			if (state.isFinal) {
+				tags.set(0, tagCount);
+			}
+			live.put(state, tags);
+		}
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			// Successors are mostly discovered after their sources, so a reverse sweep converges fast.
+			for (int i = states.size() - 1; i >= 0; i--) {
+				BitSet tags = live.get(states.get(i));
+				int before = tags.cardinality();
+				for (Transition t : states.get(i).transitions) {
+					BitSet after = live.get(t.toState);
+					if (t.tag >= 0 && after.get(t.tag)) {
+						after = (BitSet) after.clone();
+						after.clear(t.tag);
+					}
+					tags.or(after);
+				}
+				changed |= tags.cardinality() != before;
+			}
+		}
+		return live;
+	}
+
+	/**
+	 * Returns the number of tags of an NFA: one more than the largest tag of its transitions.
+	 */
+	private static int countTags(NFA nfa) {
+		int count = 0;
+		Set<State> seen = new HashSet<>();
+		Deque<State> pending = new ArrayDeque<>();
+		seen.add(nfa.startState);
+		pending.push(nfa.startState);
+		while (!pending.isEmpty()) {
+			for (Transition t : pending.pop().transitions) {
+				count = Math.max(count, t.tag + 1);
+				if (seen.add(t.toState)) {
+					pending.push(t.toState);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the sorted, distinct segment bounds of a set of labels: every interval start and every
+	 * position just past an interval end. Consecutive bounds delimit a segment [b(i), b(i+1) - 1].
+	 */
+	private static int[] segmentBounds(List<Transition> labelled) {
+		int size = 0;
+		for (Transition t : labelled) {
+			size += 2 * t.label.intervalCount();
+		}
+		int[] bounds = new int[size];
+		int n = 0;
+		for (Transition t : labelled) {
+			for (int i = 0; i < t.label.intervalCount(); i++) {
+				bounds[n++] = t.label.getLow(i);
+				bounds[n++] = t.label.getHigh(i) + 1;
+			}
+		}
+		Arrays.sort(bounds);
+		int distinct = 0;
+		for (int i = 0; i < n; i++) {
+			if (distinct == 0 || bounds[distinct - 1] != bounds[i]) {
+				bounds[distinct++] = bounds[i];
+			}
+		}
+		return Arrays.copyOf(bounds, distinct);
+	}
+
+	/**
+	 * Returns the sorted, distinct segment bounds of the labels of some edges of a compact NFA.
+	 */
+	private static int[] segmentBounds(CompactNfa compact, int[] edges, int edgeCount) {
+		int size = 0;
+		for (int k = 0; k < edgeCount; k++) {
+			size += 2 * compact.getLabelIntervalCount(compact.getLabel(edges[k]));
+		}
+		int[] bounds = new int[size];
+		int n = 0;
+		for (int k = 0; k < edgeCount; k++) {
+			int label = compact.getLabel(edges[k]);
+			for (int i = 0; i < compact.getLabelIntervalCount(label); i++) {
+				bounds[n++] = compact.getLabelLow(label, i);
+				bounds[n++] = compact.getLabelHigh(label, i) + 1;
+			}
+		}
+		Arrays.sort(bounds);
+		int distinct = 0;
+		for (int i = 0; i < n; i++) {
+			if (distinct == 0 || bounds[distinct - 1] != bounds[i]) {
+				bounds[distinct++] = bounds[i];
+			}
+		}
+		return Arrays.copyOf(bounds, distinct);
+	}
+
+	/**
+	 * Returns the epsilon-closure of a set of NFA states, or the set itself for an epsilon-free NFA.
+	 */
+	private static Set<State> closure(Set<State> states, boolean epsilonFree) {
+		return epsilonFree ? states : epsilonClosure(states);
+	}
+
 	/**
 	 * Computes the epsilon-closure of a set of NFA states.
 	 * The epsilon-closure is the set of states reachable by epsilon (null) transitions.
@@ -135,7 +1016,7 @@ public class NfaToDfaConverter {
 	 * @param symbol The input symbol.
 	 * @return The set of reachable states.
 	 */
-	private static Set<State> move(Set<State> states, char symbol) {
+	private static Set<State> move(Set<State> states, int symbol) {
 		/*
 		 Pseudocode:
 		 1. For each state in input set:
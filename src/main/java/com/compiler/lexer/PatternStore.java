@@ -0,0 +1,221 @@
+package com.compiler.lexer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.compiler.lexer.dfa.CompiledPattern;
+import com.compiler.lexer.dfa.FrozenDfa;
+import com.compiler.lexer.dfa.LazyDfa;
+
+/**
+ * PatternStore
+ * ------------
+ * A thread-safe cache of compiled patterns that keeps one automaton per language. Patterns are often
+ * spelled differently but recognize the same language ({@code [0-9]+} and {@code [0-9][0-9]*}); when a
+ * newly compiled {@link FrozenDfa} is equivalent to one already stored ({@link DfaEquivalence}), the
+ * pattern is mapped to the stored automaton and the new copy is left to the garbage collector.
+ *
+ * Candidates are found by a language signature, the length of the shortest accepted input and the
+ * first code points of accepted inputs, so the equivalence check only runs against automata that
+ * could match. {@link LazyDfa} fallbacks have no complete automaton to compare and are stored as they
+ * are. Lookups of stored patterns take no lock; insertions are serialized.
+ *
+ * Example usage:
+ * <pre>
+ *     PatternStore store = new PatternStore(new ConcurrentCompiler(), 10_000);
+ *     boolean b = store.get("[0-9][0-9]*").matches("2024");
+ * </pre>
+ */
+public class PatternStore {
+    private final ConcurrentCompiler compiler;
+    private final int maxPatterns;
+    private final Map<String, CompiledPattern> patterns = new ConcurrentHashMap<>();
+    // Distinct automata by language signature; guarded by this.
+    private final Map<Long, List<FrozenDfa>> automata = new HashMap<>();
+    private int automatonCount;
+    private int lazyCount;
+
+    /**
+     * Creates a store.
+     * @param compiler The compiler of new patterns.
+     * @param maxPatterns The number of patterns kept; later ones are compiled on every request.
+     * @throws IllegalArgumentException if maxPatterns is negative.
+     */
+    public PatternStore(ConcurrentCompiler compiler, int maxPatterns) {
+        if (maxPatterns < 0) {
+            throw new IllegalArgumentException("Negative pattern capacity " + maxPatterns);
+        }
+        this.compiler = compiler;
+        this.maxPatterns = maxPatterns;
+    }
+
+    /**
+     * Returns the compiled form of a pattern, compiling and storing it on first use.
+     * @param pattern The regular expression.
+     * @return The compiled pattern, shared by every stored pattern of the same language.
+     * @throws IllegalArgumentException if the pattern is malformed.
+     */
+    public CompiledPattern get(String pattern) {
+        CompiledPattern compiled = patterns.get(pattern);
+        if (compiled != null) {
+            return compiled;
+        }
+        // Compile outside the lock; a pattern compiled by two threads at once is stored once.
+        compiled = compiler.compile(pattern);
+        synchronized (this) {
+            CompiledPattern stored = patterns.get(pattern);
+            if (stored != null) {
+                return stored;
+            }
+            boolean full = patterns.size() >= maxPatterns;
+            if (compiled instanceof FrozenDfa) {
+                compiled = intern((FrozenDfa) compiled, !full);
+            } else if (!full) {
+                lazyCount++;
+            }
+            if (!full) {
+                patterns.put(pattern, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    /**
+     * Returns the number of stored patterns.
+     * @return The pattern count.
+     */
+    public int size() {
+        return patterns.size();
+    }
+
+    /**
+     * Returns the number of distinct automata held for the stored patterns.
+     * @return The automaton count; at most {@link #size()}.
+     */
+    public synchronized int getAutomatonCount() {
+        return automatonCount + lazyCount;
+    }
+
+    /**
+     * Removes every pattern and automaton.
+     */
+    public synchronized void clear() {
+        patterns.clear();
+        automata.clear();
+        automatonCount = 0;
+        lazyCount = 0;
+    }
+
+    /**
+     * Returns a stored automaton of the same language, or the given one, stored if requested.
+     */
+    private FrozenDfa intern(FrozenDfa dfa, boolean store) {
+        long signature = signature(dfa);
+        List<FrozenDfa> candidates = automata.get(signature);
+        if (candidates != null) {
+            for (FrozenDfa candidate : candidates) {
+                if (DfaEquivalence.areEquivalent(candidate, dfa)) {
+                    return candidate;
+                }
+            }
+        }
+        if (store) {
+            automata.computeIfAbsent(signature, key -> new ArrayList<>(1)).add(dfa);
+            automatonCount++;
+        }
+        return dfa;
+    }
+
+    /**
+     * Computes a value that equivalent automata share: the length of the shortest accepted input
+     * (-1 for the empty language) combined with the code points on which the start state leads to a
+     * state from which some input is accepted.
+     */
+    static long signature(FrozenDfa dfa) {
+        int n = dfa.getStateCount();
+        // Live states: those from which a final state is reachable, found backwards from the finals.
+        int[] offsets = new int[n + 1];
+        for (int s = 0; s < n; s++) {
+            for (int i = 0; i < dfa.getIntervalCount(s); i++) {
+                offsets[dfa.getIntervalTarget(s, i) + 1]++;
+            }
+        }
+        for (int s = 0; s < n; s++) {
+            offsets[s + 1] += offsets[s];
+        }
+        int[] sources = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int s = 0; s < n; s++) {
+            for (int i = 0; i < dfa.getIntervalCount(s); i++) {
+                sources[fill[dfa.getIntervalTarget(s, i)]++] = s;
+            }
+        }
+        boolean[] live = new boolean[n];
+        ArrayDeque<Integer> work = new ArrayDeque<>();
+        for (int s = 0; s < n; s++) {
+            if (dfa.isFinal(s)) {
+                live[s] = true;
+                work.add(s);
+            }
+        }
+        while (!work.isEmpty()) {
+            int s = work.poll();
+            for (int k = offsets[s]; k < offsets[s + 1]; k++) {
+                if (!live[sources[k]]) {
+                    live[sources[k]] = true;
+                    work.add(sources[k]);
+                }
+            }
+        }
+
+        // Shortest accepted input, breadth first from the start state.
+        int start = dfa.getStartState();
+        int[] distance = new int[n];
+        Arrays.fill(distance, -1);
+        distance[start] = 0;
+        work.add(start);
+        int shortest = -1;
+        while (!work.isEmpty()) {
+            int s = work.poll();
+            if (dfa.isFinal(s)) {
+                shortest = distance[s];
+                break;
+            }
+            for (int i = 0; i < dfa.getIntervalCount(s); i++) {
+                int target = dfa.getIntervalTarget(s, i);
+                if (distance[target] < 0) {
+                    distance[target] = distance[s] + 1;
+                    work.add(target);
+                }
+            }
+        }
+
+        // First code points: live intervals of the start state, adjacent ones merged.
+        long hash = shortest;
+        int low = -1;
+        int high = -2;
+        for (int i = 0; i < dfa.getIntervalCount(start); i++) {
+            if (!live[dfa.getIntervalTarget(start, i)]) {
+                continue;
+            }
+            if (dfa.getIntervalLow(start, i) == high + 1) {
+                high = dfa.getIntervalHigh(start, i);
+                continue;
+            }
+            if (low >= 0) {
+                hash = 31 * (31 * hash + low) + high;
+            }
+            low = dfa.getIntervalLow(start, i);
+            high = dfa.getIntervalHigh(start, i);
+        }
+        if (low >= 0) {
+            hash = 31 * (31 * hash + low) + high;
+        }
+        return hash;
+    }
+}
@@ -1,5 +1,91 @@
 package com.compiler.lexer;
 
+/**
+ * Token
+ * -----
+ * Represents a single lexical unit produced by the scanner and consumed by the parsers.
+ * The token type is matched against the names of the terminal symbols of the grammar,
+ * while the lexeme and offset are kept for diagnostics.
+ */
 public class Token {
-    
+    /**
+     * The token type, equal to the name of a terminal symbol in the grammar.
+     */
+    public final String type;
+
+    /**
+     * The matched text.
+     */
+    public final String lexeme;
+
+    /**
+     * The offset of the first character of the lexeme in the input, or -1 if unknown.
+     */
+    public final int offset;
+
+    /**
+     * Constructs a token whose lexeme is its type and whose position is unknown.
+     * @param type The token type.
+     */
+    public Token(String type) {
+        this(type, type, -1);
+    }
+
+    /**
+     * Constructs a token whose position is unknown.
+     * @param type The token type.
+     * @param lexeme The matched text.
+     */
+    public Token(String type, String lexeme) {
+        this(type, lexeme, -1);
+    }
+
+    /**
+     * Constructs a token.
+     * @param type The token type.
+     * @param lexeme The matched text.
+     * @param offset The offset of the lexeme in the input, or -1 if unknown.
+     * @throws IllegalArgumentException if type or lexeme is null
+     */
+    public Token(String type, String lexeme, int offset) {
+        if (type == null || lexeme == null) {
+            throw new IllegalArgumentException("Token type and lexeme must not be null");
+        }
+        this.type = type;
+        this.lexeme = lexeme;
+        this.offset = offset;
+    }
+
+    /**
+     * Returns the token type.
+     * @return the token type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Returns the matched text.
+     * @return the lexeme
+     */
+    public String getLexeme() {
+        return lexeme;
+    }
+
+    /**
+     * Returns the offset of the lexeme in the input.
+     * @return the offset, or -1 if unknown
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns a string representation of the token.
+     * @return String representation of the token.
+     */
+    @Override
+    public String toString() {
+        return type + "('" + lexeme + "')" + (offset >= 0 ? "@" + offset : "");
+    }
 }
@@ -0,0 +1,104 @@
+package com.compiler.lexer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.compiler.lexer.dfa.ByteDfa;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.nfa.IntervalSet;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.nfa.Transition;
+import com.compiler.lexer.nfa.Utf8Sequences;
+import com.compiler.lexer.regex.RegexParser;
+
+/**
+ * Utf8Compiler
+ * ------------
+ * Compiles code point automata into automata over UTF-8 bytes, so that input can be matched as raw
+ * bytes without decoding it into a String first. Every code point transition is replaced by chains of
+ * byte-range transitions, one chain per sequence of {@link Utf8Sequences}; subset construction then
+ * merges the chains that share a prefix, and the result is packed into a 256-wide {@link ByteDfa}.
+ *
+ * Example usage:
+ * <pre>
+ *     ByteDfa dfa = Utf8Compiler.compile("[a-zà-ÿ]+");
+ *     boolean b = dfa.matches("déjà".getBytes(StandardCharsets.UTF_8));
+ * </pre>
+ */
+public final class Utf8Compiler {
+    private Utf8Compiler() {
+    }
+
+    /**
+     * Compiles a regular expression into a minimized byte DFA, within the default budget.
+     * @param regex The regular expression.
+     * @return The byte DFA.
+     * @throws IllegalStateException if the DFA exceeds {@link CompileBudget#DEFAULT}.
+     */
+    public static ByteDfa compile(String regex) {
+        return compile(regex, CompileBudget.DEFAULT);
+    }
+
+    /**
+     * Compiles a regular expression into a minimized byte DFA.
+     * @param regex The regular expression.
+     * @param budget The limits of the subset construction.
+     * @return The byte DFA.
+     * @throws IllegalStateException if the DFA exceeds the budget; the message names the pattern.
+     */
+    public static ByteDfa compile(String regex, CompileBudget budget) {
+        NFA byteNfa = toByteNfa(new RegexParser().parse(regex), null);
+        DFA dfa;
+        try {
+            dfa = NfaToDfaConverter.convertNfaToDfa(byteNfa, budget);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("Pattern " + regex + ": " + e.getMessage(), e);
+        }
+        return new ByteDfa(DfaMinimizer.minimizeDfa(dfa, null), null);
+    }
+
+    /**
+     * Copies an NFA, replacing each code point transition with UTF-8 byte-range chains.
+     * Epsilon transitions and final flags are copied unchanged.
+     *
+     * @param nfa The code point NFA; its end state may be null.
+     * @param copies If not null, receives the copy of every original state.
+     * @return The byte NFA, whose transition labels hold values 0..255.
+     */
+    public static NFA toByteNfa(NFA nfa, Map<State, State> copies) {
+        Map<State, State> map = copies != null ? copies : new IdentityHashMap<>();
+        Deque<State> pending = new ArrayDeque<>();
+        map.put(nfa.startState, new State());
+        pending.push(nfa.startState);
+        while (!pending.isEmpty()) {
+            State original = pending.pop();
+            State copy = map.get(original);
+            copy.isFinal = original.isFinal;
+            for (Transition t : original.transitions) {
+                State target = map.get(t.toState);
+                if (target == null) {
+                    target = new State();
+                    map.put(t.toState, target);
+                    pending.push(t.toState);
+                }
+                if (t.isEpsilon()) {
+                    copy.addTransition(null, target);
+                    continue;
+                }
+                for (IntervalSet[] sequence : Utf8Sequences.of(t.label)) {
+                    State from = copy;
+                    for (int i = 0; i < sequence.length - 1; i++) {
+                        State middle = new State();
+                        from.addIntervalTransition(sequence[i], middle);
+                        from = middle;
+                    }
+                    from.addIntervalTransition(sequence[sequence.length - 1], target);
+                }
+            }
+        }
+        return new NFA(map.get(nfa.startState), nfa.endState == null ? null : map.get(nfa.endState));
+    }
+}
@@ -0,0 +1,501 @@
+package com.compiler.lexer.derivative;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Stack;
+
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.nfa.IntervalSet;
+import com.compiler.lexer.regex.RegexToken;
+import com.compiler.lexer.regex.ShuntingYard;
+
+/**
+ * DerivativeCompiler
+ * ------------------
+ * Compiles regular expressions directly into DFAs with Brzozowski derivatives, as an alternative to
+ * {@link com.compiler.lexer.regex.RegexParser} followed by {@link com.compiler.lexer.NfaToDfaConverter}.
+ * The derivative of a term r by a code point c is the term matching { w | cw in L(r) }; each distinct
+ * term reached from the regex by derivatives is one DFA state, and a state is final if its term matches
+ * the empty string.
+ *
+ * Terms are built through smart constructors that normalize them (∅ and ε laws, associativity,
+ * commutativity and idempotence of | and &amp;, ~~r = r, r** = r*, (ε|r)* = r*, r*r* = r*) and are
+ * hash-consed, so equivalent derivatives are usually the same term and the DFA comes out small without
+ * an NFA; it is not always minimal, and {@link com.compiler.lexer.DfaMinimizer} can finish the job.
+ * Derivatives are only computed once per character class of a term: code points between two
+ * consecutive bounds of the sets in the term have the same derivative.
+ *
+ * Because derivatives distribute over them, intersection {@code r&s} and complement {@code ~r} are
+ * supported at no extra cost; the regex is read in the extended syntax of
+ * {@link com.compiler.lexer.regex.RegexTokenizer}, where {@code .} is any code point. For example
+ * a C block comment is <code>/\*~(.*\*&#47;.*)\*&#47;</code>.
+ *
+ * Example usage:
+ * <pre>
+ *     DerivativeCompiler compiler = new DerivativeCompiler();
+ *     DFA dfa = compiler.compile("[a-z]+&amp;~(if|while)");
+ * </pre>
+ */
+public class DerivativeCompiler {
+    private final Map<List<Object>, Term> terms;
+    private final Map<Long, Term> derivatives;
+    private final Map<Term, int[]> boundaries;
+    private final Term nothing;
+    private final Term epsilon;
+    private final Term anything;
+
+    /**
+     * Creates a compiler with an empty term table. Terms of different compilers must not be mixed.
+     */
+    public DerivativeCompiler() {
+        this.terms = new HashMap<>();
+        this.derivatives = new HashMap<>();
+        this.boundaries = new IdentityHashMap<>();
+        this.nothing = intern(Term.Kind.NOTHING, null, List.of(), false);
+        this.epsilon = intern(Term.Kind.EPSILON, null, List.of(), true);
+        this.anything = star(set(IntervalSet.ALL));
+    }
+
+    /**
+     * Compiles a regular expression in the extended syntax into a DFA.
+     * @param regex The regular expression.
+     * @return The DFA; it has no dead state, so a missing transition rejects.
+     * @throws IllegalArgumentException if the expression is malformed.
+     */
+    public DFA compile(String regex) {
+        return toDfa(parse(regex));
+    }
+
+    /**
+     * Builds the normalized term of a regular expression in the extended syntax.
+     * @param regex The regular expression.
+     * @return The term.
+     * @throws IllegalArgumentException if the expression is malformed.
+     */
+    public Term parse(String regex) {
+        Stack<Term> stack = new Stack<>();
+        for (RegexToken token : ShuntingYard.toPostfixExtendedTokens(regex)) {
+            int needed = token.kind == RegexToken.Kind.UNION || token.kind == RegexToken.Kind.INTERSECT
+                    || token.kind == RegexToken.Kind.CONCAT ? 2
+                    : token.isUnary() || token.kind == RegexToken.Kind.COMPLEMENT ? 1 : 0;
+            if (stack.size() < needed) {
+                throw new IllegalArgumentException("Missing operand for " + token);
+            }
+            switch (token.kind) {
+                case ATOM:
+                    stack.push(set(token.set));
+                    break;
+                case EMPTY:
+                    stack.push(epsilon);
+                    break;
+                case UNION: {
+                    Term right = stack.pop();
+                    stack.push(union(stack.pop(), right));
+                    break;
+                }
+                case INTERSECT: {
+                    Term right = stack.pop();
+                    stack.push(intersect(stack.pop(), right));
+                    break;
+                }
+                case CONCAT: {
+                    Term right = stack.pop();
+                    stack.push(concat(stack.pop(), right));
+                    break;
+                }
+                case COMPLEMENT:
+                    stack.push(complement(stack.pop()));
+                    break;
+                case STAR:
+                    stack.push(star(stack.pop()));
+                    break;
+                case PLUS: {
+                    Term operand = stack.pop();
+                    stack.push(concat(operand, star(operand)));
+                    break;
+                }
+                case OPTIONAL:
+                    stack.push(union(stack.pop(), epsilon));
+                    break;
+                case REPEAT:
+                    stack.push(repeat(stack.pop(), token.min, token.max));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operator: " + token);
+            }
+        }
+        if (stack.size() != 1) {
+            throw new IllegalArgumentException("Malformed regular expression");
+        }
+        return stack.pop();
+    }
+
+    /**
+     * Builds the DFA of a term by exploring its derivatives breadth first.
+     * @param start The term of the start state.
+     * @return The DFA; derivatives equal to the empty language get no state.
+     */
+    public DFA toDfa(Term start) {
+        Map<Term, DfaState> states = new HashMap<>();
+        List<DfaState> allStates = new ArrayList<>();
+        Deque<Term> pending = new ArrayDeque<>();
+        DfaState startState = newState(start, states, allStates, pending);
+        while (!pending.isEmpty()) {
+            Term term = pending.poll();
+            DfaState from = states.get(term);
+            int[] bounds = boundaries(term);
+            for (int i = 0; i <= bounds.length; i++) {
+                int low = i == 0 ? 0 : bounds[i - 1];
+                int high = i == bounds.length ? Character.MAX_CODE_POINT : bounds[i] - 1;
+                if (low > high) {
+                    continue;
+                }
+                Term next = derivative(term, low);
+                if (next == nothing) {
+                    continue;
+                }
+                DfaState to = states.get(next);
+                if (to == null) {
+                    to = newState(next, states, allStates, pending);
+                }
+                from.addIntervalTransition(IntervalSet.range(low, high), to);
+            }
+        }
+        return new DFA(startState, allStates);
+    }
+
+    private static DfaState newState(Term term, Map<Term, DfaState> states, List<DfaState> allStates,
+            Deque<Term> pending) {
+        // Without NFA states, the state hashes on its id (see DfaState#hashCode).
+        DfaState state = new DfaState(allStates.size(), Collections.emptySet());
+        state.setFinal(term.nullable);
+        states.put(term, state);
+        allStates.add(state);
+        pending.add(term);
+        return state;
+    }
+
+    /**
+     * Returns the derivative of a term by a code point.
+     * @param term The term.
+     * @param codePoint The code point.
+     * @return The normalized derivative.
+     */
+    public Term derivative(Term term, int codePoint) {
+        long key = ((long) term.id << 21) | codePoint;
+        Term cached = derivatives.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Term result;
+        switch (term.kind) {
+            case NOTHING:
+            case EPSILON:
+                result = nothing;
+                break;
+            case SET:
+                result = term.set.contains(codePoint) ? epsilon : nothing;
+                break;
+            case CONCAT: {
+                Term first = term.children.get(0);
+                Term rest = term.children.get(1);
+                result = concat(derivative(first, codePoint), rest);
+                if (first.nullable) {
+                    result = union(result, derivative(rest, codePoint));
+                }
+                break;
+            }
+            case STAR:
+                result = concat(derivative(term.children.get(0), codePoint), term);
+                break;
+            case COMPLEMENT:
+                result = complement(derivative(term.children.get(0), codePoint));
+                break;
+            case UNION:
+                result = nothing;
+                for (Term child : term.children) {
+                    result = union(result, derivative(child, codePoint));
+                }
+                break;
+            default:
+                result = anything;
+                for (Term child : term.children) {
+                    result = intersect(result, derivative(child, codePoint));
+                }
+        }
+        derivatives.put(key, result);
+        return result;
+    }
+
+    /**
+     * Returns the sorted code points where the derivative of a term may change: the start of every
+     * set interval and the position just past its end, for the sets that can be read first.
+     */
+    private int[] boundaries(Term term) {
+        int[] cached = boundaries.get(term);
+        if (cached != null) {
+            return cached;
+        }
+        int[] result;
+        switch (term.kind) {
+            case NOTHING:
+            case EPSILON:
+                result = new int[0];
+                break;
+            case SET: {
+                result = new int[2 * term.set.intervalCount()];
+                int n = 0;
+                for (int i = 0; i < term.set.intervalCount(); i++) {
+                    result[n++] = term.set.getLow(i);
+                    if (term.set.getHigh(i) < Character.MAX_CODE_POINT) {
+                        result[n++] = term.set.getHigh(i) + 1;
+                    }
+                }
+                result = Arrays.copyOf(result, n);
+                break;
+            }
+            case CONCAT:
+                result = boundaries(term.children.get(0));
+                if (term.children.get(0).nullable) {
+                    result = merge(result, boundaries(term.children.get(1)));
+                }
+                break;
+            default:
+                result = new int[0];
+                for (Term child : term.children) {
+                    result = merge(result, boundaries(child));
+                }
+        }
+        boundaries.put(term, result);
+        return result;
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            int next = j == b.length || (i < a.length && a[i] <= b[j]) ? a[i++] : b[j++];
+            if (n == 0 || result[n - 1] != next) {
+                result[n++] = next;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Returns the term matching one code point of a set.
+     * @param set The code points.
+     * @return The term, or the empty language for an empty set.
+     */
+    public Term set(IntervalSet set) {
+        return set.isEmpty() ? nothing : intern(Term.Kind.SET, set, List.of(), false);
+    }
+
+    /**
+     * Returns the normalized concatenation of two terms.
+     * @param first The first term.
+     * @param second The second term.
+     * @return The concatenation.
+     */
+    public Term concat(Term first, Term second) {
+        if (first == nothing || second == nothing) {
+            return nothing;
+        }
+        if (first == epsilon) {
+            return second;
+        }
+        if (second == epsilon) {
+            return first;
+        }
+        if (first.kind == Term.Kind.CONCAT) {
+            // Keep concatenations right-nested: (rs)t = r(st).
+            return concat(first.children.get(0), concat(first.children.get(1), second));
+        }
+        if (first.kind == Term.Kind.STAR && (second == first
+                || (second.kind == Term.Kind.CONCAT && second.children.get(0) == first))) {
+            // r*r* = r*
+            return second;
+        }
+        return intern(Term.Kind.CONCAT, null, List.of(first, second), first.nullable && second.nullable);
+    }
+
+    /**
+     * Returns the normalized Kleene star of a term.
+     * @param term The term.
+     * @return The star.
+     */
+    public Term star(Term term) {
+        if (term.kind == Term.Kind.STAR) {
+            return term;
+        }
+        if (term == nothing || term == epsilon) {
+            return epsilon;
+        }
+        if (term.kind == Term.Kind.UNION) {
+            // (ε|r)* = r* and (r*|s)* = (r|s)*
+            Term inner = nothing;
+            for (Term operand : term.children) {
+                if (operand != epsilon) {
+                    inner = union(inner, operand.kind == Term.Kind.STAR ? operand.children.get(0) : operand);
+                }
+            }
+            if (inner != term) {
+                return star(inner);
+            }
+        }
+        return intern(Term.Kind.STAR, null, List.of(term), true);
+    }
+
+    /**
+     * Returns the normalized complement of a term.
+     * @param term The term.
+     * @return The complement.
+     */
+    public Term complement(Term term) {
+        if (term.kind == Term.Kind.COMPLEMENT) {
+            return term.children.get(0);
+        }
+        if (term == anything) {
+            return nothing;
+        }
+        if (term == nothing) {
+            return anything;
+        }
+        return intern(Term.Kind.COMPLEMENT, null, List.of(term), !term.nullable);
+    }
+
+    /**
+     * Returns the normalized union of two terms.
+     * @param first The first term.
+     * @param second The second term.
+     * @return The union.
+     */
+    public Term union(Term first, Term second) {
+        if (first == second || second == nothing) {
+            return first;
+        }
+        if (first == nothing) {
+            return second;
+        }
+        if (first == anything || second == anything) {
+            return anything;
+        }
+        List<Term> operands = new ArrayList<>();
+        IntervalSet sets = IntervalSet.EMPTY;
+        for (Term term : new Term[] {first, second}) {
+            for (Term operand : term.kind == Term.Kind.UNION ? term.children : List.of(term)) {
+                if (operand.kind == Term.Kind.SET) {
+                    sets = sets.union(operand.set);
+                } else {
+                    operands.add(operand);
+                }
+            }
+        }
+        if (!sets.isEmpty()) {
+            operands.add(set(sets));
+        }
+        return associative(Term.Kind.UNION, operands, nothing);
+    }
+
+    /**
+     * Returns the normalized intersection of two terms.
+     * @param first The first term.
+     * @param second The second term.
+     * @return The intersection.
+     */
+    public Term intersect(Term first, Term second) {
+        if (first == second || second == anything) {
+            return first;
+        }
+        if (first == anything) {
+            return second;
+        }
+        if (first == nothing || second == nothing) {
+            return nothing;
+        }
+        List<Term> operands = new ArrayList<>();
+        for (Term term : new Term[] {first, second}) {
+            operands.addAll(term.kind == Term.Kind.INTERSECT ? term.children : List.of(term));
+        }
+        return associative(Term.Kind.INTERSECT, operands, anything);
+    }
+
+    /**
+     * Sorts and deduplicates the operands of a union or intersection and interns the result.
+     */
+    private Term associative(Term.Kind kind, List<Term> operands, Term identity) {
+        operands.sort((a, b) -> Integer.compare(a.id, b.id));
+        List<Term> distinct = new ArrayList<>();
+        boolean nullable = kind == Term.Kind.INTERSECT;
+        if (kind == Term.Kind.UNION && operands.contains(epsilon)
+                && operands.stream().anyMatch(operand -> operand != epsilon && operand.nullable)) {
+            // ε | r = r when r already matches the empty string.
+            operands.removeIf(operand -> operand == epsilon);
+        }
+        for (Term operand : operands) {
+            if (operand == identity || (!distinct.isEmpty() && distinct.get(distinct.size() - 1) == operand)) {
+                continue;
+            }
+            distinct.add(operand);
+            nullable = kind == Term.Kind.UNION ? nullable || operand.nullable : nullable && operand.nullable;
+        }
+        if (distinct.isEmpty()) {
+            return identity;
+        }
+        if (distinct.size() == 1) {
+            return distinct.get(0);
+        }
+        return intern(kind, null, List.copyOf(distinct), nullable);
+    }
+
+    /**
+     * Returns r{min,max} as min copies of r followed by r* or by max - min nested optional copies.
+     */
+    private Term repeat(Term term, int min, int max) {
+        Term result = epsilon;
+        if (max == RegexToken.UNBOUNDED) {
+            result = star(term);
+        } else {
+            for (int i = min; i < max; i++) {
+                result = union(concat(term, result), epsilon);
+            }
+        }
+        for (int i = 0; i < min; i++) {
+            result = concat(term, result);
+        }
+        return result;
+    }
+
+    private Term intern(Term.Kind kind, IntervalSet set, List<Term> children, boolean nullable) {
+        List<Object> key = new ArrayList<>(children.size() + 2);
+        key.add(kind);
+        key.add(set);
+        for (Term child : children) {
+            key.add(child.id);
+        }
+        Term term = terms.get(key);
+        if (term == null) {
+            term = new Term(terms.size(), kind, set, children, nullable);
+            terms.put(key, term);
+        }
+        return term;
+    }
+
+    /**
+     * Returns the number of distinct terms created so far.
+     * @return The size of the term table.
+     */
+    public int getTermCount() {
+        return terms.size();
+    }
+}
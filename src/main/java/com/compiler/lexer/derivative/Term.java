@@ -0,0 +1,84 @@
+package com.compiler.lexer.derivative;
+
+import java.util.List;
+
+import com.compiler.lexer.nfa.IntervalSet;
+
+/**
+ * Term
+ * ----
+ * An immutable regular expression term used by {@link DerivativeCompiler}. Terms are hash-consed by
+ * the compiler that creates them: structurally equal terms are the same object, so identity comparison
+ * is term equality and a term can serve directly as the key of a DFA state. Children of UNION and
+ * INTERSECT are kept sorted by id, which makes those operators associative, commutative and idempotent
+ * by construction.
+ */
+public final class Term {
+    /**
+     * Kind of a term.
+     */
+    public enum Kind {
+        /** The empty language. */
+        NOTHING,
+        /** The language of the empty string. */
+        EPSILON,
+        /** One code point of a set. */
+        SET,
+        /** Concatenation of two terms. */
+        CONCAT,
+        /** Kleene star. */
+        STAR,
+        /** Union of two or more terms. */
+        UNION,
+        /** Intersection of two or more terms. */
+        INTERSECT,
+        /** Complement with respect to all strings. */
+        COMPLEMENT
+    }
+
+    /** Creation order within the compiler; unique per compiler. */
+    public final int id;
+    /** The kind of term. */
+    public final Kind kind;
+    /** The code points of a SET term, otherwise null. */
+    public final IntervalSet set;
+    /** The operands: two for CONCAT, one for STAR and COMPLEMENT, two or more for UNION and INTERSECT. */
+    public final List<Term> children;
+    /** Whether the term matches the empty string. */
+    public final boolean nullable;
+
+    Term(int id, Kind kind, IntervalSet set, List<Term> children, boolean nullable) {
+        this.id = id;
+        this.kind = kind;
+        this.set = set;
+        this.children = children;
+        this.nullable = nullable;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case NOTHING:
+                return "∅";
+            case EPSILON:
+                return "ε";
+            case SET:
+                return set.toString();
+            case CONCAT:
+                return "(" + children.get(0) + children.get(1) + ")";
+            case STAR:
+                return children.get(0) + "*";
+            case COMPLEMENT:
+                return "~" + children.get(0);
+            default:
+                StringBuilder sb = new StringBuilder("(");
+                for (int i = 0; i < children.size(); i++) {
+                    if (i > 0) {
+                        sb.append(kind == Kind.UNION ? "|" : "&");
+                    }
+                    sb.append(children.get(i));
+                }
+                return sb.append(')').toString();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.compiler.lexer.dfa;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * ByteDfa
+ * -------
+ * A DFA over bytes stored as a flat table with 256 entries per state, for automata whose transition
+ * labels are byte values (0..255), such as the UTF-8 automata built by
+ * {@link com.compiler.lexer.Utf8Compiler}. Matching reads the input bytes directly, one table lookup per
+ * byte, without decoding it into characters first.
+ *
+ * Each state carries an accept value: -1 for a non-accepting state, otherwise a non-negative number
+ * chosen by the caller (0 for a plain final state, or the index of the lexer rule it accepts).
+ */
+public final class ByteDfa {
+    /** Width of a table row: one entry per byte value. */
+    public static final int ALPHABET_SIZE = 256;
+
+    // next[state * 256 + byte] is the target state, or -1 if there is no transition.
+    private final int[] next;
+    private final int[] accept;
+
+    /**
+     * Builds the table of a DFA whose transitions are labelled with byte values; the start state
+     * becomes state 0.
+     * @param dfa The DFA over bytes.
+     * @param acceptValues The accept value of each accepting state, or null to use 0 for every final state.
+     * @throws IllegalArgumentException if a transition is labelled with a value above 255.
+     */
+    public ByteDfa(DFA dfa, Map<DfaState, Integer> acceptValues) {
+        Map<DfaState, Integer> index = new IdentityHashMap<>();
+        index.put(dfa.startState, 0);
+        for (DfaState state : dfa.allStates) {
+            index.putIfAbsent(state, index.size());
+        }
+        int count = index.size();
+        this.next = new int[count * ALPHABET_SIZE];
+        this.accept = new int[count];
+        Arrays.fill(next, -1);
+        for (Map.Entry<DfaState, Integer> entry : index.entrySet()) {
+            DfaState state = entry.getKey();
+            int row = entry.getValue() * ALPHABET_SIZE;
+            for (int i = 0; i < state.getIntervalCount(); i++) {
+                if (state.getIntervalHigh(i) >= ALPHABET_SIZE) {
+                    throw new IllegalArgumentException("Transition label is not a byte: " + state.getIntervalHigh(i));
+                }
+                int target = index.get(state.getIntervalTarget(i));
+                for (int b = state.getIntervalLow(i); b <= state.getIntervalHigh(i); b++) {
+                    next[row + b] = target;
+                }
+            }
+            Integer value = acceptValues == null ? (state.isFinal() ? Integer.valueOf(0) : null)
+                    : acceptValues.get(state);
+            accept[entry.getValue()] = value == null ? -1 : value;
+        }
+    }
+
+    /**
+     * Returns the number of states.
+     * @return The state count.
+     */
+    public int getStateCount() {
+        return accept.length;
+    }
+
+    /**
+     * Returns the target of a transition.
+     * @param state The state index.
+     * @param b The byte value, 0..255.
+     * @return The target state index, or -1 if there is no transition.
+     */
+    public int next(int state, int b) {
+        return next[state * ALPHABET_SIZE + b];
+    }
+
+    /**
+     * Returns the accept value of a state.
+     * @param state The state index.
+     * @return The accept value, or -1 if the state is not accepting.
+     */
+    public int getAcceptValue(int state) {
+        return accept[state];
+    }
+
+    /**
+     * Checks whether the whole input is accepted.
+     * @param input The input bytes.
+     * @return true if the DFA accepts the input.
+     */
+    public boolean matches(byte[] input) {
+        int state = 0;
+        for (byte b : input) {
+            state = next[state * ALPHABET_SIZE + (b & 0xFF)];
+            if (state < 0) {
+                return false;
+            }
+        }
+        return accept[state] >= 0;
+    }
+
+    /**
+     * Checks whether the remaining bytes of a buffer, from its position to its limit, are accepted.
+     * The buffer position is not changed.
+     * @param input The input buffer.
+     * @return true if the DFA accepts the input.
+     */
+    public boolean matches(ByteBuffer input) {
+        int state = 0;
+        for (int i = input.position(); i < input.limit(); i++) {
+            state = next[state * ALPHABET_SIZE + (input.get(i) & 0xFF)];
+            if (state < 0) {
+                return false;
+            }
+        }
+        return accept[state] >= 0;
+    }
+
+    /**
+     * Finds the longest non-empty prefix of the input, from a start offset, that reaches an accepting state.
+     *
+     * @param input The input buffer, read with absolute indexes up to its limit.
+     * @param start The offset where the match starts.
+     * @param match Output array: match[0] is the end of the match and match[1] the offset just past the
+     *              last byte examined, or limit + 1 if the scan reached the end of the input.
+     * @return The accept value of the longest match, or -1 if there is none.
+     */
+    public int longestMatch(ByteBuffer input, int start, int[] match) {
+        int state = 0;
+        int value = -1;
+        int end = start;
+        int position = start;
+        int limit = input.limit();
+        while (true) {
+            if (position == limit) {
+                position = limit + 1;
+                break;
+            }
+            state = next[state * ALPHABET_SIZE + (input.get(position) & 0xFF)];
+            position++;
+            if (state < 0) {
+                break;
+            }
+            if (accept[state] >= 0) {
+                value = accept[state];
+                end = position;
+            }
+        }
+        match[0] = end;
+        match[1] = position;
+        return value;
+    }
+}
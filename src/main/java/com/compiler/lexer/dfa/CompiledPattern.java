@@ -0,0 +1,32 @@
+package com.compiler.lexer.dfa;
+
+/**
+ * CompiledPattern
+ * ---------------
+ * A compiled regular expression that can be shared by any number of threads: a {@link FrozenDfa}
+ * when the DFA fits in its budget, otherwise a {@link LazyDfa} that builds states while matching.
+ */
+public interface CompiledPattern {
+    /**
+     * Checks whether the pattern matches a whole input.
+     * @param input The input.
+     * @return true if the input is accepted.
+     */
+    boolean matches(CharSequence input);
+
+    /**
+     * Returns the end of the longest match starting at a position.
+     * @param input The input.
+     * @param from The start of the match.
+     * @return The end of the longest accepted prefix of input[from..], or -1 if there is none.
+     */
+    int matchEnd(CharSequence input, int from);
+
+    /**
+     * Explains why the pattern was not compiled to a full DFA.
+     * @return The reason, or null for a full DFA.
+     */
+    default String getFallbackReason() {
+        return null;
+    }
+}
@@ -1,10 +1,12 @@
 package com.compiler.lexer.dfa;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
-import java.util.HashSet;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.compiler.lexer.nfa.IntervalSet;
 import com.compiler.lexer.nfa.State;
 
 /**
@@ -13,16 +15,34 @@ import com.compiler.lexer.nfa.State;
  * Represents a single state in a Deterministic Finite Automaton (DFA).
  * Each DFA state corresponds to a set of states from the original NFA.
  * Provides methods for managing transitions, checking finality, and equality based on NFA state sets.
+ *
+ * Transitions are kept as sorted, disjoint code point intervals and looked up by binary search, so a
+ * state that moves on a whole character class needs one entry per interval, not one per character.
+ *
+ * A state that loops on itself for all but at most four chars, such as the body of a block comment
+ * or a string literal, can be accelerated: {@link #skipSelfLoop(CharSequence, int)} jumps over the
+ * whole run to the next escape char instead of following one transition per char. Only such near-total
+ * self-loops qualify; identifier and whitespace states leave on most chars and are stepped as usual.
  */
 public class DfaState {
     /**
-     * Returns all transitions from this state.
+     * Returns the single-character transitions from this state.
      * @return Map of input symbols to destination DFA states.
      */
     public Map<Character, DfaState> getTransitions() {
         return transitions;
     }
-    private static int nextId = 0;
+    // Ids of states created without an explicit id; atomic so that automata can be built concurrently.
+    private static final AtomicInteger nextId = new AtomicInteger();
+    // States with more escape chars than this are stepped one char at a time.
+    private static final int MAX_ESCAPES = 4;
+    // Stands for a computed "cannot be accelerated", which getEscapeChars() reports as null.
+    private static final char[] NOT_ACCELERATED = new char[0];
+    private static final IntervalSet CHARS = IntervalSet.range(0, Character.MAX_VALUE);
+    private static final IntervalSet SURROGATES =
+            IntervalSet.range(Character.MIN_SURROGATE, Character.MAX_SURROGATE);
+    private static final IntervalSet SUPPLEMENTARY =
+            IntervalSet.range(Character.MIN_SUPPLEMENTARY_CODE_POINT, Character.MAX_CODE_POINT);
     /**
      * Unique identifier for this DFA state.
      */
@@ -36,20 +56,44 @@ public class DfaState {
      */
     public boolean isFinal;
     /**
-     * Map of input symbols to destination DFA states (transitions).
+     * Map of input symbols to destination DFA states, for the transitions added one character at a
+     * time with {@link #addTransition(Character, DfaState)}. Every transition, including interval
+     * transitions, is visible through {@link #getTransition(int)}.
      */
     public final Map<Character, DfaState> transitions;
 
+    // Interval transitions: [lows[i], highs[i]] -> targets[i], sorted by low bound.
+    private int[] lows;
+    private int[] highs;
+    private DfaState[] targets;
+    private int intervalCount;
+    // Chars that leave the self-loop, computed on demand and reset whenever a transition is added;
+    // null until computed. A single volatile reference publishes the array to lexers on other threads.
+    private volatile char[] escapes;
+
     /**
-     * Constructs a new DFA state.
+     * Constructs a new DFA state with an id unique among all states created by this constructor.
      * @param nfaStates The set of NFA states that this DFA state represents.
      */
     public DfaState(Set<State> nfaStates) {
-        this.id = nextId;
-        nextId += 1;
+        this(nextId.getAndIncrement(), nfaStates);
+    }
+
+    /**
+     * Constructs a new DFA state with an id chosen by the builder of its automaton, usually its index
+     * in {@link DFA#allStates}. Builders that number their own states share no counter, so automata
+     * can be built on several threads at once.
+     * @param id The id of the state, unique within its automaton.
+     * @param nfaStates The set of NFA states that this DFA state represents.
+     */
+    public DfaState(int id, Set<State> nfaStates) {
+        this.id = id;
         this.nfaStates = nfaStates;
         this.isFinal = false;
         this.transitions = new HashMap<>();
+        this.lows = new int[2];
+        this.highs = new int[2];
+        this.targets = new DfaState[2];
     }
 
     /**
@@ -59,6 +103,178 @@ public class DfaState {
      */
     public void addTransition(Character symbol, DfaState toState) {
         transitions.put(symbol, toState);
+        int index = findInterval(symbol);
+        if (index >= 0) {
+            removeInterval(index, symbol);
+        }
+        addIntervalTransition(IntervalSet.of(symbol), toState);
+    }
+
+    /**
+     * Adds transitions from this state to another on every code point of a set.
+     * Adjacent intervals leading to the same state are merged.
+     * @param label The code points of the transition.
+     * @param toState The destination DFA state.
+     * @throws IllegalArgumentException if a code point of the set already has a transition.
+     */
+    public void addIntervalTransition(IntervalSet label, DfaState toState) {
+        for (int i = 0; i < label.intervalCount(); i++) {
+            insertInterval(label.getLow(i), label.getHigh(i), toState);
+        }
+    }
+
+    private void insertInterval(int low, int high, DfaState toState) {
+        escapes = null;
+        int position = Arrays.binarySearch(lows, 0, intervalCount, low);
+        if (position >= 0) {
+            throw new IllegalArgumentException("Overlapping DFA transition at " + low);
+        }
+        position = -position - 1;
+        if ((position > 0 && highs[position - 1] >= low) || (position < intervalCount && lows[position] <= high)) {
+            throw new IllegalArgumentException("Overlapping DFA transition at " + low + ".." + high);
+        }
+        boolean joinsPrevious = position > 0 && highs[position - 1] + 1 == low && targets[position - 1] == toState;
+        boolean joinsNext = position < intervalCount && lows[position] == high + 1 && targets[position] == toState;
+        if (joinsPrevious && joinsNext) {
+            highs[position - 1] = highs[position];
+            shift(position + 1, -1);
+        } else if (joinsPrevious) {
+            highs[position - 1] = high;
+        } else if (joinsNext) {
+            lows[position] = low;
+        } else {
+            if (intervalCount == lows.length) {
+                lows = Arrays.copyOf(lows, intervalCount * 2);
+                highs = Arrays.copyOf(highs, intervalCount * 2);
+                targets = Arrays.copyOf(targets, intervalCount * 2);
+            }
+            shift(position, 1);
+            lows[position] = low;
+            highs[position] = high;
+            targets[position] = toState;
+        }
+    }
+
+    /**
+     * Removes a single code point from an interval, splitting it if needed.
+     */
+    private void removeInterval(int index, int codePoint) {
+        int low = lows[index];
+        int high = highs[index];
+        DfaState target = targets[index];
+        shift(index + 1, -1);
+        if (low < codePoint) {
+            insertInterval(low, codePoint - 1, target);
+        }
+        if (codePoint < high) {
+            insertInterval(codePoint + 1, high, target);
+        }
+    }
+
+    /**
+     * Moves the intervals from an index on by a number of positions (negative to delete).
+     */
+    private void shift(int from, int by) {
+        int length = intervalCount - from;
+        System.arraycopy(lows, from, lows, from + by, length);
+        System.arraycopy(highs, from, highs, from + by, length);
+        System.arraycopy(targets, from, targets, from + by, length);
+        intervalCount += by;
+        if (by < 0) {
+            targets[intervalCount] = null;
+        }
+    }
+
+    /**
+     * Binary search for the interval holding a code point.
+     * @return The interval index, or -1 if no interval holds it.
+     */
+    private int findInterval(int codePoint) {
+        int low = 0;
+        int high = intervalCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (codePoint < lows[mid]) {
+                high = mid - 1;
+            } else if (codePoint > highs[mid]) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the chars on which this state does not loop on itself, if there are only a few.
+     * A surrogate char only counts as looping if every code point it can be part of loops too.
+     * @return The escape chars, possibly none, or null if the state cannot be accelerated.
+     */
+    public char[] getEscapeChars() {
+        char[] computed = escapes;
+        if (computed == null) {
+            computed = computeEscapes();
+            escapes = computed;
+        }
+        return computed == NOT_ACCELERATED ? null : computed;
+    }
+
+    private char[] computeEscapes() {
+        IntervalSet loop = IntervalSet.EMPTY;
+        for (int i = 0; i < intervalCount; i++) {
+            if (targets[i] == this) {
+                loop = loop.union(IntervalSet.range(lows[i], highs[i]));
+            }
+        }
+        if (loop.isEmpty()) {
+            return NOT_ACCELERATED;
+        }
+        IntervalSet safe = loop.intersect(CHARS);
+        if (!loop.intersect(SURROGATES).equals(SURROGATES) || !loop.intersect(SUPPLEMENTARY).equals(SUPPLEMENTARY)) {
+            safe = safe.minus(SURROGATES);
+        }
+        IntervalSet escapeSet = CHARS.minus(safe);
+        if (escapeSet.size() > MAX_ESCAPES) {
+            return NOT_ACCELERATED;
+        }
+        char[] chars = new char[(int) escapeSet.size()];
+        int n = 0;
+        for (int i = 0; i < escapeSet.intervalCount(); i++) {
+            for (int c = escapeSet.getLow(i); c <= escapeSet.getHigh(i); c++) {
+                chars[n++] = (char) c;
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * Skips the run of chars on which this state loops on itself.
+     * A single escape char in a String is found with {@link String#indexOf(int, int)}, a vectorized
+     * intrinsic in HotSpot; otherwise the chars are compared one by one.
+     * @param input The text.
+     * @param from The index of the first char to read in this state.
+     * @return The index of the first escape char at or after from, or input.length().
+     * @throws IllegalStateException if the state cannot be accelerated.
+     */
+    public int skipSelfLoop(CharSequence input, int from) {
+        char[] stop = getEscapeChars();
+        if (stop == null) {
+            throw new IllegalStateException("DFA state " + id + " cannot be accelerated");
+        }
+        int length = input.length();
+        if (stop.length == 1 && input instanceof String) {
+            int index = ((String) input).indexOf(stop[0], from);
+            return index < 0 ? length : index;
+        }
+        for (int i = from; i < length; i++) {
+            char c = input.charAt(i);
+            for (char escape : stop) {
+                if (c == escape) {
+                    return i;
+                }
+            }
+        }
+        return length;
     }
 
     /**
@@ -68,24 +284,18 @@ public class DfaState {
      */
     //@Override
     public boolean equals(Set<State> obj) {
-        if (obj instanceof Set<State>) {
-            Set<State> other = (Set<State>) obj;
-            if (other.hashCode() != this.hashCode()) {
-                return false;
-            }else {
-                return true;
-            }
-        }
-        return false;
+        return obj != null && obj.hashCode() == nfaStates.hashCode() && nfaStates.equals(obj);
     }
 
     /**
-     * The hash code is based on the set of NFA states.
+     * The hash code is based on the set of NFA states. A state built without NFA states, as by the
+     * derivative compiler, hashes on its id instead, so that hash maps of such states do not degrade
+     * into lists.
      * @return The hash code for this DFA state.
      */
     @Override
     public int hashCode() {
-        return nfaStates.hashCode();
+        return nfaStates.isEmpty() ? id : nfaStates.hashCode();
     }
     
     /**
@@ -123,11 +333,47 @@ public class DfaState {
 
     /**
      * Gets the transition for a given input symbol.
-     * @param symbol The input symbol for the transition.
+     * @param symbol The input symbol (code point) for the transition.
      * @return The destination DFA state for the transition, or null if there is no transition for the given symbol.
      */
-    public DfaState getTransition(char symbol) {
-        return transitions.get(symbol);
+    public DfaState getTransition(int symbol) {
+        int index = findInterval(symbol);
+        return index < 0 ? null : targets[index];
+    }
+
+    /**
+     * Returns the number of interval transitions of this state.
+     * @return The interval count.
+     */
+    public int getIntervalCount() {
+        return intervalCount;
+    }
+
+    /**
+     * Returns the first code point of an interval transition.
+     * @param index The interval index, in increasing code point order.
+     * @return The low bound.
+     */
+    public int getIntervalLow(int index) {
+        return lows[index];
+    }
+
+    /**
+     * Returns the last code point of an interval transition.
+     * @param index The interval index, in increasing code point order.
+     * @return The high bound (inclusive).
+     */
+    public int getIntervalHigh(int index) {
+        return highs[index];
+    }
+
+    /**
+     * Returns the destination of an interval transition.
+     * @param index The interval index, in increasing code point order.
+     * @return The destination DFA state.
+     */
+    public DfaState getIntervalTarget(int index) {
+        return targets[index];
     }
 
     /**
@@ -0,0 +1,199 @@
+package com.compiler.lexer.dfa;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * FrozenDfa
+ * ---------
+ * An immutable copy of a {@link DFA}. States are numbered from 0 in the order of {@link DFA#allStates}
+ * and the interval transitions of state s are the indexes [offsets[s], offsets[s + 1]) of final arrays
+ * of bounds and targets, sorted by low bound. Every field is final and nothing is written after
+ * construction, so one instance can be shared by any number of threads without locking, unlike the
+ * mutable {@link DfaState} graph it is built from.
+ *
+ * Example usage:
+ * <pre>
+ *     FrozenDfa dfa = FrozenDfa.of(NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("[0-9]+")));
+ *     boolean b = dfa.matches("2024");
+ * </pre>
+ */
+public final class FrozenDfa implements CompiledPattern {
+    private final int[] offsets;
+    private final int[] lows;
+    private final int[] highs;
+    private final int[] targets;
+    private final boolean[] accepting;
+    private final int startState;
+
+    private FrozenDfa(int[] offsets, int[] lows, int[] highs, int[] targets, boolean[] accepting, int startState) {
+        this.offsets = offsets;
+        this.lows = lows;
+        this.highs = highs;
+        this.targets = targets;
+        this.accepting = accepting;
+        this.startState = startState;
+    }
+
+    /**
+     * Copies a DFA.
+     * @param dfa The DFA; it is not modified and may be discarded afterwards.
+     * @return The immutable copy.
+     */
+    public static FrozenDfa of(DFA dfa) {
+        int n = dfa.allStates.size();
+        Map<DfaState, Integer> index = new IdentityHashMap<>();
+        int intervals = 0;
+        for (DfaState state : dfa.allStates) {
+            index.put(state, index.size());
+            intervals += state.getIntervalCount();
+        }
+        int[] offsets = new int[n + 1];
+        int[] lows = new int[intervals];
+        int[] highs = new int[intervals];
+        int[] targets = new int[intervals];
+        boolean[] accepting = new boolean[n];
+        int k = 0;
+        for (int s = 0; s < n; s++) {
+            DfaState state = dfa.allStates.get(s);
+            offsets[s] = k;
+            accepting[s] = state.isFinal();
+            for (int i = 0; i < state.getIntervalCount(); i++) {
+                lows[k] = state.getIntervalLow(i);
+                highs[k] = state.getIntervalHigh(i);
+                targets[k++] = index.get(state.getIntervalTarget(i));
+            }
+        }
+        offsets[n] = k;
+        return new FrozenDfa(offsets, lows, highs, targets, accepting, index.get(dfa.startState));
+    }
+
+    /**
+     * Returns the state reached from a state on a code point.
+     * @param state The state.
+     * @param codePoint The code point.
+     * @return The target state, or -1 if there is no transition.
+     */
+    public int step(int state, int codePoint) {
+        int low = offsets[state];
+        int high = offsets[state + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (codePoint < lows[middle]) {
+                high = middle - 1;
+            } else if (codePoint > highs[middle]) {
+                low = middle + 1;
+            } else {
+                return targets[middle];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the DFA accepts a whole input.
+     * @param input The input.
+     * @return true if the input is accepted.
+     */
+    @Override
+    public boolean matches(CharSequence input) {
+        int state = startState;
+        for (int p = 0; p < input.length(); ) {
+            int codePoint = Character.codePointAt(input, p);
+            p += Character.charCount(codePoint);
+            state = step(state, codePoint);
+            if (state < 0) {
+                return false;
+            }
+        }
+        return accepting[state];
+    }
+
+    /**
+     * Returns the end of the longest match starting at a position.
+     * @param input The input.
+     * @param from The start of the match.
+     * @return The end of the longest accepted prefix of input[from..], or -1 if there is none.
+     */
+    @Override
+    public int matchEnd(CharSequence input, int from) {
+        int state = startState;
+        int end = accepting[state] ? from : -1;
+        for (int p = from; p < input.length(); ) {
+            int codePoint = Character.codePointAt(input, p);
+            p += Character.charCount(codePoint);
+            state = step(state, codePoint);
+            if (state < 0) {
+                break;
+            }
+            if (accepting[state]) {
+                end = p;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the start state.
+     * @return The start state index.
+     */
+    public int getStartState() {
+        return startState;
+    }
+
+    /**
+     * Returns the number of states.
+     * @return The state count.
+     */
+    public int getStateCount() {
+        return accepting.length;
+    }
+
+    /**
+     * Checks whether a state is accepting.
+     * @param state The state.
+     * @return true if the state is final.
+     */
+    public boolean isFinal(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * Returns the number of interval transitions of a state.
+     * @param state The state.
+     * @return The interval count.
+     */
+    public int getIntervalCount(int state) {
+        return offsets[state + 1] - offsets[state];
+    }
+
+    /**
+     * Returns the first code point of an interval transition.
+     * @param state The state.
+     * @param index The interval index, in increasing code point order.
+     * @return The low bound.
+     */
+    public int getIntervalLow(int state, int index) {
+        return lows[offsets[state] + index];
+    }
+
+    /**
+     * Returns the last code point of an interval transition.
+     * @param state The state.
+     * @param index The interval index, in increasing code point order.
+     * @return The high bound (inclusive).
+     */
+    public int getIntervalHigh(int state, int index) {
+        return highs[offsets[state] + index];
+    }
+
+    /**
+     * Returns the destination of an interval transition.
+     * @param state The state.
+     * @param index The interval index, in increasing code point order.
+     * @return The destination state.
+     */
+    public int getIntervalTarget(int state, int index) {
+        return targets[offsets[state] + index];
+    }
+}
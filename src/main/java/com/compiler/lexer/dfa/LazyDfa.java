@@ -0,0 +1,294 @@
+package com.compiler.lexer.dfa;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.compiler.lexer.nfa.CompactNfa;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.metrics.MetricsRegistry;
+
+/**
+ * LazyDfa
+ * -------
+ * Matches with a DFA built on the fly from a {@link CompactNfa}: a state is the epsilon-closed set of
+ * NFA states reached so far, created the first time the input leads to it and cached, with its ASCII
+ * transitions, for later inputs. The cache holds at most a fixed number of states and an estimated
+ * number of bytes; once it is full, new sets are still computed but not kept, so matching degrades to
+ * plain NFA simulation instead of using more memory. This is the fallback for patterns whose full DFA
+ * exceeds a {@link com.compiler.lexer.CompileBudget}: only the states the inputs actually visit are
+ * built, within the same limits.
+ *
+ * The cache is a concurrent map and the transition slots are atomic references, so one instance can
+ * be shared by any number of threads without locking; two threads may compute the same state at
+ * once, and the first one interned wins. The scratch arrays of a match are pooled by the instance
+ * rather than per thread, so they are released with it.
+ *
+ * Example usage:
+ * <pre>
+ *     LazyDfa dfa = new LazyDfa(new RegexParser().parse("(a|b)*a(a|b){20}"), 10_000, null);
+ *     boolean b = dfa.matches("ab...");
+ * </pre>
+ */
+public final class LazyDfa implements CompiledPattern {
+    /**
+     * A cached state: a sorted set of NFA states.
+     */
+    private static final class Node {
+        final int[] states;
+        final int hash;
+        final boolean accepting;
+        final AtomicReferenceArray<Node> ascii = new AtomicReferenceArray<>(128);
+
+        Node(int[] states, boolean accepting) {
+            this.states = states;
+            this.hash = Arrays.hashCode(states);
+            this.accepting = accepting;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Node && hash == ((Node) obj).hash && Arrays.equals(states, ((Node) obj).states);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Scratch arrays of one match at a time; states of the set being built carry the current mark.
+     */
+    private static final class Scratch {
+        final int[] marks;
+        final int[] buffer;
+        int mark;
+        // Steps that did not follow a cached transition.
+        int misses;
+
+        Scratch(int stateCount) {
+            this.marks = new int[stateCount];
+            this.buffer = new int[stateCount];
+        }
+    }
+
+    // Approximate size of a cached state without its NFA states: the node, its 128 transition slots
+    // and its map entry.
+    private static final long NODE_BYTES = 640;
+    private static final long STATE_BYTES = Integer.BYTES;
+
+    private final CompactNfa nfa;
+    private final int maxCachedStates;
+    private final long maxCachedBytes;
+    private final String fallbackReason;
+    private final ConcurrentHashMap<Node, Node> cache;
+    private final AtomicLong cachedBytes = new AtomicLong();
+    // Idle scratch arrays; a match takes one, or makes one if none is idle, and returns it when done.
+    private final ConcurrentLinkedQueue<Scratch> scratches = new ConcurrentLinkedQueue<>();
+    private final Node start;
+    // Null unless metrics are enabled.
+    private final LongAdder transitionCounter;
+    private final LongAdder hitCounter;
+    private final LongAdder missCounter;
+
+    /**
+     * Creates a lazy DFA.
+     * @param nfa The NFA.
+     * @param maxCachedStates The maximum number of states kept in the cache.
+     * @param fallbackReason Why this pattern is matched lazily, or null.
+     * @throws IllegalArgumentException if maxCachedStates is not positive.
+     */
+    public LazyDfa(NFA nfa, int maxCachedStates, String fallbackReason) {
+        this(nfa, maxCachedStates, fallbackReason, null);
+    }
+
+    /**
+     * Creates a lazy DFA whose matches count their steps under {@link MetricsRegistry#DFA_TRANSITIONS},
+     * {@link MetricsRegistry#MATCHER_CACHE_HITS} and {@link MetricsRegistry#MATCHER_CACHE_MISSES}, once
+     * per call.
+     * @param nfa The NFA.
+     * @param maxCachedStates The maximum number of states kept in the cache.
+     * @param fallbackReason Why this pattern is matched lazily, or null.
+     * @param metrics The registry, or null.
+     * @throws IllegalArgumentException if maxCachedStates is not positive.
+     */
+    public LazyDfa(NFA nfa, int maxCachedStates, String fallbackReason, MetricsRegistry metrics) {
+        this(nfa, maxCachedStates, Long.MAX_VALUE, fallbackReason, metrics);
+    }
+
+    /**
+     * Creates a lazy DFA whose cache is also bounded by its estimated memory, as a
+     * {@link com.compiler.lexer.CompileBudget} bounds a full DFA. The start state is always cached.
+     * @param nfa The NFA.
+     * @param maxCachedStates The maximum number of states kept in the cache.
+     * @param maxCachedBytes The maximum estimated memory of the cached states, in bytes.
+     * @param fallbackReason Why this pattern is matched lazily, or null.
+     * @param metrics The registry, or null.
+     * @throws IllegalArgumentException if a limit is not positive.
+     */
+    public LazyDfa(NFA nfa, int maxCachedStates, long maxCachedBytes, String fallbackReason, MetricsRegistry metrics) {
+        if (maxCachedStates <= 0 || maxCachedBytes <= 0) {
+            throw new IllegalArgumentException("The cache must hold at least one state");
+        }
+        this.nfa = CompactNfa.of(nfa);
+        this.maxCachedStates = maxCachedStates;
+        this.maxCachedBytes = maxCachedBytes;
+        this.fallbackReason = fallbackReason;
+        this.transitionCounter = metrics == null ? null : metrics.counter(MetricsRegistry.DFA_TRANSITIONS);
+        this.hitCounter = metrics == null ? null : metrics.counter(MetricsRegistry.MATCHER_CACHE_HITS);
+        this.missCounter = metrics == null ? null : metrics.counter(MetricsRegistry.MATCHER_CACHE_MISSES);
+        this.cache = new ConcurrentHashMap<>();
+        Scratch scratch = new Scratch(this.nfa.getStateCount());
+        scratch.mark = 1;
+        scratch.buffer[0] = 0;
+        scratch.marks[0] = 1;
+        Node first = node(scratch, this.nfa.closure(scratch.buffer, 1, scratch.marks, 1));
+        cache.put(first, first);
+        cachedBytes.addAndGet(bytes(first));
+        this.start = first;
+        scratches.offer(scratch);
+    }
+
+    private static long bytes(Node node) {
+        return NODE_BYTES + STATE_BYTES * node.states.length;
+    }
+
+    private Node node(Scratch scratch, int size) {
+        int[] states = Arrays.copyOf(scratch.buffer, size);
+        Arrays.sort(states);
+        boolean accepting = false;
+        for (int state : states) {
+            accepting |= nfa.isFinal(state);
+        }
+        return new Node(states, accepting);
+    }
+
+    /**
+     * Returns the cached copy of a state, caching it if there is room; otherwise the state itself.
+     */
+    private Node intern(Node node) {
+        Node cached = cache.get(node);
+        if (cached != null) {
+            return cached;
+        }
+        long size = bytes(node);
+        if (cache.size() >= maxCachedStates || cachedBytes.get() + size > maxCachedBytes) {
+            return node;
+        }
+        cached = cache.putIfAbsent(node, node);
+        if (cached != null) {
+            return cached;
+        }
+        cachedBytes.addAndGet(size);
+        return node;
+    }
+
+    private Node step(Node node, int codePoint, Scratch scratch) {
+        if (codePoint < 128) {
+            Node cached = node.ascii.get(codePoint);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        scratch.misses++;
+        if (scratch.mark == Integer.MAX_VALUE) {
+            // The scratch outlives many matches: restart the marks before they wrap around.
+            Arrays.fill(scratch.marks, 0);
+            scratch.mark = 0;
+        }
+        int mark = ++scratch.mark;
+        int size = 0;
+        for (int state : node.states) {
+            for (int e = nfa.edgeStart(state); e < nfa.edgeEnd(state); e++) {
+                int target = nfa.getTarget(e);
+                if (scratch.marks[target] != mark && nfa.matches(e, codePoint)) {
+                    scratch.marks[target] = mark;
+                    scratch.buffer[size++] = target;
+                }
+            }
+        }
+        Node next = intern(node(scratch, nfa.closure(scratch.buffer, size, scratch.marks, mark)));
+        // Only links between cached states are kept, so uncached states can be collected.
+        if (codePoint < 128 && cache.get(node) == node && cache.get(next) == next) {
+            node.ascii.compareAndSet(codePoint, null, next);
+        }
+        return next;
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        Scratch scratch = takeScratch();
+        Node node = start;
+        int steps = 0;
+        for (int p = 0; p < input.length() && node.states.length > 0; ) {
+            int codePoint = Character.codePointAt(input, p);
+            p += Character.charCount(codePoint);
+            node = step(node, codePoint, scratch);
+            steps++;
+        }
+        count(steps, scratch);
+        return node.accepting;
+    }
+
+    @Override
+    public int matchEnd(CharSequence input, int from) {
+        Scratch scratch = takeScratch();
+        Node node = start;
+        int end = node.accepting ? from : -1;
+        int steps = 0;
+        for (int p = from; p < input.length() && node.states.length > 0; ) {
+            int codePoint = Character.codePointAt(input, p);
+            p += Character.charCount(codePoint);
+            node = step(node, codePoint, scratch);
+            steps++;
+            if (node.accepting) {
+                end = p;
+            }
+        }
+        count(steps, scratch);
+        return end;
+    }
+
+    private Scratch takeScratch() {
+        Scratch scratch = scratches.poll();
+        return scratch != null ? scratch : new Scratch(nfa.getStateCount());
+    }
+
+    /**
+     * Counts the steps of a match and returns its scratch arrays to the pool.
+     */
+    private void count(int steps, Scratch scratch) {
+        if (transitionCounter != null) {
+            transitionCounter.add(steps);
+            hitCounter.add(steps - scratch.misses);
+            missCounter.add(scratch.misses);
+        }
+        scratch.misses = 0;
+        scratches.offer(scratch);
+    }
+
+    @Override
+    public String getFallbackReason() {
+        return fallbackReason;
+    }
+
+    /**
+     * Returns the number of states in the cache.
+     * @return The cached state count.
+     */
+    public int getCachedStateCount() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the estimated memory of the states in the cache.
+     * @return The estimate, in bytes.
+     */
+    public long getCachedBytes() {
+        return cachedBytes.get();
+    }
+}
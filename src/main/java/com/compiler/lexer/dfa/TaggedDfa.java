@@ -0,0 +1,200 @@
+package com.compiler.lexer.dfa;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TaggedDfa
+ * ---------
+ * A tagged DFA (Laurikari, Trofimovich) that matches a whole input and extracts the positions of its
+ * capture groups in the same single pass. Besides its state, the automaton keeps a small array of
+ * registers holding input positions. Each transition carries register operations: register k of the
+ * target state receives either the current position or the value of a register of the source state.
+ * Every accepting state tells which register holds each tag (the start or end of a group).
+ * Transitions whose operations leave every register in place cost nothing beyond the state change.
+ *
+ * Built by {@link com.compiler.lexer.NfaToDfaConverter#convertTaggedNfaToDfa}. When several paths
+ * match, groups follow the leftmost-greedy (Perl) rule: the left alternative first, then as many
+ * iterations as possible; a group inside a repetition reports its last iteration.
+ *
+ * Example usage:
+ * <pre>
+ *     NFA nfa = new RegexParser().parseWithCaptures("([a-z]+)@([a-z]+)");
+ *     TaggedDfa tdfa = NfaToDfaConverter.convertTaggedNfaToDfa(nfa);
+ *     int[] groups = tdfa.match("joe@example");   // {0, 11, 0, 3, 4, 11}
+ * </pre>
+ */
+public class TaggedDfa {
+    private static final class TaggedState {
+        int[] lows = new int[2];
+        int[] highs = new int[2];
+        int[] targets = new int[2];
+        // ops[i][k]: source register of target register k (-1 = current position); null if none moves.
+        int[][] ops = new int[2][];
+        int count;
+        final int registerCount;
+        // Register of each tag when the state accepts, -1 for an unset tag; null if not accepting.
+        final int[] finalTags;
+
+        TaggedState(int registerCount, int[] finalTags) {
+            this.registerCount = registerCount;
+            this.finalTags = finalTags;
+        }
+    }
+
+    private final int groupCount;
+    private final List<TaggedState> states;
+    private int maxRegisters;
+
+    /**
+     * Creates a tagged DFA with no states; state 0, added first, is the start state. Its registers all
+     * hold position 0.
+     * @param groupCount The number of capture groups.
+     */
+    public TaggedDfa(int groupCount) {
+        this.groupCount = groupCount;
+        this.states = new ArrayList<>();
+    }
+
+    /**
+     * Adds a state.
+     * @param registerCount The number of registers live in the state.
+     * @param finalTags For an accepting state, the register of each tag (-1 if unset); otherwise null.
+     * @return The id of the state.
+     */
+    public int addState(int registerCount, int[] finalTags) {
+        states.add(new TaggedState(registerCount, finalTags));
+        maxRegisters = Math.max(maxRegisters, registerCount);
+        return states.size() - 1;
+    }
+
+    /**
+     * Adds a transition on a range of code points. Transitions of a state must be added in increasing
+     * code point order and must not overlap.
+     * @param from The source state.
+     * @param low The first code point.
+     * @param high The last code point.
+     * @param to The target state.
+     * @param ops For each register of the target state, the source register to copy, or -1 for the
+     *            position after the code point.
+     * @throws IllegalArgumentException if the range is not after the previous one of the state.
+     */
+    public void addTransition(int from, int low, int high, int to, int[] ops) {
+        TaggedState state = states.get(from);
+        if (state.count > 0 && state.highs[state.count - 1] >= low) {
+            throw new IllegalArgumentException("Tagged DFA transitions must be added in order at " + low);
+        }
+        boolean identity = true;
+        for (int k = 0; k < ops.length; k++) {
+            identity &= ops[k] == k;
+        }
+        int[] copy = identity ? null : ops.clone();
+        int last = state.count - 1;
+        if (last >= 0 && state.highs[last] + 1 == low && state.targets[last] == to
+                && Arrays.equals(state.ops[last], copy)) {
+            state.highs[last] = high;
+            return;
+        }
+        if (state.count == state.lows.length) {
+            state.lows = Arrays.copyOf(state.lows, state.count * 2);
+            state.highs = Arrays.copyOf(state.highs, state.count * 2);
+            state.targets = Arrays.copyOf(state.targets, state.count * 2);
+            state.ops = Arrays.copyOf(state.ops, state.count * 2);
+        }
+        state.lows[state.count] = low;
+        state.highs[state.count] = high;
+        state.targets[state.count] = to;
+        state.ops[state.count] = copy;
+        state.count++;
+    }
+
+    /**
+     * Matches a whole input and extracts its groups.
+     * @param input The input.
+     * @return null if the input does not match; otherwise the start and end of group 0 (the whole
+     *         input) followed by those of each capture group, -1 for a group that did not participate.
+     */
+    public int[] match(CharSequence input) {
+        if (states.isEmpty()) {
+            return null;
+        }
+        TaggedState state = states.get(0);
+        int[] registers = new int[maxRegisters];
+        int[] next = new int[maxRegisters];
+        int position = 0;
+        int length = input.length();
+        while (position < length) {
+            int c = Character.codePointAt(input, position);
+            int index = find(state, c);
+            if (index < 0) {
+                return null;
+            }
+            position += Character.charCount(c);
+            int[] ops = state.ops[index];
+            if (ops != null) {
+                for (int k = 0; k < ops.length; k++) {
+                    next[k] = ops[k] < 0 ? position : registers[ops[k]];
+                }
+                int[] swap = registers;
+                registers = next;
+                next = swap;
+            }
+            state = states.get(state.targets[index]);
+        }
+        if (state.finalTags == null) {
+            return null;
+        }
+        int[] groups = new int[2 * (groupCount + 1)];
+        groups[0] = 0;
+        groups[1] = length;
+        for (int g = 0; g < groupCount; g++) {
+            int open = state.finalTags[2 * g];
+            int close = state.finalTags[2 * g + 1];
+            boolean set = open >= 0 && close >= 0;
+            groups[2 * g + 2] = set ? registers[open] : -1;
+            groups[2 * g + 3] = set ? registers[close] : -1;
+        }
+        return groups;
+    }
+
+    private static int find(TaggedState state, int codePoint) {
+        int low = 0;
+        int high = state.count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (codePoint < state.lows[mid]) {
+                high = mid - 1;
+            } else if (codePoint > state.highs[mid]) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of capture groups.
+     * @return The group count, not counting group 0.
+     */
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * Returns the number of states.
+     * @return The state count.
+     */
+    public int getStateCount() {
+        return states.size();
+    }
+
+    /**
+     * Returns the largest number of registers live in one state.
+     * @return The register count.
+     */
+    public int getRegisterCount() {
+        return maxRegisters;
+    }
+}
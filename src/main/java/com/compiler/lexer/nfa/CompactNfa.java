@@ -0,0 +1,342 @@
+package com.compiler.lexer.nfa;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CompactNfa
+ * ----------
+ * A frozen NFA in compressed sparse row form. States are numbered from 0 (the start state) in
+ * depth-first order; the labelled edges of state s are the indexes [edgeStart(s), edgeEnd(s)) of flat
+ * {@code int} arrays of targets and labels, and its epsilon edges (tagged ones included) are a separate
+ * range [epsilonStart(s), epsilonEnd(s)) of an array of targets. Labels are deduplicated: an edge label
+ * is an index into a table of intervals, so the many copies of the same class in a Thompson NFA are
+ * stored once. Nothing is allocated while the automaton is walked, and a state costs a few ints instead
+ * of a {@link State}, its transition list and one {@link Transition} per edge.
+ *
+ * The automaton is a snapshot: changing the states of the original NFA afterwards does not affect it.
+ *
+ * Example usage:
+ * <pre>
+ *     CompactNfa compact = CompactNfa.of(nfa);
+ *     for (int e = compact.edgeStart(s); e &lt; compact.edgeEnd(s); e++) {
+ *         if (compact.matches(e, codePoint)) { ... compact.getTarget(e) ... }
+ *     }
+ * </pre>
+ */
+public final class CompactNfa {
+    // Labelled edges of state s: [edgeOffsets[s], edgeOffsets[s + 1]).
+    private final int[] edgeOffsets;
+    private final int[] targets;
+    private final int[] labels;
+    // Epsilon edges of state s: [epsilonOffsets[s], epsilonOffsets[s + 1]).
+    private final int[] epsilonOffsets;
+    private final int[] epsilonTargets;
+    // Intervals of label l: labelBounds[2k], labelBounds[2k + 1] for k in [labelOffsets[l], labelOffsets[l + 1]).
+    private final int[] labelOffsets;
+    private final int[] labelBounds;
+    private final boolean[] accepting;
+    private final boolean epsilonFree;
+
+    private CompactNfa(int[] edgeOffsets, int[] targets, int[] labels, int[] epsilonOffsets, int[] epsilonTargets,
+            int[] labelOffsets, int[] labelBounds, boolean[] accepting, boolean epsilonFree) {
+        this.edgeOffsets = edgeOffsets;
+        this.targets = targets;
+        this.labels = labels;
+        this.epsilonOffsets = epsilonOffsets;
+        this.epsilonTargets = epsilonTargets;
+        this.labelOffsets = labelOffsets;
+        this.labelBounds = labelBounds;
+        this.accepting = accepting;
+        this.epsilonFree = epsilonFree;
+    }
+
+    /**
+     * Freezes the states reachable from the start of an NFA.
+     * @param nfa The NFA.
+     * @return The compact automaton.
+     */
+    public static CompactNfa of(NFA nfa) {
+        return of(nfa, null);
+    }
+
+    /**
+     * Freezes the states reachable from the start of an NFA, reporting the numbering of the states.
+     * @param nfa The NFA.
+     * @param states If not null, receives the NFA states in index order.
+     * @return The compact automaton.
+     */
+    public static CompactNfa of(NFA nfa, List<State> states) {
+        Map<State, Integer> index = new IdentityHashMap<>();
+        List<State> order = states != null ? states : new ArrayList<>();
+        order.clear();
+        Deque<State> pending = new ArrayDeque<>();
+        index.put(nfa.startState, 0);
+        order.add(nfa.startState);
+        pending.push(nfa.startState);
+        int edgeCount = 0;
+        int epsilonCount = 0;
+        while (!pending.isEmpty()) {
+            for (Transition t : pending.pop().transitions) {
+                if (t.isEpsilon()) {
+                    epsilonCount++;
+                } else {
+                    edgeCount++;
+                }
+                if (!index.containsKey(t.toState)) {
+                    index.put(t.toState, order.size());
+                    order.add(t.toState);
+                    pending.push(t.toState);
+                }
+            }
+        }
+
+        int n = order.size();
+        int[] edgeOffsets = new int[n + 1];
+        int[] targets = new int[edgeCount];
+        int[] labels = new int[edgeCount];
+        int[] epsilonOffsets = new int[n + 1];
+        int[] epsilonTargets = new int[epsilonCount];
+        boolean[] accepting = new boolean[n];
+        Map<IntervalSet, Integer> labelIndex = new HashMap<>();
+        List<IntervalSet> distinctLabels = new ArrayList<>();
+        int e = 0;
+        int k = 0;
+        for (int s = 0; s < n; s++) {
+            State state = order.get(s);
+            accepting[s] = state.isFinal;
+            edgeOffsets[s] = e;
+            epsilonOffsets[s] = k;
+            for (Transition t : state.transitions) {
+                if (t.isEpsilon()) {
+                    epsilonTargets[k++] = index.get(t.toState);
+                    continue;
+                }
+                Integer label = labelIndex.get(t.label);
+                if (label == null) {
+                    label = distinctLabels.size();
+                    labelIndex.put(t.label, label);
+                    distinctLabels.add(t.label);
+                }
+                targets[e] = index.get(t.toState);
+                labels[e++] = label;
+            }
+        }
+        edgeOffsets[n] = e;
+        epsilonOffsets[n] = k;
+
+        int[] labelOffsets = new int[distinctLabels.size() + 1];
+        int intervals = 0;
+        for (int l = 0; l < distinctLabels.size(); l++) {
+            labelOffsets[l] = intervals;
+            intervals += distinctLabels.get(l).intervalCount();
+        }
+        labelOffsets[distinctLabels.size()] = intervals;
+        int[] labelBounds = new int[2 * intervals];
+        for (int l = 0; l < distinctLabels.size(); l++) {
+            IntervalSet label = distinctLabels.get(l);
+            for (int i = 0; i < label.intervalCount(); i++) {
+                labelBounds[2 * (labelOffsets[l] + i)] = label.getLow(i);
+                labelBounds[2 * (labelOffsets[l] + i) + 1] = label.getHigh(i);
+            }
+        }
+        return new CompactNfa(edgeOffsets, targets, labels, epsilonOffsets, epsilonTargets, labelOffsets,
+                labelBounds, accepting, nfa.epsilonFree || epsilonCount == 0);
+    }
+
+    /**
+     * Returns the number of states.
+     * @return The state count; the start state is 0.
+     */
+    public int getStateCount() {
+        return accepting.length;
+    }
+
+    /**
+     * Returns the number of labelled edges.
+     * @return The edge count.
+     */
+    public int getEdgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the number of epsilon edges.
+     * @return The epsilon edge count.
+     */
+    public int getEpsilonEdgeCount() {
+        return epsilonTargets.length;
+    }
+
+    /**
+     * Returns the number of distinct edge labels.
+     * @return The label count.
+     */
+    public int getLabelCount() {
+        return labelOffsets.length - 1;
+    }
+
+    /**
+     * Checks whether a state is accepting.
+     * @param state The state.
+     * @return true if the state is final.
+     */
+    public boolean isFinal(int state) {
+        return accepting[state];
+    }
+
+    /**
+     * Checks whether the automaton has no epsilon edge.
+     * @return true if epsilon-closures can be skipped.
+     */
+    public boolean isEpsilonFree() {
+        return epsilonFree;
+    }
+
+    /**
+     * Returns the first labelled edge of a state.
+     * @param state The state.
+     * @return The edge index.
+     */
+    public int edgeStart(int state) {
+        return edgeOffsets[state];
+    }
+
+    /**
+     * Returns the index just past the last labelled edge of a state.
+     * @param state The state.
+     * @return The edge index.
+     */
+    public int edgeEnd(int state) {
+        return edgeOffsets[state + 1];
+    }
+
+    /**
+     * Returns the target of a labelled edge.
+     * @param edge The edge index.
+     * @return The target state.
+     */
+    public int getTarget(int edge) {
+        return targets[edge];
+    }
+
+    /**
+     * Returns the label of a labelled edge.
+     * @param edge The edge index.
+     * @return The label index.
+     */
+    public int getLabel(int edge) {
+        return labels[edge];
+    }
+
+    /**
+     * Checks whether a labelled edge applies to a code point.
+     * @param edge The edge index.
+     * @param codePoint The code point.
+     * @return true if the label of the edge contains the code point.
+     */
+    public boolean matches(int edge, int codePoint) {
+        int label = labels[edge];
+        int low = labelOffsets[label];
+        int high = labelOffsets[label + 1] - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (codePoint < labelBounds[2 * middle]) {
+                high = middle - 1;
+            } else if (codePoint > labelBounds[2 * middle + 1]) {
+                low = middle + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of intervals of a label.
+     * @param label The label index.
+     * @return The interval count.
+     */
+    public int getLabelIntervalCount(int label) {
+        return labelOffsets[label + 1] - labelOffsets[label];
+    }
+
+    /**
+     * Returns the first code point of an interval of a label.
+     * @param label The label index.
+     * @param index The interval index.
+     * @return The low bound.
+     */
+    public int getLabelLow(int label, int index) {
+        return labelBounds[2 * (labelOffsets[label] + index)];
+    }
+
+    /**
+     * Returns the last code point of an interval of a label.
+     * @param label The label index.
+     * @param index The interval index.
+     * @return The high bound (inclusive).
+     */
+    public int getLabelHigh(int label, int index) {
+        return labelBounds[2 * (labelOffsets[label] + index) + 1];
+    }
+
+    /**
+     * Returns the first epsilon edge of a state.
+     * @param state The state.
+     * @return The epsilon edge index.
+     */
+    public int epsilonStart(int state) {
+        return epsilonOffsets[state];
+    }
+
+    /**
+     * Returns the index just past the last epsilon edge of a state.
+     * @param state The state.
+     * @return The epsilon edge index.
+     */
+    public int epsilonEnd(int state) {
+        return epsilonOffsets[state + 1];
+    }
+
+    /**
+     * Returns the target of an epsilon edge.
+     * @param edge The epsilon edge index.
+     * @return The target state.
+     */
+    public int getEpsilonTarget(int edge) {
+        return epsilonTargets[edge];
+    }
+
+    /**
+     * Adds the epsilon-closure of the states of {@code set[0..size)} to the set, in place. A state is
+     * in the set when {@code marks[state] == mark}; the array must be able to hold every state.
+     * @param set The states, extended with the states they reach by epsilon edges.
+     * @param size The number of states in the set.
+     * @param marks The membership marks, one per state.
+     * @param mark The mark of the set; the states of {@code set[0..size)} must already carry it.
+     * @return The new size of the set.
+     */
+    public int closure(int[] set, int size, int[] marks, int mark) {
+        if (epsilonFree) {
+            return size;
+        }
+        // The set doubles as the work list: states past i still have to be expanded.
+        for (int i = 0; i < size; i++) {
+            int state = set[i];
+            for (int k = epsilonOffsets[state]; k < epsilonOffsets[state + 1]; k++) {
+                int target = epsilonTargets[k];
+                if (marks[target] != mark) {
+                    marks[target] = mark;
+                    set[size++] = target;
+                }
+            }
+        }
+        return size;
+    }
+}
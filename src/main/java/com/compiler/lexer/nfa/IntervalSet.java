@@ -0,0 +1,269 @@
+package com.compiler.lexer.nfa;
+
+import java.util.Arrays;
+
+/**
+ * IntervalSet
+ * -----------
+ * Immutable set of Unicode code points stored as sorted, disjoint and non-adjacent closed intervals.
+ * Used as the label of NFA and DFA transitions so that a character class such as {@code [a-zA-Z_]}
+ * is a single transition instead of a union of one transition per character.
+ *
+ * Example usage:
+ * <pre>
+ *     IntervalSet letters = IntervalSet.range('a', 'z').union(IntervalSet.range('A', 'Z'));
+ *     boolean b = letters.contains('q');
+ * </pre>
+ */
+public final class IntervalSet {
+    /** The empty set. */
+    public static final IntervalSet EMPTY = new IntervalSet(new int[0]);
+    /** Every code point, from 0 to {@link Character#MAX_CODE_POINT}. */
+    public static final IntervalSet ALL = new IntervalSet(new int[] {0, Character.MAX_CODE_POINT});
+
+    // lo0, hi0, lo1, hi1, ... sorted, disjoint and non-adjacent.
+    private final int[] bounds;
+
+    private IntervalSet(int[] bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * Returns the set holding a single code point.
+     * @param codePoint The code point.
+     * @return The set.
+     */
+    public static IntervalSet of(int codePoint) {
+        return range(codePoint, codePoint);
+    }
+
+    /**
+     * Returns the set of the code points between two bounds.
+     * @param low The first code point.
+     * @param high The last code point (inclusive).
+     * @return The set.
+     * @throws IllegalArgumentException if the bounds are not valid code points or low &gt; high.
+     */
+    public static IntervalSet range(int low, int high) {
+        if (low < 0 || high > Character.MAX_CODE_POINT || low > high) {
+            throw new IllegalArgumentException("Invalid code point range: " + low + ".." + high);
+        }
+        return new IntervalSet(new int[] {low, high});
+    }
+
+    /**
+     * Returns the union of any number of ranges, given as consecutive (low, high) pairs in any order.
+     * @param ranges The range bounds; overlapping and adjacent ranges are merged.
+     * @return The set.
+     * @throws IllegalArgumentException if the number of bounds is odd or a range is invalid.
+     */
+    public static IntervalSet ofRanges(int... ranges) {
+        if (ranges.length % 2 != 0) {
+            throw new IllegalArgumentException("Ranges must be given as (low, high) pairs");
+        }
+        long[] packed = new long[ranges.length / 2];
+        for (int i = 0; i < packed.length; i++) {
+            int low = ranges[2 * i];
+            int high = ranges[2 * i + 1];
+            if (low < 0 || high > Character.MAX_CODE_POINT || low > high) {
+                throw new IllegalArgumentException("Invalid code point range: " + low + ".." + high);
+            }
+            packed[i] = ((long) low << 32) | high;
+        }
+        Arrays.sort(packed);
+        int[] merged = new int[ranges.length];
+        int size = 0;
+        for (long range : packed) {
+            int low = (int) (range >>> 32);
+            int high = (int) range;
+            if (size > 0 && low <= merged[size - 1] + 1) {
+                merged[size - 1] = Math.max(merged[size - 1], high);
+            } else {
+                merged[size++] = low;
+                merged[size++] = high;
+            }
+        }
+        return new IntervalSet(Arrays.copyOf(merged, size));
+    }
+
+    /**
+     * Returns the union of this set and another.
+     * @param other The other set.
+     * @return The union.
+     */
+    public IntervalSet union(IntervalSet other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (isEmpty()) {
+            return other;
+        }
+        int[] all = Arrays.copyOf(bounds, bounds.length + other.bounds.length);
+        System.arraycopy(other.bounds, 0, all, bounds.length, other.bounds.length);
+        return ofRanges(all);
+    }
+
+    /**
+     * Returns the intersection of this set and another.
+     * @param other The other set.
+     * @return The intersection.
+     */
+    public IntervalSet intersect(IntervalSet other) {
+        int[] result = new int[bounds.length + other.bounds.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < bounds.length && j < other.bounds.length) {
+            int low = Math.max(bounds[i], other.bounds[j]);
+            int high = Math.min(bounds[i + 1], other.bounds[j + 1]);
+            if (low <= high) {
+                result[size++] = low;
+                result[size++] = high;
+            }
+            if (bounds[i + 1] < other.bounds[j + 1]) {
+                i += 2;
+            } else {
+                j += 2;
+            }
+        }
+        return new IntervalSet(Arrays.copyOf(result, size));
+    }
+
+    /**
+     * Returns the code points that are not in this set.
+     * @return The complement with respect to {@link #ALL}.
+     */
+    public IntervalSet complement() {
+        int[] result = new int[bounds.length + 2];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (bounds[i] > next) {
+                result[size++] = next;
+                result[size++] = bounds[i] - 1;
+            }
+            next = bounds[i + 1] + 1;
+        }
+        if (next <= Character.MAX_CODE_POINT) {
+            result[size++] = next;
+            result[size++] = Character.MAX_CODE_POINT;
+        }
+        return new IntervalSet(Arrays.copyOf(result, size));
+    }
+
+    /**
+     * Returns the code points of this set that are not in another.
+     * @param other The set to remove.
+     * @return The difference.
+     */
+    public IntervalSet minus(IntervalSet other) {
+        return intersect(other.complement());
+    }
+
+    /**
+     * Checks whether a code point belongs to the set, by binary search over the intervals.
+     * @param codePoint The code point.
+     * @return true if the code point is in the set.
+     */
+    public boolean contains(int codePoint) {
+        int low = 0;
+        int high = bounds.length / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (codePoint < bounds[2 * mid]) {
+                high = mid - 1;
+            } else if (codePoint > bounds[2 * mid + 1]) {
+                low = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the set is empty.
+     * @return true if the set has no code point.
+     */
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+
+    /**
+     * Returns the number of intervals of the set.
+     * @return The interval count.
+     */
+    public int intervalCount() {
+        return bounds.length / 2;
+    }
+
+    /**
+     * Returns the first code point of an interval.
+     * @param index The interval index, in increasing order.
+     * @return The low bound.
+     */
+    public int getLow(int index) {
+        return bounds[2 * index];
+    }
+
+    /**
+     * Returns the last code point of an interval.
+     * @param index The interval index, in increasing order.
+     * @return The high bound (inclusive).
+     */
+    public int getHigh(int index) {
+        return bounds[2 * index + 1];
+    }
+
+    /**
+     * Returns the number of code points in the set.
+     * @return The size of the set.
+     */
+    public long size() {
+        long size = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            size += bounds[i + 1] - bounds[i] + 1;
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether the set holds exactly one code point.
+     * @return true for a singleton set.
+     */
+    public boolean isSingleton() {
+        return bounds.length == 2 && bounds[0] == bounds[1];
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof IntervalSet && Arrays.equals(bounds, ((IntervalSet) obj).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    @Override
+    public String toString() {
+        if (isSingleton()) {
+            return format(bounds[0]);
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < bounds.length; i += 2) {
+            sb.append(format(bounds[i]));
+            if (bounds[i + 1] != bounds[i]) {
+                sb.append('-').append(format(bounds[i + 1]));
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String format(int codePoint) {
+        if (codePoint > 0x20 && codePoint < 0x7f) {
+            return new String(Character.toChars(codePoint));
+        }
+        return String.format("\\u{%X}", codePoint);
+    }
+}
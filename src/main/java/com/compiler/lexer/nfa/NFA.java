@@ -1,5 +1,12 @@
 package com.compiler.lexer.nfa;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Represents a Non-deterministic Finite Automaton (NFA) with a start and end state.
  * <p>
@@ -14,10 +21,17 @@ public class NFA {
     public final State startState;
 
     /**
-     * The final (accepting) state of the NFA.
+     * The final (accepting) state of the NFA, or null when the NFA has several final states
+     * (see {@link State#isFinal}).
      */
     public final State endState;
 
+    /**
+     * True if no state of the NFA has an epsilon transition, so that simulation and subset
+     * construction can skip epsilon-closure computation.
+     */
+    public final boolean epsilonFree;
+
  
     /**
      * Constructs a new NFA with the given start and end states.
@@ -25,8 +39,19 @@ public class NFA {
      * @param end The final (accepting) state.
      */
     public NFA(State start, State end) {
+        this(start, end, false);
+    }
+
+    /**
+     * Constructs a new NFA, declaring whether it has epsilon transitions.
+     * @param start The initial state.
+     * @param end The final (accepting) state, or null if final states are marked individually.
+     * @param epsilonFree True if no state has an epsilon transition.
+     */
+    public NFA(State start, State end, boolean epsilonFree) {
         this.startState = start;
         this.endState = end;
+        this.epsilonFree = epsilonFree;
     }
 
     /**
@@ -37,6 +62,49 @@ public class NFA {
         return this.startState;
     }
 
+    /**
+     * Builds the reverse automaton, which accepts the reversal of every string this NFA accepts.
+     * Every transition is flipped; a new start state has epsilon transitions to the former final
+     * states (the end state, or every state marked final when there is none), and the former start
+     * state becomes the end state. The states of this NFA are not modified.
+     * @return The reverse NFA.
+     */
+    public NFA reverse() {
+        Map<State, State> copies = new IdentityHashMap<>();
+        List<State> originals = new ArrayList<>();
+        Deque<State> pending = new ArrayDeque<>();
+        copies.put(startState, new State());
+        originals.add(startState);
+        pending.push(startState);
+        while (!pending.isEmpty()) {
+            State state = pending.pop();
+            for (Transition t : state.transitions) {
+                if (!copies.containsKey(t.toState)) {
+                    copies.put(t.toState, new State());
+                    originals.add(t.toState);
+                    pending.push(t.toState);
+                }
+            }
+        }
+        State start = new State();
+        for (State original : originals) {
+            State copy = copies.get(original);
+            for (Transition t : original.transitions) {
+                if (t.isEpsilon()) {
+                    copies.get(t.toState).addTransition(null, copy);
+                } else {
+                    copies.get(t.toState).addIntervalTransition(t.label, copy);
+                }
+            }
+            if (endState == null ? original.isFinal : original == endState) {
+                start.addTransition(null, copy);
+            }
+        }
+        State end = copies.get(startState);
+        end.isFinal = true;
+        return new NFA(start, end);
+    }
+
     /**
      * Returns string represents the NFA
      * recorver your state througn transitions, and print
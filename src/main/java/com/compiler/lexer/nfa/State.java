@@ -2,6 +2,7 @@ package com.compiler.lexer.nfa;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a state in a Non-deterministic Finite Automaton (NFA).
@@ -18,11 +19,12 @@ import java.util.ArrayList;
  *
  *
  * <p>
- * The {@code nextId} static field is used to assign unique IDs to each state.
+ * The {@code nextId} static counter is used to assign unique IDs to each state. It is atomic, so NFAs
+ * can be built on several threads at once; ids are only compared within one NFA.
  * </p>
  */
 public class State {
-    private static int nextId = 0;
+    private static final AtomicInteger nextId = new AtomicInteger();
     /**
      * Unique identifier for this state.
      */
@@ -43,8 +45,7 @@ public class State {
      * The state is not final by default.
      */
     public State() {
-        this.id = nextId;
-        nextId += 1;
+        this.id = nextId.getAndIncrement();
         this.transitions = new ArrayList<>();
         this.isFinal = false;
     }
@@ -64,7 +65,7 @@ public class State {
     public List<State> getEpsilonTransitions() {
         List<State> result = new ArrayList<>();
         for (Transition t : transitions) {
-            if (t.symbol == null) {
+            if (t.isEpsilon()) {
                 // Add the destination state to the result list
                 result.add(t.toState);
             }
@@ -74,13 +75,13 @@ public class State {
 
     /**
      * Returns the states reachable from this state via a transition with the given symbol.
-     * @param symbol the symbol for the transition
+     * @param symbol the symbol (code point) for the transition
      * @return a list of states reachable by the given symbol
      */
-    public List<State> getTransitions(char symbol) {
+    public List<State> getTransitions(int symbol) {
         List<State> result = new ArrayList<>();
         for ( Transition t : transitions) {
-            if (t.symbol != null && t.symbol == symbol) {
+            if (t.label != null && t.label.contains(symbol)) {
                 result.add(t.toState);
             }
         }
@@ -95,4 +96,22 @@ public class State {
     public void addTransition(Character symbol, State toState) {
         transitions.add(new Transition(symbol, toState));
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds a transition on a set of code points from this state to another state.
+     * @param label the code points for the transition (null for epsilon)
+     * @param toState the state to transition to
+     */
+    public void addIntervalTransition(IntervalSet label, State toState) {
+        transitions.add(new Transition(label, toState));
+    }
+
+    /**
+     * Adds a tagged epsilon transition from this state to another state.
+     * @param tag the tag recorded when the transition is taken
+     * @param toState the state to transition to
+     */
+    public void addTaggedTransition(int tag, State toState) {
+        transitions.add(Transition.tagged(tag, toState));
+    }
+}
@@ -2,24 +2,37 @@ package com.compiler.lexer.nfa;
 
 /**
  * Represents a transition in a Non-deterministic Finite Automaton (NFA).
- * Each transition consists of a symbol and a destination state.
+ * Each transition consists of a label and a destination state.
  *
  * <p>
- * The transition occurs when the automaton reads the specified symbol,
- * moving from the current state to the given destination state.
+ * The transition occurs when the automaton reads a code point of the label,
+ * moving from the current state to the given destination state. The label is
+ * a set of code point intervals, so a whole character class is one transition.
  * </p>
  */
 public class Transition {
     /**
-     * The symbol that triggers this transition. Null for epsilon transitions.
+     * The symbol of a single-character transition created with {@link #Transition(Character, State)},
+     * otherwise null. Use {@link #label} to read the symbols of any transition.
      */
     public final Character symbol;
 
+    /**
+     * The code points that trigger this transition. Null for epsilon transitions.
+     */
+    public final IntervalSet label;
+
     /**
      * The destination state for this transition.
      */
     public final State toState;
 
+    /**
+     * The tag recorded when an epsilon transition is taken, or -1. Capture group g (from 1) has the
+     * opening tag 2(g-1) and the closing tag 2(g-1)+1.
+     */
+    public final int tag;
+
     /**
      * Constructs a new transition with the given symbol and destination state.
      * @param symbol The symbol for the transition (null for epsilon).
@@ -27,6 +40,42 @@ public class Transition {
      */
     public Transition(Character symbol, State toState) {
         this.symbol = symbol;
+        this.label = symbol == null ? null : IntervalSet.of(symbol);
         this.toState = toState;
+        this.tag = -1;
+    }
+
+    /**
+     * Constructs a new transition on a set of code points.
+     * @param label The code points of the transition (null for epsilon).
+     * @param toState The destination state.
+     */
+    public Transition(IntervalSet label, State toState) {
+        this(label, toState, -1);
+    }
+
+    private Transition(IntervalSet label, State toState, int tag) {
+        this.symbol = null;
+        this.label = label;
+        this.toState = toState;
+        this.tag = tag;
+    }
+
+    /**
+     * Creates a tagged epsilon transition.
+     * @param tag The tag recorded when the transition is taken.
+     * @param toState The destination state.
+     * @return The transition.
+     */
+    public static Transition tagged(int tag, State toState) {
+        return new Transition(null, toState, tag);
+    }
+
+    /**
+     * Checks whether this is an epsilon transition.
+     * @return true if the transition consumes no input.
+     */
+    public boolean isEpsilon() {
+        return label == null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.compiler.lexer.nfa;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Utf8Sequences
+ * -------------
+ * Splits a set of code points into UTF-8 byte-range sequences. Each sequence is an array of one to four
+ * byte sets, and a code point belongs to the input set exactly when its UTF-8 encoding matches one of
+ * the sequences byte by byte. For example [a-zà-ÿ] becomes the two sequences (61..7A) and
+ * (C3)(A0..BF). Surrogate code points (U+D800..U+DFFF) have no UTF-8 encoding and are dropped.
+ *
+ * The split follows the usual construction: a range is first cut at the encoding-length boundaries
+ * (U+007F, U+07FF, U+FFFF), then at the points where the continuation bytes stop spanning their whole
+ * range, until the lead and continuation bytes of every piece vary independently.
+ */
+public final class Utf8Sequences {
+    private static final int[] LENGTH_LIMITS = {0x7F, 0x7FF, 0xFFFF};
+
+    private Utf8Sequences() {
+    }
+
+    /**
+     * Returns the byte-range sequences matching the UTF-8 encodings of a set of code points.
+     * @param set The code points.
+     * @return The sequences, in increasing code point order; each byte set holds values 0..255.
+     */
+    public static List<IntervalSet[]> of(IntervalSet set) {
+        List<IntervalSet[]> sequences = new ArrayList<>();
+        for (int i = 0; i < set.intervalCount(); i++) {
+            int low = set.getLow(i);
+            int high = set.getHigh(i);
+            if (low <= Character.MAX_SURROGATE && high >= Character.MIN_SURROGATE) {
+                if (low < Character.MIN_SURROGATE) {
+                    split(low, Character.MIN_SURROGATE - 1, sequences);
+                }
+                if (high > Character.MAX_SURROGATE) {
+                    split(Character.MAX_SURROGATE + 1, high, sequences);
+                }
+            } else {
+                split(low, high, sequences);
+            }
+        }
+        return sequences;
+    }
+
+    private static void split(int low, int high, List<IntervalSet[]> sequences) {
+        Deque<int[]> pending = new ArrayDeque<>();
+        pending.push(new int[] {low, high});
+        next:
+        while (!pending.isEmpty()) {
+            int[] range = pending.pop();
+            int start = range[0];
+            int end = range[1];
+            for (int limit : LENGTH_LIMITS) {
+                if (start <= limit && limit < end) {
+                    pending.push(new int[] {limit + 1, end});
+                    pending.push(new int[] {start, limit});
+                    continue next;
+                }
+            }
+            if (end <= 0x7F) {
+                sequences.add(new IntervalSet[] {IntervalSet.range(start, end)});
+                continue;
+            }
+            for (int i = 1; i < 4; i++) {
+                int mask = (1 << (6 * i)) - 1;
+                if ((start & ~mask) != (end & ~mask)) {
+                    if ((start & mask) != 0) {
+                        pending.push(new int[] {(start | mask) + 1, end});
+                        pending.push(new int[] {start, start | mask});
+                        continue next;
+                    }
+                    if ((end & mask) != mask) {
+                        pending.push(new int[] {end & ~mask, end});
+                        pending.push(new int[] {start, (end & ~mask) - 1});
+                        continue next;
+                    }
+                }
+            }
+            byte[] first = encode(start);
+            byte[] last = encode(end);
+            IntervalSet[] sequence = new IntervalSet[first.length];
+            for (int i = 0; i < first.length; i++) {
+                sequence[i] = IntervalSet.range(first[i] & 0xFF, last[i] & 0xFF);
+            }
+            sequences.add(sequence);
+        }
+    }
+
+    /**
+     * Encodes a code point in UTF-8.
+     * @param codePoint A code point that is not a surrogate.
+     * @return The one to four bytes of the encoding.
+     */
+    private static byte[] encode(int codePoint) {
+        if (codePoint <= 0x7F) {
+            return new byte[] {(byte) codePoint};
+        }
+        if (codePoint <= 0x7FF) {
+            return new byte[] {(byte) (0xC0 | (codePoint >> 6)), (byte) (0x80 | (codePoint & 0x3F))};
+        }
+        if (codePoint <= 0xFFFF) {
+            return new byte[] {(byte) (0xE0 | (codePoint >> 12)), (byte) (0x80 | ((codePoint >> 6) & 0x3F)),
+                    (byte) (0x80 | (codePoint & 0x3F))};
+        }
+        return new byte[] {(byte) (0xF0 | (codePoint >> 18)), (byte) (0x80 | ((codePoint >> 12) & 0x3F)),
+                (byte) (0x80 | ((codePoint >> 6) & 0x3F)), (byte) (0x80 | (codePoint & 0x3F))};
+    }
+}
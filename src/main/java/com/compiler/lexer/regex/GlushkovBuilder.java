@@ -0,0 +1,239 @@
+package com.compiler.lexer.regex;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Stack;
+
+import com.compiler.lexer.nfa.IntervalSet;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.nfa.State;
+
+/**
+ * GlushkovBuilder
+ * ---------------
+ * Builds the Glushkov (position) automaton of a regular expression: an NFA without epsilon transitions
+ * whose states are the start state plus one state per symbol occurrence (position) of the expression,
+ * so a regex with n positions gives exactly n + 1 states. Every transition into the state of a position
+ * is labelled with that position's character set.
+ *
+ * The automaton follows from three functions computed bottom-up over the expression:
+ * first (positions that can start a match), last (positions that can end one) and follow (positions
+ * that can come right after a given position). Bounded repetition {m,n} is expanded first, so each
+ * copy of the repeated expression has its own positions.
+ *
+ * Compared with {@link RegexParser} (Thompson's construction), the NFA is returned with
+ * {@link NFA#epsilonFree} set, so simulation and subset construction skip epsilon-closure computation.
+ * It has no single end state: {@link NFA#endState} is null and the final states are marked.
+ *
+ * Example usage:
+ * <pre>
+ *     NFA nfa = new GlushkovBuilder().parse("a(b|c)*");   // 4 states
+ * </pre>
+ */
+public class GlushkovBuilder {
+    /**
+     * Node of the expression tree; {@code set} is non-null for a position (symbol occurrence).
+     */
+    private static final class Node {
+        final RegexToken.Kind kind;
+        final IntervalSet set;
+        final Node left;
+        final Node right;
+        int position;
+        boolean nullable;
+        BitSet first;
+        BitSet last;
+
+        Node(RegexToken.Kind kind, IntervalSet set, Node left, Node right) {
+            this.kind = kind;
+            this.set = set;
+            this.left = left;
+            this.right = right;
+        }
+
+        Node copy() {
+            return new Node(kind, set, left == null ? null : left.copy(), right == null ? null : right.copy());
+        }
+    }
+
+    /**
+     * Default constructor for GlushkovBuilder.
+     */
+    public GlushkovBuilder() {
+    }
+
+    /**
+     * Converts an infix regular expression to its position automaton.
+     *
+     * @param infixRegex The regular expression in infix notation.
+     * @return The epsilon-free NFA; its end state is null and its final states are marked.
+     * @throws IllegalArgumentException if the expression is malformed.
+     */
+    public NFA parse(String infixRegex) {
+        Node root = buildTree(ShuntingYard.toPostfixTokens(infixRegex));
+        List<Node> positions = new ArrayList<>();
+        positions.add(null);
+        number(root, positions);
+        List<BitSet> follow = new ArrayList<>();
+        for (int i = 0; i < positions.size(); i++) {
+            follow.add(new BitSet());
+        }
+        analyze(root, follow);
+
+        State[] states = new State[positions.size()];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new State();
+        }
+        connect(states[0], root.first, positions, states);
+        for (int p = 1; p < states.length; p++) {
+            connect(states[p], follow.get(p), positions, states);
+        }
+        states[0].isFinal = root.nullable;
+        for (int p = root.last.nextSetBit(0); p >= 0; p = root.last.nextSetBit(p + 1)) {
+            states[p].isFinal = true;
+        }
+        return new NFA(states[0], null, true);
+    }
+
+    private static void connect(State from, BitSet targets, List<Node> positions, State[] states) {
+        for (int q = targets.nextSetBit(0); q >= 0; q = targets.nextSetBit(q + 1)) {
+            from.addIntervalTransition(positions.get(q).set, states[q]);
+        }
+    }
+
+    /**
+     * Builds the expression tree from postfix tokens, expanding bounded repetition.
+     */
+    private static Node buildTree(List<RegexToken> postfix) {
+        Stack<Node> stack = new Stack<>();
+        for (RegexToken token : postfix) {
+            int needed = token.kind == RegexToken.Kind.UNION || token.kind == RegexToken.Kind.CONCAT ? 2
+                    : token.isUnary() ? 1 : 0;
+            if (stack.size() < needed) {
+                throw new IllegalArgumentException("Missing operand for " + token);
+            }
+            switch (token.kind) {
+                case ATOM:
+                    stack.push(new Node(RegexToken.Kind.ATOM, token.set, null, null));
+                    break;
+                case EMPTY:
+                    stack.push(new Node(RegexToken.Kind.EMPTY, null, null, null));
+                    break;
+                case UNION:
+                case CONCAT: {
+                    Node right = stack.pop();
+                    Node left = stack.pop();
+                    stack.push(new Node(token.kind, null, left, right));
+                    break;
+                }
+                case STAR:
+                case PLUS:
+                case OPTIONAL:
+                    stack.push(new Node(token.kind, null, stack.pop(), null));
+                    break;
+                case REPEAT:
+                    stack.push(expandRepeat(stack.pop(), token.min, token.max));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operator: " + token);
+            }
+        }
+        if (stack.size() != 1) {
+            throw new IllegalArgumentException("Malformed regular expression");
+        }
+        return stack.pop();
+    }
+
+    /**
+     * Rewrites x{m,n} as m copies of x followed by x* (unbounded) or by (x(x)?)? nested n - m times.
+     */
+    private static Node expandRepeat(Node node, int min, int max) {
+        Node result = null;
+        if (max == RegexToken.UNBOUNDED) {
+            result = new Node(RegexToken.Kind.STAR, null, node.copy(), null);
+        } else {
+            for (int i = min; i < max; i++) {
+                Node body = result == null ? node.copy() : new Node(RegexToken.Kind.CONCAT, null, node.copy(), result);
+                result = new Node(RegexToken.Kind.OPTIONAL, null, body, null);
+            }
+        }
+        for (int i = 0; i < min; i++) {
+            result = result == null ? node.copy() : new Node(RegexToken.Kind.CONCAT, null, node.copy(), result);
+        }
+        return result == null ? new Node(RegexToken.Kind.EMPTY, null, null, null) : result;
+    }
+
+    /**
+     * Numbers the positions from 1, left to right.
+     */
+    private static void number(Node node, List<Node> positions) {
+        if (node.kind == RegexToken.Kind.ATOM) {
+            node.position = positions.size();
+            positions.add(node);
+            return;
+        }
+        if (node.left != null) {
+            number(node.left, positions);
+        }
+        if (node.right != null) {
+            number(node.right, positions);
+        }
+    }
+
+    /**
+     * Computes nullable, first and last for every node and accumulates the follow sets.
+     */
+    private static void analyze(Node node, List<BitSet> follow) {
+        if (node.left != null) {
+            analyze(node.left, follow);
+        }
+        if (node.right != null) {
+            analyze(node.right, follow);
+        }
+        node.first = new BitSet();
+        node.last = new BitSet();
+        switch (node.kind) {
+            case ATOM:
+                node.first.set(node.position);
+                node.last.set(node.position);
+                break;
+            case EMPTY:
+                node.nullable = true;
+                break;
+            case UNION:
+                node.nullable = node.left.nullable || node.right.nullable;
+                node.first.or(node.left.first);
+                node.first.or(node.right.first);
+                node.last.or(node.left.last);
+                node.last.or(node.right.last);
+                break;
+            case CONCAT:
+                node.nullable = node.left.nullable && node.right.nullable;
+                node.first.or(node.left.first);
+                if (node.left.nullable) {
+                    node.first.or(node.right.first);
+                }
+                node.last.or(node.right.last);
+                if (node.right.nullable) {
+                    node.last.or(node.left.last);
+                }
+                addFollow(node.left.last, node.right.first, follow);
+                break;
+            default:
+                // STAR, PLUS, OPTIONAL
+                node.nullable = node.kind != RegexToken.Kind.PLUS || node.left.nullable;
+                node.first.or(node.left.first);
+                node.last.or(node.left.last);
+                if (node.kind != RegexToken.Kind.OPTIONAL) {
+                    addFollow(node.left.last, node.left.first, follow);
+                }
+        }
+    }
+
+    private static void addFollow(BitSet from, BitSet to, List<BitSet> follow) {
+        for (int p = from.nextSetBit(0); p >= 0; p = from.nextSetBit(p + 1)) {
+            follow.get(p).or(to);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.compiler.lexer.regex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.compiler.jfr.RegexAstEvent;
+import com.compiler.lexer.nfa.IntervalSet;
+
+/**
+ * RegexAstParser
+ * --------------
+ * Parses the tokens of a regular expression into a {@link RegexNode} tree in a single recursive-descent
+ * pass (no explicit concatenation operators, no postfix form), building every node through smart
+ * constructors that simplify it and hash-cons it. The rewrites keep both the language and the priority
+ * order of alternatives, so they are also valid under capture groups:
+ * <ul>
+ *   <li>nested concatenations and unions are flattened and ε is dropped from concatenations,</li>
+ *   <li>repeated alternatives are dropped after their first occurrence ({@code a|a} is {@code a}),</li>
+ *   <li>adjacent alternatives with the same first element are factored ({@code if|int|in} is
+ *       {@code i(?:f|n(?:t)?)}),</li>
+ *   <li>adjacent single-character alternatives merge into one class ({@code x|y|z} is {@code [x-z]}),</li>
+ *   <li>a trailing empty alternative becomes an optional ({@code a|} is {@code a?}),</li>
+ *   <li>nested repetitions collapse ({@code a**}, {@code (a+)*}, {@code (a?)*} and {@code (a*)?} are
+ *       {@code a*}), and trivial bounds become simpler operators ({@code a{0,}} is {@code a*}).</li>
+ * </ul>
+ * Capture groups are kept as barriers: nothing is merged across a group boundary.
+ *
+ * Example usage:
+ * <pre>
+ *     RegexNode node = new RegexAstParser().parse("if|int|in", false);
+ * </pre>
+ */
+public class RegexAstParser {
+    private final boolean simplify;
+    private final Map<List<Object>, RegexNode> nodes;
+    private final RegexNode empty;
+    private List<RegexToken> tokens;
+    private int position;
+    private boolean captures;
+
+    /**
+     * Creates a parser that simplifies the trees it builds.
+     */
+    public RegexAstParser() {
+        this(true);
+    }
+
+    /**
+     * Creates a parser.
+     * @param simplify false to build the tree exactly as written, only hash-consed.
+     */
+    public RegexAstParser(boolean simplify) {
+        this.simplify = simplify;
+        this.nodes = new HashMap<>();
+        this.empty = intern(RegexNode.Kind.EMPTY, null, List.of(), 0, 0, 0, true);
+    }
+
+    /**
+     * Parses a regular expression in the default syntax of {@link RegexTokenizer}.
+     * @param regex The regular expression.
+     * @param captures true to keep capture groups as CAPTURE nodes, false to read them as plain groups.
+     * @return The root of the tree.
+     * @throws IllegalArgumentException if the expression is malformed.
+     */
+    public RegexNode parse(String regex, boolean captures) {
+        return parse(RegexTokenizer.tokenize(regex), captures);
+    }
+
+    /**
+     * Parses tokenized regular expression.
+     * @param infix The tokens, as produced by {@link RegexTokenizer}.
+     * @param captures true to keep capture groups as CAPTURE nodes, false to read them as plain groups.
+     * @return The root of the tree.
+     * @throws IllegalArgumentException if the expression is malformed or uses the extended syntax.
+     */
+    public RegexNode parse(List<RegexToken> infix, boolean captures) {
+        RegexAstEvent event = new RegexAstEvent();
+        event.start();
+        this.tokens = infix;
+        this.position = 0;
+        this.captures = captures;
+        RegexNode root = parseUnion();
+        if (position < tokens.size()) {
+            throw new IllegalArgumentException("Unbalanced ')' in regular expression");
+        }
+        if (event.shouldRecord()) {
+            event.record(infix.size(), root.size());
+        }
+        return root;
+    }
+
+    private RegexToken.Kind peek() {
+        return position < tokens.size() ? tokens.get(position).kind : null;
+    }
+
+    private RegexNode parseUnion() {
+        List<RegexNode> alternatives = new ArrayList<>();
+        alternatives.add(parseConcat());
+        while (peek() == RegexToken.Kind.UNION) {
+            position++;
+            alternatives.add(parseConcat());
+        }
+        return union(alternatives);
+    }
+
+    private RegexNode parseConcat() {
+        List<RegexNode> items = new ArrayList<>();
+        while (peek() != null && peek() != RegexToken.Kind.UNION && peek() != RegexToken.Kind.RIGHT_PAREN) {
+            items.add(parsePostfix());
+        }
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("Missing operand in regular expression");
+        }
+        return concat(items);
+    }
+
+    private RegexNode parsePostfix() {
+        RegexNode node = parseAtom();
+        while (peek() != null) {
+            RegexToken token = tokens.get(position);
+            if (token.kind == RegexToken.Kind.STAR) {
+                node = star(node);
+            } else if (token.kind == RegexToken.Kind.PLUS) {
+                node = plus(node);
+            } else if (token.kind == RegexToken.Kind.OPTIONAL) {
+                node = optional(node);
+            } else if (token.kind == RegexToken.Kind.REPEAT) {
+                node = repeat(node, token.min, token.max);
+            } else {
+                break;
+            }
+            position++;
+        }
+        return node;
+    }
+
+    private RegexNode parseAtom() {
+        RegexToken token = tokens.get(position++);
+        switch (token.kind) {
+            case ATOM:
+                return set(token.set);
+            case EMPTY:
+                return empty;
+            case LEFT_PAREN: {
+                RegexNode inner = parseUnion();
+                if (peek() != RegexToken.Kind.RIGHT_PAREN) {
+                    throw new IllegalArgumentException("Unbalanced '(' in regular expression");
+                }
+                position++;
+                return captures && token.group > 0 ? capture(inner, token.group) : inner;
+            }
+            default:
+                throw new IllegalArgumentException("Unexpected " + token + " in regular expression");
+        }
+    }
+
+    /**
+     * Returns the node matching one code point of a set.
+     * @param set The code points.
+     * @return The node.
+     */
+    public RegexNode set(IntervalSet set) {
+        return intern(RegexNode.Kind.SET, set, List.of(), 0, 0, 0, false);
+    }
+
+    /**
+     * Returns the node matching the empty string.
+     * @return The node.
+     */
+    public RegexNode empty() {
+        return empty;
+    }
+
+    /**
+     * Returns the concatenation of nodes.
+     * @param items The nodes, in order.
+     * @return The node.
+     */
+    public RegexNode concat(List<RegexNode> items) {
+        if (!simplify) {
+            return items.size() == 1 ? items.get(0) : naryNode(RegexNode.Kind.CONCAT, items);
+        }
+        List<RegexNode> flat = new ArrayList<>();
+        for (RegexNode item : items) {
+            if (item.kind == RegexNode.Kind.CONCAT) {
+                flat.addAll(item.children);
+            } else if (item.kind != RegexNode.Kind.EMPTY) {
+                flat.add(item);
+            }
+        }
+        if (flat.isEmpty()) {
+            return empty;
+        }
+        return flat.size() == 1 ? flat.get(0) : naryNode(RegexNode.Kind.CONCAT, flat);
+    }
+
+    /**
+     * Returns the union of nodes, the first alternative having the highest priority.
+     * @param alternatives The nodes, in priority order.
+     * @return The node.
+     */
+    public RegexNode union(List<RegexNode> alternatives) {
+        if (!simplify) {
+            return alternatives.size() == 1 ? alternatives.get(0) : naryNode(RegexNode.Kind.UNION, alternatives);
+        }
+        // Flatten, then drop alternatives already present: the first occurrence always wins.
+        List<RegexNode> distinct = new ArrayList<>();
+        for (RegexNode alternative : alternatives) {
+            for (RegexNode operand : alternative.kind == RegexNode.Kind.UNION ? alternative.children : List.of(alternative)) {
+                if (!distinct.contains(operand)) {
+                    distinct.add(operand);
+                }
+            }
+        }
+        List<RegexNode> result = new ArrayList<>();
+        int i = 0;
+        while (i < distinct.size()) {
+            RegexNode head = head(distinct.get(i));
+            int j = i + 1;
+            while (j < distinct.size() && head != null && head(distinct.get(j)) == head) {
+                j++;
+            }
+            if (j - i >= 2) {
+                List<RegexNode> tails = new ArrayList<>();
+                for (int k = i; k < j; k++) {
+                    tails.add(tail(distinct.get(k)));
+                }
+                result.add(concat(List.of(head, union(tails))));
+            } else {
+                result.add(distinct.get(i));
+            }
+            i = j;
+        }
+        // Merge runs of adjacent single-character alternatives.
+        List<RegexNode> merged = new ArrayList<>();
+        for (RegexNode alternative : result) {
+            RegexNode last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && last.kind == RegexNode.Kind.SET && alternative.kind == RegexNode.Kind.SET) {
+                merged.set(merged.size() - 1, set(last.set.union(alternative.set)));
+            } else {
+                merged.add(alternative);
+            }
+        }
+        if (merged.size() >= 2 && merged.get(merged.size() - 1) == empty) {
+            return optional(union(merged.subList(0, merged.size() - 1)));
+        }
+        return merged.size() == 1 ? merged.get(0) : naryNode(RegexNode.Kind.UNION, merged);
+    }
+
+    /**
+     * Returns the first element of a node seen as a concatenation, or null for ε.
+     */
+    private RegexNode head(RegexNode node) {
+        if (node == empty) {
+            return null;
+        }
+        return node.kind == RegexNode.Kind.CONCAT ? node.children.get(0) : node;
+    }
+
+    /**
+     * Returns what follows the first element of a node seen as a concatenation.
+     */
+    private RegexNode tail(RegexNode node) {
+        if (node.kind != RegexNode.Kind.CONCAT) {
+            return empty;
+        }
+        return concat(node.children.subList(1, node.children.size()));
+    }
+
+    /**
+     * Returns the Kleene star of a node.
+     * @param node The repeated node.
+     * @return The node.
+     */
+    public RegexNode star(RegexNode node) {
+        if (simplify) {
+            if (node == empty || node.kind == RegexNode.Kind.STAR) {
+                return node;
+            }
+            if (node.kind == RegexNode.Kind.PLUS || node.kind == RegexNode.Kind.OPTIONAL) {
+                return star(node.children.get(0));
+            }
+        }
+        return intern(RegexNode.Kind.STAR, null, List.of(node), 0, 0, 0, true);
+    }
+
+    /**
+     * Returns one or more repetitions of a node.
+     * @param node The repeated node.
+     * @return The node.
+     */
+    public RegexNode plus(RegexNode node) {
+        if (simplify) {
+            if (node == empty || node.kind == RegexNode.Kind.STAR || node.kind == RegexNode.Kind.PLUS) {
+                return node;
+            }
+            if (node.kind == RegexNode.Kind.OPTIONAL) {
+                return star(node.children.get(0));
+            }
+        }
+        return intern(RegexNode.Kind.PLUS, null, List.of(node), 0, 0, 0, node.nullable);
+    }
+
+    /**
+     * Returns zero or one occurrence of a node.
+     * @param node The optional node.
+     * @return The node.
+     */
+    public RegexNode optional(RegexNode node) {
+        if (simplify) {
+            if (node == empty || node.kind == RegexNode.Kind.STAR || node.kind == RegexNode.Kind.OPTIONAL) {
+                return node;
+            }
+            if (node.kind == RegexNode.Kind.PLUS) {
+                return star(node.children.get(0));
+            }
+        }
+        return intern(RegexNode.Kind.OPTIONAL, null, List.of(node), 0, 0, 0, true);
+    }
+
+    /**
+     * Returns a bounded repetition of a node.
+     * @param node The repeated node.
+     * @param min The minimum count.
+     * @param max The maximum count, or {@link RegexToken#UNBOUNDED}.
+     * @return The node.
+     */
+    public RegexNode repeat(RegexNode node, int min, int max) {
+        if (simplify) {
+            if (max == 0 || node == empty) {
+                return empty;
+            }
+            if (min == 1 && max == 1) {
+                return node;
+            }
+            if (min == 0 && max == RegexToken.UNBOUNDED) {
+                return star(node);
+            }
+            if (min == 1 && max == RegexToken.UNBOUNDED) {
+                return plus(node);
+            }
+            if (min == 0 && max == 1) {
+                return optional(node);
+            }
+        }
+        return intern(RegexNode.Kind.REPEAT, null, List.of(node), min, max, 0, min == 0 || node.nullable);
+    }
+
+    /**
+     * Returns a capture group around a node.
+     * @param node The captured node.
+     * @param group The group number, from 1.
+     * @return The node.
+     */
+    public RegexNode capture(RegexNode node, int group) {
+        return intern(RegexNode.Kind.CAPTURE, null, List.of(node), 0, 0, group, node.nullable);
+    }
+
+    private RegexNode naryNode(RegexNode.Kind kind, List<RegexNode> children) {
+        boolean nullable = kind == RegexNode.Kind.CONCAT;
+        for (RegexNode child : children) {
+            nullable = kind == RegexNode.Kind.CONCAT ? nullable && child.nullable : nullable || child.nullable;
+        }
+        return intern(kind, null, List.copyOf(children), 0, 0, 0, nullable);
+    }
+
+    private RegexNode intern(RegexNode.Kind kind, IntervalSet set, List<RegexNode> children, int min, int max,
+            int group, boolean nullable) {
+        List<Object> key = new ArrayList<>(children.size() + 5);
+        key.add(kind);
+        key.add(set);
+        key.add(min);
+        key.add(max);
+        key.add(group);
+        for (RegexNode child : children) {
+            key.add(child.id);
+        }
+        RegexNode node = nodes.get(key);
+        if (node == null) {
+            node = new RegexNode(nodes.size(), kind, set, children, min, max, group, nullable);
+            nodes.put(key, node);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the number of distinct nodes created so far.
+     * @return The size of the node table.
+     */
+    public int getNodeCount() {
+        return nodes.size();
+    }
+}
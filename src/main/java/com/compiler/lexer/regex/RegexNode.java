@@ -0,0 +1,109 @@
+package com.compiler.lexer.regex;
+
+import java.util.List;
+
+import com.compiler.lexer.nfa.IntervalSet;
+
+/**
+ * RegexNode
+ * ---------
+ * An immutable node of the abstract syntax tree of a regular expression, built by
+ * {@link RegexAstParser}. Nodes are hash-consed by the parser that creates them: structurally equal
+ * subtrees are the same object, so identity comparison is structural equality. The children of CONCAT
+ * and UNION are kept in source order, which is also the priority order of the alternatives.
+ */
+public final class RegexNode {
+    /**
+     * Kind of a node.
+     */
+    public enum Kind {
+        /** The empty string. */
+        EMPTY,
+        /** One code point of a set. */
+        SET,
+        /** Concatenation of two or more nodes. */
+        CONCAT,
+        /** Union of two or more nodes, in priority order. */
+        UNION,
+        /** Zero or more repetitions. */
+        STAR,
+        /** One or more repetitions. */
+        PLUS,
+        /** Zero or one occurrence. */
+        OPTIONAL,
+        /** Between {@link RegexNode#min} and {@link RegexNode#max} repetitions. */
+        REPEAT,
+        /** Capture group {@link RegexNode#group}. */
+        CAPTURE
+    }
+
+    /** Creation order within the parser; unique per parser. */
+    public final int id;
+    /** The kind of node. */
+    public final Kind kind;
+    /** The code points of a SET node, otherwise null. */
+    public final IntervalSet set;
+    /** The operands: none for EMPTY and SET, one for repetitions and CAPTURE, two or more otherwise. */
+    public final List<RegexNode> children;
+    /** The minimum count of a REPEAT. */
+    public final int min;
+    /** The maximum count of a REPEAT, or {@link RegexToken#UNBOUNDED}. */
+    public final int max;
+    /** The group number of a CAPTURE, otherwise 0. */
+    public final int group;
+    /** Whether the node matches the empty string. */
+    public final boolean nullable;
+
+    RegexNode(int id, Kind kind, IntervalSet set, List<RegexNode> children, int min, int max, int group,
+            boolean nullable) {
+        this.id = id;
+        this.kind = kind;
+        this.set = set;
+        this.children = children;
+        this.min = min;
+        this.max = max;
+        this.group = group;
+        this.nullable = nullable;
+    }
+
+    /**
+     * Returns the number of nodes of the tree, counting a shared subtree once per occurrence.
+     * @return The tree size.
+     */
+    public int size() {
+        int size = 1;
+        for (RegexNode child : children) {
+            size += child.size();
+        }
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case EMPTY:
+                return "ε";
+            case SET:
+                return set.toString();
+            case STAR:
+                return children.get(0) + "*";
+            case PLUS:
+                return children.get(0) + "+";
+            case OPTIONAL:
+                return children.get(0) + "?";
+            case REPEAT:
+                return children.get(0) + "{" + min + "," + (max == RegexToken.UNBOUNDED ? "" : String.valueOf(max)) + "}";
+            case CAPTURE:
+                return "(" + children.get(0) + ")";
+            default:
+                StringBuilder sb = new StringBuilder("(?:");
+                for (int i = 0; i < children.size(); i++) {
+                    if (i > 0 && kind == Kind.UNION) {
+                        sb.append('|');
+                    }
+                    sb.append(children.get(i));
+                }
+                return sb.append(')').toString();
+        }
+    }
+}
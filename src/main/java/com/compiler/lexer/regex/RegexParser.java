@@ -1,21 +1,36 @@
 package com.compiler.lexer.regex;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Stack;
 
+import com.compiler.jfr.RegexParseEvent;
+import com.compiler.lexer.nfa.CompactNfa;
+import com.compiler.lexer.nfa.IntervalSet;
 import com.compiler.lexer.nfa.NFA;
 import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.nfa.Transition;
 
 /**
  * RegexParser
  * -----------
  * This class provides functionality to convert infix regular expressions into nondeterministic finite automata (NFA)
  * using Thompson's construction algorithm. It supports standard regex operators: concatenation (·), union (|),
- * Kleene star (*), optional (?), and plus (+). The conversion process uses the Shunting Yard algorithm to transform
- * infix regex into postfix notation, then builds the corresponding NFA.
+ * Kleene star (*), optional (?), plus (+) and bounded repetition ({m,n}), over character classes such as
+ * [a-z_] or [^"] and escapes (see {@link RegexTokenizer}). The expression is first parsed into a
+ * simplified, hash-consed syntax tree by {@link RegexAstParser}, then the NFA is built bottom-up from
+ * the tree. A character class becomes a single transition labelled with an {@link IntervalSet}, and
+ * a union of n alternatives gets one start and one end state.
+ *
+ * The epsilon transitions of each state are listed in priority order: the left alternative before the
+ * right one, and another iteration of a star or plus before leaving it (greedy). {@link #parseWithCaptures}
+ * also brackets every capture group with tagged epsilon transitions, for submatch extraction.
  *
  * Features:
  * - Parses infix regular expressions and converts them to NFA.
- * - Supports regex operators: concatenation, union, Kleene star, optional, plus.
+ * - Supports regex operators: concatenation, union, Kleene star, optional, plus, bounded repetition.
  * - Implements Thompson's construction rules for NFA generation.
  *
  * Example usage:
@@ -29,12 +44,25 @@ import com.compiler.lexer.nfa.State;
  */
 public class RegexParser {
 
+    private final boolean simplify;
+
     /**
-     * Default constructor for RegexParser.
+     * Default constructor for RegexParser: the syntax tree is simplified before construction.
      */
         public RegexParser() {
+            this(true);
         }
 
+    /**
+     * Creates a parser.
+     *
+     * @param simplify false to build the NFA from the syntax tree exactly as written (see
+     *                 {@link RegexAstParser}).
+     */
+    public RegexParser(boolean simplify) {
+        this.simplify = simplify;
+    }
+
     /**
      * Converts an infix regular expression to an NFA.
      *
@@ -42,53 +70,189 @@ public class RegexParser {
      * @return The constructed NFA.
      */
     public NFA parse(String infixRegex) {
-        ShuntingYard shuntingYard = new ShuntingYard();
-        String postfixRegex = shuntingYard.toPostfix(infixRegex);
-        return buildNfaFromPostfix(postfixRegex);
+        return parse(infixRegex, false);
     }
 
     /**
-     * Builds an NFA from a postfix regular expression.
+     * Converts an infix regular expression to an NFA whose capture groups are delimited by tagged
+     * epsilon transitions (see {@link Transition#tag}).
      *
-     * @param postfixRegex The regular expression in postfix notation.
+     * @param infixRegex The regular expression in infix notation.
      * @return The constructed NFA.
      */
-    private NFA buildNfaFromPostfix(String postfixRegex) {
+    public NFA parseWithCaptures(String infixRegex) {
+        return parse(infixRegex, true);
+    }
+
+    private NFA parse(String infixRegex, boolean captures) {
+        RegexParseEvent event = new RegexParseEvent();
+        event.start();
+        NFA nfa = buildNfa(new RegexAstParser(simplify).parse(infixRegex, captures));
+        if (event.shouldRecord()) {
+            event.record(infixRegex.length(), CompactNfa.of(nfa).getStateCount());
+        }
+        return nfa;
+    }
+
+    /**
+     * Builds an NFA from a syntax tree, bottom-up. A subtree shared by hash-consing gets its own
+     * states at each occurrence.
+     *
+     * @param node The root of the syntax tree.
+     * @return The constructed NFA.
+     */
+    private NFA buildNfa(RegexNode node) {
         Stack<NFA> stack = new Stack<>();
-        for (Character c : postfixRegex.toCharArray()) {
-            if (isOperand(c)) {
-                // Create an NFA for the operand and push it onto the stack
-                NFA nfa = this.createNfaForCharacter(c);
-                stack.push(nfa);
-            } else {
-                // Handle operators
-                switch (c) {
-                    case '|':
-                        handleUnion(stack);
-                        break;
-                    case '*':
-                        handleKleeneStar(stack);
-                        break;
-                    case '?':
-                        handleOptional(stack);
-                        break;
-                    case '+':
-                        handlePlus(stack);
-                        break;
-                    case '·':
-                        handleConcatenation(stack);
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown operator: " + c);
+        build(node, stack);
+        // The final NFA is the only one left on the stack
+        return stack.pop();
+    }
+
+    private void build(RegexNode node, Stack<NFA> stack) {
+        switch (node.kind) {
+            case SET:
+                stack.push(createNfaForSet(node.set));
+                break;
+            case EMPTY:
+                stack.push(createEmptyNfa());
+                break;
+            case CONCAT:
+                build(node.children.get(0), stack);
+                for (int i = 1; i < node.children.size(); i++) {
+                    build(node.children.get(i), stack);
+                    handleConcatenation(stack);
+                }
+                break;
+            case UNION:
+                for (RegexNode child : node.children) {
+                    build(child, stack);
+                }
+                handleUnion(stack, node.children.size());
+                break;
+            case STAR:
+                build(node.children.get(0), stack);
+                handleKleeneStar(stack);
+                break;
+            case OPTIONAL:
+                build(node.children.get(0), stack);
+                handleOptional(stack);
+                break;
+            case PLUS:
+                build(node.children.get(0), stack);
+                handlePlus(stack);
+                break;
+            case REPEAT:
+                build(node.children.get(0), stack);
+                handleRepeat(stack, node.min, node.max);
+                break;
+            case CAPTURE:
+                build(node.children.get(0), stack);
+                handleCapture(stack, node.group);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown node: " + node);
+        }
+    }
+
+    /**
+     * Handles bounded repetition {m,n}. The fragment is copied so that each occurrence has its own
+     * states: m mandatory copies, followed by a starred copy when unbounded, or by n - m nested optional
+     * copies ((x(x)?)? rather than x?x?, which would make the NFA ambiguous).
+     * @param stack The NFA stack.
+     * @param min The minimum count.
+     * @param max The maximum count, or {@link RegexToken#UNBOUNDED}.
+     */
+    private void handleRepeat(Stack<NFA> stack, int min, int max) {
+        NFA nfa = stack.pop();
+        int copies = max == RegexToken.UNBOUNDED ? min + 1 : max;
+        if (copies == 0) {
+            stack.push(createEmptyNfa());
+            return;
+        }
+        // Every copy is taken before the fragment is wired into anything else.
+        NFA[] parts = new NFA[copies];
+        parts[0] = nfa;
+        for (int i = 1; i < copies; i++) {
+            parts[i] = copy(nfa);
+        }
+        NFA result = null;
+        if (max == RegexToken.UNBOUNDED) {
+            stack.push(parts[min]);
+            handleKleeneStar(stack);
+            result = stack.pop();
+        } else {
+            for (int i = max - 1; i >= min; i--) {
+                stack.push(parts[i]);
+                if (result != null) {
+                    stack.push(result);
+                    handleConcatenation(stack);
                 }
+                handleOptional(stack);
+                result = stack.pop();
             }
         }
-        // The final NFA is the only one left on the stack
-        return stack.pop();
+        for (int i = min - 1; i >= 0; i--) {
+            stack.push(parts[i]);
+            if (result != null) {
+                stack.push(result);
+                handleConcatenation(stack);
+            }
+            result = stack.pop();
+        }
+        stack.push(result);
     }
 
+    /**
+     * Copies the states and transitions reachable from the start of a fragment.
+     */
+    private static NFA copy(NFA nfa) {
+        Map<State, State> copies = new IdentityHashMap<>();
+        Deque<State> pending = new ArrayDeque<>();
+        copies.put(nfa.startState, new State());
+        pending.push(nfa.startState);
+        while (!pending.isEmpty()) {
+            State original = pending.pop();
+            State clone = copies.get(original);
+            clone.isFinal = original.isFinal;
+            for (Transition t : original.transitions) {
+                State target = copies.get(t.toState);
+                if (target == null) {
+                    target = new State();
+                    copies.put(t.toState, target);
+                    pending.push(t.toState);
+                }
+                if (t.tag >= 0) {
+                    clone.addTaggedTransition(t.tag, target);
+                } else if (t.isEpsilon()) {
+                    clone.addTransition(null, target);
+                } else {
+                    clone.addIntervalTransition(t.label, target);
+                }
+            }
+        }
+        State end = copies.get(nfa.endState);
+        if (end == null) {
+            throw new IllegalStateException("NFA end state is not reachable from its start state");
+        }
+        return new NFA(copies.get(nfa.startState), end);
+    }
 
- 
+    /**
+     * Brackets a capture group with tagged epsilon transitions: the opening tag on entry and the
+     * closing tag on exit.
+     * @param stack The NFA stack.
+     * @param group The capture group number, from 1.
+     */
+    private void handleCapture(Stack<NFA> stack, int group) {
+        NFA nfa = stack.pop();
+        State startState = new State();
+        State endState = new State();
+        endState.isFinal = true;
+        startState.addTaggedTransition(2 * (group - 1), nfa.startState);
+        nfa.endState.addTaggedTransition(2 * (group - 1) + 1, endState);
+        nfa.endState.isFinal = false;
+        stack.push(new NFA(startState, endState));
+    }
 
     /**
      * Handles the '?' operator (zero or one occurrence).
@@ -141,17 +305,28 @@ public class RegexParser {
     }
     
     /**
-     * Creates an NFA for a single character.
-     * @param c The character to create an NFA for.
+     * Creates an NFA for a set of characters: one transition labelled with the whole set.
+     * @param set The code points to create an NFA for.
      * @return The constructed NFA.
      */
-    private NFA createNfaForCharacter(Character c) {
+    private NFA createNfaForSet(IntervalSet set) {
         State startState = new State();
         State endState = new State();
         endState.isFinal = true;
-        startState.addTransition(c, endState);
-        NFA nfa = new NFA(startState, endState);
-        return nfa;
+        startState.addIntervalTransition(set, endState);
+        return new NFA(startState, endState);
+    }
+
+    /**
+     * Creates an NFA that accepts only the empty string.
+     * @return The constructed NFA.
+     */
+    private NFA createEmptyNfa() {
+        State startState = new State();
+        State endState = new State();
+        endState.isFinal = true;
+        startState.addTransition(null, endState);
+        return new NFA(startState, endState);
     }
 
     /**
@@ -170,36 +345,34 @@ public class RegexParser {
     }
 
     /**
-     * Handles the union operator (|).
-     * Pops two NFAs from the stack and creates a new NFA that accepts either.
+     * Handles the union operator (|) over one or more alternatives.
+     * Pops the NFAs of the alternatives from the stack and creates a new NFA that accepts any of them,
+     * with a single start and end state for all of them.
      * @param stack The NFA stack.
+     * @param count The number of alternatives, pushed leftmost first.
      */
-    private void handleUnion(Stack<NFA> stack) {
-        //Pop two NFAs,
-        NFA nfa1  = stack.pop();
-        NFA nfa2 = stack.pop();
+    private void handleUnion(Stack<NFA> stack, int count) {
+        // Pop the alternatives,
+        NFA[] alternatives = new NFA[count];
+        for (int i = count - 1; i >= 0; i--) {
+            alternatives[i] = stack.pop();
+        }
 
         // create new start/end,
         State startState = new State();
         State endState = new State();
         endState.isFinal = true;
 
-        // add epsilon transitions for union
-        startState.addTransition(null, nfa1.startState);
-        startState.addTransition(null, nfa2.startState);
-
-        nfa1.endState.addTransition(null, endState);
-        nfa1.endState.isFinal = false; 
-        nfa2.endState.addTransition(null, endState);
-        nfa2.endState.isFinal = false;
+        // add epsilon transitions for union, leftmost alternative first
+        for (NFA nfa : alternatives) {
+            startState.addTransition(null, nfa.startState);
+            nfa.endState.addTransition(null, endState);
+            nfa.endState.isFinal = false;
+        }
 
-        NFA nfa = new NFA(startState, endState);
-         
-        stack.push(nfa);
+        stack.push(new NFA(startState, endState));
     }
 
-
-
     /**
      * Handles the Kleene star operator (*).
      * Pops an NFA from the stack and creates a new NFA that accepts zero or more repetitions.
@@ -213,14 +386,14 @@ public class RegexParser {
         State endState = new State();
         endState.isFinal = true;
 
-        // zero repetitions
-        startState.addTransition(null, endState);
-
         // more repetitions
         nfa.endState.addTransition(null, nfa.startState);
 
         // connection new startState   with the current nfa
         startState.addTransition(null, nfa.startState);
+
+        // zero repetitions, after trying one (greedy)
+        startState.addTransition(null, endState);
         // connection new endState with the current nfa
         nfa.endState.addTransition(null, endState);
         nfa.endState.isFinal = false;
@@ -228,17 +401,4 @@ public class RegexParser {
         NFA newNfa = new NFA(startState, endState);
         stack.push(newNfa);
     }
-
-    /**
-     * Checks if a character is an operand (not an operator).
-     * @param c The character to check.
-     * @return True if the character is an operand, false if it is an operator.
-     */
-    private boolean isOperand(Character c) {
-        Character[] operators = {'|', '*', '?', '+', '(', ')', '·'};
-        for(Character op :operators){
-            if(c.equals(op)) return false;
-        }
-        return true;
-    }
-}
\ No newline at end of file
+}
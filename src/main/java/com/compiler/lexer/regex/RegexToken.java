@@ -0,0 +1,155 @@
+package com.compiler.lexer.regex;
+
+import com.compiler.lexer.nfa.IntervalSet;
+
+/**
+ * RegexToken
+ * ----------
+ * A token of a regular expression: a set of code points (a literal, a character class or an escape),
+ * an operator, or a parenthesis. Produced by {@link RegexTokenizer} and ordered into postfix notation by
+ * {@link ShuntingYard#toPostfix(java.util.List)}.
+ */
+public final class RegexToken {
+    /**
+     * Kind of a regex token.
+     */
+    public enum Kind {
+        /** A set of code points matching one input character. */
+        ATOM,
+        /** The empty string, e.g. in {@code ()} or {@code a|}. */
+        EMPTY,
+        /** Union operator {@code |}. */
+        UNION,
+        /** Intersection operator {@code &} (extended syntax only). */
+        INTERSECT,
+        /** Prefix complement operator {@code ~} (extended syntax only). */
+        COMPLEMENT,
+        /** Explicit concatenation operator, inserted by the shunting-yard stage. */
+        CONCAT,
+        /** Kleene star {@code *}. */
+        STAR,
+        /** One or more {@code +}. */
+        PLUS,
+        /** Zero or one {@code ?}. */
+        OPTIONAL,
+        /** Bounded repetition {@code {m,n}}. */
+        REPEAT,
+        /** Opening parenthesis. */
+        LEFT_PAREN,
+        /** Closing parenthesis. */
+        RIGHT_PAREN
+    }
+
+    /** Upper bound of an unbounded repetition such as {@code {2,}}. */
+    public static final int UNBOUNDED = -1;
+
+    /** The kind of token. */
+    public final Kind kind;
+    /** The code points of an ATOM, otherwise null. */
+    public final IntervalSet set;
+    /** The minimum count of a REPEAT. */
+    public final int min;
+    /** The maximum count of a REPEAT, or {@link #UNBOUNDED}. */
+    public final int max;
+    /** The capture group number of a LEFT_PAREN, from 1; 0 for a non-capturing group. */
+    public final int group;
+
+    private RegexToken(Kind kind, IntervalSet set, int min, int max, int group) {
+        this.kind = kind;
+        this.set = set;
+        this.min = min;
+        this.max = max;
+        this.group = group;
+    }
+
+    /**
+     * Creates an atom token.
+     * @param set The code points matched by the atom.
+     * @return The token.
+     */
+    public static RegexToken atom(IntervalSet set) {
+        return new RegexToken(Kind.ATOM, set, 0, 0, 0);
+    }
+
+    /**
+     * Creates a bounded repetition token.
+     * @param min The minimum count.
+     * @param max The maximum count, or {@link #UNBOUNDED}.
+     * @return The token.
+     */
+    public static RegexToken repeat(int min, int max) {
+        return new RegexToken(Kind.REPEAT, null, min, max, 0);
+    }
+
+    /**
+     * Creates a token without payload (an operator, a parenthesis or EMPTY).
+     * @param kind The kind of token.
+     * @return The token.
+     */
+    public static RegexToken of(Kind kind) {
+        return new RegexToken(kind, null, 0, 0, 0);
+    }
+
+    /**
+     * Creates an opening parenthesis.
+     * @param group The capture group it opens, or 0 for a non-capturing group {@code (?:...)}.
+     * @return The token.
+     */
+    public static RegexToken leftParen(int group) {
+        return new RegexToken(Kind.LEFT_PAREN, null, 0, 0, group);
+    }
+
+    /**
+     * Checks whether the token is a postfix unary operator ({@code * + ? {m,n}}).
+     * @return true for unary operators.
+     */
+    public boolean isUnary() {
+        return kind == Kind.STAR || kind == Kind.PLUS || kind == Kind.OPTIONAL || kind == Kind.REPEAT;
+    }
+
+    /**
+     * Checks whether the token ends an operand, i.e. a concatenation may follow it.
+     * @return true for atoms, EMPTY, closing parentheses and unary operators.
+     */
+    boolean endsOperand() {
+        return kind == Kind.ATOM || kind == Kind.EMPTY || kind == Kind.RIGHT_PAREN || isUnary();
+    }
+
+    /**
+     * Checks whether the token starts an operand, i.e. a concatenation may precede it.
+     * @return true for atoms, EMPTY, opening parentheses and complements.
+     */
+    boolean startsOperand() {
+        return kind == Kind.ATOM || kind == Kind.EMPTY || kind == Kind.LEFT_PAREN || kind == Kind.COMPLEMENT;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case ATOM:
+                return set.toString();
+            case EMPTY:
+                return "ε";
+            case UNION:
+                return "|";
+            case INTERSECT:
+                return "&";
+            case COMPLEMENT:
+                return "~";
+            case CONCAT:
+                return "·";
+            case STAR:
+                return "*";
+            case PLUS:
+                return "+";
+            case OPTIONAL:
+                return "?";
+            case REPEAT:
+                return "{" + min + "," + (max == UNBOUNDED ? "" : String.valueOf(max)) + "}";
+            case LEFT_PAREN:
+                return group == 0 ? "(?:" : "(";
+            default:
+                return ")";
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.compiler.lexer.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.compiler.lexer.nfa.IntervalSet;
+
+/**
+ * RegexTokenizer
+ * --------------
+ * Splits a regular expression into {@link RegexToken}s. Besides the operators {@code | * + ?} and
+ * parentheses, it understands:
+ * <ul>
+ *   <li>character classes {@code [abc]}, ranges {@code [a-z0-9_]} and negated classes {@code [^"\n]};
+ *       a {@code ]} first in the class and a {@code -} first or last in it are literal,</li>
+ *   <li>bounded repetition {@code {m}}, {@code {m,}} and {@code {m,n}}; a {@code {} that does not start a
+ *       valid repetition is a literal character,</li>
+ *   <li>escapes {@code \n \t \r \f \v \0}, <code>&#92;uXXXX</code>, <code>&#92;u{X...}</code>, the classes
+ *       {@code \d \w \s} and their negations {@code \D \W \S}, and a backslash before any other
+ *       non-alphanumeric character to make it literal (e.g. {@code \* \[ \\}).</li>
+ * </ul>
+ * Every other character, including non-BMP code points, is a literal. An empty alternative, as in
+ * {@code (a|)} or {@code ()}, produces an EMPTY token. Parentheses open capture groups, numbered from 1
+ * in the order of their opening parenthesis, except {@code (?:...)}, which only groups.
+ *
+ * The extended syntax, used by the derivative compiler, adds intersection {@code r&s}, prefix complement
+ * {@code ~r} and {@code .} for any code point (including newlines); in the default syntax these three
+ * characters are literals.
+ */
+public final class RegexTokenizer {
+    /** Largest bound accepted in {@code {m,n}}, to keep the expanded automaton reasonable. */
+    public static final int MAX_REPEAT = 1000;
+
+    private static final IntervalSet DIGITS = IntervalSet.range('0', '9');
+    private static final IntervalSet WORD = IntervalSet.ofRanges('a', 'z', 'A', 'Z', '0', '9', '_', '_');
+    private static final IntervalSet SPACE = IntervalSet.ofRanges(' ', ' ', '\t', '\r', '\f', '\f');
+
+    private final String regex;
+    private final boolean extended;
+    private int position;
+    private int groupCount;
+
+    private RegexTokenizer(String regex, boolean extended) {
+        this.regex = regex;
+        this.extended = extended;
+    }
+
+    /**
+     * Tokenizes a regular expression.
+     * @param regex The regular expression in infix notation.
+     * @return The tokens, without explicit concatenation operators.
+     * @throws IllegalArgumentException if the expression is malformed.
+     */
+    public static List<RegexToken> tokenize(String regex) {
+        return tokenize(regex, false);
+    }
+
+    /**
+     * Tokenizes a regular expression, optionally in the extended syntax.
+     * @param regex The regular expression in infix notation.
+     * @param extended true to read {@code & ~ .} as operators instead of literals.
+     * @return The tokens, without explicit concatenation operators.
+     * @throws IllegalArgumentException if the expression is malformed.
+     */
+    public static List<RegexToken> tokenize(String regex, boolean extended) {
+        if (regex == null) {
+            throw new IllegalArgumentException("Regular expression cannot be null");
+        }
+        return new RegexTokenizer(regex, extended).run();
+    }
+
+    private List<RegexToken> run() {
+        List<RegexToken> tokens = new ArrayList<>();
+        while (position < regex.length()) {
+            int c = regex.codePointAt(position);
+            RegexToken.Kind previous = tokens.isEmpty() ? null : tokens.get(tokens.size() - 1).kind;
+            boolean afterOperand = previous != null && previous != RegexToken.Kind.LEFT_PAREN
+                    && previous != RegexToken.Kind.UNION && previous != RegexToken.Kind.INTERSECT
+                    && previous != RegexToken.Kind.COMPLEMENT;
+            if (extended && (c == '&' || c == '~' || c == '.')) {
+                position++;
+                if (c == '.') {
+                    tokens.add(RegexToken.atom(IntervalSet.ALL));
+                } else if (c == '~') {
+                    tokens.add(RegexToken.of(RegexToken.Kind.COMPLEMENT));
+                } else {
+                    if (!afterOperand) {
+                        tokens.add(RegexToken.of(RegexToken.Kind.EMPTY));
+                    }
+                    tokens.add(RegexToken.of(RegexToken.Kind.INTERSECT));
+                }
+                continue;
+            }
+            switch (c) {
+                case '(':
+                    position++;
+                    if (regex.startsWith("?:", position)) {
+                        position += 2;
+                        tokens.add(RegexToken.leftParen(0));
+                    } else {
+                        tokens.add(RegexToken.leftParen(++groupCount));
+                    }
+                    break;
+                case ')':
+                case '|':
+                    position++;
+                    if (!afterOperand) {
+                        tokens.add(RegexToken.of(RegexToken.Kind.EMPTY));
+                    }
+                    tokens.add(RegexToken.of(c == ')' ? RegexToken.Kind.RIGHT_PAREN : RegexToken.Kind.UNION));
+                    break;
+                case '*':
+                case '+':
+                case '?':
+                    if (!afterOperand) {
+                        throw error("Nothing to repeat");
+                    }
+                    position++;
+                    tokens.add(RegexToken.of(c == '*' ? RegexToken.Kind.STAR
+                            : c == '+' ? RegexToken.Kind.PLUS : RegexToken.Kind.OPTIONAL));
+                    break;
+                case '{':
+                    RegexToken repeat = tryRepeat();
+                    if (repeat == null) {
+                        position++;
+                        tokens.add(RegexToken.atom(IntervalSet.of('{')));
+                    } else {
+                        if (!afterOperand) {
+                            throw error("Nothing to repeat");
+                        }
+                        tokens.add(repeat);
+                    }
+                    break;
+                case '[':
+                    position++;
+                    tokens.add(RegexToken.atom(characterClass()));
+                    break;
+                case '\\':
+                    tokens.add(RegexToken.atom(escape()));
+                    break;
+                default:
+                    position += Character.charCount(c);
+                    tokens.add(RegexToken.atom(IntervalSet.of(c)));
+            }
+        }
+        RegexToken.Kind last = tokens.isEmpty() ? null : tokens.get(tokens.size() - 1).kind;
+        if (last == null || last == RegexToken.Kind.UNION || last == RegexToken.Kind.INTERSECT
+                || last == RegexToken.Kind.COMPLEMENT || last == RegexToken.Kind.LEFT_PAREN) {
+            tokens.add(RegexToken.of(RegexToken.Kind.EMPTY));
+        }
+        return tokens;
+    }
+
+    /**
+     * Parses {@code {m}}, {@code {m,}} or {@code {m,n}} at the current position.
+     * @return The token, or null (without consuming input) if the brace does not start a repetition.
+     */
+    private RegexToken tryRepeat() {
+        int end = regex.indexOf('}', position);
+        if (end < 0) {
+            return null;
+        }
+        String body = regex.substring(position + 1, end);
+        if (!body.matches("[0-9]+(,[0-9]*)?")) {
+            return null;
+        }
+        int comma = body.indexOf(',');
+        int min;
+        int max;
+        try {
+            min = Integer.parseInt(comma < 0 ? body : body.substring(0, comma));
+            max = comma < 0 ? min
+                    : comma == body.length() - 1 ? RegexToken.UNBOUNDED : Integer.parseInt(body.substring(comma + 1));
+        } catch (NumberFormatException e) {
+            throw error("Repetition bound too large");
+        }
+        if (max != RegexToken.UNBOUNDED && max < min) {
+            throw error("Repetition bounds out of order");
+        }
+        if (min > MAX_REPEAT || max > MAX_REPEAT) {
+            throw error("Repetition bound larger than " + MAX_REPEAT);
+        }
+        position = end + 1;
+        return RegexToken.repeat(min, max);
+    }
+
+    /**
+     * Parses a character class; the opening bracket has been consumed.
+     */
+    private IntervalSet characterClass() {
+        boolean negated = position < regex.length() && regex.charAt(position) == '^';
+        if (negated) {
+            position++;
+        }
+        IntervalSet set = IntervalSet.EMPTY;
+        boolean first = true;
+        while (true) {
+            if (position >= regex.length()) {
+                throw error("Unterminated character class");
+            }
+            int c = regex.codePointAt(position);
+            if (c == ']' && !first) {
+                position++;
+                break;
+            }
+            first = false;
+            IntervalSet item;
+            if (c == '\\') {
+                item = escape();
+            } else {
+                position += Character.charCount(c);
+                item = IntervalSet.of(c);
+            }
+            boolean range = item.isSingleton() && position + 1 < regex.length() && regex.charAt(position) == '-'
+                    && regex.charAt(position + 1) != ']';
+            if (range) {
+                position++;
+                int high;
+                if (regex.charAt(position) == '\\') {
+                    IntervalSet end = escape();
+                    if (!end.isSingleton()) {
+                        throw error("Invalid range end in character class");
+                    }
+                    high = end.getLow(0);
+                } else {
+                    high = regex.codePointAt(position);
+                    position += Character.charCount(high);
+                }
+                int low = item.getLow(0);
+                if (high < low) {
+                    throw error("Character range out of order");
+                }
+                item = IntervalSet.range(low, high);
+            }
+            set = set.union(item);
+        }
+        return negated ? set.complement() : set;
+    }
+
+    /**
+     * Parses an escape sequence at the current position (on the backslash).
+     */
+    private IntervalSet escape() {
+        position++;
+        if (position >= regex.length()) {
+            throw error("Trailing backslash");
+        }
+        int c = regex.codePointAt(position);
+        position += Character.charCount(c);
+        switch (c) {
+            case 'n':
+                return IntervalSet.of('\n');
+            case 't':
+                return IntervalSet.of('\t');
+            case 'r':
+                return IntervalSet.of('\r');
+            case 'f':
+                return IntervalSet.of('\f');
+            case 'v':
+                return IntervalSet.of(0x0B);
+            case '0':
+                return IntervalSet.of(0);
+            case 'd':
+                return DIGITS;
+            case 'D':
+                return DIGITS.complement();
+            case 'w':
+                return WORD;
+            case 'W':
+                return WORD.complement();
+            case 's':
+                return SPACE.union(IntervalSet.of(0x0B));
+            case 'S':
+                return SPACE.union(IntervalSet.of(0x0B)).complement();
+            case 'u':
+                return IntervalSet.of(unicodeEscape());
+            default:
+                if (Character.isLetterOrDigit(c)) {
+                    throw error("Unknown escape \\" + new String(Character.toChars(c)));
+                }
+                return IntervalSet.of(c);
+        }
+    }
+
+    /**
+     * Parses the code point of <code>&#92;uXXXX</code> or <code>&#92;u{X...}</code>; the backslash and u have been consumed.
+     */
+    private int unicodeEscape() {
+        int end;
+        String digits;
+        if (position < regex.length() && regex.charAt(position) == '{') {
+            end = regex.indexOf('}', position);
+            if (end < 0) {
+                throw error("Unterminated \\u{...} escape");
+            }
+            digits = regex.substring(position + 1, end);
+            end++;
+        } else {
+            end = position + 4;
+            if (end > regex.length()) {
+                throw error("Incomplete \\u escape");
+            }
+            digits = regex.substring(position, end);
+        }
+        if (!digits.matches("[0-9a-fA-F]{1,6}")) {
+            throw error("Invalid \\u escape");
+        }
+        int codePoint = Integer.parseInt(digits, 16);
+        if (codePoint > Character.MAX_CODE_POINT) {
+            throw error("Code point out of range");
+        }
+        position = end;
+        return codePoint;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at index " + position + " in regex: " + regex);
+    }
+}
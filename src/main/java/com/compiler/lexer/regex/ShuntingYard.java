@@ -1,10 +1,14 @@
 package com.compiler.lexer.regex;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import java.util.Stack;
 
+import com.compiler.jfr.PostfixEvent;
+
 /**
  * Utility class for regular expression parsing using the Shunting Yard
  * algorithm.
@@ -188,6 +192,117 @@ public class ShuntingYard {
 
         return output.toString();
     }
+
+    /**
+     * Tokenizes a regular expression and converts it to postfix notation.
+     *
+     * @param infixRegex Regular expression in infix notation, with character classes and bounded repetition.
+     * @return The tokens in postfix order, with explicit concatenation operators.
+     * @throws IllegalArgumentException if the expression is malformed.
+     */
+    public static List<RegexToken> toPostfixTokens(String infixRegex) {
+        return toPostfix(RegexTokenizer.tokenize(infixRegex));
+    }
+
+    /**
+     * Tokenizes a regular expression in the extended syntax (with {@code & ~ .}, see
+     * {@link RegexTokenizer#tokenize(String, boolean)}) and converts it to postfix notation.
+     *
+     * @param infixRegex Regular expression in infix notation.
+     * @return The tokens in postfix order, with explicit concatenation operators.
+     * @throws IllegalArgumentException if the expression is malformed.
+     */
+    public static List<RegexToken> toPostfixExtendedTokens(String infixRegex) {
+        return toPostfix(RegexTokenizer.tokenize(infixRegex, true));
+    }
+
+    /**
+     * Converts a tokenized infix regular expression to postfix notation. Explicit concatenation tokens
+     * are inserted between a token that ends an operand and a token that starts one; postfix operators
+     * bind tightest and go straight to the output, since they always follow their operand. The prefix
+     * complement waits on the operator stack like a binary operator of the highest precedence, then
+     * come concatenation, intersection and union.
+     *
+     * @param infix Tokens in infix order, as produced by {@link RegexTokenizer}.
+     * @return The tokens in postfix order.
+     * @throws IllegalArgumentException if the parentheses are unbalanced.
+     */
+    public static List<RegexToken> toPostfix(List<RegexToken> infix) {
+        PostfixEvent event = new PostfixEvent();
+        event.start();
+        List<RegexToken> output = new ArrayList<>();
+        Stack<RegexToken> operators = new Stack<>();
+        RegexToken previous = null;
+        for (RegexToken token : infix) {
+            if (previous != null && previous.endsOperand() && token.startsOperand()) {
+                pushBinary(RegexToken.of(RegexToken.Kind.CONCAT), output, operators);
+            }
+            switch (token.kind) {
+                case ATOM:
+                case EMPTY:
+                    output.add(token);
+                    break;
+                case LEFT_PAREN:
+                    operators.push(token);
+                    break;
+                case RIGHT_PAREN:
+                    while (!operators.isEmpty() && operators.peek().kind != RegexToken.Kind.LEFT_PAREN) {
+                        output.add(operators.pop());
+                    }
+                    if (operators.isEmpty()) {
+                        throw new IllegalArgumentException("Unbalanced ')' in regular expression");
+                    }
+                    operators.pop();
+                    break;
+                case COMPLEMENT:
+                    operators.push(token);
+                    break;
+                case UNION:
+                case INTERSECT:
+                case CONCAT:
+                    pushBinary(token, output, operators);
+                    break;
+                default:
+                    output.add(token);
+            }
+            previous = token;
+        }
+        while (!operators.isEmpty()) {
+            RegexToken top = operators.pop();
+            if (top.kind == RegexToken.Kind.LEFT_PAREN) {
+                throw new IllegalArgumentException("Unbalanced '(' in regular expression");
+            }
+            output.add(top);
+        }
+        if (event.shouldRecord()) {
+            event.record(infix.size(), output.size());
+        }
+        return output;
+    }
+
+    /**
+     * Pops the operators of higher or equal precedence, then pushes a binary operator.
+     */
+    private static void pushBinary(RegexToken token, List<RegexToken> output, Stack<RegexToken> operators) {
+        while (!operators.isEmpty() && operators.peek().kind != RegexToken.Kind.LEFT_PAREN
+                && precedence(operators.peek()) >= precedence(token)) {
+            output.add(operators.pop());
+        }
+        operators.push(token);
+    }
+
+    private static int precedence(RegexToken token) {
+        switch (token.kind) {
+            case UNION:
+                return 1;
+            case INTERSECT:
+                return 2;
+            case CONCAT:
+                return 3;
+            default:
+                return 4;
+        }
+    }
 }
         
 
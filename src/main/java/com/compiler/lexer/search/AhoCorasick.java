@@ -0,0 +1,150 @@
+package com.compiler.lexer.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AhoCorasick
+ * -----------
+ * Aho–Corasick automaton over code points for a set of literal strings. A trie of the literals is
+ * extended with failure links (the longest proper suffix of a state that is also a trie prefix), so
+ * one left-to-right pass over the input reports every occurrence of every literal, in time linear in
+ * the input plus the number of occurrences, whatever the number of literals.
+ *
+ * Example usage:
+ * <pre>
+ *     AhoCorasick ac = new AhoCorasick();
+ *     ac.add("he", 0);
+ *     ac.add("she", 1);
+ *     ac.build();
+ *     int state = 0;
+ *     for (int c : "ushers".codePoints().toArray()) {
+ *         state = ac.next(state, c);
+ *         int[] found = ac.getOutputs(state);   // ids of the literals ending here
+ *     }
+ * </pre>
+ */
+public class AhoCorasick {
+    private final List<Map<Integer, Integer>> children;
+    private final List<int[]> outputs;
+    private int[] fail;
+    private boolean built;
+
+    /**
+     * Creates an automaton with no literal.
+     */
+    public AhoCorasick() {
+        this.children = new ArrayList<>();
+        this.outputs = new ArrayList<>();
+        children.add(new HashMap<>());
+        outputs.add(new int[0]);
+    }
+
+    /**
+     * Adds a literal.
+     * @param literal The non-empty literal.
+     * @param id The id reported for its occurrences.
+     * @throws IllegalArgumentException if the literal is empty.
+     * @throws IllegalStateException if the automaton was already built.
+     */
+    public void add(String literal, int id) {
+        if (built) {
+            throw new IllegalStateException("Aho-Corasick automaton already built");
+        }
+        if (literal.isEmpty()) {
+            throw new IllegalArgumentException("Literal cannot be empty");
+        }
+        int state = 0;
+        for (int i = 0; i < literal.length(); ) {
+            int c = literal.codePointAt(i);
+            i += Character.charCount(c);
+            Integer child = children.get(state).get(c);
+            if (child == null) {
+                child = children.size();
+                children.add(new HashMap<>());
+                outputs.add(new int[0]);
+                children.get(state).put(c, child);
+            }
+            state = child;
+        }
+        int[] ids = outputs.get(state);
+        ids = Arrays.copyOf(ids, ids.length + 1);
+        ids[ids.length - 1] = id;
+        outputs.set(state, ids);
+    }
+
+    /**
+     * Computes the failure links breadth first and merges the outputs along them, so that
+     * {@link #getOutputs(int)} lists every literal ending at a state.
+     */
+    public void build() {
+        fail = new int[children.size()];
+        Deque<Integer> queue = new ArrayDeque<>(children.get(0).values());
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Integer, Integer> edge : children.get(state).entrySet()) {
+                int child = edge.getValue();
+                int f = state == 0 ? 0 : fail[state];
+                while (f != 0 && !children.get(f).containsKey(edge.getKey())) {
+                    f = fail[f];
+                }
+                Integer target = children.get(f).get(edge.getKey());
+                fail[child] = target != null && target != child ? target : 0;
+                int[] own = outputs.get(child);
+                int[] inherited = outputs.get(fail[child]);
+                if (inherited.length > 0) {
+                    int[] merged = Arrays.copyOf(own, own.length + inherited.length);
+                    System.arraycopy(inherited, 0, merged, own.length, inherited.length);
+                    outputs.set(child, merged);
+                }
+                queue.add(child);
+            }
+        }
+        built = true;
+    }
+
+    /**
+     * Follows one code point from a state, taking failure links as needed.
+     * @param state The current state; 0 is the root.
+     * @param codePoint The next code point of the input.
+     * @return The next state.
+     * @throws IllegalStateException if the automaton was not built.
+     */
+    public int next(int state, int codePoint) {
+        if (!built) {
+            throw new IllegalStateException("Aho-Corasick automaton not built");
+        }
+        while (true) {
+            Integer child = children.get(state).get(codePoint);
+            if (child != null) {
+                return child;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    /**
+     * Returns the ids of the literals that end at a state.
+     * @param state The state.
+     * @return The ids; do not modify.
+     */
+    public int[] getOutputs(int state) {
+        return outputs.get(state);
+    }
+
+    /**
+     * Returns the number of trie states.
+     * @return The state count.
+     */
+    public int getStateCount() {
+        return children.size();
+    }
+}
@@ -0,0 +1,47 @@
+package com.compiler.lexer.search;
+
+/**
+ * Match
+ * -----
+ * A match of one pattern of a {@link RegexSet}: the pattern id and the [start, end) range of the
+ * input, in char indexes.
+ */
+public final class Match {
+    /** Id of the pattern, as returned by {@link RegexSet#add(String)}. */
+    public final int patternId;
+    /** Index of the first char of the match. */
+    public final int start;
+    /** Index just past the last char of the match. */
+    public final int end;
+
+    /**
+     * Creates a match.
+     * @param patternId The pattern id.
+     * @param start The start index (inclusive).
+     * @param end The end index (exclusive).
+     */
+    public Match(int patternId, int start, int end) {
+        this.patternId = patternId;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Match)) {
+            return false;
+        }
+        Match other = (Match) obj;
+        return patternId == other.patternId && start == other.start && end == other.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return (patternId * 31 + start) * 31 + end;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + patternId + "[" + start + "," + end + ")";
+    }
+}
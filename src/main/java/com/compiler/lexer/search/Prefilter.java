@@ -0,0 +1,295 @@
+package com.compiler.lexer.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.compiler.lexer.nfa.IntervalSet;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.nfa.Transition;
+
+/**
+ * Prefilter
+ * ---------
+ * Skips the parts of a text where no match can start, before an unanchored search enters its DFA.
+ * Two facts are extracted from a pattern's NFA: the literal prefix every match starts with (e.g.
+ * "ERROR " for {@code ERROR [0-9]+}, or "a" for {@code ab|ac}) and the set of code points a match can
+ * start with. A literal prefix is found with {@link String#indexOf(String, int)}, which HotSpot
+ * compiles to a vectorized intrinsic; otherwise a scalar loop tests each char against the start set.
+ * A pattern that can match the empty string or start with almost anything gets no prefilter.
+ *
+ * Example usage:
+ * <pre>
+ *     Prefilter prefilter = Prefilter.of(new RegexParser().parse("ERROR [0-9]+"));
+ *     int candidate = prefilter.next(text, 0);   // first index where a match could start
+ * </pre>
+ */
+public final class Prefilter {
+    /** A prefilter that never skips anything. */
+    public static final Prefilter NONE = new Prefilter("", IntervalSet.ALL);
+
+    // Start sets with more code points than this are not worth scanning for.
+    private static final long MAX_START_SET = 1 << 12;
+
+    private final String literalPrefix;
+    private final IntervalSet startSet;
+    private final boolean active;
+    // Chars that can start a match, for sets of at most four BMP code points.
+    private final char[] singles;
+    // table[c - tableBase] for wider sets, with every high surrogate set for non-BMP code points.
+    private final boolean[] table;
+    private final int tableBase;
+
+    private Prefilter(String literalPrefix, IntervalSet startSet) {
+        this.literalPrefix = literalPrefix;
+        this.startSet = startSet;
+        this.active = !literalPrefix.isEmpty() || (!startSet.isEmpty() && startSet.size() <= MAX_START_SET);
+        IntervalSet chars = startSet.intersect(IntervalSet.range(0, Character.MAX_VALUE));
+        IntervalSet supplementary = startSet.minus(chars);
+        if (!supplementary.isEmpty()) {
+            chars = chars.union(IntervalSet.range(Character.MIN_HIGH_SURROGATE, Character.MAX_HIGH_SURROGATE));
+        }
+        if (!active || chars.isEmpty()) {
+            singles = null;
+            table = null;
+            tableBase = 0;
+        } else if (chars.size() <= 4) {
+            singles = new char[(int) chars.size()];
+            int n = 0;
+            for (int i = 0; i < chars.intervalCount(); i++) {
+                for (int c = chars.getLow(i); c <= chars.getHigh(i); c++) {
+                    singles[n++] = (char) c;
+                }
+            }
+            table = null;
+            tableBase = 0;
+        } else {
+            singles = null;
+            tableBase = chars.getLow(0);
+            table = new boolean[chars.getHigh(chars.intervalCount() - 1) - tableBase + 1];
+            for (int i = 0; i < chars.intervalCount(); i++) {
+                for (int c = chars.getLow(i); c <= chars.getHigh(i); c++) {
+                    table[c - tableBase] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a prefilter from explicit facts.
+     * @param literalPrefix The literal every match starts with, possibly empty.
+     * @param startSet The code points a match can start with.
+     * @return The prefilter.
+     */
+    public static Prefilter of(String literalPrefix, IntervalSet startSet) {
+        return new Prefilter(literalPrefix, startSet);
+    }
+
+    /**
+     * Analyzes the NFA of a pattern.
+     * @param nfa The NFA; its final states are those marked final.
+     * @return The prefilter, inactive if the pattern can match the empty string.
+     */
+    public static Prefilter of(NFA nfa) {
+        Set<State> live = live(nfa.startState);
+        Set<State> current = closure(Set.of(nfa.startState));
+        IntervalSet startSet = labels(current, live);
+        if (startSet == null) {
+            return NONE;
+        }
+        StringBuilder prefix = new StringBuilder();
+        // Edges into states that cannot reach a final state are ignored, so a*[^\s\S] gets no prefix;
+        // a state set that comes back ends the walk, which otherwise could not terminate on a loop.
+        Set<Set<State>> seen = new HashSet<>();
+        while (seen.add(current)) {
+            IntervalSet next = labels(current, live);
+            if (next == null || !next.isSingleton()) {
+                break;
+            }
+            int c = next.getLow(0);
+            prefix.appendCodePoint(c);
+            Set<State> moved = new HashSet<>();
+            for (State state : current) {
+                moved.addAll(state.getTransitions(c));
+            }
+            current = closure(moved);
+        }
+        return new Prefilter(prefix.toString(), startSet);
+    }
+
+    /**
+     * Combines the prefilters of alternative patterns: the common part of their literal prefixes and
+     * the union of their start sets.
+     * @param other The prefilter of the other patterns.
+     * @return The combined prefilter.
+     */
+    public Prefilter or(Prefilter other) {
+        if (!active || !other.active) {
+            return NONE;
+        }
+        int common = 0;
+        int limit = Math.min(literalPrefix.length(), other.literalPrefix.length());
+        while (common < limit && literalPrefix.charAt(common) == other.literalPrefix.charAt(common)) {
+            common++;
+        }
+        if (common > 0 && Character.isHighSurrogate(literalPrefix.charAt(common - 1))) {
+            common--;
+        }
+        return new Prefilter(literalPrefix.substring(0, common), startSet.union(other.startSet));
+    }
+
+    /**
+     * Returns the union of the labels leaving a set of states towards live states, or null if one of
+     * the states is final.
+     */
+    private static IntervalSet labels(Set<State> states, Set<State> live) {
+        IntervalSet labels = IntervalSet.EMPTY;
+        for (State state : states) {
+            if (state.isFinal) {
+                return null;
+            }
+            for (Transition t : state.transitions) {
+                if (!t.isEpsilon() && live.contains(t.toState)) {
+                    labels = labels.union(t.label);
+                }
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Returns the states reachable from the start state that can themselves reach a final state.
+     */
+    private static Set<State> live(State start) {
+        Map<State, List<State>> predecessors = new HashMap<>();
+        Set<State> reachable = new HashSet<>(List.of(start));
+        Deque<State> stack = new ArrayDeque<>(reachable);
+        Deque<State> finals = new ArrayDeque<>();
+        while (!stack.isEmpty()) {
+            State state = stack.pop();
+            if (state.isFinal) {
+                finals.push(state);
+            }
+            for (Transition t : state.transitions) {
+                if (t.label != null && t.label.isEmpty()) {
+                    continue;
+                }
+                predecessors.computeIfAbsent(t.toState, k -> new ArrayList<>()).add(state);
+                if (reachable.add(t.toState)) {
+                    stack.push(t.toState);
+                }
+            }
+        }
+        Set<State> live = new HashSet<>(finals);
+        while (!finals.isEmpty()) {
+            for (State previous : predecessors.getOrDefault(finals.pop(), List.of())) {
+                if (live.add(previous)) {
+                    finals.push(previous);
+                }
+            }
+        }
+        return live;
+    }
+
+    private static Set<State> closure(Set<State> states) {
+        Set<State> closure = new HashSet<>(states);
+        Deque<State> stack = new ArrayDeque<>(states);
+        while (!stack.isEmpty()) {
+            for (State next : stack.pop().getEpsilonTransitions()) {
+                if (closure.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Returns the first index at or after a position where a match could start.
+     * @param text The text.
+     * @param from The position to search from.
+     * @return The candidate index, or text.length() if no match can start in the rest of the text.
+     */
+    public int next(CharSequence text, int from) {
+        if (!active) {
+            return from;
+        }
+        int length = text.length();
+        if (!literalPrefix.isEmpty()) {
+            if (text instanceof String) {
+                int index = ((String) text).indexOf(literalPrefix, from);
+                return index < 0 ? length : index;
+            }
+            return nextLiteral(text, from, length);
+        }
+        if (singles != null) {
+            for (int i = from; i < length; i++) {
+                char c = text.charAt(i);
+                for (char single : singles) {
+                    if (c == single) {
+                        return i;
+                    }
+                }
+            }
+            return length;
+        }
+        if (table == null) {
+            return length;
+        }
+        for (int i = from; i < length; i++) {
+            int index = text.charAt(i) - tableBase;
+            if (index >= 0 && index < table.length && table[index]) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private int nextLiteral(CharSequence text, int from, int length) {
+        char first = literalPrefix.charAt(0);
+        int last = length - literalPrefix.length();
+        outer:
+        for (int i = from; i <= last; i++) {
+            if (text.charAt(i) != first) {
+                continue;
+            }
+            for (int j = 1; j < literalPrefix.length(); j++) {
+                if (text.charAt(i + j) != literalPrefix.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the literal every match starts with.
+     * @return The prefix, empty if there is none.
+     */
+    public String getLiteralPrefix() {
+        return literalPrefix;
+    }
+
+    /**
+     * Returns the code points a match can start with.
+     * @return The start set.
+     */
+    public IntervalSet getStartSet() {
+        return startSet;
+    }
+
+    /**
+     * Checks whether the prefilter can skip anything.
+     * @return false if {@link #next(CharSequence, int)} always returns its start position.
+     */
+    public boolean isActive() {
+        return active;
+    }
+}
@@ -0,0 +1,290 @@
+package com.compiler.lexer.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.compiler.lexer.CompileBudget;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.regex.RegexParser;
+
+/**
+ * RegexSearcher
+ * -------------
+ * Finds the matches of one regular expression inside a larger text, with leftmost-longest (POSIX)
+ * semantics: the match that starts first, and of those the longest. Search is RE2's two-pass strategy
+ * and never backtracks:
+ * <ol>
+ *   <li>A forward DFA runs from the search position to find where the leftmost-longest match ends.
+ *       Its states are ordered lists of NFA state sets, one per start position still alive, so the
+ *       DFA knows which threads started first; once a thread group accepts, the groups that started
+ *       after it are dropped and no new starts are added. The DFA is built lazily, one state per
+ *       distinct ordered list met in the input, and skips ahead with a {@link Prefilter} while no
+ *       match is in progress.</li>
+ *   <li>The DFA of the reversed expression ({@link NFA#reverse()}) runs backwards from that end to
+ *       recover the start of the match.</li>
+ * </ol>
+ * The lazily built states are cached in the searcher, which is therefore not thread-safe. The cache
+ * holds at most {@link CompileBudget#maxStates} states; once it is full, new states are still built
+ * but not kept, so a search over inputs that visit many states slows down instead of growing the
+ * searcher without bound.
+ *
+ * Example usage:
+ * <pre>
+ *     RegexSearcher searcher = new RegexSearcher("[0-9]+(\\.[0-9]+)?");
+ *     Match first = searcher.find("pi is 3.14", 0);              // [6,10)
+ *     List&lt;Match&gt; all = searcher.findAll("1, 22 and 333");
+ * </pre>
+ */
+public class RegexSearcher {
+    /**
+     * A state of the forward DFA.
+     */
+    private static final class Node {
+        // Sets of NFA states by start position, earliest first; an NFA state appears only in the first.
+        final List<Set<State>> groups;
+        // Whether some group has accepted, so no more start positions are tracked.
+        final boolean matched;
+        final boolean accepting;
+        final Node[] ascii = new Node[128];
+        final Map<Integer, Node> others = new HashMap<>();
+        // Whether the node is in the cache; only links between cached nodes are kept.
+        boolean cached;
+
+        Node(List<Set<State>> groups, boolean matched, boolean accepting) {
+            this.groups = groups;
+            this.matched = matched;
+            this.accepting = accepting;
+        }
+
+        boolean isDead() {
+            return matched && groups.isEmpty();
+        }
+    }
+
+    private final NFA nfa;
+    private final Set<State> startClosure;
+    private final Map<List<Object>, Node> nodes;
+    private final int maxCachedStates;
+    private final Node initial;
+    private final DFA reverse;
+    private final Prefilter prefilter;
+
+    /**
+     * Compiles a regular expression for searching, within the default budget.
+     * @param regex The regular expression.
+     * @throws IllegalArgumentException if the expression is malformed.
+     * @throws IllegalStateException if the reverse DFA exceeds {@link CompileBudget#DEFAULT}.
+     */
+    public RegexSearcher(String regex) {
+        this(regex, CompileBudget.DEFAULT);
+    }
+
+    /**
+     * Compiles a regular expression for searching. Only the reverse DFA is built up front, within the
+     * budget; the forward DFA is built lazily as inputs visit its states.
+     * @param regex The regular expression.
+     * @param budget The limits of the subset construction of the reverse DFA; its state limit is also
+     *               the number of forward DFA states cached.
+     * @throws IllegalArgumentException if the expression is malformed.
+     * @throws IllegalStateException if the reverse DFA exceeds the budget; the message names the pattern.
+     */
+    public RegexSearcher(String regex, CompileBudget budget) {
+        this.nfa = new RegexParser().parse(regex);
+        this.startClosure = closure(List.of(nfa.startState));
+        this.nodes = new HashMap<>();
+        this.maxCachedStates = budget.maxStates;
+        List<Set<State>> groups = new ArrayList<>();
+        groups.add(startClosure);
+        boolean accepting = startClosure.contains(nfa.endState);
+        this.initial = node(groups, accepting, accepting);
+        try {
+            this.reverse = NfaToDfaConverter.convertNfaToDfa(nfa.reverse(), budget);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("Pattern " + regex + ": reverse " + e.getMessage(), e);
+        }
+        this.prefilter = Prefilter.of(nfa);
+    }
+
+    /**
+     * Finds the leftmost-longest match starting at or after a position.
+     * @param text The text to search.
+     * @param from The position to search from.
+     * @return The match, with pattern id 0, or null if there is none.
+     * @throws IndexOutOfBoundsException if from is outside the text.
+     */
+    public Match find(CharSequence text, int from) {
+        if (from < 0 || from > text.length()) {
+            throw new IndexOutOfBoundsException("Search position " + from + " outside text of length " + text.length());
+        }
+        Node node = initial;
+        int end = node.accepting ? from : -1;
+        int position = from;
+        int length = text.length();
+        while (position < length && !node.isDead()) {
+            if (node == initial) {
+                position = prefilter.next(text, position);
+                if (position >= length) {
+                    break;
+                }
+            }
+            int c = Character.codePointAt(text, position);
+            position += Character.charCount(c);
+            node = step(node, c);
+            if (node.accepting) {
+                end = position;
+            }
+        }
+        if (end < 0) {
+            return null;
+        }
+        return new Match(0, leftmostStart(text, from, end), end);
+    }
+
+    /**
+     * Finds the successive non-overlapping leftmost-longest matches of the expression. After an
+     * empty match the search resumes one code point further.
+     * @param text The text to search.
+     * @return The matches in text order.
+     */
+    public List<Match> findAll(CharSequence text) {
+        List<Match> matches = new ArrayList<>();
+        int position = 0;
+        while (position <= text.length()) {
+            Match match = find(text, position);
+            if (match == null) {
+                break;
+            }
+            matches.add(match);
+            if (match.end > match.start) {
+                position = match.end;
+            } else if (match.end < text.length()) {
+                position = match.end + Character.charCount(Character.codePointAt(text, match.end));
+            } else {
+                break;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the number of forward DFA states built so far.
+     * @return The cached state count.
+     */
+    public int getCachedStateCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Follows one code point from a forward DFA state, building the target state on first use.
+     */
+    private Node step(Node node, int c) {
+        Node next = c < 128 ? node.ascii[c] : node.others.get(c);
+        if (next != null) {
+            return next;
+        }
+        List<Set<State>> groups = new ArrayList<>();
+        Set<State> seen = new LinkedHashSet<>();
+        boolean accepting = false;
+        for (Set<State> group : node.groups) {
+            List<State> moved = new ArrayList<>();
+            for (State state : group) {
+                moved.addAll(state.getTransitions(c));
+            }
+            Set<State> target = closure(moved);
+            target.removeAll(seen);
+            if (target.isEmpty()) {
+                continue;
+            }
+            groups.add(target);
+            seen.addAll(target);
+            if (target.contains(nfa.endState)) {
+                // Later starts cannot give the leftmost match any more.
+                accepting = true;
+                break;
+            }
+        }
+        boolean matched = node.matched || accepting;
+        if (!matched) {
+            Set<State> fresh = new LinkedHashSet<>(startClosure);
+            fresh.removeAll(seen);
+            if (!fresh.isEmpty()) {
+                groups.add(fresh);
+            }
+        }
+        next = node(groups, matched, accepting);
+        if (!node.cached || !next.cached) {
+            // Uncached nodes are not linked, so they can be collected after the search.
+            return next;
+        }
+        if (c < 128) {
+            node.ascii[c] = next;
+        } else {
+            node.others.put(c, next);
+        }
+        return next;
+    }
+
+    /**
+     * Returns the cached node of a list of groups, caching a new one if there is room.
+     */
+    private Node node(List<Set<State>> groups, boolean matched, boolean accepting) {
+        List<Object> key = new ArrayList<>(groups.size() + 1);
+        key.add(matched);
+        key.addAll(groups);
+        Node node = nodes.get(key);
+        if (node != null) {
+            return node;
+        }
+        node = new Node(groups, matched, accepting);
+        if (nodes.size() < maxCachedStates) {
+            node.cached = true;
+            nodes.put(key, node);
+        }
+        return node;
+    }
+
+    private static Set<State> closure(List<State> states) {
+        Set<State> closure = new LinkedHashSet<>(states);
+        Deque<State> stack = new ArrayDeque<>(states);
+        while (!stack.isEmpty()) {
+            for (State next : stack.pop().getEpsilonTransitions()) {
+                if (closure.add(next)) {
+                    stack.push(next);
+                }
+            }
+        }
+        return closure;
+    }
+
+    /**
+     * Runs the reverse DFA backwards from the end of a match, without reading before from.
+     * @return The smallest start of a match ending at end.
+     */
+    private int leftmostStart(CharSequence text, int from, int end) {
+        DfaState state = reverse.startState;
+        int start = end;
+        int position = end;
+        while (position > from) {
+            int c = Character.codePointBefore(text, position);
+            state = state.getTransition(c);
+            if (state == null) {
+                break;
+            }
+            position -= Character.charCount(c);
+            if (state.isFinal()) {
+                start = position;
+            }
+        }
+        return start;
+    }
+}
@@ -0,0 +1,364 @@
+package com.compiler.lexer.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.compiler.lexer.CompileBudget;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.nfa.IntervalSet;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.regex.RegexParser;
+import com.compiler.lexer.regex.RegexToken;
+import com.compiler.lexer.regex.RegexTokenizer;
+
+/**
+ * RegexSet
+ * --------
+ * Searches a text for many regular expressions in one pass. Patterns that are plain literals go to an
+ * {@link AhoCorasick} automaton; the others are combined into one unanchored DFA whose states carry
+ * the set of patterns that have a match ending there. Each input code point costs one step in each of
+ * the two automata, independently of the number of patterns.
+ *
+ * For every pattern and every position where a non-empty match of the pattern ends, one
+ * {@link Match} is reported with the leftmost start of a match ending there (the semantics of
+ * multi-pattern scanners such as Hyperscan). The start of a regex match is found by running the
+ * pattern's reverse DFA backwards from the end; reverse DFAs are compiled on the first match of
+ * their pattern, so patterns that never match cost nothing beyond the shared automaton. Within one
+ * search, a reverse scan stops where an earlier scan of the same pattern passed in the same state
+ * and reuses its result, so each position is scanned backwards at most once per reverse DFA state
+ * rather than once per match ending after it.
+ *
+ * While both automata are in their start state, no match is in progress and the search jumps to the
+ * next position where some pattern can start, found by a {@link Prefilter} combining all patterns.
+ *
+ * The combined DFA and the reverse DFAs are built within a {@link CompileBudget}; a pattern whose DFA
+ * explodes fails the build, or the search that first needs its reverse DFA, with an error naming it.
+ *
+ * Once built, a set may be searched by several threads at once.
+ *
+ * Example usage:
+ * <pre>
+ *     RegexSet set = new RegexSet();
+ *     int error = set.add("ERROR");
+ *     int code = set.add("E[0-9]{3}");
+ *     set.build();
+ *     List&lt;Match&gt; matches = set.findAll("ERROR E042 at boot");
+ * </pre>
+ */
+public class RegexSet {
+    private final List<String> patterns;
+    // Literal text of each pattern, or null if it is a regex.
+    private final List<String> literals;
+    private AhoCorasick literalAutomaton;
+    private DFA dfa;
+    private Map<DfaState, int[]> matchSets;
+    private List<NFA> regexNfas;
+    // Compiled on first use by any searching thread.
+    private AtomicReferenceArray<DFA> reverseDfas;
+    private Prefilter prefilter;
+    private boolean prefilterEnabled = true;
+    private CompileBudget budget = CompileBudget.DEFAULT;
+
+    /**
+     * Creates an empty set.
+     */
+    public RegexSet() {
+        this.patterns = new ArrayList<>();
+        this.literals = new ArrayList<>();
+    }
+
+    /**
+     * Adds a pattern.
+     * @param regex The regular expression.
+     * @return The id of the pattern, reported in its matches; ids are consecutive from 0.
+     * @throws IllegalArgumentException if the expression is malformed.
+     * @throws IllegalStateException if the set was already built.
+     */
+    public int add(String regex) {
+        if (dfa != null) {
+            throw new IllegalStateException("RegexSet already built");
+        }
+        List<RegexToken> tokens = RegexTokenizer.tokenize(regex);
+        StringBuilder literal = new StringBuilder();
+        for (RegexToken token : tokens) {
+            if (token.kind != RegexToken.Kind.ATOM || !token.set.isSingleton()) {
+                literal = null;
+                break;
+            }
+            literal.appendCodePoint(token.set.getLow(0));
+        }
+        patterns.add(regex);
+        literals.add(literal == null || literal.length() == 0 ? null : literal.toString());
+        return patterns.size() - 1;
+    }
+
+    /**
+     * Sets the limits of the subset constructions of the combined DFA and of each reverse DFA.
+     * @param budget The budget, {@link CompileBudget#DEFAULT} unless set.
+     */
+    public void setCompileBudget(CompileBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Compiles the patterns.
+     * @throws IllegalStateException if the combined DFA exceeds the compile budget; the message names
+     *         the regex pattern whose own DFA is estimated to be the largest.
+     */
+    public void build() {
+        literalAutomaton = new AhoCorasick();
+        RegexParser parser = new RegexParser();
+        State start = new State();
+        // Unanchored search: the start state stays active at every position.
+        start.addIntervalTransition(IntervalSet.ALL, start);
+        Map<State, Integer> patternOfEndState = new IdentityHashMap<>();
+        regexNfas = new ArrayList<>();
+        List<String> regexNames = new ArrayList<>();
+        prefilter = null;
+        for (int id = 0; id < patterns.size(); id++) {
+            if (literals.get(id) != null) {
+                String literal = literals.get(id);
+                literalAutomaton.add(literal, id);
+                regexNfas.add(null);
+                prefilter = or(prefilter, Prefilter.of(literal, IntervalSet.of(literal.codePointAt(0))));
+                continue;
+            }
+            NFA nfa = parser.parse(patterns.get(id));
+            regexNfas.add(nfa);
+            regexNames.add(id + " (" + patterns.get(id) + ")");
+            prefilter = or(prefilter, Prefilter.of(nfa));
+            start.addTransition(null, nfa.startState);
+            patternOfEndState.put(nfa.endState, id);
+        }
+        literalAutomaton.build();
+        try {
+            dfa = NfaToDfaConverter.convertNfaToDfa(new NFA(start, null), budget);
+        } catch (IllegalStateException e) {
+            List<NFA> nfas = new ArrayList<>(regexNfas);
+            nfas.removeIf(nfa -> nfa == null);
+            throw CompileBudget.blame("Pattern", regexNames, nfas, e);
+        }
+        matchSets = new IdentityHashMap<>();
+        for (DfaState state : dfa.allStates) {
+            BitSet ids = new BitSet();
+            for (State nfaState : state.getNfaStates()) {
+                Integer id = patternOfEndState.get(nfaState);
+                if (id != null) {
+                    ids.set(id);
+                }
+            }
+            if (!ids.isEmpty()) {
+                matchSets.put(state, ids.stream().toArray());
+            }
+        }
+        reverseDfas = new AtomicReferenceArray<>(patterns.size());
+        if (prefilter == null) {
+            prefilter = Prefilter.of("", IntervalSet.EMPTY);
+        }
+    }
+
+    private static Prefilter or(Prefilter combined, Prefilter next) {
+        return combined == null ? next : combined.or(next);
+    }
+
+    /**
+     * Enables or disables skipping with the prefilter; matches are the same either way.
+     * @param enabled Whether to use the prefilter (the default).
+     */
+    public void setPrefilterEnabled(boolean enabled) {
+        this.prefilterEnabled = enabled;
+    }
+
+    /**
+     * Returns the prefilter combining all patterns.
+     * @return The prefilter.
+     * @throws IllegalStateException if the set was not built.
+     */
+    public Prefilter getPrefilter() {
+        checkBuilt();
+        return prefilter;
+    }
+
+    /**
+     * Returns the number of patterns.
+     * @return The pattern count.
+     */
+    public int size() {
+        return patterns.size();
+    }
+
+    /**
+     * Returns the number of states of the combined regex DFA.
+     * @return The DFA state count.
+     */
+    public int getDfaStateCount() {
+        checkBuilt();
+        return dfa.allStates.size();
+    }
+
+    /**
+     * Finds every match of every pattern.
+     * @param text The text to search.
+     * @return The matches, ordered by end position, then by pattern id.
+     * @throws IllegalStateException if the set was not built, or if the reverse DFA of a matching
+     *         pattern exceeds the compile budget.
+     */
+    public List<Match> findAll(CharSequence text) {
+        checkBuilt();
+        List<Match> matches = new ArrayList<>();
+        DfaState state = dfa.startState;
+        int literalState = 0;
+        int position = 0;
+        int[] found = new int[patterns.size()];
+        ReverseScan[] scans = new ReverseScan[patterns.size()];
+        boolean skip = prefilterEnabled && prefilter.isActive();
+        while (position < text.length()) {
+            if (skip && state == dfa.startState && literalState == 0) {
+                position = prefilter.next(text, position);
+                if (position >= text.length()) {
+                    break;
+                }
+            }
+            int c = Character.codePointAt(text, position);
+            position += Character.charCount(c);
+            state = state.getTransition(c);
+            literalState = literalAutomaton.next(literalState, c);
+            int count = 0;
+            for (int id : literalAutomaton.getOutputs(literalState)) {
+                found[count++] = id;
+            }
+            int[] ids = matchSets.get(state);
+            if (ids != null) {
+                System.arraycopy(ids, 0, found, count, ids.length);
+                count += ids.length;
+            }
+            if (count == 0) {
+                continue;
+            }
+            Arrays.sort(found, 0, count);
+            for (int i = 0; i < count; i++) {
+                int id = found[i];
+                int start;
+                if (literals.get(id) != null) {
+                    start = position - literals.get(id).length();
+                } else {
+                    if (scans[id] == null) {
+                        scans[id] = new ReverseScan(reverseDfa(id));
+                    }
+                    start = scans[id].leftmostStart(text, position);
+                }
+                if (start < position) {
+                    matches.add(new Match(id, start, position));
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the patterns that match somewhere in a text.
+     * @param text The text to search.
+     * @return The ids of the matching patterns.
+     */
+    public BitSet matchingPatterns(CharSequence text) {
+        BitSet result = new BitSet();
+        for (Match match : findAll(text)) {
+            result.set(match.patternId);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the reverse DFA of a regex pattern, compiling it on first use.
+     */
+    private DFA reverseDfa(int id) {
+        DFA reverse = reverseDfas.get(id);
+        if (reverse == null) {
+            DFA compiled;
+            try {
+                compiled = NfaToDfaConverter.convertNfaToDfa(regexNfas.get(id).reverse(), budget);
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Pattern " + id + " (" + patterns.get(id) + "): reverse "
+                        + e.getMessage(), e);
+            }
+            // Threads racing here compile the same automaton; the first one stored is kept.
+            reverseDfas.compareAndSet(id, null, compiled);
+            reverse = reverseDfas.get(id);
+        }
+        return reverse;
+    }
+
+    /**
+     * The reverse scans of one pattern during one search. Two scans that reach the same position in
+     * the same state continue identically, so the smallest start found beyond each (position, state)
+     * pair visited is remembered, and a later scan that reaches a remembered pair stops there.
+     */
+    private static final class ReverseScan {
+        private static final int NONE = Integer.MAX_VALUE;
+
+        private final DFA reverse;
+        // Smallest start found beyond each visited pair, keyed by position << 32 | state id.
+        private final Map<Long, Integer> starts = new HashMap<>();
+        // The pairs visited by the current scan, in order, and whether their state is final.
+        private long[] visited = new long[16];
+        private boolean[] finals = new boolean[16];
+
+        ReverseScan(DFA reverse) {
+            this.reverse = reverse;
+        }
+
+        /**
+         * Runs the reverse DFA backwards from the end of a match.
+         * @return The smallest start of a non-empty match ending at end, or end if there is none.
+         */
+        int leftmostStart(CharSequence text, int end) {
+            DfaState state = reverse.startState;
+            int position = end;
+            int count = 0;
+            int start = NONE;
+            while (position > 0) {
+                int c = Character.codePointBefore(text, position);
+                state = state.getTransition(c);
+                if (state == null) {
+                    break;
+                }
+                position -= Character.charCount(c);
+                long key = ((long) position << 32) | state.id;
+                Integer known = starts.get(key);
+                if (known != null) {
+                    start = known;
+                    break;
+                }
+                if (count == visited.length) {
+                    visited = Arrays.copyOf(visited, 2 * count);
+                    finals = Arrays.copyOf(finals, 2 * count);
+                }
+                visited[count] = key;
+                finals[count++] = state.isFinal();
+            }
+            // Positions decrease along the scan, so the smallest start is the last final state.
+            for (int i = count - 1; i >= 0; i--) {
+                if (start == NONE && finals[i]) {
+                    start = (int) (visited[i] >>> 32);
+                }
+                starts.put(visited[i], start);
+            }
+            return start == NONE ? end : start;
+        }
+    }
+
+    private void checkBuilt() {
+        if (dfa == null) {
+            throw new IllegalStateException("RegexSet has not been built");
+        }
+    }
+}
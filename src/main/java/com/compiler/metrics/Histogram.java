@@ -0,0 +1,138 @@
+package com.compiler.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram
+ * ---------
+ * A concurrent histogram of non-negative long values (typically latencies in nanoseconds) with
+ * HdrHistogram-style log-linear buckets: values below 64 have a bucket each, and every power-of-two
+ * range above is split into 32 equal buckets, so a bucket is never wider than 1/32 of its values
+ * (about 3% relative error) and the whole long range fits in 1,888 counters. Recording a value is one
+ * leading-zero count, one shift and one atomic increment; nothing is allocated.
+ *
+ * Example usage:
+ * <pre>
+ *     Histogram latency = registry.histogram("parser.expr.latency");
+ *     latency.record(System.nanoTime() - start);
+ *     long p99 = latency.getValueAtQuantile(0.99);
+ * </pre>
+ */
+public final class Histogram {
+    // 2^SUB_BITS buckets per power of two.
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = SUB + (63 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value.
+     * @param value The value; negative values are recorded as 0.
+     */
+    public void record(long value) {
+        long v = Math.max(value, 0);
+        counts.incrementAndGet(bucketOf(v));
+        count.increment();
+        sum.add(v);
+        if (v > max.get()) {
+            max.accumulateAndGet(v, Math::max);
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < 2 * SUB) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        // The SUB_BITS + 1 leading bits of the value, in [SUB, 2 * SUB).
+        int top = (int) (value >>> (magnitude - SUB_BITS));
+        return SUB + (magnitude - SUB_BITS) * SUB + top - SUB;
+    }
+
+    static long highestValueOf(int bucket) {
+        if (bucket < 2 * SUB) {
+            return bucket;
+        }
+        int shift = (bucket - SUB) / SUB;
+        long top = SUB + (bucket - SUB) % SUB;
+        return (top << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     * @return The maximum, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     * @return The mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns a value such that the given fraction of the recorded values are at most that value,
+     * within the precision of the buckets.
+     * @param quantile The fraction, between 0 and 1.
+     * @return The highest value of the bucket holding the quantile, capped by the maximum; 0 if empty.
+     * @throws IllegalArgumentException if the quantile is outside [0, 1].
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + quantile);
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the count, mean, usual percentiles and maximum.
+     * @return The summary.
+     */
+    public HistogramSummary summarize() {
+        return new HistogramSummary(getCount(), getMean(), getValueAtQuantile(0.5), getValueAtQuantile(0.9),
+                getValueAtQuantile(0.99), getMax());
+    }
+
+    /**
+     * Forgets every recorded value. Values recorded concurrently may be partly kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+}
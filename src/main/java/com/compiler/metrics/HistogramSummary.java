@@ -0,0 +1,76 @@
+package com.compiler.metrics;
+
+import javax.management.openmbean.CompositeData;
+
+/**
+ * HistogramSummary
+ * ----------------
+ * An immutable digest of a {@link Histogram}: count, mean, median, 90th and 99th percentiles and
+ * maximum. Through JMX it appears as a composite value with one item per getter.
+ */
+public final class HistogramSummary {
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long max;
+
+    /**
+     * Creates a summary.
+     * @param count The number of values.
+     * @param mean The mean value.
+     * @param p50 The median.
+     * @param p90 The 90th percentile.
+     * @param p99 The 99th percentile.
+     * @param max The maximum.
+     */
+    public HistogramSummary(long count, double mean, long p50, long p90, long p99, long max) {
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    /**
+     * Rebuilds a summary from its JMX form.
+     * @param data The composite value.
+     * @return The summary.
+     */
+    public static HistogramSummary from(CompositeData data) {
+        return new HistogramSummary((Long) data.get("count"), (Double) data.get("mean"), (Long) data.get("p50"),
+                (Long) data.get("p90"), (Long) data.get("p99"), (Long) data.get("max"));
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + " mean=" + String.format("%.1f", mean) + " p50=" + p50 + " p90=" + p90
+                + " p99=" + p99 + " max=" + max;
+    }
+}
@@ -0,0 +1,40 @@
+package com.compiler.metrics;
+
+import java.util.Map;
+
+/**
+ * MetricsMXBean
+ * -------------
+ * The JMX view of a {@link MetricsRegistry}, as shown by JConsole or VisualVM under the name given to
+ * {@link MetricsRegistry#registerMBean(String)}.
+ */
+public interface MetricsMXBean {
+    /**
+     * Returns the counters.
+     * @return The value of each counter, by name.
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Returns the average rates of the counters, e.g. tokens per second.
+     * @return The increase per second of each counter since the registry was created or reset, by name.
+     */
+    Map<String, Double> getRates();
+
+    /**
+     * Returns the histograms.
+     * @return The summary of each histogram, by name.
+     */
+    Map<String, HistogramSummary> getHistograms();
+
+    /**
+     * Returns the fraction of lazy DFA steps that followed a cached transition.
+     * @return The hit rate, or 0 if no step was taken.
+     */
+    double getMatcherCacheHitRate();
+
+    /**
+     * Resets every counter and histogram.
+     */
+    void reset();
+}
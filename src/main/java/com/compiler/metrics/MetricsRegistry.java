@@ -0,0 +1,147 @@
+package com.compiler.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * MetricsRegistry
+ * ---------------
+ * Named live counters and histograms of the lexing and parsing runtime. Counters are
+ * {@link LongAdder}s, which stripe their cells across threads, so concurrent updates do not contend;
+ * histograms are {@link Histogram}s. A component is instrumented by handing it a registry (e.g.
+ * {@link com.compiler.lexer.Lexer#setMetrics(MetricsRegistry)}); it looks its counters up once and
+ * adds to them once per call with totals kept in locals, never per character, so the hot loops are
+ * unchanged. Without a registry nothing is counted.
+ *
+ * The metrics can be read directly, pushed to a {@link MetricsReporter}, or watched over JMX after
+ * {@link #registerMBean(String)}.
+ *
+ * Example usage:
+ * <pre>
+ *     MetricsRegistry registry = new MetricsRegistry();
+ *     registry.registerMBean("com.compiler:type=Metrics");
+ *     lexer.setMetrics(registry);
+ *     parser.setMetrics(registry, "expr");
+ *     long tokens = registry.counter(MetricsRegistry.LEXER_TOKENS).sum();
+ * </pre>
+ */
+public final class MetricsRegistry implements MetricsMXBean {
+    /** Tokens produced by lexers, ignored ones included. */
+    public static final String LEXER_TOKENS = "lexer.tokens";
+    /** Chars of String input scanned by lexers. */
+    public static final String LEXER_CHARS = "lexer.chars";
+    /** Bytes of UTF-8 input scanned by lexers. */
+    public static final String LEXER_BYTES = "lexer.bytes";
+    /** Transitions taken by DFAs (lexers, simulators and lazy DFAs); lexer look-ahead included. */
+    public static final String DFA_TRANSITIONS = "dfa.transitions";
+    /** Input code points processed by NFA simulation. */
+    public static final String NFA_STEPS = "nfa.steps";
+    /** Lazy DFA steps that followed a cached transition. */
+    public static final String MATCHER_CACHE_HITS = "matcher.cacheHits";
+    /** Lazy DFA steps that had to compute their target state. */
+    public static final String MATCHER_CACHE_MISSES = "matcher.cacheMisses";
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private volatile long startNanos = System.nanoTime();
+
+    /**
+     * Returns a counter, creating it on first use.
+     * @param name The counter name.
+     * @return The counter.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+
+    /**
+     * Returns a histogram, creating it on first use.
+     * @param name The histogram name.
+     * @return The histogram.
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new Histogram());
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Double> getRates() {
+        double seconds = elapsedSeconds();
+        Map<String, Double> rates = new TreeMap<>();
+        counters.forEach((name, counter) -> rates.put(name, counter.sum() / seconds));
+        return rates;
+    }
+
+    @Override
+    public Map<String, HistogramSummary> getHistograms() {
+        Map<String, HistogramSummary> summaries = new TreeMap<>();
+        histograms.forEach((name, histogram) -> summaries.put(name, histogram.summarize()));
+        return summaries;
+    }
+
+    @Override
+    public double getMatcherCacheHitRate() {
+        long hits = counter(MATCHER_CACHE_HITS).sum();
+        long total = hits + counter(MATCHER_CACHE_MISSES).sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public void reset() {
+        counters.values().forEach(LongAdder::reset);
+        histograms.values().forEach(Histogram::reset);
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Passes every counter and histogram, in name order, to a reporter.
+     * @param reporter The reporter.
+     */
+    public void report(MetricsReporter reporter) {
+        double seconds = elapsedSeconds();
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            reporter.counter(counter.getKey(), counter.getValue(), counter.getValue() / seconds);
+        }
+        for (Map.Entry<String, HistogramSummary> histogram : getHistograms().entrySet()) {
+            reporter.histogram(histogram.getKey(), histogram.getValue());
+        }
+    }
+
+    /**
+     * Registers the registry with the platform MBean server.
+     * @param objectName The JMX object name, e.g. {@code com.compiler:type=Metrics}.
+     * @return The registered name.
+     * @throws IllegalArgumentException if the name is malformed.
+     * @throws IllegalStateException if the name is already registered.
+     */
+    public ObjectName registerMBean(String objectName) {
+        ObjectName name;
+        try {
+            name = new ObjectName(objectName);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Malformed MBean name: " + objectName, e);
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register MBean " + objectName + ": " + e.getMessage(), e);
+        }
+        return name;
+    }
+
+    private double elapsedSeconds() {
+        return Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+    }
+}
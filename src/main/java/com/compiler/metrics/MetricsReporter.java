@@ -0,0 +1,33 @@
+package com.compiler.metrics;
+
+/**
+ * MetricsReporter
+ * ---------------
+ * Receives the metrics of a {@link MetricsRegistry} when {@link MetricsRegistry#report(MetricsReporter)}
+ * is called, to forward them to another monitoring system (a log, StatsD, Prometheus...). The registry
+ * does not schedule reports; callers do, e.g. with a ScheduledExecutorService.
+ *
+ * Example usage:
+ * <pre>
+ *     registry.report(new MetricsReporter() {
+ *         public void counter(String name, long value, double ratePerSecond) { ... }
+ *         public void histogram(String name, HistogramSummary summary) { ... }
+ *     });
+ * </pre>
+ */
+public interface MetricsReporter {
+    /**
+     * Reports a counter.
+     * @param name The counter name.
+     * @param value Its value.
+     * @param ratePerSecond Its average increase per second since the registry was created or reset.
+     */
+    void counter(String name, long value, double ratePerSecond);
+
+    /**
+     * Reports a histogram.
+     * @param name The histogram name.
+     * @param summary Its current summary.
+     */
+    void histogram(String name, HistogramSummary summary);
+}
@@ -0,0 +1,42 @@
+package com.compiler.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ParserMetrics
+ * -------------
+ * The metrics of a parser driver for one grammar: the counters {@code parser.<grammar>.parses} and
+ * {@code parser.<grammar>.errors} and the histogram {@code parser.<grammar>.latency}, in nanoseconds.
+ * The metrics are looked up once, when the parser is instrumented. Recording a parse costs two
+ * {@link System#nanoTime()} calls and three atomic updates, about 0.1 µs, which is lost in the noise
+ * for inputs of a few dozen tokens or more but not for one-line expressions.
+ */
+public final class ParserMetrics {
+    private final LongAdder parses;
+    private final LongAdder errors;
+    private final Histogram latency;
+
+    /**
+     * Looks up the metrics of a grammar.
+     * @param registry The registry.
+     * @param grammar The name of the grammar.
+     */
+    public ParserMetrics(MetricsRegistry registry, String grammar) {
+        this.parses = registry.counter("parser." + grammar + ".parses");
+        this.errors = registry.counter("parser." + grammar + ".errors");
+        this.latency = registry.histogram("parser." + grammar + ".latency");
+    }
+
+    /**
+     * Records one parse.
+     * @param startNanos The {@link System#nanoTime()} at which the parse started.
+     * @param errorCount The number of syntax errors found.
+     */
+    public void record(long startNanos, int errorCount) {
+        latency.record(System.nanoTime() - startNanos);
+        parses.increment();
+        if (errorCount > 0) {
+            errors.add(errorCount);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.compiler.parser;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a parse run with error recovery.
+ * The input is accepted only if the run reached the end of the input without
+ * reporting any syntax error; every error found on the way is kept in order.
+ */
+public class ParseResult {
+    private final boolean accepted;
+    private final List<SyntaxError> errors;
+
+    /**
+     * Constructs a parse result.
+     *
+     * @param accepted true if the input was accepted without errors
+     * @param errors the syntax errors found, in input order
+     */
+    public ParseResult(boolean accepted, List<SyntaxError> errors) {
+        this.accepted = accepted;
+        this.errors = errors == null ? Collections.emptyList() : Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Returns whether the input was accepted without errors.
+     * @return true if accepted
+     */
+    public boolean isAccepted() {
+        return accepted;
+    }
+
+    /**
+     * Returns the syntax errors found during the run.
+     * @return unmodifiable list of errors, empty if none
+     */
+    public List<SyntaxError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,74 @@
+package com.compiler.parser;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.compiler.lexer.Token;
+
+/**
+ * Describes a single syntax error found by one of the parser drivers.
+ * The error keeps the offending token, its index in the token stream and the
+ * set of terminal names that would have been accepted at that point.
+ */
+public class SyntaxError {
+    /** Index of the offending token in the token stream (the end marker has index tokens.size()). */
+    public final int tokenIndex;
+    /** The offending token. */
+    public final Token token;
+    /** Names of the terminals that were expected instead. */
+    public final Set<String> expected;
+    /** Human readable description of the error. */
+    public final String message;
+
+    /**
+     * Constructs a syntax error.
+     *
+     * @param tokenIndex index of the offending token
+     * @param token the offending token
+     * @param expected names of the terminals that were expected
+     * @param message description of the error
+     */
+    public SyntaxError(int tokenIndex, Token token, Set<String> expected, String message) {
+        this.tokenIndex = tokenIndex;
+        this.token = token;
+        this.expected = Collections.unmodifiableSet(expected);
+        this.message = message;
+    }
+
+    /**
+     * Returns the index of the offending token.
+     * @return the token index
+     */
+    public int getTokenIndex() {
+        return tokenIndex;
+    }
+
+    /**
+     * Returns the offending token.
+     * @return the token
+     */
+    public Token getToken() {
+        return token;
+    }
+
+    /**
+     * Returns the names of the terminals that were expected.
+     * @return unmodifiable set of terminal names
+     */
+    public Set<String> getExpected() {
+        return expected;
+    }
+
+    /**
+     * Returns the description of the error.
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "Syntax error at token " + tokenIndex + " " + token + ": " + message;
+    }
+}
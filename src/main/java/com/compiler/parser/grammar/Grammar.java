@@ -57,6 +57,47 @@ public class Grammar {
         validateProductions(this.productions);
     }
 
+    /**
+     * Constructs a Grammar from a start symbol and a list of productions, e.g. the output of a
+     * grammar transformation. Non-terminals are the symbols of type NON_TERMINAL; every other symbol
+     * except ε is a terminal.
+     *
+     * @param startSymbol The start symbol; it must have at least one production.
+     * @param productions The productions, in order.
+     * @throws IllegalArgumentException if the start symbol has no production.
+     */
+    public Grammar(Symbol startSymbol, List<Production> productions) {
+        if (startSymbol == null || productions == null) {
+            throw new IllegalArgumentException("Start symbol and productions cannot be null.");
+        }
+        Set<Symbol> nonTerminalSet = new java.util.LinkedHashSet<>();
+        Set<Symbol> terminalSet = new java.util.LinkedHashSet<>();
+        nonTerminalSet.add(startSymbol);
+        boolean startDefined = false;
+        for (Production production : productions) {
+            nonTerminalSet.add(production.left);
+            startDefined |= production.left.equals(startSymbol);
+        }
+        if (!startDefined) {
+            throw new IllegalArgumentException("Start symbol has no production: " + startSymbol);
+        }
+        for (Production production : productions) {
+            for (Symbol symbol : production.right) {
+                if (symbol.type == SymbolType.NON_TERMINAL) {
+                    nonTerminalSet.add(symbol);
+                } else if (!"ε".equals(symbol.name)) {
+                    terminalSet.add(symbol);
+                }
+            }
+        }
+        this.nonTerminals = java.util.Collections.unmodifiableSet(nonTerminalSet);
+        this.terminals = java.util.Collections.unmodifiableSet(terminalSet);
+        this.productions = java.util.Collections.unmodifiableList(new java.util.ArrayList<>(productions));
+        this.startSymbol = startSymbol;
+
+        validateProductions(this.productions);
+    }
+
     /**
      * Helper class to hold parsed grammar data.
      */
@@ -239,4 +280,36 @@ public class Grammar {
     public Symbol getStartSymbol() {
         return startSymbol;
     }
+
+    /**
+     * Returns the grammar in the definition format accepted by {@link #Grammar(String)}, with the
+     * alternatives of each non-terminal on one line and the start symbol first.
+     * @return The grammar definition.
+     */
+    @Override
+    public String toString() {
+        Map<Symbol, List<Production>> byLeft = new java.util.LinkedHashMap<>();
+        byLeft.put(startSymbol, new java.util.ArrayList<>());
+        for (Production production : productions) {
+            byLeft.computeIfAbsent(production.left, k -> new java.util.ArrayList<>()).add(production);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Symbol, List<Production>> entry : byLeft.entrySet()) {
+            sb.append(entry.getKey().name).append(" ->");
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                if (i > 0) {
+                    sb.append(" |");
+                }
+                List<Symbol> right = entry.getValue().get(i).right;
+                if (right.isEmpty()) {
+                    sb.append(" ε");
+                }
+                for (Symbol symbol : right) {
+                    sb.append(' ').append(symbol.name);
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
 }
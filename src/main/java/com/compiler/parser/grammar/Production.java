@@ -47,5 +47,17 @@ public class Production {
         return right;
     }
 
-
-}
\ No newline at end of file
+    /**
+     * Returns a readable form of the production (e.g., "E -> E + T").
+     *
+     * @return String representation of the production
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(left.name).append(" ->");
+        for (Symbol symbol : right) {
+            sb.append(' ').append(symbol.name);
+        }
+        return sb.toString();
+    }
+}
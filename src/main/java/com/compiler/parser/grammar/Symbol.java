@@ -51,4 +51,14 @@ public class Symbol {
         result = 31 * result + type.hashCode();
         return result;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the name of the symbol.
+     *
+     * @return the symbol name
+     */
+    @Override
+    public String toString() {
+        return name;
+    }
+}
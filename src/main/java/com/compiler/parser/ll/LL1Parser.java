@@ -1,18 +1,53 @@
 package com.compiler.parser.ll;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.compiler.lexer.Token;
+import com.compiler.metrics.MetricsRegistry;
+import com.compiler.metrics.ParserMetrics;
+import com.compiler.parser.ParseResult;
+import com.compiler.parser.SyntaxError;
+import com.compiler.parser.grammar.Production;
+import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.grammar.SymbolType;
+import com.compiler.parser.syntax.StaticAnalyzer;
 
 /**
  * Implements the LL(1) predictive parsing engine using the parsing table.
  * Complementary task for Practice 7.
+ *
+ * Besides the plain recognizer, {@link #parseWithRecovery(List)} keeps parsing after an error
+ * using panic-mode recovery: the offending non-terminal is resynchronized on its FOLLOW set and
+ * a missing terminal is assumed inserted (phrase-level recovery), so all errors are reported in one pass.
  */
 public class LL1Parser {
     private final LL1Table table;
+    private final Map<String, Symbol> terminalsByName;
+    // Null unless metrics are enabled.
+    private ParserMetrics metrics;
 
     public LL1Parser(LL1Table table) {
         this.table = table;
+        this.terminalsByName = new HashMap<>();
+        for (Symbol terminal : table.getGrammar().getTerminals()) {
+            terminalsByName.put(terminal.name, terminal);
+        }
+    }
+
+    /**
+     * Records the latency and syntax errors of every later parse in a registry, see {@link ParserMetrics}.
+     * @param registry The registry, or null to stop recording.
+     * @param grammar The name of the grammar in the metric names.
+     */
+    public void setMetrics(MetricsRegistry registry, String grammar) {
+        this.metrics = registry == null ? null : new ParserMetrics(registry, grammar);
     }
 
     /**
@@ -38,6 +73,116 @@ public class LL1Parser {
         //    d. If X is epsilon, pop X (do not advance input).
         // 4. If the stack is empty and all input tokens have been consumed, accept (return true).
         // 5. Else, reject (return false).
-        throw new UnsupportedOperationException("Not implemented");
+        long start = metrics != null ? System.nanoTime() : 0;
+        boolean accepted = run(tokens, null);
+        if (metrics != null) {
+            metrics.record(start, accepted ? 0 : 1);
+        }
+        return accepted;
+    }
+
+    /**
+     * Parses a sequence of tokens reporting every syntax error instead of stopping at the first one.
+     * @param tokens The token stream from the lexer.
+     * @return The result of the run with all the errors found.
+     */
+    public ParseResult parseWithRecovery(List<Token> tokens) {
+        long start = metrics != null ? System.nanoTime() : 0;
+        List<SyntaxError> errors = new ArrayList<>();
+        boolean accepted = run(tokens, errors);
+        if (metrics != null) {
+            metrics.record(start, errors.size());
+        }
+        return new ParseResult(accepted && errors.isEmpty(), errors);
+    }
+
+    /**
+     * Runs the predictive driver.
+     * @param tokens The token stream.
+     * @param errors List collecting the errors, or null to stop at the first error.
+     * @return true if the end of the input was reached with an empty stack.
+     */
+    private boolean run(List<Token> tokens, List<SyntaxError> errors) {
+        Deque<Symbol> stack = new ArrayDeque<>();
+        stack.push(StaticAnalyzer.END);
+        stack.push(table.getGrammar().getStartSymbol());
+
+        int ip = 0;
+        Symbol current = symbolAt(tokens, ip);
+        while (true) {
+            Symbol top = stack.peek();
+            if (top == StaticAnalyzer.END) {
+                if (current == StaticAnalyzer.END) {
+                    return true;
+                }
+                if (errors != null) {
+                    errors.add(error(tokens, ip, Set.of(StaticAnalyzer.END.name), "unexpected input after the end of the program"));
+                }
+                return false;
+            }
+            if (top.type == SymbolType.TERMINAL) {
+                if (top.name.equals("ε")) {
+                    stack.pop();
+                } else if (top.equals(current)) {
+                    stack.pop();
+                    ip++;
+                    current = symbolAt(tokens, ip);
+                } else {
+                    if (errors == null) {
+                        return false;
+                    }
+                    // Phrase-level recovery: behave as if the missing terminal had been inserted.
+                    errors.add(error(tokens, ip, Set.of(top.name), "expected '" + top.name + "'"));
+                    stack.pop();
+                }
+                continue;
+            }
+
+            Production production = table.getProduction(top, current);
+            if (production != null) {
+                stack.pop();
+                List<Symbol> right = production.getRight();
+                for (int i = right.size() - 1; i >= 0; i--) {
+                    stack.push(right.get(i));
+                }
+                continue;
+            }
+            if (errors == null) {
+                return false;
+            }
+            errors.add(error(tokens, ip, names(table.getExpectedTerminals(top)), "unexpected token while parsing " + top.name));
+            // Panic mode: skip input until the non-terminal can either start or be followed by the current token.
+            Set<Symbol> synchronizing = table.getSynchronizingSet(top);
+            while (current != StaticAnalyzer.END && !synchronizing.contains(current)
+                    && table.getProduction(top, current) == null) {
+                ip++;
+                current = symbolAt(tokens, ip);
+            }
+            if (table.getProduction(top, current) == null) {
+                stack.pop();
+            }
+        }
+    }
+
+    private Symbol symbolAt(List<Token> tokens, int index) {
+        if (index >= tokens.size()) {
+            return StaticAnalyzer.END;
+        }
+        Symbol symbol = terminalsByName.get(tokens.get(index).type);
+        // Unknown token types never match a table entry, so any fresh symbol works as an error marker.
+        return symbol != null ? symbol : new Symbol(tokens.get(index).type, SymbolType.TERMINAL);
+    }
+
+    private static SyntaxError error(List<Token> tokens, int index, Set<String> expected, String message) {
+        Token token = index < tokens.size() ? tokens.get(index) : new Token(StaticAnalyzer.END.name, "", -1);
+        return new SyntaxError(index, token, expected, message);
+    }
+
+    private static Set<String> names(Set<Symbol> symbols) {
+        Set<String> names = new LinkedHashSet<>();
+        for (Symbol symbol : symbols) {
+            names.add(symbol.name);
+        }
+        return names;
     }
-}
\ No newline at end of file
+}
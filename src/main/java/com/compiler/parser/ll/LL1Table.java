@@ -1,9 +1,16 @@
 package com.compiler.parser.ll;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import com.compiler.parser.grammar.Grammar;
 import com.compiler.parser.grammar.Production;
 import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.grammar.SymbolType;
 import com.compiler.parser.syntax.StaticAnalyzer;
 
 /**
@@ -14,11 +21,15 @@ public class LL1Table {
     // The table is a nested Map: Map<NonTerminal, Map<Terminal, Production>>
     private final Map<Symbol, Map<Symbol, Production>> table;
     private final StaticAnalyzer analyzer;
+    private final List<String> conflicts;
+    // FOLLOW sets are kept after the build; the parser uses them as synchronizing sets.
+    private Map<Symbol, Set<Symbol>> followSets;
 
     public LL1Table(StaticAnalyzer analyzer) {
         this.analyzer = analyzer;
         this.table = new java.util.HashMap<>();
-        // TODO: Initialize the table structure
+        this.conflicts = new ArrayList<>();
+        this.followSets = Collections.emptyMap();
     }
 
     /**
@@ -42,10 +53,69 @@ public class LL1Table {
      *                  - Report conflict (grammar is not LL(1))
      *
      * 2. After filling, the table M can be used for parsing.
+     *
+     * Conflicts keep the first production entered in the cell and are listed by {@link #getConflicts()}.
      */
     public void build() {
-        // TODO: Implement the LL(1) table construction algorithm as described above.
-        throw new UnsupportedOperationException("Not implemented");
+        table.clear();
+        conflicts.clear();
+        Map<Symbol, Set<Symbol>> firstSets = analyzer.getFirstSets();
+        followSets = analyzer.getFollowSets();
+
+        for (Production production : analyzer.getGrammar().getProductions()) {
+            Symbol nonTerminal = production.getLeft();
+            Set<Symbol> first = firstOfSequence(production.getRight(), firstSets);
+            for (Symbol terminal : first) {
+                if (!isEpsilon(terminal)) {
+                    addEntry(nonTerminal, terminal, production);
+                }
+            }
+            if (first.contains(StaticAnalyzer.EPSILON)) {
+                for (Symbol terminal : followSets.getOrDefault(nonTerminal, Collections.emptySet())) {
+                    addEntry(nonTerminal, terminal, production);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes FIRST of a sequence of symbols X1 X2 ... Xn.
+     * @param symbols The sequence.
+     * @param firstSets FIRST sets of the single symbols.
+     * @return The FIRST set of the sequence, containing ε if every symbol can derive ε.
+     */
+    private Set<Symbol> firstOfSequence(List<Symbol> symbols, Map<Symbol, Set<Symbol>> firstSets) {
+        Set<Symbol> result = new HashSet<>();
+        for (Symbol symbol : symbols) {
+            Set<Symbol> first = firstSets.getOrDefault(symbol, Collections.emptySet());
+            boolean nullable = false;
+            for (Symbol s : first) {
+                if (isEpsilon(s)) {
+                    nullable = true;
+                } else {
+                    result.add(s);
+                }
+            }
+            if (!nullable) {
+                return result;
+            }
+        }
+        result.add(StaticAnalyzer.EPSILON);
+        return result;
+    }
+
+    private void addEntry(Symbol nonTerminal, Symbol terminal, Production production) {
+        Map<Symbol, Production> row = table.computeIfAbsent(nonTerminal, k -> new java.util.HashMap<>());
+        Production existing = row.get(terminal);
+        if (existing == null) {
+            row.put(terminal, production);
+        } else if (existing != production) {
+            conflicts.add("M[" + nonTerminal.name + ", " + terminal.name + "]: " + existing + " / " + production);
+        }
+    }
+
+    private static boolean isEpsilon(Symbol symbol) {
+        return symbol.type == SymbolType.TERMINAL && symbol.name.equals("ε");
     }
 
     /**
@@ -55,11 +125,50 @@ public class LL1Table {
      * @return The production to apply, or null if it is an error.
      */
     public Production getProduction(Symbol nonTerminal, Symbol terminal) {
-        // TODO: Implement the table lookup.
-        // General structure:
-        // 1. Lookup the inner map for the given nonTerminal.
-        // 2. If found, lookup the production for the given terminal.
-        // 3. Return the production, or null if not found.
-        throw new UnsupportedOperationException("Not implemented");
+        Map<Symbol, Production> row = table.get(nonTerminal);
+        return row == null ? null : row.get(terminal);
+    }
+
+    /**
+     * Returns the terminals with a non-empty entry in the row of a non-terminal.
+     * @param nonTerminal The non-terminal.
+     * @return Unmodifiable set of terminals, empty if the row is empty.
+     */
+    public Set<Symbol> getExpectedTerminals(Symbol nonTerminal) {
+        Map<Symbol, Production> row = table.get(nonTerminal);
+        return row == null ? Collections.emptySet() : Collections.unmodifiableSet(row.keySet());
+    }
+
+    /**
+     * Returns the synchronizing set used by panic-mode recovery for a non-terminal, i.e. its FOLLOW set.
+     * @param nonTerminal The non-terminal.
+     * @return The FOLLOW set of the non-terminal, empty if the table was not built.
+     */
+    public Set<Symbol> getSynchronizingSet(Symbol nonTerminal) {
+        return followSets.getOrDefault(nonTerminal, Collections.emptySet());
+    }
+
+    /**
+     * Returns the conflicts found by the last call to {@link #build()}.
+     * @return Unmodifiable list of conflict descriptions.
+     */
+    public List<String> getConflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Checks whether the grammar is LL(1), i.e. the last build produced no conflicts.
+     * @return true if no conflicts were found.
+     */
+    public boolean isLL1() {
+        return conflicts.isEmpty();
+    }
+
+    /**
+     * Returns the grammar the table was built for.
+     * @return The grammar.
+     */
+    public Grammar getGrammar() {
+        return analyzer.getGrammar();
     }
-}
\ No newline at end of file
+}
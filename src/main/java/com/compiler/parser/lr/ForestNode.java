@@ -0,0 +1,158 @@
+package com.compiler.parser.lr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.compiler.lexer.Token;
+import com.compiler.parser.grammar.Production;
+import com.compiler.parser.grammar.Symbol;
+
+/**
+ * Node of a shared packed parse forest (SPPF), as built by {@link GLRParser}.
+ *
+ * There is one node per symbol and input span [start, end), so every sub-derivation is shared by all
+ * the parses that use it. A non-terminal node holds one packed alternative per distinct way of deriving
+ * its span; a node with more than one alternative marks a local ambiguity.
+ */
+public class ForestNode {
+    /**
+     * One way of deriving a non-terminal node: a production and the nodes of its right-hand side.
+     */
+    public static class Packed {
+        /** The production applied. */
+        public final Production production;
+        /** The children, one per non-ε symbol of the right-hand side. */
+        public final List<ForestNode> children;
+
+        Packed(Production production, List<ForestNode> children) {
+            this.production = production;
+            this.children = Collections.unmodifiableList(children);
+        }
+    }
+
+    private final Symbol symbol;
+    private final int start;
+    private final int end;
+    private final Token token;
+    private final List<Packed> alternatives;
+
+    ForestNode(Symbol symbol, int start, int end, Token token) {
+        this.symbol = symbol;
+        this.start = start;
+        this.end = end;
+        this.token = token;
+        this.alternatives = new ArrayList<>(1);
+    }
+
+    /**
+     * Adds an alternative unless the same production over the same children is already present.
+     */
+    void addAlternative(Production production, List<ForestNode> children) {
+        for (Packed packed : alternatives) {
+            if (packed.production == production && sameNodes(packed.children, children)) {
+                return;
+            }
+        }
+        alternatives.add(new Packed(production, children));
+    }
+
+    private static boolean sameNodes(List<ForestNode> a, List<ForestNode> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the grammar symbol of the node.
+     * @return The symbol.
+     */
+    public Symbol getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Returns the index of the first token covered by the node.
+     * @return The start token index.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the index just past the last token covered by the node.
+     * @return The end token index.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the token of a terminal node.
+     * @return The token, or null for non-terminal nodes.
+     */
+    public Token getToken() {
+        return token;
+    }
+
+    /**
+     * Returns the packed alternatives of a non-terminal node.
+     * @return Unmodifiable list of alternatives, empty for terminal nodes.
+     */
+    public List<Packed> getAlternatives() {
+        return Collections.unmodifiableList(alternatives);
+    }
+
+    /**
+     * Checks whether the span of this node can be derived in more than one way.
+     * @return true if the node has several alternatives.
+     */
+    public boolean isAmbiguous() {
+        return alternatives.size() > 1;
+    }
+
+    /**
+     * Counts the parse trees represented by the forest below this node.
+     * Each shared node is counted once; cycles (from cyclic grammars such as {@code A -> A | a})
+     * and counts beyond the range of a long give {@link Long#MAX_VALUE}.
+     * @return The number of trees.
+     */
+    public long countTrees() {
+        return countTrees(new IdentityHashMap<>());
+    }
+
+    private long countTrees(Map<ForestNode, Long> counts) {
+        if (token != null) {
+            return 1;
+        }
+        Long known = counts.get(this);
+        if (known != null) {
+            return known;
+        }
+        counts.put(this, Long.MAX_VALUE);
+        long total = 0;
+        for (Packed packed : alternatives) {
+            long product = 1;
+            for (ForestNode child : packed.children) {
+                long count = child.countTrees(counts);
+                product = count != 0 && product > Long.MAX_VALUE / count ? Long.MAX_VALUE : product * count;
+            }
+            total = total > Long.MAX_VALUE - product ? Long.MAX_VALUE : total + product;
+        }
+        counts.put(this, total);
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return symbol.name + "[" + start + "," + end + "]";
+    }
+}
@@ -0,0 +1,299 @@
+package com.compiler.parser.lr;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.compiler.lexer.Token;
+import com.compiler.parser.grammar.Production;
+import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.grammar.SymbolType;
+import com.compiler.parser.syntax.StaticAnalyzer;
+
+/**
+ * Generalized LR (Tomita) parser driven by an {@link LALR1Table}.
+ *
+ * Where the table has conflicting cells (see {@link LALR1Table#getActions(int, Symbol)}) every action is
+ * followed: the parse stacks are merged into a graph-structured stack (GSS) whose nodes are shared by all
+ * the stacks in the same state at the same input position, and the parses are collected in a shared packed
+ * parse forest (see {@link ForestNode}). Any context-free grammar without cycles is accepted, including
+ * ambiguous ones.
+ *
+ * While a single stack is alive and the table cells it meets are not conflicting, the driver runs in a
+ * deterministic mode like {@link LALR1Parser}: reductions walk the stack directly instead of enumerating
+ * GSS paths. Every node knows how many edges below it are free of forks, so the fast mode is only left
+ * when a conflicting cell or a merged part of the stack is actually reached.
+ */
+public class GLRParser {
+    /**
+     * Node of the graph-structured stack.
+     */
+    private static final class StackNode {
+        final int state;
+        final int level;
+        final List<StackNode> below;
+        final List<ForestNode> labels;
+        // Number of edges that can be followed down from this node without meeting a fork.
+        int linearDepth;
+
+        StackNode(int state, int level) {
+            this.state = state;
+            this.level = level;
+            this.below = new ArrayList<>(1);
+            this.labels = new ArrayList<>(1);
+        }
+
+        boolean hasEdgeTo(StackNode node) {
+            for (StackNode b : below) {
+                if (b == node) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void addEdge(StackNode node, ForestNode label) {
+            below.add(node);
+            labels.add(label);
+            linearDepth = below.size() == 1 ? node.linearDepth + 1 : 0;
+        }
+    }
+
+    private final LALR1Table table;
+    private final Map<String, Symbol> terminalsByName;
+    private int errorIndex;
+    private int splitLevels;
+
+    public GLRParser(LALR1Table table) {
+        this.table = table;
+        this.terminalsByName = new HashMap<>();
+        for (Symbol terminal : table.getAutomaton().getGrammar().getTerminals()) {
+            terminalsByName.put(terminal.name, terminal);
+        }
+    }
+
+    /**
+     * Parses a sequence of tokens, following every action of conflicting cells.
+     * @param tokens The list of tokens from the lexer.
+     * @return The root of the parse forest (the start symbol over the whole input), or null if the
+     *         input is rejected.
+     */
+    public ForestNode parse(List<Token> tokens) {
+        return new Run(tokens).parse();
+    }
+
+    /**
+     * Checks whether a sequence of tokens belongs to the language.
+     * @param tokens The list of tokens from the lexer.
+     * @return true if the sequence is accepted.
+     */
+    public boolean recognize(List<Token> tokens) {
+        return parse(tokens) != null;
+    }
+
+    /**
+     * Returns the index of the token where the last rejected input died.
+     * @return The token index (the token count for an error at the end of input), or -1 if accepted.
+     */
+    public int getErrorIndex() {
+        return errorIndex;
+    }
+
+    /**
+     * Returns how many input positions of the last parse needed the generalized algorithm.
+     * It is 0 for inputs that only meet conflict-free cells.
+     * @return The number of positions not handled by the deterministic mode.
+     */
+    public int getSplitLevelCount() {
+        return splitLevels;
+    }
+
+    /**
+     * State of one parse: the GSS frontier and the forest nodes of the current input position.
+     */
+    private final class Run {
+        private final List<Token> tokens;
+        private Map<Integer, StackNode> frontier;
+        // Forest nodes ending at the current position, by symbol and start position.
+        private final Map<Symbol, Map<Integer, ForestNode>> forest;
+        // Pending shifts of the current position: target state -> stack nodes shifting into it.
+        private final Map<Integer, List<StackNode>> shifts;
+        private final Deque<StackNode> pending;
+        private int level;
+        private boolean merged;
+        private ForestNode root;
+
+        Run(List<Token> tokens) {
+            this.tokens = tokens;
+            this.forest = new HashMap<>();
+            this.shifts = new LinkedHashMap<>();
+            this.pending = new ArrayDeque<>();
+        }
+
+        ForestNode parse() {
+            splitLevels = 0;
+            frontier = new HashMap<>();
+            frontier.put(0, new StackNode(0, 0));
+            for (level = 0; ; level++) {
+                Symbol current = symbolAt(level);
+                forest.clear();
+                shifts.clear();
+                merged = false;
+                reduceAll(current);
+                if (root != null) {
+                    errorIndex = -1;
+                    return root;
+                }
+                if (shifts.isEmpty()) {
+                    errorIndex = level;
+                    return null;
+                }
+                if (merged) {
+                    // Edges were added to nodes that already had nodes built above them.
+                    for (StackNode node : frontier.values()) {
+                        node.linearDepth = 0;
+                    }
+                }
+                ForestNode leaf = new ForestNode(current, level, level + 1, tokens.get(level));
+                Map<Integer, StackNode> next = new HashMap<>();
+                for (Map.Entry<Integer, List<StackNode>> shift : shifts.entrySet()) {
+                    StackNode node = new StackNode(shift.getKey(), level + 1);
+                    for (StackNode source : shift.getValue()) {
+                        node.addEdge(source, leaf);
+                    }
+                    next.put(shift.getKey(), node);
+                }
+                frontier = next;
+            }
+        }
+
+        /**
+         * Performs every reduction possible at the current position and collects the shifts.
+         */
+        private void reduceAll(Symbol current) {
+            StackNode node = frontier.size() == 1 ? frontier.values().iterator().next() : null;
+            // Deterministic mode: a single stack and conflict-free cells.
+            while (node != null && !table.hasConflict(node.state, current)) {
+                LALR1Table.Action action = table.getAction(node.state, current);
+                if (action == null) {
+                    return;
+                }
+                if (action.type == LALR1Table.ActionType.SHIFT) {
+                    addShift(action.state, node);
+                    return;
+                }
+                if (action.type == LALR1Table.ActionType.ACCEPT) {
+                    root = node.labels.get(0);
+                    return;
+                }
+                if (node.linearDepth < action.length) {
+                    break;
+                }
+                ForestNode[] children = new ForestNode[action.length];
+                StackNode bottom = node;
+                for (int i = action.length - 1; i >= 0; i--) {
+                    children[i] = bottom.labels.get(0);
+                    bottom = bottom.below.get(0);
+                }
+                int target = table.getGoto(bottom.state, action.production.left);
+                if (frontier.containsKey(target)) {
+                    break;
+                }
+                StackNode reduced = new StackNode(target, level);
+                reduced.addEdge(bottom, forestNode(action.production, bottom.level, children));
+                frontier.put(target, reduced);
+                node = reduced;
+            }
+
+            splitLevels++;
+            pending.clear();
+            pending.addAll(frontier.values());
+            while (!pending.isEmpty()) {
+                StackNode top = pending.poll();
+                for (LALR1Table.Action action : table.getActions(top.state, current)) {
+                    switch (action.type) {
+                        case SHIFT:
+                            addShift(action.state, top);
+                            break;
+                        case ACCEPT:
+                            root = top.labels.get(0);
+                            break;
+                        default:
+                            List<StackNode[]> paths = new ArrayList<>();
+                            collectPaths(top, action.length, new StackNode[action.length + 1], paths);
+                            for (StackNode[] path : paths) {
+                                reducePath(action.production, path);
+                            }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Collects the GSS paths of a given length going down from a node.
+         * path[0] ends up holding the bottom node and path[length] the top one.
+         */
+        private void collectPaths(StackNode node, int length, StackNode[] path, List<StackNode[]> paths) {
+            path[length] = node;
+            if (length == 0) {
+                paths.add(path.clone());
+                return;
+            }
+            for (StackNode b : node.below) {
+                collectPaths(b, length - 1, path, paths);
+            }
+        }
+
+        private void reducePath(Production production, StackNode[] path) {
+            StackNode bottom = path[0];
+            ForestNode[] children = new ForestNode[path.length - 1];
+            for (int i = 1; i < path.length; i++) {
+                children[i - 1] = path[i].labels.get(path[i].below.indexOf(path[i - 1]));
+            }
+            ForestNode label = forestNode(production, bottom.level, children);
+            int target = table.getGoto(bottom.state, production.left);
+            StackNode existing = frontier.get(target);
+            if (existing == null) {
+                StackNode reduced = new StackNode(target, level);
+                reduced.addEdge(bottom, label);
+                frontier.put(target, reduced);
+                pending.add(reduced);
+            } else if (!existing.hasEdgeTo(bottom)) {
+                // A new edge opens new reduction paths through an existing node: revisit the frontier.
+                existing.addEdge(bottom, label);
+                merged = true;
+                pending.addAll(frontier.values());
+            }
+        }
+
+        private void addShift(int state, StackNode node) {
+            List<StackNode> sources = shifts.computeIfAbsent(state, k -> new ArrayList<>(1));
+            if (!sources.contains(node)) {
+                sources.add(node);
+            }
+        }
+
+        /**
+         * Returns the shared node of a non-terminal over [start, level) and adds an alternative to it.
+         */
+        private ForestNode forestNode(Production production, int start, ForestNode[] children) {
+            ForestNode node = forest.computeIfAbsent(production.left, k -> new HashMap<>())
+                    .computeIfAbsent(start, k -> new ForestNode(production.left, start, level, null));
+            node.addAlternative(production, Arrays.asList(children));
+            return node;
+        }
+
+        private Symbol symbolAt(int index) {
+            if (index >= tokens.size()) {
+                return StaticAnalyzer.END;
+            }
+            Symbol symbol = terminalsByName.get(tokens.get(index).type);
+            return symbol != null ? symbol : new Symbol(tokens.get(index).type, SymbolType.TERMINAL);
+        }
+    }
+}
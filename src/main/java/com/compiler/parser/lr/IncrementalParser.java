@@ -0,0 +1,236 @@
+package com.compiler.parser.lr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.compiler.lexer.IncrementalLexer;
+import com.compiler.lexer.Lexer;
+import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.grammar.SymbolType;
+import com.compiler.parser.syntax.StaticAnalyzer;
+
+/**
+ * Incremental LALR(1) recognizer for text that is edited repeatedly (e.g. from an editor).
+ *
+ * The parse stack is kept as a persistent linked list and a snapshot is remembered after every
+ * shifted token. After an edit, only the affected token window is rescanned by the
+ * {@link IncrementalLexer}; parsing resumes from the snapshot taken just before the window and, as soon
+ * as a shift leaves the same stack as the old snapshot for that token, skips ahead along the old
+ * snapshots: from then on the LR automaton is in the same configuration on the same remaining input.
+ * Only the final reductions at the end of the input are replayed.
+ */
+public class IncrementalParser {
+    /**
+     * Immutable node of the persistent parse stack.
+     */
+    private static final class StackNode {
+        final int state;
+        final StackNode below;
+        final int depth;
+
+        StackNode(int state, StackNode below) {
+            this.state = state;
+            this.below = below;
+            this.depth = below == null ? 0 : below.depth + 1;
+        }
+    }
+
+    private static final StackNode INITIAL = new StackNode(0, null);
+
+    private final LALR1Table table;
+    private final IncrementalLexer lexer;
+    private final Map<String, Symbol> terminalsByName;
+    // snapshots.get(i): stack right after shifting token i (ignored tokens repeat the previous one),
+    // null inside edited windows and for the token a run failed on.
+    private final List<StackNode> snapshots;
+    // Token index where the last run failed, the token count for a failure at the end, or -1 if accepted.
+    private int failedAt;
+    private int lastReparsed;
+    private int lastRelexed;
+
+    /**
+     * Constructs an incremental parser.
+     * @param table A built LALR(1) table.
+     * @param lexer A built lexer producing the terminals of the table's grammar.
+     */
+    public IncrementalParser(LALR1Table table, Lexer lexer) {
+        this.table = table;
+        this.lexer = new IncrementalLexer(lexer);
+        this.terminalsByName = new HashMap<>();
+        for (Symbol terminal : table.getAutomaton().getGrammar().getTerminals()) {
+            terminalsByName.put(terminal.name, terminal);
+        }
+        this.snapshots = new ArrayList<>();
+        this.failedAt = 0;
+    }
+
+    /**
+     * Scans and parses a whole text, replacing the previous one.
+     * @param text The text.
+     * @return true if the text is accepted.
+     */
+    public boolean parse(String text) {
+        lexer.reset(text);
+        lastRelexed = lexer.getTokenCount();
+        snapshots.clear();
+        snapshots.addAll(Collections.nCopies(lexer.getTokenCount(), (StackNode) null));
+        run(INITIAL, 0);
+        return failedAt < 0;
+    }
+
+    /**
+     * Applies a text edit and reparses only what the edit can affect.
+     *
+     * @param offset The offset where the edit starts.
+     * @param removedLength The number of characters removed.
+     * @param insertedText The inserted text.
+     * @return true if the edited text is accepted.
+     */
+    public boolean edit(int offset, int removedLength, String insertedText) {
+        IncrementalLexer.TokenChange change = lexer.applyEdit(offset, removedLength, insertedText);
+        lastRelexed = change.inserted;
+
+        List<StackNode> window = snapshots.subList(change.first, change.first + change.removed);
+        window.clear();
+        window.addAll(Collections.nCopies(change.inserted, (StackNode) null));
+
+        if (failedAt >= 0 && failedAt < change.first) {
+            // The error is before the edit and does not depend on what follows it.
+            lastReparsed = 0;
+            return false;
+        }
+        StackNode resume = change.first == 0 ? INITIAL : snapshots.get(change.first - 1);
+        run(resume, change.first);
+        return failedAt < 0;
+    }
+
+    /**
+     * Runs the driver from a stack and token index.
+     *
+     * Two consecutive non-null snapshots always describe one LR step on the current tokens: edited
+     * windows are null and a failing run nulls the snapshot of the token it failed on. So when a shift
+     * produces the same stack as the snapshot already stored for that token, the stored snapshots can be
+     * followed up to the next null entry without parsing.
+     *
+     * @param stack The stack to resume from.
+     * @param from The first token to read.
+     */
+    private void run(StackNode stack, int from) {
+        int count = lexer.getTokenCount();
+        int ip = skipIgnored(from, stack);
+        Symbol current = symbolAt(ip);
+        int shifted = 0;
+        while (true) {
+            LALR1Table.Action action = table.getAction(stack.state, current);
+            if (action == null) {
+                failedAt = ip;
+                if (ip < count) {
+                    snapshots.set(ip, null);
+                }
+                break;
+            }
+            if (action.type == LALR1Table.ActionType.ACCEPT) {
+                failedAt = -1;
+                break;
+            }
+            if (action.type == LALR1Table.ActionType.REDUCE) {
+                for (int i = 0; i < action.length; i++) {
+                    stack = stack.below;
+                }
+                stack = new StackNode(table.getGoto(stack.state, action.production.left), stack);
+                continue;
+            }
+            stack = new StackNode(action.state, stack);
+            shifted++;
+            StackNode previous = snapshots.get(ip);
+            if (previous != null && sameStack(stack, previous)) {
+                // Converged with an earlier run: skip along its snapshots.
+                ip++;
+                while (ip < count && snapshots.get(ip) != null) {
+                    ip++;
+                }
+                stack = snapshots.get(ip - 1);
+            } else {
+                snapshots.set(ip, stack);
+                ip = skipIgnored(ip + 1, stack);
+            }
+            current = symbolAt(ip);
+        }
+        lastReparsed = shifted;
+    }
+
+    private int skipIgnored(int index, StackNode stack) {
+        int count = lexer.getTokenCount();
+        while (index < count && lexer.isIgnored(index)) {
+            snapshots.set(index, stack);
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * Compares two persistent stacks; shared tails make the walk stop at the first common node.
+     */
+    private static boolean sameStack(StackNode a, StackNode b) {
+        while (a != b) {
+            if (a == null || b == null || a.state != b.state || a.depth != b.depth) {
+                return false;
+            }
+            a = a.below;
+            b = b.below;
+        }
+        return true;
+    }
+
+    private Symbol symbolAt(int index) {
+        if (index >= lexer.getTokenCount()) {
+            return StaticAnalyzer.END;
+        }
+        String type = lexer.getType(index);
+        Symbol symbol = terminalsByName.get(type);
+        return symbol != null ? symbol : new Symbol(type, SymbolType.TERMINAL);
+    }
+
+    /**
+     * Returns whether the current text is accepted.
+     * @return true if accepted.
+     */
+    public boolean isAccepted() {
+        return failedAt < 0;
+    }
+
+    /**
+     * Returns the index of the token where the current text fails to parse.
+     * @return The token index (the token count for an error at the end of input), or -1 if accepted.
+     */
+    public int getErrorIndex() {
+        return failedAt;
+    }
+
+    /**
+     * Returns the number of tokens shifted by the last parse or edit.
+     * @return The reparsed token count.
+     */
+    public int getLastReparsedCount() {
+        return lastReparsed;
+    }
+
+    /**
+     * Returns the number of tokens scanned by the last parse or edit.
+     * @return The relexed token count.
+     */
+    public int getLastRelexedCount() {
+        return lastRelexed;
+    }
+
+    /**
+     * Returns the incremental token stream.
+     * @return The lexer holding the current text and tokens.
+     */
+    public IncrementalLexer getLexer() {
+        return lexer;
+    }
+}
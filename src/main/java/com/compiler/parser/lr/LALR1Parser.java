@@ -1,21 +1,59 @@
 package com.compiler.parser.lr;
 
-import java.util.List; // Asumiendo que existe una clase Token
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.compiler.lexer.Token;
+import com.compiler.metrics.MetricsRegistry;
+import com.compiler.metrics.ParserMetrics;
+import com.compiler.parser.ParseResult;
+import com.compiler.parser.SyntaxError;
+import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.grammar.SymbolType;
+import com.compiler.parser.syntax.StaticAnalyzer;
 
 /**
  * Implements the LALR(1) parsing engine.
  * Uses a stack and the LALR(1) table to process a sequence of tokens.
  * Complementary task for Practice 9.
+ *
+ * {@link #parseWithRecovery(List)} recovers from errors the way yacc does: states are popped until one
+ * can shift the {@code error} terminal of an error production (e.g. {@code Stmt -> error ;}), then input
+ * is discarded until parsing can resume. Grammars without error productions fall back to deleting the
+ * offending token. A new error is only reported after three tokens were shifted since the last one.
  */
 public class LALR1Parser {
+    // Tokens that must be shifted after a recovery before a new error is reported.
+    private static final int RECOVERY_SHIFTS = 3;
+
     private final LALR1Table table;
+    private final Map<String, Symbol> terminalsByName;
+    private final Symbol errorSymbol;
+    // Null unless metrics are enabled.
+    private ParserMetrics metrics;
 
     public LALR1Parser(LALR1Table table) {
         this.table = table;
+        this.terminalsByName = new HashMap<>();
+        for (Symbol terminal : table.getAutomaton().getGrammar().getTerminals()) {
+            terminalsByName.put(terminal.name, terminal);
+        }
+        this.errorSymbol = terminalsByName.get(LALR1Table.ERROR_TOKEN);
     }
 
+   /**
+    * Records the latency and syntax errors of every later parse in a registry, see {@link ParserMetrics}.
+    * @param registry The registry, or null to stop recording.
+    * @param grammar The name of the grammar in the metric names.
+    */
+   public void setMetrics(MetricsRegistry registry, String grammar) {
+      this.metrics = registry == null ? null : new ParserMetrics(registry, grammar);
+   }
+
    /**
     * Parses a sequence of tokens using the LALR(1) parsing algorithm.
     * @param tokens The list of tokens from the lexer.
@@ -23,7 +61,6 @@ public class LALR1Parser {
     */
    public boolean parse(List<Token> tokens) {
       /*
-       TODO: Implement the LALR(1) parser engine.
        Detailed pseudocode:
        1. Initialize a stack with the initial state (usually state 0).
        2. Append the end-of-input symbol ($) to the list of tokens.
@@ -47,6 +84,135 @@ public class LALR1Parser {
             - Report syntax error. Return false.
        5. End loop when ACCEPT or ERROR is reached.
       */
-      throw new UnsupportedOperationException("Not implemented");
+      long start = metrics != null ? System.nanoTime() : 0;
+      boolean accepted = run(tokens, null);
+      if (metrics != null) {
+         metrics.record(start, accepted ? 0 : 1);
+      }
+      return accepted;
+   }
+
+   /**
+    * Parses a sequence of tokens reporting every syntax error instead of stopping at the first one.
+    * @param tokens The list of tokens from the lexer.
+    * @return The result of the run with all the errors found.
+    */
+   public ParseResult parseWithRecovery(List<Token> tokens) {
+      long start = metrics != null ? System.nanoTime() : 0;
+      List<SyntaxError> errors = new ArrayList<>();
+      boolean accepted = run(tokens, errors);
+      if (metrics != null) {
+         metrics.record(start, errors.size());
+      }
+      return new ParseResult(accepted && errors.isEmpty(), errors);
+   }
+
+   /**
+    * Runs the shift-reduce driver. Only states are kept on the stack; symbols are implied by them.
+    * @param tokens The token stream.
+    * @param errors List collecting the errors, or null to stop at the first error.
+    * @return true if the input reached ACCEPT.
+    */
+   private boolean run(List<Token> tokens, List<SyntaxError> errors) {
+      int[] stack = new int[64];
+      int top = 0;
+      stack[0] = 0;
+      int ip = 0;
+      Symbol current = symbolAt(tokens, ip);
+      int recovering = 0;
+
+      while (true) {
+         LALR1Table.Action action = table.getAction(stack[top], current);
+         if (action != null) {
+            switch (action.type) {
+               case SHIFT:
+                  if (++top == stack.length) {
+                     stack = java.util.Arrays.copyOf(stack, stack.length * 2);
+                  }
+                  stack[top] = action.state;
+                  ip++;
+                  current = symbolAt(tokens, ip);
+                  if (recovering > 0) {
+                     recovering--;
+                  }
+                  continue;
+               case REDUCE:
+                  top -= action.length;
+                  int target = table.getGoto(stack[top], action.production.left);
+                  if (++top == stack.length) {
+                     stack = java.util.Arrays.copyOf(stack, stack.length * 2);
+                  }
+                  stack[top] = target;
+                  continue;
+               default:
+                  return true;
+            }
+         }
+
+         if (errors == null) {
+            return false;
+         }
+         if (recovering == 0) {
+            errors.add(error(tokens, ip, names(table.getExpectedTerminals(stack[top])), "unexpected token"));
+         }
+         if (recovering == RECOVERY_SHIFTS) {
+            // Still failing right after a recovery: discard the lookahead and try again.
+            if (current == StaticAnalyzer.END) {
+               return false;
+            }
+            ip++;
+            current = symbolAt(tokens, ip);
+            continue;
+         }
+         recovering = RECOVERY_SHIFTS;
+
+         int errorState = -1;
+         int depth = top;
+         if (errorSymbol != null) {
+            for (; depth >= 0; depth--) {
+               LALR1Table.Action onError = table.getAction(stack[depth], errorSymbol);
+               if (onError != null && onError.type == LALR1Table.ActionType.SHIFT) {
+                  errorState = onError.state;
+                  break;
+               }
+            }
+         }
+         if (errorState < 0) {
+            // No error production applies: delete the offending token.
+            if (current == StaticAnalyzer.END) {
+               return false;
+            }
+            ip++;
+            current = symbolAt(tokens, ip);
+            continue;
+         }
+         top = depth + 1;
+         if (top == stack.length) {
+            stack = java.util.Arrays.copyOf(stack, stack.length * 2);
+         }
+         stack[top] = errorState;
+      }
+   }
+
+   private Symbol symbolAt(List<Token> tokens, int index) {
+      if (index >= tokens.size()) {
+         return StaticAnalyzer.END;
+      }
+      Symbol symbol = terminalsByName.get(tokens.get(index).type);
+      // Unknown token types never match a table entry, so any fresh symbol works as an error marker.
+      return symbol != null ? symbol : new Symbol(tokens.get(index).type, SymbolType.TERMINAL);
+   }
+
+   private static SyntaxError error(List<Token> tokens, int index, Set<String> expected, String message) {
+      Token token = index < tokens.size() ? tokens.get(index) : new Token(StaticAnalyzer.END.name, "", -1);
+      return new SyntaxError(index, token, expected, message);
+   }
+
+   private static Set<String> names(Set<Symbol> symbols) {
+      Set<String> names = new LinkedHashSet<>();
+      for (Symbol symbol : symbols) {
+         names.add(symbol.name);
+      }
+      return names;
    }
-}
\ No newline at end of file
+}
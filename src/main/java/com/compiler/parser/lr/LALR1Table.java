@@ -1,14 +1,113 @@
 package com.compiler.parser.lr;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.compiler.jfr.LalrTableEvent;
+import com.compiler.parser.grammar.Production;
+import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.grammar.SymbolType;
+import com.compiler.parser.syntax.StaticAnalyzer;
+
 /**
  * Builds the LALR(1) parsing table (ACTION/GOTO).
  * Main task for Practice 9.
  */
 public class LALR1Table {
+    /**
+     * Kind of a parser action.
+     */
+    public enum ActionType {
+        /** Push the token and move to another state. */
+        SHIFT,
+        /** Replace the right-hand side of a production on the stack by its left side. */
+        REDUCE,
+        /** The input has been recognized. */
+        ACCEPT
+    }
+
+    /**
+     * A single entry of the ACTION table.
+     */
+    public static class Action {
+        /** The kind of action. */
+        public final ActionType type;
+        /** The target state of a SHIFT, otherwise -1. */
+        public final int state;
+        /** The production of a REDUCE, otherwise null. */
+        public final Production production;
+        /** Number of symbols popped by a REDUCE (ε is not counted). */
+        public final int length;
+
+        private Action(ActionType type, int state, Production production) {
+            this.type = type;
+            this.state = state;
+            this.production = production;
+            int symbols = 0;
+            if (production != null) {
+                for (Symbol symbol : production.right) {
+                    if (!symbol.name.equals("ε")) {
+                        symbols++;
+                    }
+                }
+            }
+            this.length = symbols;
+        }
+
+        static Action shift(int state) {
+            return new Action(ActionType.SHIFT, state, null);
+        }
+
+        static Action reduce(Production production) {
+            return new Action(ActionType.REDUCE, -1, production);
+        }
+
+        static Action accept() {
+            return new Action(ActionType.ACCEPT, -1, null);
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case SHIFT:
+                    return "shift " + state;
+                case REDUCE:
+                    return "reduce " + production;
+                default:
+                    return "accept";
+            }
+        }
+    }
+
+    /** Name of the terminal used in error productions (yacc style). */
+    public static final String ERROR_TOKEN = "error";
+
+    // Marker lookahead used to detect propagated lookaheads (Dragon book, algorithm 4.62).
+    private static final Symbol PROPAGATE = new Symbol("#propagate", SymbolType.TERMINAL);
+
     private final LRAutomaton automaton;
+    private final List<Map<Symbol, Action>> actions;
+    private final List<Map<Symbol, Integer>> gotos;
+    // All the actions of conflicting cells, by state; null for states without conflicts.
+    private final List<Map<Symbol, List<Action>>> conflictingActions;
+    private final List<String> conflicts;
+    private Map<Symbol, Set<Symbol>> firstSets;
 
     public LALR1Table(LRAutomaton automaton) {
         this.automaton = automaton;
+        this.actions = new ArrayList<>();
+        this.gotos = new ArrayList<>();
+        this.conflictingActions = new ArrayList<>();
+        this.conflicts = new ArrayList<>();
     }
 
     /**
@@ -37,9 +136,322 @@ public class LALR1Table {
      *              - Set GOTO[state, B] = s'
      *
      * 2. After filling ACTION and GOTO tables, check for any conflicts and report them.
+     *
+     * Conflicts are resolved like yacc does (shift over reduce, earlier production on reduce/reduce)
+     * and listed by {@link #getConflicts()}. Every action of a conflicting cell is also kept, see
+     * {@link #getActions(int, Symbol)}.
      */
     public void build() {
-        // TODO: Implement the construction of the LALR(1) table as described above.
-        throw new UnsupportedOperationException("Not implemented");
+        if (automaton.getStates().isEmpty()) {
+            automaton.build();
+        }
+        LalrTableEvent event = new LalrTableEvent();
+        event.start();
+        actions.clear();
+        gotos.clear();
+        conflictingActions.clear();
+        conflicts.clear();
+        firstSets = new StaticAnalyzer(automaton.getGrammar()).getFirstSets();
+
+        List<Map<LR0Item, Set<Symbol>>> lookaheads = computeKernelLookaheads();
+        int stateCount = automaton.getStates().size();
+        for (int state = 0; state < stateCount; state++) {
+            Map<Symbol, Action> row = new LinkedHashMap<>();
+            Map<Symbol, Integer> gotoRow = new LinkedHashMap<>();
+            actions.add(row);
+            gotos.add(gotoRow);
+            conflictingActions.add(null);
+
+            for (Map.Entry<Symbol, Integer> transition : automaton.getTransitions(state).entrySet()) {
+                Symbol symbol = transition.getKey();
+                if (symbol.type == SymbolType.TERMINAL) {
+                    row.put(symbol, Action.shift(transition.getValue()));
+                } else {
+                    gotoRow.put(symbol, transition.getValue());
+                }
+            }
+
+            Map<LR0Item, Set<Symbol>> items = closure1(lookaheads.get(state));
+            for (Map.Entry<LR0Item, Set<Symbol>> entry : items.entrySet()) {
+                LR0Item item = entry.getKey();
+                if (!item.isComplete()) {
+                    continue;
+                }
+                for (Symbol lookahead : entry.getValue()) {
+                    if (item.production == automaton.getAugmentedProduction()) {
+                        row.put(StaticAnalyzer.END, Action.accept());
+                    } else {
+                        addReduce(state, row, lookahead, item.production);
+                    }
+                }
+            }
+        }
+        if (event.shouldRecord()) {
+            long cells = 0;
+            for (int state = 0; state < stateCount; state++) {
+                cells += actions.get(state).size() + gotos.get(state).size();
+            }
+            event.record(stateCount, cells);
+        }
+    }
+
+    private void addReduce(int state, Map<Symbol, Action> row, Symbol lookahead, Production production) {
+        Action existing = row.get(lookahead);
+        if (existing == null) {
+            row.put(lookahead, Action.reduce(production));
+            return;
+        }
+        if (existing.type == ActionType.REDUCE && existing.production == production) {
+            return;
+        }
+        Action reduce = Action.reduce(production);
+        if (!keepConflict(state, lookahead, existing, reduce)) {
+            return;
+        }
+        if (existing.type == ActionType.SHIFT) {
+            conflicts.add("Shift/Reduce conflict in state " + state + " on '" + lookahead.name + "': "
+                    + existing + " / reduce " + production);
+            return;
+        }
+        conflicts.add("Reduce/Reduce conflict in state " + state + " on '" + lookahead.name + "': "
+                + existing + " / reduce " + production);
+        List<Production> order = automaton.getGrammar().getProductions();
+        if (existing.type == ActionType.REDUCE && order.indexOf(production) < order.indexOf(existing.production)) {
+            row.put(lookahead, reduce);
+        }
+    }
+
+    /**
+     * Records an additional action for a cell.
+     * @return false if the cell already holds a reduce by the same production.
+     */
+    private boolean keepConflict(int state, Symbol lookahead, Action existing, Action reduce) {
+        Map<Symbol, List<Action>> cells = conflictingActions.get(state);
+        if (cells == null) {
+            cells = new LinkedHashMap<>();
+            conflictingActions.set(state, cells);
+        }
+        List<Action> cell = cells.computeIfAbsent(lookahead, k -> new ArrayList<>(List.of(existing)));
+        for (Action action : cell) {
+            if (action.type == ActionType.REDUCE && action.production == reduce.production) {
+                return false;
+            }
+        }
+        cell.add(reduce);
+        return true;
+    }
+
+    /**
+     * Computes the LALR(1) lookaheads of the kernel items by spontaneous generation and propagation.
+     * @return For every state, the lookahead set of each kernel item.
+     */
+    private List<Map<LR0Item, Set<Symbol>>> computeKernelLookaheads() {
+        int stateCount = automaton.getStates().size();
+        List<Map<LR0Item, Set<Symbol>>> lookaheads = new ArrayList<>(stateCount);
+        for (int state = 0; state < stateCount; state++) {
+            Map<LR0Item, Set<Symbol>> kernel = new LinkedHashMap<>();
+            for (LR0Item item : automaton.getKernel(state)) {
+                kernel.put(item, new HashSet<>());
+            }
+            lookaheads.add(kernel);
+        }
+        lookaheads.get(0).get(new LR0Item(automaton.getAugmentedProduction(), 0)).add(StaticAnalyzer.END);
+
+        // Propagation links: (state, kernel item) -> list of (state, kernel item)
+        Map<ItemRef, List<ItemRef>> propagation = new HashMap<>();
+        for (int state = 0; state < stateCount; state++) {
+            for (LR0Item kernelItem : automaton.getKernel(state)) {
+                Map<LR0Item, Set<Symbol>> start = new LinkedHashMap<>();
+                start.put(kernelItem, new HashSet<>(Set.of(PROPAGATE)));
+                ItemRef from = new ItemRef(state, kernelItem);
+                for (Map.Entry<LR0Item, Set<Symbol>> entry : closure1(start).entrySet()) {
+                    LR0Item item = entry.getKey();
+                    Symbol next = item.getSymbolAfterDot();
+                    if (next == null || next.name.equals("ε")) {
+                        continue;
+                    }
+                    int target = automaton.getTransition(state, next);
+                    LR0Item advanced = item.advance();
+                    for (Symbol lookahead : entry.getValue()) {
+                        if (lookahead == PROPAGATE) {
+                            propagation.computeIfAbsent(from, k -> new ArrayList<>()).add(new ItemRef(target, advanced));
+                        } else {
+                            lookaheads.get(target).get(advanced).add(lookahead);
+                        }
+                    }
+                }
+            }
+        }
+
+        Deque<ItemRef> worklist = new ArrayDeque<>();
+        for (int state = 0; state < stateCount; state++) {
+            for (LR0Item item : automaton.getKernel(state)) {
+                worklist.add(new ItemRef(state, item));
+            }
+        }
+        while (!worklist.isEmpty()) {
+            ItemRef from = worklist.poll();
+            Set<Symbol> source = lookaheads.get(from.state).get(from.item);
+            for (ItemRef to : propagation.getOrDefault(from, Collections.emptyList())) {
+                if (lookaheads.get(to.state).get(to.item).addAll(source)) {
+                    worklist.add(to);
+                }
+            }
+        }
+        return lookaheads;
+    }
+
+    /**
+     * Computes the LR(1) closure of a set of items with lookaheads.
+     * @param kernel Items with their lookahead sets.
+     * @return Closed set of items with their lookahead sets.
+     */
+    private Map<LR0Item, Set<Symbol>> closure1(Map<LR0Item, Set<Symbol>> kernel) {
+        Map<LR0Item, Set<Symbol>> result = new LinkedHashMap<>();
+        Deque<LR0Item> worklist = new ArrayDeque<>();
+        for (Map.Entry<LR0Item, Set<Symbol>> entry : kernel.entrySet()) {
+            result.put(entry.getKey(), new LinkedHashSet<>(entry.getValue()));
+            worklist.add(entry.getKey());
+        }
+        while (!worklist.isEmpty()) {
+            LR0Item item = worklist.poll();
+            Symbol next = item.getSymbolAfterDot();
+            if (next == null || next.type != SymbolType.NON_TERMINAL) {
+                continue;
+            }
+            // FIRST(β a) for every lookahead a of the item
+            Set<Symbol> first = new HashSet<>();
+            boolean nullable = true;
+            List<Symbol> right = item.production.right;
+            for (int i = item.dotPosition + 1; i < right.size() && nullable; i++) {
+                nullable = false;
+                for (Symbol symbol : firstSets.getOrDefault(right.get(i), Set.of(right.get(i)))) {
+                    if (symbol.name.equals("ε")) {
+                        nullable = true;
+                    } else {
+                        first.add(symbol);
+                    }
+                }
+            }
+            if (nullable) {
+                first.addAll(result.get(item));
+            }
+            for (Production production : automaton.getProductions(next)) {
+                LR0Item child = new LR0Item(production, 0);
+                Set<Symbol> existing = result.get(child);
+                if (existing == null) {
+                    result.put(child, new LinkedHashSet<>(first));
+                    worklist.add(child);
+                } else if (existing.addAll(first)) {
+                    worklist.add(child);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reference to a kernel item of a given state.
+     */
+    private static final class ItemRef {
+        final int state;
+        final LR0Item item;
+
+        ItemRef(int state, LR0Item item) {
+            this.state = state;
+            this.item = item;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ItemRef)) return false;
+            ItemRef other = (ItemRef) obj;
+            return state == other.state && item.equals(other.item);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * state + item.hashCode();
+        }
+    }
+
+    /**
+     * Returns the ACTION entry of a state and a terminal.
+     * @param state The state.
+     * @param terminal The lookahead terminal.
+     * @return The action, or null if the cell is empty (error).
+     */
+    public Action getAction(int state, Symbol terminal) {
+        return actions.get(state).get(terminal);
+    }
+
+    /**
+     * Checks whether a cell had more than one action before conflict resolution.
+     * @param state The state.
+     * @param terminal The lookahead terminal.
+     * @return true if the cell is conflicting.
+     */
+    public boolean hasConflict(int state, Symbol terminal) {
+        Map<Symbol, List<Action>> cells = conflictingActions.get(state);
+        return cells != null && cells.containsKey(terminal);
+    }
+
+    /**
+     * Returns every action of a cell, including the ones discarded by conflict resolution.
+     * @param state The state.
+     * @param terminal The lookahead terminal.
+     * @return Unmodifiable list of actions, empty if the cell is empty.
+     */
+    public List<Action> getActions(int state, Symbol terminal) {
+        Map<Symbol, List<Action>> cells = conflictingActions.get(state);
+        if (cells != null && cells.containsKey(terminal)) {
+            return Collections.unmodifiableList(cells.get(terminal));
+        }
+        Action action = actions.get(state).get(terminal);
+        return action == null ? Collections.emptyList() : Collections.singletonList(action);
+    }
+
+    /**
+     * Returns the GOTO entry of a state and a non-terminal.
+     * @param state The state.
+     * @param nonTerminal The non-terminal.
+     * @return The target state, or -1 if there is none.
+     */
+    public int getGoto(int state, Symbol nonTerminal) {
+        Integer target = gotos.get(state).get(nonTerminal);
+        return target == null ? -1 : target;
+    }
+
+    /**
+     * Returns the terminals with a non-empty ACTION entry in a state.
+     * @param state The state.
+     * @return Unmodifiable set of terminals.
+     */
+    public Set<Symbol> getExpectedTerminals(int state) {
+        return Collections.unmodifiableSet(actions.get(state).keySet());
+    }
+
+    /**
+     * Returns the number of states of the table.
+     * @return The state count.
+     */
+    public int getStateCount() {
+        return actions.size();
+    }
+
+    /**
+     * Returns the conflicts found by the last call to {@link #build()}.
+     * @return Unmodifiable list of conflict descriptions.
+     */
+    public List<String> getConflicts() {
+        return Collections.unmodifiableList(conflicts);
+    }
+
+    /**
+     * Returns the automaton the table was built from.
+     * @return The LR(0) automaton.
+     */
+    public LRAutomaton getAutomaton() {
+        return automaton;
     }
-}
\ No newline at end of file
+}
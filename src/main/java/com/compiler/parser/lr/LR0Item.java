@@ -1,6 +1,7 @@
 package com.compiler.parser.lr;
 
 import com.compiler.parser.grammar.Production;
+import com.compiler.parser.grammar.Symbol;
 
 /**
  * Represents an LR(0) item, which is a production with a dot (•)
@@ -22,27 +23,74 @@ public class LR0Item {
      * 3. Optionally, validate that dotPosition is within valid bounds (0 <= dotPosition <= production.right.size()).
      */
     public LR0Item(Production production, int dotPosition) {
-        // TODO: Implement constructor logic as described above.
-        throw new UnsupportedOperationException("Not implemented");
+        if (production == null) {
+            throw new IllegalArgumentException("Production cannot be null");
+        }
+        if (dotPosition < 0 || dotPosition > production.right.size()) {
+            throw new IllegalArgumentException("Dot position out of bounds: " + dotPosition);
+        }
+        this.production = production;
+        this.dotPosition = dotPosition;
     }
 
-    // TODO: Implement equals, hashCode, and a method to get the symbol after the dot.
-    /*
-     * Detailed pseudocode:
-     *
-     * equals(Object obj):
-     *   1. If obj is not an LR0Item, return false.
-     *   2. Compare production and dotPosition for equality.
-     *   3. Return true if both match, false otherwise.
-     *
-     * hashCode():
-     *   1. Compute hash using production and dotPosition.
-     *   2. Return the combined hash value.
-     *
-     * getSymbolAfterDot():
-     *   1. If dotPosition < production.right.size():
-     *        - Return production.right.get(dotPosition).
-     *      Else:
-     *        - Return null (dot is at the end).
+    /**
+     * Returns the symbol right after the dot.
+     * @return The symbol after the dot, or null if the dot is at the end.
      */
-}
\ No newline at end of file
+    public Symbol getSymbolAfterDot() {
+        if (dotPosition < production.right.size()) {
+            return production.right.get(dotPosition);
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether the dot is at the end of the right-hand side (a reduce item).
+     * ε-productions written as "A -> ε" are complete from the start.
+     * @return true if nothing but ε is left after the dot.
+     */
+    public boolean isComplete() {
+        for (int i = dotPosition; i < production.right.size(); i++) {
+            if (!production.right.get(i).name.equals("ε")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the item obtained by moving the dot one position to the right.
+     * @return The advanced item.
+     */
+    public LR0Item advance() {
+        return new LR0Item(production, dotPosition + 1);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof LR0Item)) return false;
+        LR0Item other = (LR0Item) obj;
+        return dotPosition == other.dotPosition && production == other.production;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(production) + dotPosition;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(production.left.name).append(" ->");
+        for (int i = 0; i < production.right.size(); i++) {
+            if (i == dotPosition) {
+                sb.append(" •");
+            }
+            sb.append(' ').append(production.right.get(i).name);
+        }
+        if (dotPosition == production.right.size()) {
+            sb.append(" •");
+        }
+        return sb.toString();
+    }
+}
@@ -1,9 +1,25 @@
 package com.compiler.parser.lr;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import com.compiler.jfr.LrAutomatonEvent;
 import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.grammar.Production;
 import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.grammar.SymbolType;
 
 /**
  * Builds the canonical collection of LR(0) items (the DFA automaton).
@@ -11,9 +27,34 @@ import com.compiler.parser.grammar.Symbol;
  */
 public class LRAutomaton {
     private final Grammar grammar;
+    private final Symbol augmentedStart;
+    private final Production augmentedProduction;
+    private final Map<Symbol, List<Production>> productionsByLeft;
+    private final List<Set<LR0Item>> states;
+    private final List<Set<LR0Item>> kernels;
+    private final List<Map<Symbol, Integer>> transitions;
 
     public LRAutomaton(Grammar grammar) {
         this.grammar = grammar;
+        this.augmentedStart = freshStartSymbol(grammar);
+        this.augmentedProduction = new Production(augmentedStart, List.of(grammar.getStartSymbol()));
+        this.productionsByLeft = new HashMap<>();
+        for (Production production : grammar.getProductions()) {
+            productionsByLeft.computeIfAbsent(production.left, k -> new ArrayList<>()).add(production);
+        }
+        this.states = new ArrayList<>();
+        this.kernels = new ArrayList<>();
+        this.transitions = new ArrayList<>();
+    }
+
+    private static Symbol freshStartSymbol(Grammar grammar) {
+        String name = grammar.getStartSymbol().name + "'";
+        Set<Symbol> used = new java.util.HashSet<>(grammar.getNonTerminals());
+        used.addAll(grammar.getTerminals());
+        while (used.contains(new Symbol(name, SymbolType.NON_TERMINAL)) || used.contains(new Symbol(name, SymbolType.TERMINAL))) {
+            name = name + "'";
+        }
+        return new Symbol(name, SymbolType.NON_TERMINAL);
     }
 
     /**
@@ -31,8 +72,21 @@ public class LRAutomaton {
      * 3. Return closureSet.
      */
     private Set<LR0Item> closure(Set<LR0Item> items) {
-        // TODO: Implement the CLOSURE operation as described above.
-        throw new UnsupportedOperationException("Not implemented");
+        Set<LR0Item> closureSet = new LinkedHashSet<>(items);
+        Deque<LR0Item> worklist = new ArrayDeque<>(items);
+        while (!worklist.isEmpty()) {
+            Symbol next = worklist.pop().getSymbolAfterDot();
+            if (next == null || next.type != SymbolType.NON_TERMINAL) {
+                continue;
+            }
+            for (Production production : productionsByLeft.getOrDefault(next, Collections.emptyList())) {
+                LR0Item item = new LR0Item(production, 0);
+                if (closureSet.add(item)) {
+                    worklist.push(item);
+                }
+            }
+        }
+        return closureSet;
     }
 
     /**
@@ -48,8 +102,20 @@ public class LRAutomaton {
      * 3. Return closure(nextItems).
      */
     private Set<LR0Item> goTo(Set<LR0Item> state, Symbol symbol) {
-        // TODO: Implement the GOTO operation as described above.
-        throw new UnsupportedOperationException("Not implemented");
+        return closure(kernelOf(state, symbol));
+    }
+
+    /**
+     * Returns the kernel items reached from a state on a symbol, before closure.
+     */
+    private Set<LR0Item> kernelOf(Set<LR0Item> state, Symbol symbol) {
+        Set<LR0Item> nextItems = new LinkedHashSet<>();
+        for (LR0Item item : state) {
+            if (symbol.equals(item.getSymbolAfterDot())) {
+                nextItems.add(item.advance());
+            }
+        }
+        return nextItems;
     }
 
     /**
@@ -68,9 +134,182 @@ public class LRAutomaton {
      *              - Add nextState to the set of states and to the worklist.
      *      c. Record transitions between states for each symbol.
      * 6. Store all states and transitions in the automaton.
+     *
+     * States are identified by their kernel, which determines the closure.
      */
     public void build() {
-        // TODO: Use closure() and goTo() to generate all states of the automaton as described above.
-        throw new UnsupportedOperationException("Not implemented");
+        LrAutomatonEvent event = new LrAutomatonEvent();
+        event.start();
+        states.clear();
+        kernels.clear();
+        transitions.clear();
+        Map<Set<LR0Item>, Integer> stateByKernel = new HashMap<>();
+
+        Set<LR0Item> startKernel = new LinkedHashSet<>(List.of(new LR0Item(augmentedProduction, 0)));
+        addState(startKernel, closure(startKernel), stateByKernel);
+
+        for (int current = 0; current < states.size(); current++) {
+            for (Map.Entry<Symbol, Set<LR0Item>> successor : successorKernels(states.get(current)).entrySet()) {
+                Set<LR0Item> kernel = successor.getValue();
+                Integer target = stateByKernel.get(kernel);
+                if (target == null) {
+                    target = addState(kernel, closure(kernel), stateByKernel);
+                }
+                transitions.get(current).put(successor.getKey(), target);
+            }
+        }
+        if (event.shouldRecord()) {
+            event.record(grammar.getProductions().size(), states.size());
+        }
+    }
+
+    /**
+     * Builds the complete LR(0) automaton, generating the states in parallel.
+     *
+     * The states are expanded level by level (breadth first). The successor kernels of all the states of
+     * a level and the closures of the new kernels are computed concurrently, sharing a concurrent
+     * kernel-to-closure map so that each closure is computed once; numbering the new states then walks
+     * the level in order, which yields exactly the numbering of {@link #build()}.
+     *
+     * @param pool The pool running the expansion.
+     */
+    public void build(ForkJoinPool pool) {
+        LrAutomatonEvent event = new LrAutomatonEvent();
+        event.start();
+        states.clear();
+        kernels.clear();
+        transitions.clear();
+        Map<Set<LR0Item>, Integer> stateByKernel = new HashMap<>();
+        Map<Set<LR0Item>, Set<LR0Item>> closures = new ConcurrentHashMap<>();
+
+        Set<LR0Item> startKernel = new LinkedHashSet<>(List.of(new LR0Item(augmentedProduction, 0)));
+        addState(startKernel, closure(startKernel), stateByKernel);
+
+        int levelStart = 0;
+        while (levelStart < states.size()) {
+            int from = levelStart;
+            int to = states.size();
+            // Only read concurrently: the state list and index are updated after the parallel step.
+            List<Map<Symbol, Set<LR0Item>>> successors = pool.submit(() -> IntStream.range(from, to).parallel()
+                    .mapToObj(current -> {
+                        Map<Symbol, Set<LR0Item>> next = successorKernels(states.get(current));
+                        for (Set<LR0Item> kernel : next.values()) {
+                            if (!stateByKernel.containsKey(kernel) && !closures.containsKey(kernel)) {
+                                closures.putIfAbsent(kernel, closure(kernel));
+                            }
+                        }
+                        return next;
+                    })
+                    .collect(Collectors.toList())).join();
+
+            for (int current = from; current < to; current++) {
+                for (Map.Entry<Symbol, Set<LR0Item>> successor : successors.get(current - from).entrySet()) {
+                    Set<LR0Item> kernel = successor.getValue();
+                    Integer target = stateByKernel.get(kernel);
+                    if (target == null) {
+                        target = addState(kernel, closures.remove(kernel), stateByKernel);
+                    }
+                    transitions.get(current).put(successor.getKey(), target);
+                }
+            }
+            levelStart = to;
+        }
+        if (event.shouldRecord()) {
+            event.record(grammar.getProductions().size(), states.size());
+        }
+    }
+
+    /**
+     * Returns the kernels reached from a state, by symbol in item order (which keeps the state
+     * numbering deterministic).
+     */
+    private Map<Symbol, Set<LR0Item>> successorKernels(Set<LR0Item> state) {
+        Map<Symbol, Set<LR0Item>> successors = new LinkedHashMap<>();
+        for (LR0Item item : state) {
+            Symbol next = item.getSymbolAfterDot();
+            if (next != null && !next.name.equals("ε")) {
+                successors.computeIfAbsent(next, k -> new LinkedHashSet<>()).add(item.advance());
+            }
+        }
+        return successors;
+    }
+
+    private int addState(Set<LR0Item> kernel, Set<LR0Item> state, Map<Set<LR0Item>, Integer> stateByKernel) {
+        int id = states.size();
+        stateByKernel.put(kernel, id);
+        kernels.add(kernel);
+        states.add(state);
+        transitions.add(new LinkedHashMap<>());
+        return id;
+    }
+
+    /**
+     * Returns the grammar of the automaton.
+     * @return The grammar.
+     */
+    public Grammar getGrammar() {
+        return grammar;
+    }
+
+    /**
+     * Returns the augmented start symbol S'.
+     * @return The augmented start symbol.
+     */
+    public Symbol getAugmentedStart() {
+        return augmentedStart;
+    }
+
+    /**
+     * Returns the augmented production S' -> S.
+     * @return The augmented production.
+     */
+    public Production getAugmentedProduction() {
+        return augmentedProduction;
+    }
+
+    /**
+     * Returns the productions of a non-terminal.
+     * @param nonTerminal The non-terminal.
+     * @return The productions with the non-terminal on the left side.
+     */
+    public List<Production> getProductions(Symbol nonTerminal) {
+        return productionsByLeft.getOrDefault(nonTerminal, Collections.emptyList());
+    }
+
+    /**
+     * Returns the states (closed item sets); state 0 is the initial state.
+     * @return Unmodifiable list of states.
+     */
+    public List<Set<LR0Item>> getStates() {
+        return Collections.unmodifiableList(states);
+    }
+
+    /**
+     * Returns the kernel items of a state.
+     * @param state The state number.
+     * @return The kernel of the state.
+     */
+    public Set<LR0Item> getKernel(int state) {
+        return kernels.get(state);
+    }
+
+    /**
+     * Returns the transitions out of a state.
+     * @param state The state number.
+     * @return Map from symbol to target state.
+     */
+    public Map<Symbol, Integer> getTransitions(int state) {
+        return transitions.get(state);
+    }
+
+    /**
+     * Returns the target of a transition.
+     * @param state The source state.
+     * @param symbol The transition symbol.
+     * @return The target state, or -1 if there is no transition.
+     */
+    public int getTransition(int state, Symbol symbol) {
+        Integer target = transitions.get(state).get(symbol);
+        return target == null ? -1 : target;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,411 @@
+package com.compiler.parser.syntax;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.grammar.Production;
+import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.grammar.SymbolType;
+
+/**
+ * Parallel FIRST and FOLLOW computation used by {@link StaticAnalyzer} when it is given a pool.
+ *
+ * Both problems have the shape F(X) = local(X) ∪ ⋃ { F(Y) | X depends on Y } (DeRemer and Pennello's
+ * "digraph" problem): FIRST(A) depends on every non-terminal that can start a right-hand side of A, and
+ * FOLLOW(X) depends on FOLLOW(B) for every production B -> α X β with a nullable β. The strongly connected
+ * components of the dependency graph are found with Tarjan's algorithm; all the members of a component
+ * share the same solution, so each component is evaluated once, without iterating, as soon as the
+ * components it depends on are done. Independent components run concurrently on the pool.
+ * Sets are kept as bit sets over the terminals while solving.
+ */
+final class ParallelAnalysis {
+    private final Grammar grammar;
+    private final ForkJoinPool pool;
+    private final List<Symbol> nonTerminals;
+    private final Map<Symbol, Integer> nonTerminalIndex;
+    private final List<Symbol> terminals;
+    private final Map<Symbol, Integer> terminalIndex;
+    private final List<List<Production>> productionsOf;
+
+    ParallelAnalysis(Grammar grammar, ForkJoinPool pool) {
+        this.grammar = grammar;
+        this.pool = pool;
+        this.nonTerminals = new ArrayList<>(grammar.getNonTerminals());
+        this.nonTerminalIndex = new HashMap<>();
+        this.productionsOf = new ArrayList<>();
+        for (int i = 0; i < nonTerminals.size(); i++) {
+            nonTerminalIndex.put(nonTerminals.get(i), i);
+            productionsOf.add(new ArrayList<>());
+        }
+        for (Production production : grammar.getProductions()) {
+            productionsOf.get(nonTerminalIndex.get(production.left)).add(production);
+        }
+        this.terminals = new ArrayList<>(grammar.getTerminals());
+        terminals.add(StaticAnalyzer.END);
+        this.terminalIndex = new HashMap<>();
+        for (int i = 0; i < terminals.size(); i++) {
+            terminalIndex.put(terminals.get(i), i);
+        }
+    }
+
+    /**
+     * Computes the FIRST sets, with the same keys as {@link StaticAnalyzer#getFirstSets()}.
+     */
+    Map<Symbol, Set<Symbol>> firstSets() {
+        boolean[] nullable = nullable();
+        int n = nonTerminals.size();
+        int[][] edges = new int[n][];
+        BitSet[] local = new BitSet[n];
+        parallelFor(n, a -> {
+            BitSet bits = new BitSet();
+            List<Integer> targets = new ArrayList<>();
+            for (Production production : productionsOf.get(a)) {
+                for (Symbol symbol : production.right) {
+                    if (symbol.type == SymbolType.NON_TERMINAL) {
+                        targets.add(nonTerminalIndex.get(symbol));
+                        if (!nullable[nonTerminalIndex.get(symbol)]) {
+                            break;
+                        }
+                    } else if (!symbol.equals(StaticAnalyzer.EPSILON)) {
+                        bits.set(terminalIndex.get(symbol));
+                        break;
+                    }
+                }
+            }
+            local[a] = bits;
+            edges[a] = targets.stream().mapToInt(Integer::intValue).distinct().toArray();
+        });
+        BitSet[] solution = solve(edges, local);
+
+        Map<Symbol, Set<Symbol>> firstSets = new HashMap<>();
+        for (Symbol terminal : grammar.getTerminals()) {
+            firstSets.put(terminal, new HashSet<>(Set.of(terminal)));
+        }
+        firstSets.put(StaticAnalyzer.EPSILON, new HashSet<>(Set.of(StaticAnalyzer.EPSILON)));
+        List<Set<Symbol>> sets = toSymbolSets(solution);
+        for (int a = 0; a < n; a++) {
+            if (nullable[a]) {
+                sets.get(a).add(StaticAnalyzer.EPSILON);
+            }
+            firstSets.put(nonTerminals.get(a), sets.get(a));
+        }
+        return firstSets;
+    }
+
+    /**
+     * Computes the FOLLOW sets of the non-terminals from the FIRST sets.
+     */
+    Map<Symbol, Set<Symbol>> followSets(Map<Symbol, Set<Symbol>> firstSets) {
+        int n = nonTerminals.size();
+        List<Set<Integer>> targets = new ArrayList<>();
+        BitSet[] local = new BitSet[n];
+        for (int i = 0; i < n; i++) {
+            targets.add(new HashSet<>());
+            local[i] = new BitSet();
+        }
+        local[nonTerminalIndex.get(grammar.getStartSymbol())].set(terminalIndex.get(StaticAnalyzer.END));
+        for (Production production : grammar.getProductions()) {
+            List<Symbol> right = production.right;
+            for (int i = 0; i < right.size(); i++) {
+                if (right.get(i).type != SymbolType.NON_TERMINAL) {
+                    continue;
+                }
+                int x = nonTerminalIndex.get(right.get(i));
+                boolean restNullable = true;
+                for (int j = i + 1; j < right.size() && restNullable; j++) {
+                    Set<Symbol> first = firstSets.get(right.get(j));
+                    restNullable = false;
+                    if (first != null) {
+                        for (Symbol symbol : first) {
+                            if (symbol.equals(StaticAnalyzer.EPSILON)) {
+                                restNullable = true;
+                            } else {
+                                local[x].set(terminalIndex.get(symbol));
+                            }
+                        }
+                    }
+                }
+                if (restNullable) {
+                    targets.get(x).add(nonTerminalIndex.get(production.left));
+                }
+            }
+        }
+        int[][] edges = new int[n][];
+        for (int i = 0; i < n; i++) {
+            edges[i] = targets.get(i).stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+        List<Set<Symbol>> sets = toSymbolSets(solve(edges, local));
+        Map<Symbol, Set<Symbol>> followSets = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            followSets.put(nonTerminals.get(i), sets.get(i));
+        }
+        return followSets;
+    }
+
+    /**
+     * Finds the nullable non-terminals with a worklist over the productions.
+     */
+    private boolean[] nullable() {
+        int n = nonTerminals.size();
+        boolean[] nullable = new boolean[n];
+        List<Production> productions = grammar.getProductions();
+        int[] remaining = new int[productions.size()];
+        List<List<Integer>> occurrences = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            occurrences.add(new ArrayList<>());
+        }
+        int[] worklist = new int[n];
+        int size = 0;
+        for (int p = 0; p < productions.size(); p++) {
+            for (Symbol symbol : productions.get(p).right) {
+                if (symbol.type == SymbolType.NON_TERMINAL) {
+                    occurrences.get(nonTerminalIndex.get(symbol)).add(p);
+                    remaining[p]++;
+                } else if (!symbol.equals(StaticAnalyzer.EPSILON)) {
+                    remaining[p] = Integer.MIN_VALUE;
+                }
+            }
+            int left = nonTerminalIndex.get(productions.get(p).left);
+            if (remaining[p] == 0 && !nullable[left]) {
+                nullable[left] = true;
+                worklist[size++] = left;
+            }
+        }
+        while (size > 0) {
+            int symbol = worklist[--size];
+            for (int p : occurrences.get(symbol)) {
+                int left = nonTerminalIndex.get(productions.get(p).left);
+                if (--remaining[p] == 0 && !nullable[left]) {
+                    nullable[left] = true;
+                    worklist[size++] = left;
+                }
+            }
+        }
+        return nullable;
+    }
+
+    /**
+     * Solves F(x) = local(x) ∪ ⋃ F(y) for every edge x -> y.
+     * @return The solution of every node; members of the same component share one bit set.
+     */
+    private BitSet[] solve(int[][] edges, BitSet[] local) {
+        int n = edges.length;
+        int[] component = components(edges);
+        int count = 0;
+        for (int c : component) {
+            count = Math.max(count, c + 1);
+        }
+        List<List<Integer>> members = new ArrayList<>();
+        for (int c = 0; c < count; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int v = 0; v < n; v++) {
+            members.get(component[v]).add(v);
+        }
+        // Tarjan numbers components so that dependencies come first; dependents are needed for scheduling.
+        List<List<Integer>> dependents = new ArrayList<>();
+        int[] dependencies = new int[count];
+        for (int c = 0; c < count; c++) {
+            dependents.add(new ArrayList<>());
+        }
+        for (int c = 0; c < count; c++) {
+            BitSet seen = new BitSet();
+            for (int v : members.get(c)) {
+                for (int w : edges[v]) {
+                    int d = component[w];
+                    if (d != c && !seen.get(d)) {
+                        seen.set(d);
+                        dependents.get(d).add(c);
+                        dependencies[c]++;
+                    }
+                }
+            }
+        }
+
+        BitSet[] solution = new BitSet[count];
+        Evaluator evaluator = (c) -> {
+            BitSet bits = new BitSet();
+            for (int v : members.get(c)) {
+                bits.or(local[v]);
+                for (int w : edges[v]) {
+                    if (component[w] != c) {
+                        bits.or(solution[component[w]]);
+                    }
+                }
+            }
+            solution[c] = bits;
+        };
+        if (pool == null || pool.getParallelism() == 1) {
+            for (int c = 0; c < count; c++) {
+                evaluator.evaluate(c);
+            }
+        } else {
+            runInDependencyOrder(count, dependencies, dependents, evaluator);
+        }
+
+        BitSet[] result = new BitSet[n];
+        for (int v = 0; v < n; v++) {
+            result[v] = solution[component[v]];
+        }
+        return result;
+    }
+
+    private interface Evaluator {
+        void evaluate(int component);
+    }
+
+    /**
+     * Runs every component on the pool once all the components it depends on are done.
+     */
+    private void runInDependencyOrder(int count, int[] dependencies, List<List<Integer>> dependents,
+                                      Evaluator evaluator) {
+        AtomicIntegerArray pending = new AtomicIntegerArray(dependencies);
+        CountDownLatch done = new CountDownLatch(count);
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        class Evaluate extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final int component;
+
+            Evaluate(int component) {
+                this.component = component;
+            }
+
+            @Override
+            protected void compute() {
+                try {
+                    evaluator.evaluate(component);
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                    while (done.getCount() > 0) {
+                        done.countDown();
+                    }
+                    return;
+                }
+                for (int dependent : dependents.get(component)) {
+                    if (pending.decrementAndGet(dependent) == 0) {
+                        new Evaluate(dependent).fork();
+                    }
+                }
+                done.countDown();
+            }
+        }
+
+        for (int c = 0; c < count; c++) {
+            if (dependencies[c] == 0) {
+                pool.execute(new Evaluate(c));
+            }
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while analyzing the grammar", e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Tarjan's strongly connected components, with an explicit stack so deep grammars do not overflow.
+     * @return The component of every node; a component only reaches components with smaller numbers.
+     */
+    static int[] components(int[][] edges) {
+        int n = edges.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        Arrays.fill(index, -1);
+        Arrays.fill(component, -1);
+        int[] sccStack = new int[n];
+        int sccTop = 0;
+        int[] callNode = new int[n];
+        int[] callEdge = new int[n];
+        int counter = 0;
+        int components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int depth = 0;
+            callNode[0] = root;
+            callEdge[0] = 0;
+            index[root] = low[root] = counter++;
+            sccStack[sccTop++] = root;
+            while (depth >= 0) {
+                int v = callNode[depth];
+                if (callEdge[depth] < edges[v].length) {
+                    int w = edges[v][callEdge[depth]++];
+                    if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        sccStack[sccTop++] = w;
+                        depth++;
+                        callNode[depth] = w;
+                        callEdge[depth] = 0;
+                    } else if (component[w] < 0) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = sccStack[--sccTop];
+                        component[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+                depth--;
+                if (depth >= 0) {
+                    int parent = callNode[depth];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        return component;
+    }
+
+    private List<Set<Symbol>> toSymbolSets(BitSet[] bits) {
+        List<Set<Symbol>> sets = new ArrayList<>(bits.length);
+        for (int i = 0; i < bits.length; i++) {
+            sets.add(null);
+        }
+        parallelFor(bits.length, i -> {
+            Set<Symbol> set = new HashSet<>();
+            for (int t = bits[i].nextSetBit(0); t >= 0; t = bits[i].nextSetBit(t + 1)) {
+                set.add(terminals.get(t));
+            }
+            sets.set(i, set);
+        });
+        return sets;
+    }
+
+    private interface IndexTask {
+        void run(int index);
+    }
+
+    private void parallelFor(int count, IndexTask task) {
+        if (pool == null || pool.getParallelism() == 1) {
+            for (int i = 0; i < count; i++) {
+                task.run(i);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(task::run)).join();
+        }
+    }
+}
@@ -4,7 +4,9 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.concurrent.ForkJoinPool;
 
+import com.compiler.jfr.StaticAnalysisEvent;
 import com.compiler.parser.grammar.Grammar;
 import com.compiler.parser.grammar.Symbol;
 import com.compiler.parser.grammar.SymbolType;
@@ -12,16 +14,44 @@ import com.compiler.parser.grammar.SymbolType;
 /**
  * Calculates the FIRST and FOLLOW sets for a given grammar.
  * Main task of Practice 5.
+ *
+ * An analyzer constructed with a {@link ForkJoinPool} computes both sets by evaluating the strongly
+ * connected components of the grammar's dependency graph concurrently, which pays off for large
+ * (e.g. generated) grammars. The results are the same as the iterative algorithm's.
  */
 public class StaticAnalyzer {
+    /** The empty-string symbol used in FIRST sets. */
+    public static final Symbol EPSILON = new Symbol("ε", SymbolType.TERMINAL);
+    /** The end-of-input symbol used in FOLLOW sets. */
+    public static final Symbol END = new Symbol("$", SymbolType.TERMINAL);
+
     private final Grammar grammar;
     private final Map<Symbol, Set<Symbol>> firstSets;
     private final Map<Symbol, Set<Symbol>> followSets;
+    private final ForkJoinPool pool;
 
     public StaticAnalyzer(Grammar grammar) {
+        this(grammar, null);
+    }
+
+    /**
+     * Constructs an analyzer for the parallel analysis mode.
+     * @param grammar The grammar.
+     * @param pool The pool running the analysis, or null for the sequential algorithm.
+     */
+    public StaticAnalyzer(Grammar grammar, ForkJoinPool pool) {
         this.grammar = grammar;
         this.firstSets = new HashMap<>();
         this.followSets = new HashMap<>();
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the grammar being analyzed.
+     * @return The grammar.
+     */
+    public Grammar getGrammar() {
+        return grammar;
     }
 
     /**
@@ -29,6 +59,23 @@ public class StaticAnalyzer {
      * @return A map from Symbol to its FIRST set.
      */
     public Map<Symbol, Set<Symbol>> getFirstSets() {
+        StaticAnalysisEvent event = new StaticAnalysisEvent();
+        event.start();
+        Map<Symbol, Set<Symbol>> firstSets = computeFirstSets();
+        if (event.shouldRecord()) {
+            event.sets = "FIRST";
+            event.record(grammar.getProductions().size(), entryCount(firstSets));
+        }
+        return firstSets;
+    }
+
+    private Map<Symbol, Set<Symbol>> computeFirstSets() {
+        if (pool != null) {
+            Map<Symbol, Set<Symbol>> firstSets = new ParallelAnalysis(grammar, pool).firstSets();
+            this.firstSets.clear();
+            this.firstSets.putAll(firstSets);
+            return firstSets;
+        }
         // TODO: Implement the algorithm to calculate FIRST sets.
         /*
          * Pseudocode for FIRST set calculation:
@@ -132,6 +179,17 @@ public class StaticAnalyzer {
      * @return A map from Symbol to its FOLLOW set.
      */
     public Map<Symbol, Set<Symbol>> getFollowSets() {
+        StaticAnalysisEvent event = new StaticAnalysisEvent();
+        event.start();
+        Map<Symbol, Set<Symbol>> followSets = computeFollowSets();
+        if (event.shouldRecord()) {
+            event.sets = "FOLLOW";
+            event.record(grammar.getProductions().size(), entryCount(followSets));
+        }
+        return followSets;
+    }
+
+    private Map<Symbol, Set<Symbol>> computeFollowSets() {
         // TODO: Implement the algorithm to calculate FOLLOW sets.
         /*
          * Pseudocode for FOLLOW set calculation:
@@ -156,6 +214,9 @@ public class StaticAnalyzer {
         if (this.firstSets.isEmpty()) {
             getFirstSets();
         }
+        if (pool != null) {
+            return new ParallelAnalysis(grammar, pool).followSets(this.firstSets);
+        }
         
         // Initialize FOLLOW sets for non-terminals
         Map<Symbol, Set<Symbol>> followSets = new HashMap<>();
@@ -216,4 +277,12 @@ public class StaticAnalyzer {
 
         return followSets;      
     }
-}
\ No newline at end of file
+
+    private static long entryCount(Map<Symbol, Set<Symbol>> sets) {
+        long count = 0;
+        for (Set<Symbol> set : sets.values()) {
+            count += set.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,84 @@
+package com.compiler.parser.transform;
+
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.grammar.Production;
+import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.ll.LL1Table;
+import com.compiler.parser.syntax.StaticAnalyzer;
+
+/**
+ * Size of a grammar and of its LL(1) table.
+ * The size of a grammar is the number of symbols in its productions, counting each left-hand side
+ * once per production; the table has one row per non-terminal and one column per terminal plus $.
+ */
+public class GrammarStats {
+    /** Number of non-terminals. */
+    public final int nonTerminals;
+    /** Number of productions. */
+    public final int productions;
+    /** Total number of symbols in the productions. */
+    public final int size;
+    /** Number of non-empty LL(1) table cells. */
+    public final int tableEntries;
+    /** Total number of LL(1) table cells. */
+    public final int tableCells;
+    /** Number of LL(1) conflicts. */
+    public final int conflicts;
+
+    private GrammarStats(int nonTerminals, int productions, int size, int tableEntries, int tableCells, int conflicts) {
+        this.nonTerminals = nonTerminals;
+        this.productions = productions;
+        this.size = size;
+        this.tableEntries = tableEntries;
+        this.tableCells = tableCells;
+        this.conflicts = conflicts;
+    }
+
+    /**
+     * Measures a grammar, building its LL(1) table.
+     * @param grammar The grammar.
+     * @return The statistics.
+     */
+    public static GrammarStats of(Grammar grammar) {
+        int size = 0;
+        for (Production production : grammar.getProductions()) {
+            size++;
+            for (Symbol symbol : production.right) {
+                if (!symbol.equals(StaticAnalyzer.EPSILON)) {
+                    size++;
+                }
+            }
+        }
+        LL1Table table = new LL1Table(new StaticAnalyzer(grammar));
+        table.build();
+        int entries = 0;
+        for (Symbol nonTerminal : grammar.getNonTerminals()) {
+            entries += table.getExpectedTerminals(nonTerminal).size();
+        }
+        int cells = grammar.getNonTerminals().size() * (grammar.getTerminals().size() + 1);
+        return new GrammarStats(grammar.getNonTerminals().size(), grammar.getProductions().size(), size,
+                entries, cells, table.getConflicts().size());
+    }
+
+    /**
+     * Returns the fraction of LL(1) table cells holding a production.
+     * @return The density, between 0 and 1.
+     */
+    public double getTableDensity() {
+        return tableCells == 0 ? 0 : (double) tableEntries / tableCells;
+    }
+
+    /**
+     * Checks whether the LL(1) table has no conflicts.
+     * @return true if the grammar is LL(1).
+     */
+    public boolean isLL1() {
+        return conflicts == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d non-terminals, %d productions, size %d, LL(1) table %d/%d cells (%.1f%%), %d conflicts",
+                nonTerminals, productions, size, tableEntries, tableCells, 100 * getTableDensity(), conflicts);
+    }
+}
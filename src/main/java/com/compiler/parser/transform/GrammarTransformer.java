@@ -0,0 +1,354 @@
+package com.compiler.parser.transform;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.grammar.Production;
+import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.grammar.SymbolType;
+import com.compiler.parser.syntax.StaticAnalyzer;
+
+/**
+ * GrammarTransformer
+ * ------------------
+ * Rewrites a grammar into an equivalent one that is better suited to LL(1) parsing:
+ * <ol>
+ *   <li>removal of useless symbols (non-generating, then unreachable),</li>
+ *   <li>elimination of immediate and indirect left recursion (Paull's algorithm, restricted to the
+ *       non-terminals that are actually left-recursive so the rest of the grammar is left alone),</li>
+ *   <li>left factoring of alternatives with a common prefix,</li>
+ *   <li>a final removal of the symbols the previous steps made useless.</li>
+ * </ol>
+ * New non-terminals are named after the one they come from with primes appended (e.g. {@code E'}).
+ * Left recursion hidden behind nullable prefixes (e.g. {@code A -> B A x} with a nullable {@code B})
+ * is not removed. The result is not guaranteed to be LL(1), since some languages have no LL(1) grammar;
+ * {@link #getReport()} shows the effect of the pipeline on the grammar size and the LL(1) table.
+ *
+ * Example usage:
+ * <pre>
+ *     GrammarTransformer transformer = new GrammarTransformer(new Grammar("E -> E + T | T\nT -> id"));
+ *     Grammar ll1 = transformer.transform();
+ *     System.out.println(transformer.getReport());
+ * </pre>
+ */
+public class GrammarTransformer {
+    private final Grammar grammar;
+    private TransformReport report;
+
+    /**
+     * Constructs a transformer for a grammar.
+     * @param grammar The grammar to transform; it is not modified.
+     */
+    public GrammarTransformer(Grammar grammar) {
+        this.grammar = grammar;
+    }
+
+    /**
+     * Runs the whole pipeline.
+     * @return The transformed grammar.
+     * @throws IllegalArgumentException if the grammar generates no string.
+     */
+    public Grammar transform() {
+        Grammar result = removeUselessSymbols(grammar);
+        result = eliminateLeftRecursion(result);
+        result = leftFactor(result);
+        result = removeUselessSymbols(result);
+        report = new TransformReport(GrammarStats.of(grammar), GrammarStats.of(result));
+        return result;
+    }
+
+    /**
+     * Returns the size and LL(1) table statistics before and after the last {@link #transform()}.
+     * @return The report, or null if the grammar has not been transformed yet.
+     */
+    public TransformReport getReport() {
+        return report;
+    }
+
+    /**
+     * Removes the non-terminals that derive no terminal string, then the symbols not reachable from
+     * the start symbol, with every production that uses them.
+     * @param grammar The grammar.
+     * @return The reduced grammar.
+     * @throws IllegalArgumentException if the start symbol derives no terminal string.
+     */
+    public static Grammar removeUselessSymbols(Grammar grammar) {
+        Set<Symbol> generating = new HashSet<>();
+        boolean changed;
+        do {
+            changed = false;
+            for (Production production : grammar.getProductions()) {
+                if (!generating.contains(production.left) && allGenerating(production, generating)) {
+                    generating.add(production.left);
+                    changed = true;
+                }
+            }
+        } while (changed);
+        if (!generating.contains(grammar.getStartSymbol())) {
+            throw new IllegalArgumentException("The grammar generates no string");
+        }
+
+        Map<Symbol, List<Production>> byLeft = new HashMap<>();
+        for (Production production : grammar.getProductions()) {
+            if (allGenerating(production, generating)) {
+                byLeft.computeIfAbsent(production.left, k -> new ArrayList<>()).add(production);
+            }
+        }
+        Set<Symbol> reachable = new HashSet<>();
+        Deque<Symbol> worklist = new ArrayDeque<>();
+        reachable.add(grammar.getStartSymbol());
+        worklist.push(grammar.getStartSymbol());
+        while (!worklist.isEmpty()) {
+            for (Production production : byLeft.getOrDefault(worklist.pop(), List.of())) {
+                for (Symbol symbol : production.right) {
+                    if (symbol.type == SymbolType.NON_TERMINAL && reachable.add(symbol)) {
+                        worklist.push(symbol);
+                    }
+                }
+            }
+        }
+
+        List<Production> kept = new ArrayList<>();
+        for (Production production : grammar.getProductions()) {
+            if (reachable.contains(production.left) && allGenerating(production, generating)) {
+                kept.add(production);
+            }
+        }
+        return new Grammar(grammar.getStartSymbol(), kept);
+    }
+
+    private static boolean allGenerating(Production production, Set<Symbol> generating) {
+        for (Symbol symbol : production.right) {
+            if (symbol.type == SymbolType.NON_TERMINAL && !generating.contains(symbol)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Eliminates immediate and indirect left recursion.
+     *
+     * Only the non-terminals that lie on a left-corner cycle (A ⇒+ A α) are rewritten: they are
+     * ordered A1..An as in the grammar, every Ai -> Aj γ with j &lt; i and Aj on the same cycle is
+     * expanded with the alternatives of Aj, and the immediate recursion of Ai is then replaced by
+     * right recursion on a new non-terminal:
+     * <pre>
+     *     A -> A α1 | ... | A αm | β1 | ... | βn
+     * becomes
+     *     A  -> β1 A' | ... | βn A'
+     *     A' -> α1 A' | ... | αm A' | ε
+     * </pre>
+     * Cycles of unit productions (A -> A) are dropped.
+     *
+     * @param grammar The grammar.
+     * @return A grammar without left recursion through non-nullable prefixes.
+     */
+    public static Grammar eliminateLeftRecursion(Grammar grammar) {
+        Map<Symbol, List<List<Symbol>>> bodies = bodiesByLeft(grammar);
+        Set<String> names = usedNames(grammar);
+        List<Symbol> order = new ArrayList<>(bodies.keySet());
+        Map<Symbol, Set<Symbol>> leftCorners = leftCornerClosure(bodies);
+
+        List<Symbol> done = new ArrayList<>();
+        for (Symbol a : order) {
+            if (!leftCorners.get(a).contains(a)) {
+                continue;
+            }
+            // Expand the alternatives starting with an earlier non-terminal of the same cycle.
+            for (Symbol b : done) {
+                if (!leftCorners.get(b).contains(a)) {
+                    continue;
+                }
+                List<List<Symbol>> expanded = new ArrayList<>();
+                for (List<Symbol> body : bodies.get(a)) {
+                    if (!body.isEmpty() && body.get(0).equals(b)) {
+                        for (List<Symbol> replacement : bodies.get(b)) {
+                            List<Symbol> joined = new ArrayList<>(replacement);
+                            joined.addAll(body.subList(1, body.size()));
+                            addDistinct(expanded, joined);
+                        }
+                    } else {
+                        addDistinct(expanded, body);
+                    }
+                }
+                bodies.put(a, expanded);
+            }
+            done.add(a);
+
+            List<List<Symbol>> recursive = new ArrayList<>();
+            List<List<Symbol>> others = new ArrayList<>();
+            for (List<Symbol> body : bodies.get(a)) {
+                if (!body.isEmpty() && body.get(0).equals(a)) {
+                    if (body.size() > 1) {
+                        recursive.add(body.subList(1, body.size()));
+                    }
+                } else {
+                    others.add(body);
+                }
+            }
+            if (recursive.isEmpty()) {
+                bodies.put(a, others);
+                continue;
+            }
+            Symbol tail = freshNonTerminal(a, names);
+            List<List<Symbol>> newBodies = new ArrayList<>();
+            for (List<Symbol> beta : others) {
+                List<Symbol> body = new ArrayList<>(beta);
+                body.add(tail);
+                newBodies.add(body);
+            }
+            List<List<Symbol>> tailBodies = new ArrayList<>();
+            for (List<Symbol> alpha : recursive) {
+                List<Symbol> body = new ArrayList<>(alpha);
+                body.add(tail);
+                tailBodies.add(body);
+            }
+            tailBodies.add(new ArrayList<>());
+            bodies.put(a, newBodies);
+            bodies.put(tail, tailBodies);
+        }
+        return toGrammar(grammar.getStartSymbol(), bodies);
+    }
+
+    /**
+     * Left-factors the grammar: alternatives of a non-terminal that share a first symbol are replaced
+     * by their longest common prefix followed by a new non-terminal deriving the different suffixes.
+     * <pre>
+     *     A -> a b c | a b d | e    becomes    A -> a b A' | e,  A' -> c | d
+     * </pre>
+     * @param grammar The grammar.
+     * @return The left-factored grammar.
+     */
+    public static Grammar leftFactor(Grammar grammar) {
+        Map<Symbol, List<List<Symbol>>> bodies = bodiesByLeft(grammar);
+        Set<String> names = usedNames(grammar);
+        Deque<Symbol> worklist = new ArrayDeque<>(bodies.keySet());
+        while (!worklist.isEmpty()) {
+            Symbol a = worklist.poll();
+            Map<Symbol, List<List<Symbol>>> groups = new LinkedHashMap<>();
+            for (List<Symbol> body : bodies.get(a)) {
+                groups.computeIfAbsent(body.isEmpty() ? StaticAnalyzer.EPSILON : body.get(0), k -> new ArrayList<>())
+                        .add(body);
+            }
+            if (groups.size() == bodies.get(a).size()) {
+                continue;
+            }
+            List<List<Symbol>> newBodies = new ArrayList<>();
+            for (List<List<Symbol>> group : groups.values()) {
+                if (group.size() == 1 || group.get(0).isEmpty()) {
+                    newBodies.add(group.get(0));
+                    continue;
+                }
+                int prefix = commonPrefixLength(group);
+                Symbol suffixes = freshNonTerminal(a, names);
+                List<Symbol> factored = new ArrayList<>(group.get(0).subList(0, prefix));
+                factored.add(suffixes);
+                newBodies.add(factored);
+                List<List<Symbol>> suffixBodies = new ArrayList<>();
+                for (List<Symbol> body : group) {
+                    addDistinct(suffixBodies, body.subList(prefix, body.size()));
+                }
+                bodies.put(suffixes, suffixBodies);
+                worklist.add(suffixes);
+            }
+            bodies.put(a, newBodies);
+        }
+        return toGrammar(grammar.getStartSymbol(), bodies);
+    }
+
+    private static int commonPrefixLength(List<List<Symbol>> group) {
+        int length = 0;
+        while (true) {
+            for (List<Symbol> body : group) {
+                if (body.size() == length || !body.get(length).equals(group.get(0).get(length))) {
+                    return length;
+                }
+            }
+            length++;
+        }
+    }
+
+    /**
+     * For every non-terminal, the non-terminals that can start one of its sentential forms (A ⇒+ B α).
+     */
+    private static Map<Symbol, Set<Symbol>> leftCornerClosure(Map<Symbol, List<List<Symbol>>> bodies) {
+        Map<Symbol, Set<Symbol>> closure = new HashMap<>();
+        for (Symbol a : bodies.keySet()) {
+            Set<Symbol> reached = new HashSet<>();
+            Deque<Symbol> worklist = new ArrayDeque<>();
+            worklist.push(a);
+            while (!worklist.isEmpty()) {
+                for (List<Symbol> body : bodies.getOrDefault(worklist.pop(), List.of())) {
+                    if (!body.isEmpty() && body.get(0).type == SymbolType.NON_TERMINAL && reached.add(body.get(0))) {
+                        worklist.push(body.get(0));
+                    }
+                }
+            }
+            closure.put(a, reached);
+        }
+        return closure;
+    }
+
+    /**
+     * Groups the right-hand sides by non-terminal, in grammar order, without ε symbols.
+     */
+    private static Map<Symbol, List<List<Symbol>>> bodiesByLeft(Grammar grammar) {
+        Map<Symbol, List<List<Symbol>>> bodies = new LinkedHashMap<>();
+        bodies.put(grammar.getStartSymbol(), new ArrayList<>());
+        for (Production production : grammar.getProductions()) {
+            List<Symbol> body = new ArrayList<>();
+            for (Symbol symbol : production.right) {
+                if (!symbol.equals(StaticAnalyzer.EPSILON)) {
+                    body.add(symbol);
+                }
+            }
+            addDistinct(bodies.computeIfAbsent(production.left, k -> new ArrayList<>()), body);
+        }
+        return bodies;
+    }
+
+    private static Grammar toGrammar(Symbol start, Map<Symbol, List<List<Symbol>>> bodies) {
+        List<Production> productions = new ArrayList<>();
+        for (Map.Entry<Symbol, List<List<Symbol>>> entry : bodies.entrySet()) {
+            for (List<Symbol> body : entry.getValue()) {
+                List<Symbol> right = body.isEmpty() ? new ArrayList<>(List.of(StaticAnalyzer.EPSILON)) : new ArrayList<>(body);
+                productions.add(new Production(entry.getKey(), right));
+            }
+        }
+        return new Grammar(start, productions);
+    }
+
+    private static void addDistinct(List<List<Symbol>> bodies, List<Symbol> body) {
+        if (!bodies.contains(body)) {
+            bodies.add(new ArrayList<>(body));
+        }
+    }
+
+    private static Set<String> usedNames(Grammar grammar) {
+        Set<String> names = new HashSet<>();
+        for (Symbol symbol : grammar.getNonTerminals()) {
+            names.add(symbol.name);
+        }
+        for (Symbol symbol : grammar.getTerminals()) {
+            names.add(symbol.name);
+        }
+        return names;
+    }
+
+    private static Symbol freshNonTerminal(Symbol base, Set<String> names) {
+        String name = base.name + "'";
+        while (!names.add(name)) {
+            name = name + "'";
+        }
+        return new Symbol(name, SymbolType.NON_TERMINAL);
+    }
+}
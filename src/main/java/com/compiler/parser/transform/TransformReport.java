@@ -0,0 +1,35 @@
+package com.compiler.parser.transform;
+
+/**
+ * Effect of a {@link GrammarTransformer} run: the statistics of the grammar before and after it.
+ */
+public class TransformReport {
+    private final GrammarStats before;
+    private final GrammarStats after;
+
+    TransformReport(GrammarStats before, GrammarStats after) {
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * Returns the statistics of the original grammar.
+     * @return The statistics before the transformation.
+     */
+    public GrammarStats getBefore() {
+        return before;
+    }
+
+    /**
+     * Returns the statistics of the transformed grammar.
+     * @return The statistics after the transformation.
+     */
+    public GrammarStats getAfter() {
+        return after;
+    }
+
+    @Override
+    public String toString() {
+        return "before: " + before + "\nafter:  " + after;
+    }
+}
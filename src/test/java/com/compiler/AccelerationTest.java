@@ -0,0 +1,72 @@
+package com.compiler;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.regex.RegexParser;
+
+public class AccelerationTest {
+    private static DfaState after(DFA dfa, String input) {
+        DfaState state = dfa.startState;
+        for (int c : input.codePoints().toArray()) {
+            state = state.getTransition(c);
+        }
+        return state;
+    }
+
+    @Test
+    public void testEscapeChars() {
+        DFA string = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("\"([^\"\\\\]|\\\\.)*\""));
+        DfaState body = after(string, "\"abc");
+        assertArrayEquals(new char[] {'"', '\\'}, body.getEscapeChars());
+        assertEquals(5, body.skipSelfLoop("\"abcd\"", 1));
+        assertEquals(5, body.skipSelfLoop(new StringBuilder("\"ab😀\\x\""), 1));
+        assertEquals(4, body.skipSelfLoop("\"abc", 1));
+
+        DFA identifier = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("[a-z][a-z0-9]*"));
+        assertNull(after(identifier, "a").getEscapeChars());
+        assertNull(identifier.startState.getEscapeChars());
+
+        DFA comment = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("//[^\\n]*"));
+        assertArrayEquals(new char[] {'\n'}, after(comment, "//x").getEscapeChars());
+    }
+
+    @Test
+    public void testSurrogatesStopTheRun() {
+        // Only the BMP loops here, so a surrogate pair must be stepped as one code point.
+        DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("a[^b😀-😎]*"));
+        DfaState loop = after(dfa, "a");
+        assertNull(loop.getEscapeChars());
+    }
+
+    @Test
+    public void testSameTokensWithAndWithoutAcceleration() {
+        Lexer lexer = new Lexer();
+        lexer.addRule("string", "\"([^\"\\\\]|\\\\.)*\"");
+        lexer.addIgnoredRule("comment", "/\\*([^*]|\\*+[^*/])*\\*+/");
+        lexer.addIgnoredRule("line", "//[^\\n]*");
+        lexer.addRule("id", "[a-z]+");
+        lexer.addIgnoredRule("ws", "[ \\n]+");
+        lexer.build();
+        Random random = new Random(5);
+        String[] pieces = {"\"", "\\", "*", "/", "\n", " ", "a", "bc", "😀", "é"};
+        for (int round = 0; round < 300; round++) {
+            StringBuilder input = new StringBuilder();
+            for (int i = 0; i < 30; i++) {
+                input.append(pieces[random.nextInt(pieces.length)]);
+            }
+            lexer.setAccelerationEnabled(false);
+            String expected = lexer.tokenize(input.toString()).toString();
+            lexer.setAccelerationEnabled(true);
+            assertEquals(expected, lexer.tokenize(input.toString()).toString(), input.toString());
+        }
+    }
+}
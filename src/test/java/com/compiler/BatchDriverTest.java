@@ -0,0 +1,162 @@
+package com.compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.compiler.driver.BatchDriver;
+import com.compiler.driver.LexerSpec;
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.Token;
+import com.compiler.parser.lr.LALR1Parser;
+
+public class BatchDriverTest {
+    private static final String SPEC = "# expressions\n"
+            + "id [a-z]+\n"
+            + "+ \\+\n"
+            + "* \\*\n"
+            + "( \\(\n"
+            + ") \\)\n"
+            + "ignore ws [ \\t\\n]+\n";
+
+    @TempDir
+    Path dir;
+
+    private Path write(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private Path inputs() throws IOException {
+        write("in/a.expr", "a + b * c\n");
+        write("in/sub/b.expr", "( a + b ) * c");
+        write("in/sub/deeper/c.expr", "a +\n  * b\n");
+        write("in/notes.txt", "not an expression");
+        Files.write(dir.resolve("in/sub/bad.expr"), new byte[] {'a', (byte) 0xC3});
+        return dir.resolve("in");
+    }
+
+    private static String[] run(int[] status, String... args) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        status[0] = Main.run(args, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+        return new String[] {out.toString(StandardCharsets.UTF_8), err.toString(StandardCharsets.UTF_8)};
+    }
+
+    @Test
+    public void testLexerSpec() {
+        Lexer lexer = LexerSpec.parse(SPEC);
+        List<Token> tokens = lexer.tokenize("ab +\t(c)");
+        assertEquals(List.of("id", "+", "(", "id", ")"),
+                tokens.stream().map(Token::getType).collect(Collectors.toList()));
+
+        IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                () -> LexerSpec.parse("id [a-z]+\n\nlonely\n"));
+        assertTrue(missing.getMessage().startsWith("Line 3:"), missing.getMessage());
+        IllegalArgumentException malformed = assertThrows(IllegalArgumentException.class,
+                () -> LexerSpec.parse("id [a-z]+\nparen (a\n"));
+        assertTrue(malformed.getMessage().startsWith("Line 2:"), malformed.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> LexerSpec.parse("# nothing\n"));
+    }
+
+    @Test
+    public void testCommandLine() throws IOException {
+        Path spec = write("expr.lex", SPEC);
+        Path grammar = write("expr.grammar", ParserFixtures.EXPRESSIONS);
+        Path input = inputs();
+        int[] status = new int[1];
+        String[] output = run(status, "--jobs", "3", "--ext", ".expr", spec.toString(), grammar.toString(),
+                input.toString());
+        String out = output[0];
+        assertEquals(1, status[0], out + output[1]);
+        assertTrue(out.contains("OK a.expr (5 tokens)"), out);
+        assertTrue(out.contains("OK " + Path.of("sub", "b.expr") + " (7 tokens)"), out);
+        assertTrue(out.contains(Path.of("sub", "deeper", "c.expr") + ":2:3: unexpected token at '*'"), out);
+        assertTrue(out.contains(Path.of("sub", "bad.expr") + ": not valid UTF-8"), out);
+        assertTrue(!out.contains("notes.txt"), out);
+        assertTrue(out.contains("4 files (2 with errors"), out);
+        assertTrue(out.contains("files/s"), out);
+        for (String stage : new String[] {"read", "lex", "parse"}) {
+            assertTrue(Arrays.stream(out.split("\\R")).anyMatch(line -> line.startsWith(stage + " ")), out);
+        }
+
+        String quiet = run(status, "--quiet", "--ext", ".expr", spec.toString(), grammar.toString(),
+                input.resolve("sub/b.expr").toString())[0];
+        assertEquals(0, status[0]);
+        assertTrue(!quiet.contains("OK "), quiet);
+        assertTrue(quiet.contains("1 files (0 with errors"), quiet);
+    }
+
+    @Test
+    public void testBadArguments() throws IOException {
+        int[] status = new int[1];
+        assertTrue(run(status)[1].contains("usage:"));
+        assertEquals(2, status[0]);
+        assertTrue(run(status, "--jobs")[1].contains("Missing option value"));
+        assertEquals(2, status[0]);
+        assertTrue(run(status, "--fast", "a", "b", "c")[1].contains("Unknown option --fast"));
+        assertEquals(2, status[0]);
+
+        Path spec = write("bad.lex", "id (a\n");
+        Path grammar = write("expr.grammar", ParserFixtures.EXPRESSIONS);
+        assertTrue(run(status, spec.toString(), grammar.toString(), dir.toString())[1].startsWith("Line 1:"));
+        assertEquals(2, status[0]);
+        assertTrue(run(status, "--demo")[0].contains("--- Minimized DFA ---"));
+        assertEquals(0, status[0]);
+    }
+
+    @Test
+    public void testConcurrencyDoesNotChangeResults() throws IOException, InterruptedException {
+        for (int i = 0; i < 60; i++) {
+            write("many/f" + i + ".expr", i % 7 == 0 ? "a + + b" : "( a + b ) * c + d".repeat(1 + i % 5).replace("d(", "d + ("));
+        }
+        LALR1Parser parser = new LALR1Parser(ParserFixtures.lalrTable(ParserFixtures.EXPRESSIONS));
+        String expected = null;
+        for (int jobs : new int[] {1, 4, 16}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BatchDriver driver = new BatchDriver(LexerSpec.parse(SPEC), parser, jobs,
+                    new PrintStream(out, true, StandardCharsets.UTF_8));
+            BatchDriver.Summary summary = driver.run(dir.resolve("many"), null);
+            assertEquals(60, summary.getFiles());
+            assertEquals(9, summary.getFailedFiles());
+            assertEquals(60, driver.getMetrics().histogram(BatchDriver.PARSE).getCount());
+            String lines = Arrays.stream(out.toString(StandardCharsets.UTF_8).split("\\R")).sorted()
+                    .collect(Collectors.joining("\n"));
+            if (expected == null) {
+                expected = lines;
+            }
+            assertEquals(expected, lines, "jobs=" + jobs);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BatchDriver(LexerSpec.parse(SPEC), parser, 0, System.out));
+    }
+
+    @Test
+    public void testErrorPositionsAfterNonAscii() throws IOException, InterruptedException {
+        write("utf8/a.expr", "\u00e9 +\n\uD83D\uDE00\uD83D\uDE00 * * a\n");
+        write("utf8/b.expr", "\u00e9 +\n\n\u00e9 * * a\n");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BatchDriver driver = new BatchDriver(LexerSpec.parse(SPEC.replace("[a-z]+", "[a-z\u00e9\uD83D\uDE00]+")),
+                new LALR1Parser(ParserFixtures.lalrTable(ParserFixtures.EXPRESSIONS)), 1,
+                new PrintStream(out, true, StandardCharsets.UTF_8));
+        driver.run(dir.resolve("utf8"), null);
+        String lines = out.toString(StandardCharsets.UTF_8);
+        // Columns count UTF-16 chars: an accented letter is one, an emoji a surrogate pair.
+        assertTrue(lines.contains("a.expr:2:8: unexpected token at '*'"), lines);
+        assertTrue(lines.contains("b.expr:3:5: unexpected token at '*'"), lines);
+    }
+}
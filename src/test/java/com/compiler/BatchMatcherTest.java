@@ -0,0 +1,67 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.BatchMatcher;
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.regex.RegexParser;
+
+public class BatchMatcherTest {
+    private static List<String> randomInputs(Random random, int count, String alphabet, int maxLength) {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(maxLength + 1);
+            for (int k = 0; k < length; k++) {
+                input.appendCodePoint(alphabet.codePointAt(alphabet.offsetByCodePoints(0,
+                        random.nextInt(alphabet.codePointCount(0, alphabet.length())))));
+            }
+            inputs.add(input.toString());
+        }
+        return inputs;
+    }
+
+    private static boolean[] oneByOne(DFA dfa, List<String> inputs) {
+        DfaSimulator simulator = new DfaSimulator();
+        boolean[] results = new boolean[inputs.size()];
+        for (int i = 0; i < inputs.size(); i++) {
+            results[i] = simulator.simulate(dfa, inputs.get(i));
+        }
+        return results;
+    }
+
+    @Test
+    public void testMatchesSimulator() {
+        Random random = new Random(3);
+        String[] regexes = {"[A-Z]{2}[0-9]{2,4}", "(ab|é)*c?", "[^x]+😀", "a|b|"};
+        for (String regex : regexes) {
+            DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse(regex));
+            BatchMatcher matcher = new BatchMatcher(dfa);
+            List<String> inputs = randomInputs(random, 500, "AB09abcéx😀", 7);
+            boolean[] expected = oneByOne(dfa, inputs);
+            assertArrayEquals(expected, matcher.matchAll(inputs), regex);
+            assertArrayEquals(expected, matcher.matchAllSequential(inputs), regex);
+            for (int i = 0; i < 50; i++) {
+                assertEquals(expected[i], matcher.matches(inputs.get(i)), regex + " on " + inputs.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testLargeBatchIsSplit() {
+        DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("[A-Z]{3}-[0-9]{4}"));
+        List<String> inputs = randomInputs(new Random(9), 3 * BatchMatcher.CHUNK + 17, "AZ-09", 8);
+        for (int i = 0; i < inputs.size(); i += 5) {
+            inputs.set(i, "ABC-" + (1000 + i % 9000));
+        }
+        assertArrayEquals(oneByOne(dfa, inputs), new BatchMatcher(dfa).matchAll(inputs));
+    }
+}
@@ -0,0 +1,132 @@
+package com.compiler;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.compiler.lexer.DfaMinimizer;
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.NfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.Token;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.nfa.IntervalSet;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.regex.RegexParser;
+
+public class CharacterClassTest {
+    private static boolean matches(String regex, String input) {
+        NFA nfa = new RegexParser().parse(regex);
+        boolean nfaResult = new NfaSimulator().simulate(nfa, input);
+        boolean dfaResult = new DfaSimulator().simulate(NfaToDfaConverter.convertNfaToDfa(nfa), input);
+        assertEquals(nfaResult, dfaResult, "NFA and DFA disagree on " + regex + " / " + input);
+        return dfaResult;
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "[a-zA-Z_][a-zA-Z0-9_]*   ; count_2    ; true",
+        "[a-zA-Z_][a-zA-Z0-9_]*   ; 2count     ; false",
+        "[^0-9]+                  ; abc!       ; true",
+        "[^0-9]+                  ; ab1        ; false",
+        "[]a]+                    ; ]a]        ; true",
+        "[a-]+                    ; -a-        ; true",
+        "\\d{3}-\\d{4}            ; 555-1234   ; true",
+        "\\d{3}-\\d{4}            ; 55-1234    ; false",
+        "a{2,}                    ; a          ; false",
+        "a{2,}                    ; aaaaa      ; true",
+        "(ab){1,3}                ; ababab     ; true",
+        "(ab){1,3}                ; abababab   ; false",
+        "x{0}y                    ; y          ; true",
+        "a{,2}                    ; a{,2}      ; true",
+        "\\*\\[\\\\               ; *[\\       ; true",
+        "\\w+\\s\\W               ; ab_9 !     ; true",
+        "(a|)b                    ; b          ; true",
+        "()                       ; ''         ; true"
+    })
+    void testClassesAndRepetition(String regex, String input, boolean expected) {
+        assertEquals(expected, matches(regex.trim(), input.trim()));
+    }
+
+    @Test
+    public void testBoundedRepetitionCounts() {
+        for (int n = 0; n <= 6; n++) {
+            assertEquals(n >= 2 && n <= 4, matches("a{2,4}", "a".repeat(n)), "a{2,4} on " + n);
+            assertEquals(n == 3, matches("a{3}", "a".repeat(n)), "a{3} on " + n);
+        }
+    }
+
+    @Test
+    public void testSupplementaryCodePoints() {
+        String emoji = new String(Character.toChars(0x1F600));
+        assertTrue(matches("[\\u{1F600}-\\u{1F64F}]+", emoji + emoji));
+        assertFalse(matches("[\\u{1F600}-\\u{1F64F}]", "a"));
+        assertTrue(matches("[^a]", emoji));
+        assertTrue(matches("\\u00e9t\\u00E9", "été"));
+    }
+
+    @Test
+    public void testIntervalsKeepTheDfaSmall() {
+        DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("[a-zA-Z_][a-zA-Z0-9_]*"));
+        DFA minimized = DfaMinimizer.minimizeDfa(dfa, null);
+        assertEquals(2, minimized.allStates.size());
+        DfaState start = minimized.startState;
+        assertEquals(3, start.getIntervalCount());
+        DfaState identifier = start.getTransition('q');
+        assertEquals(4, identifier.getIntervalCount());
+        assertEquals(identifier, identifier.getTransition('7'));
+
+        IntervalSet letters = IntervalSet.ofRanges('a', 'z', 'A', 'Z', 'm', 'q', '[', '[');
+        assertEquals("[A-[a-z]", letters.toString());
+        assertEquals(IntervalSet.range('0', '9'), IntervalSet.range('0', '9').intersect(letters.complement()));
+    }
+
+    @Test
+    public void testMinimizationMergesEquivalentStates() {
+        DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("(a|b)*abb"));
+        DFA minimized = DfaMinimizer.minimizeDfa(dfa, null);
+        assertEquals(4, minimized.allStates.size());
+        DfaSimulator simulator = new DfaSimulator();
+        for (String input : List.of("abb", "aabb", "babb", "ababb", "ab", "abba", "")) {
+            assertEquals(simulator.simulate(dfa, input), simulator.simulate(minimized, input), input);
+        }
+    }
+
+    @Test
+    public void testLexerUsesCharacterClasses() {
+        Lexer lexer = new Lexer();
+        lexer.addRule("if", "if");
+        lexer.addRule("id", "[a-z_][a-z0-9_]*");
+        lexer.addRule("num", "[0-9]+(\\.[0-9]+)?");
+        lexer.addRule("str", "\"[^\"\\n]*\"");
+        lexer.addIgnoredRule("ws", "[ \\t\\n]+");
+        lexer.build();
+        List<Token> tokens = lexer.tokenize("if x1 3.25 \"a b\" iffy");
+        assertEquals(5, tokens.size());
+        assertEquals("if", tokens.get(0).type);
+        assertEquals("num", tokens.get(2).type);
+        assertEquals("\"a b\"", tokens.get(3).lexeme);
+        assertEquals("id", tokens.get(4).type);
+    }
+
+    @Test
+    public void testMalformedExpressions() {
+        RegexParser parser = new RegexParser();
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("[a-"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("[z-a]"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("a{3,2}"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("a{1001}"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("*a"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("(a"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("a)"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("\\q"));
+    }
+}
@@ -0,0 +1,96 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.NfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.nfa.CompactNfa;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.regex.GlushkovBuilder;
+import com.compiler.lexer.regex.RegexParser;
+
+public class CompactNfaTest {
+    @Test
+    public void testLayout() {
+        NFA nfa = new RegexParser(false).parse("[a-c]x|[a-c]y");
+        List<State> states = new ArrayList<>();
+        CompactNfa compact = CompactNfa.of(nfa, states);
+        assertEquals(states.size(), compact.getStateCount());
+        assertSame(nfa.startState, states.get(0));
+        assertEquals(4, compact.getEdgeCount());
+        // [a-c] occurs twice but is stored once.
+        assertEquals(3, compact.getLabelCount());
+        assertFalse(compact.isEpsilonFree());
+        int finals = 0;
+        for (int s = 0; s < compact.getStateCount(); s++) {
+            finals += compact.isFinal(s) ? 1 : 0;
+            for (int e = compact.edgeStart(s); e < compact.edgeEnd(s); e++) {
+                assertEquals(compact.matches(e, 'b'), compact.getLabelLow(compact.getLabel(e), 0) == 'a');
+            }
+        }
+        assertEquals(1, finals);
+    }
+
+    @Test
+    public void testEpsilonFree() {
+        CompactNfa compact = CompactNfa.of(new GlushkovBuilder().parse("(ab|c)*d"));
+        assertTrue(compact.isEpsilonFree());
+        assertEquals(0, compact.getEpsilonEdgeCount());
+        assertTrue(new NfaSimulator().simulate(compact, "abccd"));
+        assertFalse(new NfaSimulator().simulate(compact, "abcc"));
+    }
+
+    @Test
+    public void testSimulatorSeesLaterTransitions() {
+        NfaSimulator simulator = new NfaSimulator();
+        NFA nfa = new RegexParser().parse("a");
+        assertFalse(simulator.simulate(nfa, "b"));
+        nfa.startState.addTransition('b', nfa.endState);
+        assertTrue(simulator.simulate(nfa, "b"));
+    }
+
+    @Test
+    public void testClosure() {
+        CompactNfa compact = CompactNfa.of(new RegexParser(false).parse("a*b*"));
+        int[] set = new int[compact.getStateCount()];
+        int[] marks = new int[compact.getStateCount()];
+        marks[0] = 1;
+        int size = compact.closure(set, 1, marks, 1);
+        boolean accepting = false;
+        for (int i = 0; i < size; i++) {
+            assertEquals(1, marks[set[i]]);
+            accepting |= compact.isFinal(set[i]);
+        }
+        assertTrue(accepting);
+    }
+
+    @Test
+    public void testSimulatorMatchesDfa() {
+        Random random = new Random(42);
+        String[] pieces = {"a", "b", "[ab]", "(a|bc)", "c*", "(ab)+", "b?", "[^a]", "(a|b){2,3}"};
+        NfaSimulator nfaSimulator = new NfaSimulator();
+        DfaSimulator dfaSimulator = new DfaSimulator();
+        for (int round = 0; round < 200; round++) {
+            String regex = RandomRegex.regex(random, pieces, RandomRegex.OPS, 2);
+            NFA nfa = new RegexParser().parse(regex);
+            CompactNfa compact = CompactNfa.of(nfa);
+            DFA dfa = NfaToDfaConverter.convertNfaToDfa(nfa);
+            for (int k = 0; k < 20; k++) {
+                String input = RandomRegex.input(random, "abc", 6);
+                assertEquals(dfaSimulator.simulate(dfa, input), nfaSimulator.simulate(compact, input),
+                        regex + " on " + input);
+            }
+        }
+    }
+}
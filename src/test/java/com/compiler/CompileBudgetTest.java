@@ -0,0 +1,160 @@
+package com.compiler;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.driver.LexerSpec;
+import com.compiler.lexer.CompileBudget;
+import com.compiler.lexer.ConcurrentCompiler;
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.Utf8Compiler;
+import com.compiler.lexer.dfa.CompiledPattern;
+import com.compiler.lexer.dfa.FrozenDfa;
+import com.compiler.lexer.dfa.LazyDfa;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.regex.RegexParser;
+import com.compiler.lexer.search.RegexSearcher;
+import com.compiler.lexer.search.RegexSet;
+
+public class CompileBudgetTest {
+    private static final String EXPLOSIVE = "(a|b)*a(a|b){20}";
+
+    @Test
+    public void testBudgetExceeded() {
+        NFA nfa = new RegexParser().parse("(a|b)*a(a|b){10}");
+        IllegalStateException states = assertThrows(IllegalStateException.class,
+                () -> NfaToDfaConverter.convertNfaToDfa(nfa, new CompileBudget(100, Long.MAX_VALUE, Long.MAX_VALUE)));
+        assertTrue(states.getMessage().contains("state budget"), states.getMessage());
+        IllegalStateException memory = assertThrows(IllegalStateException.class,
+                () -> NfaToDfaConverter.convertNfaToDfa(nfa, new CompileBudget(Integer.MAX_VALUE, 10_000, Long.MAX_VALUE)));
+        assertTrue(memory.getMessage().contains("memory budget"), memory.getMessage());
+        IllegalStateException time = assertThrows(IllegalStateException.class,
+                () -> NfaToDfaConverter.convertNfaToDfa(nfa, new CompileBudget(Integer.MAX_VALUE, Long.MAX_VALUE, 1)));
+        assertTrue(time.getMessage().contains("time budget"), time.getMessage());
+        assertEquals(2049, NfaToDfaConverter.convertNfaToDfa(nfa, CompileBudget.DEFAULT).allStates.size());
+        assertThrows(IllegalArgumentException.class, () -> new CompileBudget(0, 1, 1));
+    }
+
+    @Test
+    public void testEstimate() {
+        NFA small = new RegexParser().parse("(a|b)*a(a|b){6}");
+        assertEquals(NfaToDfaConverter.convertNfaToDfa(small).allStates.size(),
+                NfaToDfaConverter.estimateStateCount(small, 1024));
+        long explosive = NfaToDfaConverter.estimateStateCount(new RegexParser().parse(EXPLOSIVE), 1024);
+        assertTrue(explosive > 1_000_000, "estimate " + explosive);
+        StringBuilder keywords = new StringBuilder("[a-z_][a-z0-9_]*");
+        for (int i = 0; i < 2000; i++) {
+            keywords.append("|kw").append(Integer.toString(i * 7919, 36));
+        }
+        NFA lexer = new RegexParser().parse(keywords.toString());
+        long actual = NfaToDfaConverter.convertNfaToDfa(lexer).allStates.size();
+        long estimate = NfaToDfaConverter.estimateStateCount(lexer, 1024);
+        assertTrue(estimate >= actual / 4 && estimate <= actual * 4, estimate + " for " + actual);
+    }
+
+    @Test
+    public void testFallbackToLazyDfa() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            CompileBudget budget = new CompileBudget(5000, Long.MAX_VALUE, Long.MAX_VALUE);
+            List<CompiledPattern> compiled = new ConcurrentCompiler(pool, false, budget)
+                    .compileAll(List.of("[a-z]+", EXPLOSIVE, "(a|b)*a(a|b){11}"));
+            assertInstanceOf(FrozenDfa.class, compiled.get(0));
+            assertNull(compiled.get(0).getFallbackReason());
+            for (int i = 1; i < 3; i++) {
+                LazyDfa lazy = assertInstanceOf(LazyDfa.class, compiled.get(i));
+                assertTrue(lazy.getFallbackReason().contains(i == 1 ? EXPLOSIVE : "(a|b)*a(a|b){11}"), lazy.getFallbackReason());
+            }
+            Pattern expected = Pattern.compile(EXPLOSIVE);
+            Random random = new Random(45);
+            for (int k = 0; k < 300; k++) {
+                String input = RandomRegex.text(random, "ab", 15 + random.nextInt(20));
+                assertEquals(expected.matcher(input).matches(), compiled.get(1).matches(input), input);
+            }
+            assertTrue(((LazyDfa) compiled.get(1)).getCachedStateCount() <= 5000);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBuildersNameThePatternOverBudget() {
+        CompileBudget budget = new CompileBudget(5000, Long.MAX_VALUE, Long.MAX_VALUE);
+        Lexer lexer = new Lexer();
+        lexer.addRule("id", "[a-z]+");
+        lexer.addRule("tail", EXPLOSIVE);
+        lexer.setCompileBudget(budget);
+        IllegalStateException e = assertThrows(IllegalStateException.class, lexer::build);
+        assertTrue(e.getMessage().startsWith("Lexer rule tail = " + EXPLOSIVE), e.getMessage());
+
+        RegexSet set = new RegexSet();
+        set.add("ERROR");
+        set.add("[a-z]+");
+        set.add(EXPLOSIVE);
+        set.setCompileBudget(budget);
+        e = assertThrows(IllegalStateException.class, set::build);
+        assertTrue(e.getMessage().startsWith("Pattern 2 (" + EXPLOSIVE + ")"), e.getMessage());
+
+        // The searcher builds the DFA of the reversed pattern, which explodes for the mirror image.
+        String mirror = "(a|b){20}a(a|b)*";
+        e = assertThrows(IllegalStateException.class, () -> new RegexSearcher(mirror, budget));
+        assertTrue(e.getMessage().startsWith("Pattern " + mirror), e.getMessage());
+        e = assertThrows(IllegalStateException.class, () -> Utf8Compiler.compile(EXPLOSIVE, budget));
+        assertTrue(e.getMessage().startsWith("Pattern " + EXPLOSIVE), e.getMessage());
+    }
+
+    @Test
+    public void testLexerSpecIsBounded() {
+        // A user-supplied spec is compiled within the default budget.
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> LexerSpec.parse("word [a-z]+\ntail " + EXPLOSIVE));
+        assertTrue(e.getMessage().contains("tail = " + EXPLOSIVE), e.getMessage());
+        assertTrue(e.getMessage().contains("state budget"), e.getMessage());
+    }
+
+    @Test
+    public void testLazyDfaWithFullCache() {
+        LazyDfa lazy = new LazyDfa(new RegexParser().parse("(a|b)*a(a|b){4}"), 3, null);
+        Pattern expected = Pattern.compile("(a|b)*a(a|b){4}");
+        Random random = new Random(7);
+        for (int k = 0; k < 200; k++) {
+            String input = RandomRegex.input(random, "ab", 11);
+            assertEquals(expected.matcher(input).matches(), lazy.matches(input), input);
+            int end = lazy.matchEnd("x" + input, 1);
+            assertEquals(expected.matcher(input).lookingAt() ? 1 + longestPrefix(expected, input) : -1, end, input);
+        }
+        assertEquals(3, lazy.getCachedStateCount());
+    }
+
+    @Test
+    public void testLazyDfaWithByteBoundedCache() {
+        LazyDfa lazy = new LazyDfa(new RegexParser().parse(EXPLOSIVE), 100_000, 4_000, null, null);
+        Pattern expected = Pattern.compile(EXPLOSIVE);
+        Random random = new Random(5);
+        for (int k = 0; k < 200; k++) {
+            String input = RandomRegex.input(random, "ab", 30);
+            assertEquals(expected.matcher(input).matches(), lazy.matches(input), input);
+        }
+        assertTrue(lazy.getCachedBytes() <= 4_000, "cached " + lazy.getCachedBytes() + " bytes");
+        assertTrue(lazy.getCachedStateCount() < 10, "cached " + lazy.getCachedStateCount() + " states");
+    }
+
+    private static int longestPrefix(Pattern pattern, String input) {
+        for (int end = input.length(); end >= 0; end--) {
+            if (pattern.matcher(input.substring(0, end)).matches()) {
+                return end;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,162 @@
+package com.compiler;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.compiler.driver.CompileClient;
+import com.compiler.driver.CompileDaemon;
+import com.compiler.lexer.Token;
+import com.compiler.parser.ParseResult;
+import com.compiler.parser.SyntaxError;
+
+public class CompileDaemonTest {
+    private static final String SPEC = "id [a-z]+\n"
+            + "+ \\+\n"
+            + "* \\*\n"
+            + "( \\(\n"
+            + ") \\)\n"
+            + "ignore ws [ \\t\\n]+\n";
+
+    @TempDir
+    Path dir;
+
+    private static SocketAddress loopback() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    @Test
+    public void testRequests() throws IOException {
+        try (CompileDaemon daemon = new CompileDaemon(loopback())) {
+            SocketAddress address = daemon.start();
+            try (CompileClient client = new CompileClient(address)) {
+                client.ping();
+                client.loadLexer("expr", SPEC);
+                assertEquals(List.of(), client.loadGrammar("expr", ParserFixtures.EXPRESSIONS));
+
+                List<Token> tokens = client.lex("expr", "ab + (c)");
+                assertEquals(List.of("id", "+", "(", "id", ")"),
+                        tokens.stream().map(Token::getType).collect(Collectors.toList()));
+                assertEquals("ab", tokens.get(0).lexeme);
+                assertEquals(6, tokens.get(3).offset);
+
+                assertTrue(client.parse("expr", "expr", "a + b * c").isAccepted());
+                ParseResult rejected = client.parse("expr", "expr", "a + * b");
+                assertEquals(1, rejected.getErrors().size());
+                SyntaxError error = rejected.getErrors().get(0);
+                assertEquals(2, error.tokenIndex);
+                assertEquals("*", error.token.lexeme);
+                assertEquals(4, error.token.offset);
+                assertEquals(Set.of("(", "id"), error.expected);
+
+                assertEquals("dfa 5", client.compile("(a|b)*abb"));
+                assertTrue(client.matches("(a|b)*abb", "babb"));
+                assertFalse(client.matches("(a|b)*abb", "abba"));
+
+                IllegalStateException unknown = assertThrows(IllegalStateException.class,
+                        () -> client.lex("nope", "a"));
+                assertTrue(unknown.getMessage().contains("'nope'"), unknown.getMessage());
+                assertThrows(IllegalStateException.class, () -> client.loadLexer("bad", "id (a\n"));
+                // The connection survives failed requests.
+                client.ping();
+
+                List<String> stats = client.stats();
+                assertTrue(stats.contains("daemon.errors=2"), stats.toString());
+                assertTrue(stats.stream().anyMatch(s -> s.startsWith("daemon.parse.latency=")), stats.toString());
+                assertTrue(stats.stream().anyMatch(s -> s.startsWith("parser.expr.parses=2")), stats.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentClients() throws Exception {
+        try (CompileDaemon daemon = new CompileDaemon(loopback())) {
+            SocketAddress address = daemon.start();
+            try (CompileClient client = new CompileClient(address)) {
+                client.loadLexer("expr", SPEC);
+                client.loadGrammar("expr", ParserFixtures.EXPRESSIONS);
+            }
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int c = 0; c < 8; c++) {
+                    int id = c;
+                    results.add(pool.submit(() -> {
+                        int failed = 0;
+                        try (CompileClient client = new CompileClient(address)) {
+                            for (int i = 0; i < 50; i++) {
+                                String input = (i + id) % 5 == 0 ? "a + + b" : "( a + b ) * c";
+                                if (!client.parse("expr", "expr", input).getErrors().isEmpty()) {
+                                    failed++;
+                                }
+                            }
+                        }
+                        return failed;
+                    }));
+                }
+                int failed = 0;
+                for (Future<Integer> result : results) {
+                    failed += result.get();
+                }
+                assertEquals(80, failed);
+            } finally {
+                pool.shutdown();
+            }
+            assertEquals(400, daemon.getMetrics().histogram("daemon.parse.latency").getCount());
+        }
+    }
+
+    @Test
+    public void testOversizedMessage() throws IOException {
+        try (CompileDaemon daemon = new CompileDaemon(loopback())) {
+            SocketAddress address = daemon.start();
+            try (Socket socket = new Socket()) {
+                socket.connect(address);
+                DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                // A header alone, declaring more payload than a whole message may hold.
+                out.writeInt(1);
+                out.writeInt(1 << 26);
+                out.flush();
+                assertEquals(-1, socket.getInputStream().read());
+            }
+            try (CompileClient client = new CompileClient(address)) {
+                client.ping();
+            }
+        }
+    }
+
+    @Test
+    public void testUnixSocketAndShutdown() throws Exception {
+        Path socket = dir.resolve("daemon.sock");
+        CompileDaemon daemon = new CompileDaemon(UnixDomainSocketAddress.of(socket));
+        SocketAddress address = daemon.start();
+        assertTrue(Files.exists(socket));
+        try (CompileClient client = new CompileClient(address)) {
+            assertEquals("dfa 2", client.compile("a"));
+            client.shutdown();
+        }
+        daemon.awaitTermination();
+        assertFalse(Files.exists(socket));
+        assertThrows(IOException.class, () -> new CompileClient(address));
+    }
+}
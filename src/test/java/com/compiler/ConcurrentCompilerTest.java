@@ -0,0 +1,109 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.ConcurrentCompiler;
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.CompiledPattern;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.FrozenDfa;
+import com.compiler.lexer.regex.RegexParser;
+
+public class ConcurrentCompilerTest {
+    private static List<String> patterns(int count) {
+        List<String> patterns = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            patterns.add("(id" + i + "|[a-" + (char) ('a' + i % 26) + "]+)[0-9]{1," + (1 + i % 3) + "}");
+        }
+        return patterns;
+    }
+
+    @Test
+    public void testPerAutomatonIds() {
+        DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("(a|b)*abb"));
+        for (int i = 0; i < dfa.allStates.size(); i++) {
+            assertEquals(i, dfa.allStates.get(i).id);
+        }
+    }
+
+    @Test
+    public void testFrozenDfa() {
+        DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse("[0-9]+(\\.[0-9]+)?"));
+        FrozenDfa frozen = FrozenDfa.of(dfa);
+        assertEquals(dfa.allStates.size(), frozen.getStateCount());
+        assertTrue(frozen.matches("3.14"));
+        assertFalse(frozen.matches("3."));
+        assertEquals(5, frozen.matchEnd("x3.14y", 1));
+        assertEquals(2, frozen.matchEnd("x3.y", 1));
+        assertEquals(-1, frozen.matchEnd("x3.y", 0));
+        assertEquals(-1, frozen.step(frozen.getStartState(), 'x'));
+    }
+
+    @Test
+    public void testCompileAllMatchesSequential() {
+        List<String> patterns = patterns(300);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<CompiledPattern> compiled = new ConcurrentCompiler(pool, false).compileAll(patterns);
+            DfaSimulator simulator = new DfaSimulator();
+            String[] inputs = {"id7", "id712", "abc1", "zz99", "a1234", "id2990"};
+            for (int i = 0; i < patterns.size(); i++) {
+                DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse(patterns.get(i)));
+                for (String input : inputs) {
+                    assertEquals(simulator.simulate(dfa, input), compiled.get(i).matches(input), patterns.get(i) + " / " + input);
+                }
+            }
+            List<CompiledPattern> minimized = new ConcurrentCompiler(pool, true).compileAll(patterns.subList(0, 20));
+            for (int i = 0; i < minimized.size(); i++) {
+                assertTrue(((FrozenDfa) minimized.get(i)).getStateCount() <= ((FrozenDfa) compiled.get(i)).getStateCount());
+                assertEquals(compiled.get(i).matches("id31"), minimized.get(i).matches("id31"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedAcrossThreads() throws Exception {
+        CompiledPattern dfa = new ConcurrentCompiler().compile("[a-z]+@[a-z]+\\.(com|org)");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    int accepted = 0;
+                    for (int i = 0; i < 10000; i++) {
+                        accepted += dfa.matches(i % 2 == 0 ? "joe@example.com" : "joe@example.net") ? 1 : 0;
+                    }
+                    return accepted;
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(5000, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testMalformedPattern() {
+        List<String> patterns = new ArrayList<>(patterns(10));
+        patterns.set(6, "(a");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new ConcurrentCompiler().compileAll(patterns));
+        assertTrue(e.getMessage().contains("Pattern 6"), e.getMessage());
+    }
+}
@@ -0,0 +1,104 @@
+package com.compiler;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.DfaMinimizer;
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.derivative.DerivativeCompiler;
+import com.compiler.lexer.regex.RegexParser;
+
+public class DerivativeCompilerTest {
+    private final DfaSimulator simulator = new DfaSimulator();
+
+    @Test
+    public void testAgreesWithSubsetConstruction() {
+        Random random = new Random(5);
+        int derivativeStates = 0;
+        int subsetStates = 0;
+        for (int round = 0; round < 200; round++) {
+            String regex = RandomRegex.regex(random, RandomRegex.ATOMS, RandomRegex.OPS, 3);
+            DFA derivative = new DerivativeCompiler().compile(regex);
+            DFA reference = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse(regex));
+            derivativeStates += derivative.allStates.size();
+            subsetStates += reference.allStates.size();
+            DFA minimized = DfaMinimizer.minimizeDfa(derivative, null);
+            for (int probe = 0; probe < 30; probe++) {
+                String input = RandomRegex.input(random);
+                boolean expected = simulator.simulate(reference, input);
+                assertEquals(expected, simulator.simulate(derivative, input), regex + " / " + input);
+                assertEquals(expected, simulator.simulate(minimized, input), regex + " / " + input);
+            }
+        }
+        assertTrue(derivativeStates < subsetStates, derivativeStates + " vs " + subsetStates);
+    }
+
+    @Test
+    public void testIntersectionAndComplement() {
+        Random random = new Random(8);
+        String[] atoms = {"a", "b", "[ab]", "c"};
+        String[] ops = {"", "*", "+", "?"};
+        for (int round = 0; round < 100; round++) {
+            String r = RandomRegex.regex(random, atoms, ops, 2);
+            String s = RandomRegex.regex(random, atoms, ops, 2);
+            DFA left = new DerivativeCompiler().compile(r);
+            DFA right = new DerivativeCompiler().compile(s);
+            DFA both = new DerivativeCompiler().compile("(" + r + ")&(" + s + ")");
+            DFA notLeft = new DerivativeCompiler().compile("~(" + r + ")");
+            for (int probe = 0; probe < 30; probe++) {
+                String input = RandomRegex.input(random);
+                boolean inLeft = simulator.simulate(left, input);
+                assertEquals(inLeft && simulator.simulate(right, input), simulator.simulate(both, input));
+                assertEquals(!inLeft, simulator.simulate(notLeft, input), "~(" + r + ") / " + input);
+            }
+        }
+    }
+
+    @Test
+    public void testBlockCommentIsTiny() {
+        DFA comment = new DerivativeCompiler().compile("/\\*~(.*\\*/.*)\\*/");
+        assertEquals(5, comment.allStates.size());
+        assertTrue(simulator.simulate(comment, "/* a * b / c **/"));
+        assertTrue(simulator.simulate(comment, "/**/"));
+        assertFalse(simulator.simulate(comment, "/* a */ b */"));
+        assertFalse(simulator.simulate(comment, "/* a"));
+
+        DFA identifier = new DerivativeCompiler().compile("[a-z]+&~(if|while)");
+        assertTrue(simulator.simulate(identifier, "iff"));
+        assertTrue(simulator.simulate(identifier, "whil"));
+        assertFalse(simulator.simulate(identifier, "if"));
+        assertFalse(simulator.simulate(identifier, "while"));
+    }
+
+    @Test
+    public void testSmartConstructorsNormalize() {
+        DerivativeCompiler compiler = new DerivativeCompiler();
+        assertSame(compiler.parse("a|b"), compiler.parse("b|a"));
+        assertSame(compiler.parse("(ab)c"), compiler.parse("a(bc)"));
+        assertSame(compiler.parse("x|y|x"), compiler.parse("[xy]"));
+        assertSame(compiler.parse("~~(a*)"), compiler.parse("a**"));
+        assertSame(compiler.parse("a&b*&a"), compiler.parse("b*&a"));
+        assertEquals("(a&b)", compiler.parse("a&b").toString());
+    }
+
+    @Test
+    public void testStatesHashApart() {
+        // Derivative states have no NFA states; they must not all share one hash code.
+        DFA dfa = new DerivativeCompiler().compile("(a|b)*a(a|b)(a|b)(a|b)");
+        Set<Integer> hashes = new HashSet<>();
+        for (DfaState state : dfa.allStates) {
+            hashes.add(state.hashCode());
+        }
+        assertEquals(dfa.allStates.size(), hashes.size());
+    }
+}
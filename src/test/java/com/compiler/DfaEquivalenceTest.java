@@ -0,0 +1,113 @@
+package com.compiler;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.compiler.lexer.CompileBudget;
+import com.compiler.lexer.ConcurrentCompiler;
+import com.compiler.lexer.DfaEquivalence;
+import com.compiler.lexer.DfaMinimizer;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.PatternStore;
+import com.compiler.lexer.dfa.CompiledPattern;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.LazyDfa;
+import com.compiler.lexer.regex.RegexParser;
+
+public class DfaEquivalenceTest {
+    private static DFA dfa(String pattern) {
+        return NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse(pattern));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "(a|b)*abb; (a|b)*abb; true",
+        "(a|b)*abb; [ab]*abb; true",
+        "(a|b)*; (a*b*)*; true",
+        "a+; aa*; true",
+        "[a-z]+; ([a-m]|[n-z])+; true",
+        "[0-9][0-9]*x; [0-9]+x; true",
+        "(a|b)*abb; (a|b)*ab; false",
+        "a*; a+; false",
+        "[a-z]+; [a-y]+; false",
+        "[a-z]+x; [a-z]+y; false",
+        "ab|cd; ab|ce; false"
+    })
+    public void testEquivalence(String first, String second, boolean expected) {
+        assertEquals(expected, DfaEquivalence.areEquivalent(dfa(first), dfa(second)));
+        assertEquals(expected, DfaEquivalence.areEquivalent(dfa(second), dfa(first)));
+        DFA minimized = DfaMinimizer.minimizeDfa(dfa(first), null);
+        assertEquals(expected, DfaEquivalence.areEquivalent(minimized, dfa(second)));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "a+; a*; true",
+        "a*; a+; false",
+        "[a-y]+; [a-z]+; true",
+        "abb; (a|b)*abb; true",
+        "(a|b)*abb; (a|b)*b; true",
+        "(a|b)*b; (a|b)*abb; false",
+        "ab|cd; ab|cd|ef; true",
+        "ab|cd|ef; ab|cd; false"
+    })
+    public void testInclusion(String smaller, String larger, boolean expected) {
+        assertEquals(expected, DfaEquivalence.isIncluded(dfa(smaller), dfa(larger)));
+    }
+
+    @Test
+    public void testEquivalenceIsInclusionBothWays() {
+        String[] patterns = {"a+", "aa*", "a*", "(a|b)*", "(a|b)*abb", "[ab]*abb", "b*a"};
+        for (String first : patterns) {
+            for (String second : patterns) {
+                DFA a = dfa(first);
+                DFA b = dfa(second);
+                assertEquals(DfaEquivalence.isIncluded(a, b) && DfaEquivalence.isIncluded(b, a),
+                        DfaEquivalence.areEquivalent(a, b), first + " vs " + second);
+            }
+        }
+    }
+
+    @Test
+    public void testStoreSharesEquivalentAutomata() {
+        PatternStore store = new PatternStore(new ConcurrentCompiler(), 100);
+        CompiledPattern digits = store.get("[0-9]+");
+        assertSame(digits, store.get("[0-9][0-9]*"));
+        assertSame(digits, store.get("([0-4]|[5-9])+"));
+        assertSame(digits, store.get("[0-9]+"));
+        CompiledPattern optional = store.get("[0-9]*");
+        assertNotSame(digits, optional);
+        assertTrue(optional.matches(""));
+        assertEquals(4, store.size());
+        assertEquals(2, store.getAutomatonCount());
+
+        store.clear();
+        assertEquals(0, store.size());
+        assertNotSame(digits, store.get("[0-9]+"));
+    }
+
+    @Test
+    public void testStoreCapacityAndLazyPatterns() {
+        CompileBudget tiny = new CompileBudget(4, Long.MAX_VALUE, Long.MAX_VALUE);
+        PatternStore store = new PatternStore(new ConcurrentCompiler(ForkJoinPool.commonPool(), false, tiny), 3);
+        CompiledPattern lazy = store.get("(a|b)*a(a|b)(a|b)(a|b)");
+        assertTrue(lazy instanceof LazyDfa);
+        assertSame(lazy, store.get("(a|b)*a(a|b)(a|b)(a|b)"));
+        CompiledPattern a = store.get("a");
+        store.get("b");
+        assertEquals(3, store.size());
+        assertEquals(3, store.getAutomatonCount());
+        // Full: equivalent patterns still share the stored automaton, new languages are not kept.
+        assertSame(a, store.get("(a)"));
+        assertTrue(store.get("c").matches("c"));
+        assertEquals(3, store.size());
+        assertEquals(3, store.getAutomatonCount());
+    }
+}
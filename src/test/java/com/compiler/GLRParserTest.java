@@ -0,0 +1,98 @@
+package com.compiler;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.Token;
+import com.compiler.parser.lr.ForestNode;
+import com.compiler.parser.lr.GLRParser;
+import com.compiler.parser.lr.LALR1Parser;
+import com.compiler.parser.lr.LALR1Table;
+
+public class GLRParserTest {
+    @Test
+    public void testAmbiguousExpressionsShareOneForest() {
+        LALR1Table table = ParserFixtures.lalrTable("E -> E + E | id");
+        assertFalse(table.getConflicts().isEmpty());
+        GLRParser parser = new GLRParser(table);
+
+        ForestNode root = parser.parse(ParserFixtures.tokens("id + id + id"));
+        assertNotNull(root);
+        assertEquals("E", root.getSymbol().name);
+        assertEquals(0, root.getStart());
+        assertEquals(5, root.getEnd());
+        assertTrue(root.isAmbiguous());
+        assertEquals(2, root.countTrees());
+        // Catalan numbers: 5 and 14 ways to bracket four and five operands.
+        assertEquals(5, parser.parse(ParserFixtures.tokens("id + id + id + id")).countTrees());
+        assertEquals(14, parser.parse(ParserFixtures.tokens("id + id + id + id + id")).countTrees());
+
+        assertNull(parser.parse(ParserFixtures.tokens("id + + id")));
+        assertEquals(2, parser.getErrorIndex());
+        assertNull(parser.parse(ParserFixtures.tokens("id + id +")));
+        assertEquals(4, parser.getErrorIndex());
+    }
+
+    @Test
+    public void testDanglingElse() {
+        GLRParser parser = new GLRParser(ParserFixtures.lalrTable("S -> if S | if S else S | a"));
+        assertEquals(1, parser.parse(ParserFixtures.tokens("if a else a")).countTrees());
+        assertEquals(2, parser.parse(ParserFixtures.tokens("if if a else a")).countTrees());
+        assertFalse(parser.recognize(ParserFixtures.tokens("if a else else a")));
+    }
+
+    @Test
+    public void testEmptyProductions() {
+        GLRParser parser = new GLRParser(ParserFixtures.lalrTable("S -> A S b | x\nA -> ε | a"));
+        assertTrue(parser.recognize(ParserFixtures.tokens("x")));
+        assertTrue(parser.recognize(ParserFixtures.tokens("x b b")));
+        assertTrue(parser.recognize(ParserFixtures.tokens("a x b b")));
+        assertFalse(parser.recognize(ParserFixtures.tokens("x b x")));
+        assertEquals(1, parser.parse(ParserFixtures.tokens("a a x b b")).countTrees());
+    }
+
+    @Test
+    public void testDeterministicGrammarMatchesLALR1() {
+        LALR1Table table = ParserFixtures.lalrTable(ParserFixtures.EXPRESSIONS);
+        assertTrue(table.getConflicts().isEmpty());
+        GLRParser glr = new GLRParser(table);
+        LALR1Parser lalr = new LALR1Parser(table);
+        String[] pieces = {"id", "+", "*", "(", ")"};
+        Random random = new Random(3);
+        for (int round = 0; round < 300; round++) {
+            StringBuilder input = new StringBuilder();
+            int length = 1 + random.nextInt(12);
+            for (int i = 0; i < length; i++) {
+                input.append(pieces[random.nextInt(pieces.length)]).append(' ');
+            }
+            List<Token> tokens = ParserFixtures.tokens(input.toString());
+            ForestNode root = glr.parse(tokens);
+            assertEquals(lalr.parse(tokens), root != null, input.toString());
+            assertEquals(0, glr.getSplitLevelCount());
+            if (root != null) {
+                assertEquals(1, root.countTrees());
+            }
+        }
+    }
+
+    @Test
+    public void testConflictFreeRegionsStayDeterministic() {
+        GLRParser parser = new GLRParser(ParserFixtures.lalrTable("S -> S ; E | E\nE -> E + E | id"));
+        StringBuilder input = new StringBuilder("id");
+        for (int i = 0; i < 500; i++) {
+            input.append(" ; id");
+        }
+        input.append(" ; id + id + id");
+        ForestNode root = parser.parse(ParserFixtures.tokens(input.toString()));
+        assertNotNull(root);
+        assertEquals(2, root.countTrees());
+        assertTrue(parser.getSplitLevelCount() <= 3, "split levels " + parser.getSplitLevelCount());
+    }
+}
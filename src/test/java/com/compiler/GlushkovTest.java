@@ -0,0 +1,79 @@
+package com.compiler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.NfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.nfa.CompactNfa;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.nfa.Transition;
+import com.compiler.lexer.regex.GlushkovBuilder;
+import com.compiler.lexer.regex.RegexParser;
+
+public class GlushkovTest {
+    private static Set<State> reachable(NFA nfa) {
+        Set<State> seen = new HashSet<>();
+        Deque<State> stack = new ArrayDeque<>();
+        stack.push(nfa.startState);
+        seen.add(nfa.startState);
+        while (!stack.isEmpty()) {
+            for (Transition t : stack.pop().transitions) {
+                assertFalse(t.isEpsilon(), "epsilon transition in position automaton");
+                if (seen.add(t.toState)) {
+                    stack.push(t.toState);
+                }
+            }
+        }
+        return seen;
+    }
+
+    @Test
+    public void testOneStatePerPosition() {
+        GlushkovBuilder builder = new GlushkovBuilder();
+        assertEquals(4, reachable(builder.parse("a(b|c)*")).size());
+        assertEquals(7, reachable(builder.parse("(a|b)*abb[0-9]+")).size());
+        assertEquals(5, reachable(builder.parse("x{2,4}")).size());
+        NFA nfa = builder.parse("a?");
+        assertTrue(nfa.epsilonFree);
+        assertNull(nfa.endState);
+        assertTrue(nfa.startState.isFinal);
+    }
+
+    @Test
+    public void testAgreesWithThompsonConstruction() {
+        Random random = new Random(11);
+        GlushkovBuilder glushkov = new GlushkovBuilder();
+        RegexParser thompson = new RegexParser();
+        NfaSimulator nfaSimulator = new NfaSimulator();
+        DfaSimulator dfaSimulator = new DfaSimulator();
+        for (int round = 0; round < 200; round++) {
+            String regex = RandomRegex.regex(random, RandomRegex.ATOMS, RandomRegex.OPS, 3);
+            NFA positions = glushkov.parse(regex);
+            assertTrue(positions.epsilonFree, regex);
+            // Fails on any epsilon transition.
+            reachable(positions);
+            CompactNfa reference = CompactNfa.of(thompson.parse(regex));
+            CompactNfa frozen = CompactNfa.of(positions);
+            DFA dfa = NfaToDfaConverter.convertNfaToDfa(positions);
+            for (int probe = 0; probe < 30; probe++) {
+                String input = RandomRegex.input(random);
+                boolean expected = nfaSimulator.simulate(reference, input);
+                assertEquals(expected, nfaSimulator.simulate(frozen, input), regex + " / " + input);
+                assertEquals(expected, dfaSimulator.simulate(dfa, input), regex + " / " + input);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.compiler;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.grammar.Production;
+import com.compiler.parser.ll.LL1Parser;
+import com.compiler.parser.ll.LL1Table;
+import com.compiler.parser.lr.GLRParser;
+import com.compiler.parser.syntax.StaticAnalyzer;
+import com.compiler.parser.transform.GrammarTransformer;
+import com.compiler.parser.transform.TransformReport;
+
+public class GrammarTransformerTest {
+    private static GLRParser glr(Grammar grammar) {
+        return new GLRParser(ParserFixtures.lalrTable(grammar));
+    }
+
+    private static String randomInput(Random random, String[] pieces) {
+        StringBuilder input = new StringBuilder();
+        int length = random.nextInt(9);
+        for (int i = 0; i < length; i++) {
+            input.append(pieces[random.nextInt(pieces.length)]).append(' ');
+        }
+        return input.toString();
+    }
+
+    private static boolean hasLeftRecursion(Grammar grammar) {
+        for (Production production : grammar.getProductions()) {
+            if (!production.right.isEmpty() && production.right.get(0).equals(production.left)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testExpressionGrammarBecomesLL1() {
+        Grammar original = new Grammar(ParserFixtures.EXPRESSIONS);
+        GrammarTransformer transformer = new GrammarTransformer(original);
+        Grammar transformed = transformer.transform();
+
+        TransformReport report = transformer.getReport();
+        assertFalse(report.getBefore().isLL1());
+        assertTrue(report.getAfter().isLL1(), transformed.toString());
+        assertEquals(5, report.getAfter().nonTerminals);
+        assertEquals(8, report.getAfter().productions);
+
+        LL1Table table = new LL1Table(new StaticAnalyzer(transformed));
+        table.build();
+        LL1Parser ll = new LL1Parser(table);
+        GLRParser reference = glr(original);
+        Random random = new Random(17);
+        String[] pieces = {"id", "+", "*", "(", ")"};
+        for (int round = 0; round < 300; round++) {
+            String input = randomInput(random, pieces);
+            assertEquals(reference.recognize(ParserFixtures.tokens(input)), ll.parse(ParserFixtures.tokens(input)), input);
+        }
+    }
+
+    @Test
+    public void testIndirectLeftRecursion() {
+        Grammar original = new Grammar("S -> A a | b\nA -> A c | S d | ε");
+        Grammar transformed = GrammarTransformer.eliminateLeftRecursion(original);
+        assertFalse(hasLeftRecursion(transformed), transformed.toString());
+        assertEquals("S", transformed.getStartSymbol().name);
+
+        GLRParser before = glr(original);
+        GLRParser after = glr(transformed);
+        Random random = new Random(23);
+        String[] pieces = {"a", "b", "c", "d"};
+        for (int round = 0; round < 300; round++) {
+            String input = randomInput(random, pieces);
+            assertEquals(before.recognize(ParserFixtures.tokens(input)), after.recognize(ParserFixtures.tokens(input)), input);
+        }
+    }
+
+    @Test
+    public void testLeftFactoring() {
+        Grammar transformed = new GrammarTransformer(new Grammar("S -> a b c | a b d | a | e")).transform();
+        assertEquals("S -> a S' | e\nS' -> b S'' | ε\nS'' -> c | d\n", transformed.toString());
+    }
+
+    @Test
+    public void testUselessSymbolsAreRemoved() {
+        Grammar reduced = GrammarTransformer.removeUselessSymbols(new Grammar("S -> a | A\nA -> A b\nB -> c"));
+        assertEquals("S -> a\n", reduced.toString());
+        assertThrows(IllegalArgumentException.class,
+                () -> GrammarTransformer.removeUselessSymbols(new Grammar("S -> S a")));
+    }
+}
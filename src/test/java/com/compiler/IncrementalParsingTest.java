@@ -0,0 +1,116 @@
+package com.compiler;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.IncrementalLexer;
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.Token;
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.lr.IncrementalParser;
+import com.compiler.parser.lr.LALR1Parser;
+import com.compiler.parser.lr.LALR1Table;
+import com.compiler.parser.lr.LRAutomaton;
+
+public class IncrementalParsingTest {
+    private static final String STATEMENTS = "L -> L S | S\nS -> id = E ;\nE -> E - id | id";
+
+    private static Lexer lexer() {
+        Lexer lexer = new Lexer();
+        lexer.addRule("id", "(a|b|c|x|y|z)+");
+        lexer.addRule("=", "=");
+        lexer.addRule(";", ";");
+        lexer.addRule("-", "-");
+        lexer.addIgnoredRule("ws", "( |\n)+");
+        lexer.build();
+        return lexer;
+    }
+
+    private static LALR1Table table() {
+        LRAutomaton automaton = new LRAutomaton(new Grammar(STATEMENTS));
+        automaton.build();
+        LALR1Table table = new LALR1Table(automaton);
+        table.build();
+        return table;
+    }
+
+    @Test
+    public void testLexerMaximalMunch() {
+        List<Token> tokens = lexer().tokenize("abc = x - yz;\n!");
+        assertEquals(7, tokens.size());
+        assertEquals("id", tokens.get(0).type);
+        assertEquals("abc", tokens.get(0).lexeme);
+        assertEquals(6, tokens.get(2).offset);
+        assertEquals(Lexer.ERROR, tokens.get(6).type);
+    }
+
+    @Test
+    public void testIncrementalLexerMatchesFullScan() {
+        Lexer lexer = lexer();
+        IncrementalLexer incremental = new IncrementalLexer(lexer);
+        StringBuilder text = new StringBuilder("ab = c;\nx = y - z;\n");
+        incremental.reset(text.toString());
+        Random random = new Random(42);
+        String[] pieces = {"a", "b", " ", "\n", "=", ";", "-", "zz", "", "x y"};
+        for (int round = 0; round < 500; round++) {
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(Math.min(3, text.length() - offset) + 1);
+            String inserted = pieces[random.nextInt(pieces.length)];
+            text.replace(offset, offset + removed, inserted);
+            incremental.applyEdit(offset, removed, inserted);
+
+            List<Token> expected = lexer.tokenize(text.toString());
+            List<Token> actual = incremental.getTokens();
+            assertEquals(expected.size(), actual.size(), "round " + round + ": '" + text + "'");
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).type, actual.get(i).type);
+                assertEquals(expected.get(i).lexeme, actual.get(i).lexeme);
+                assertEquals(expected.get(i).offset, actual.get(i).offset);
+            }
+        }
+    }
+
+    @Test
+    public void testIncrementalParserMatchesFullParse() {
+        Lexer lexer = lexer();
+        LALR1Table table = table();
+        LALR1Parser full = new LALR1Parser(table);
+        IncrementalParser parser = new IncrementalParser(table, lexer);
+        StringBuilder text = new StringBuilder("a = b;\nc = x - y;\n");
+        assertTrue(parser.parse(text.toString()));
+        Random random = new Random(7);
+        String[] pieces = {"a", " ", "=", ";", "-", "b = c;", "", "\n"};
+        for (int round = 0; round < 500; round++) {
+            int offset = random.nextInt(text.length() + 1);
+            int removed = random.nextInt(Math.min(2, text.length() - offset) + 1);
+            String inserted = pieces[random.nextInt(pieces.length)];
+            text.replace(offset, offset + removed, inserted);
+            boolean expected = full.parse(lexer.tokenize(text.toString()));
+            assertEquals(expected, parser.edit(offset, removed, inserted), "round " + round + ": '" + text + "'");
+        }
+    }
+
+    @Test
+    public void testEditReparsesOnlyTheAffectedRegion() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("a = b - c;\n");
+        }
+        IncrementalParser parser = new IncrementalParser(table(), lexer());
+        assertTrue(parser.parse(text.toString()));
+
+        int offset = 1000 * 11 + 4;
+        assertTrue(parser.edit(offset, 1, "xyz"));
+        assertTrue(parser.getLastRelexedCount() <= 2, "relexed " + parser.getLastRelexedCount());
+        assertTrue(parser.getLastReparsedCount() <= 6, "reparsed " + parser.getLastReparsedCount());
+
+        assertFalse(parser.edit(offset, 3, ";"));
+        assertTrue(parser.edit(offset, 1, "b"));
+        assertTrue(parser.getLastReparsedCount() <= 6, "reparsed " + parser.getLastReparsedCount());
+    }
+}
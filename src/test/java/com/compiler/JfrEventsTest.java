@@ -0,0 +1,139 @@
+package com.compiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.DfaMinimizer;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.regex.RegexParser;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JfrEventsTest {
+    private static final String[] EVENTS = {
+        "com.compiler.RegexAstEvent", "com.compiler.RegexParseEvent", "com.compiler.DeterminizeEvent",
+        "com.compiler.MinimizeEvent", "com.compiler.StaticAnalysisEvent", "com.compiler.LrAutomatonEvent",
+        "com.compiler.LalrTableEvent",
+    };
+
+    private static void runPipeline() {
+        NFA nfa = new RegexParser().parse("(a|b)*abb");
+        DFA dfa = NfaToDfaConverter.convertNfaToDfa(nfa);
+        DfaMinimizer.minimizeDfa(dfa, null);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            NfaToDfaConverter.convertNfaToDfa(nfa, pool);
+        } finally {
+            pool.shutdown();
+        }
+        ParserFixtures.lalrTable(ParserFixtures.EXPRESSIONS);
+    }
+
+    private static List<RecordedEvent> record() throws IOException {
+        Path file = Files.createTempFile("pipeline", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                for (String event : EVENTS) {
+                    recording.enable(event).withoutThreshold();
+                }
+                recording.start();
+                runPipeline();
+                recording.stop();
+                recording.dump(file);
+            }
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (event.getEventType().getName().startsWith("com.compiler.")) {
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                matching.add(event);
+            }
+        }
+        return matching;
+    }
+
+    @Test
+    public void testEveryStageIsRecorded() throws IOException {
+        List<RecordedEvent> events = record();
+        for (String name : EVENTS) {
+            List<RecordedEvent> matching = ofType(events, name);
+            assertFalse(matching.isEmpty(), "No " + name);
+            for (RecordedEvent event : matching) {
+                assertTrue(event.getLong("inputSize") > 0, name);
+                assertTrue(event.getLong("outputSize") > 0, name);
+                assertTrue(event.getLong("allocatedBytes") >= -1, name);
+                assertFalse(event.getDuration().isNegative(), name);
+            }
+        }
+    }
+
+    @Test
+    public void testSizes() throws IOException {
+        List<RecordedEvent> events = record();
+        // (a|b)*abb: the textbook subset construction yields 5 states, 4 once minimized.
+        List<RecordedEvent> determinize = ofType(events, "com.compiler.DeterminizeEvent");
+        assertEquals(2, determinize.size());
+        for (RecordedEvent event : determinize) {
+            assertEquals(5, event.getLong("outputSize"));
+        }
+        RecordedEvent minimize = ofType(events, "com.compiler.MinimizeEvent").get(0);
+        assertEquals(5, minimize.getLong("inputSize"));
+        assertEquals(4, minimize.getLong("outputSize"));
+        assertEquals(9, ofType(events, "com.compiler.RegexParseEvent").get(0).getLong("inputSize"));
+        // Nine tokens; a|b becomes the class [ab], so the tree is a concatenation of [ab]*, a, b, b.
+        RecordedEvent tree = ofType(events, "com.compiler.RegexAstEvent").get(0);
+        assertEquals(9, tree.getLong("inputSize"));
+        assertEquals(6, tree.getLong("outputSize"));
+        // The expression grammar has 6 productions and 12 LR(0) states.
+        RecordedEvent automaton = ofType(events, "com.compiler.LrAutomatonEvent").get(0);
+        assertEquals(6, automaton.getLong("inputSize"));
+        assertEquals(12, automaton.getLong("outputSize"));
+        assertEquals(12, ofType(events, "com.compiler.LalrTableEvent").get(0).getLong("inputSize"));
+        assertEquals("FIRST", ofType(events, "com.compiler.StaticAnalysisEvent").get(0).getString("sets"));
+    }
+
+    @Test
+    public void testNothingRecordedWhenDisabled() throws IOException {
+        Path file = Files.createTempFile("pipeline", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                for (String event : EVENTS) {
+                    recording.disable(event);
+                }
+                recording.start();
+                runPipeline();
+                recording.stop();
+                recording.dump(file);
+            }
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                assertFalse(event.getEventType().getName().startsWith("com.compiler."));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.compiler;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.NfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.LazyDfa;
+import com.compiler.lexer.regex.RegexParser;
+import com.compiler.metrics.Histogram;
+import com.compiler.metrics.HistogramSummary;
+import com.compiler.metrics.MetricsReporter;
+import com.compiler.metrics.MetricsRegistry;
+import com.compiler.parser.lr.LALR1Parser;
+
+public class MetricsTest {
+    private static LALR1Parser expressionParser() {
+        return new LALR1Parser(ParserFixtures.lalrTable(ParserFixtures.EXPRESSIONS));
+    }
+
+    @Test
+    public void testHistogramQuantiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000.5, histogram.getMean(), 1e-9);
+        // Buckets are at most 1/32 of their values wide.
+        for (double quantile : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            long expected = (long) (quantile * 100_000);
+            long actual = histogram.getValueAtQuantile(quantile);
+            assertTrue(actual >= expected && actual <= expected * 33 / 32, quantile + ": " + actual);
+        }
+        assertEquals(100_000, histogram.getValueAtQuantile(1));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtQuantile(1.5));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtQuantile(0.5));
+    }
+
+    @Test
+    public void testHistogramExactBelow64AndExtremes() {
+        Histogram histogram = new Histogram();
+        histogram.record(7);
+        histogram.record(-5);
+        assertEquals(0, histogram.getValueAtQuantile(0.5));
+        assertEquals(7, histogram.getValueAtQuantile(1));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtQuantile(1));
+    }
+
+    @Test
+    public void testHistogramConcurrentRecording() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(i % 1000);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(999, histogram.getMax());
+    }
+
+    @Test
+    public void testLexerCounters() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Lexer lexer = new Lexer();
+        lexer.addRule("id", "[a-z]+");
+        lexer.addIgnoredRule("ws", " +");
+        lexer.build();
+        lexer.setMetrics(registry);
+        assertEquals(2, lexer.tokenize("ab cd").size());
+        assertEquals(2, lexer.tokenize("xy z".getBytes(StandardCharsets.UTF_8)).size());
+        Map<String, Long> counters = registry.getCounters();
+        assertEquals(6, counters.get(MetricsRegistry.LEXER_TOKENS));
+        assertEquals(5, counters.get(MetricsRegistry.LEXER_CHARS));
+        assertEquals(4, counters.get(MetricsRegistry.LEXER_BYTES));
+        // Every char is read at least once; look-ahead past the end of a token is counted too.
+        assertTrue(counters.get(MetricsRegistry.DFA_TRANSITIONS) >= 5 + 4);
+
+        lexer.setMetrics(null);
+        lexer.tokenize("more input");
+        assertEquals(6, registry.counter(MetricsRegistry.LEXER_TOKENS).sum());
+    }
+
+    @Test
+    public void testSimulatorCounters() {
+        MetricsRegistry registry = new MetricsRegistry();
+        DfaSimulator dfaSimulator = new DfaSimulator();
+        dfaSimulator.setMetrics(registry);
+        NfaSimulator nfaSimulator = new NfaSimulator();
+        nfaSimulator.setMetrics(registry);
+        RegexParser parser = new RegexParser();
+        assertTrue(dfaSimulator.simulate(NfaToDfaConverter.convertNfaToDfa(parser.parse("(a|b)*abb")), "aabb"));
+        assertFalse(dfaSimulator.simulate(NfaToDfaConverter.convertNfaToDfa(parser.parse("ab")), "ba"));
+        assertTrue(nfaSimulator.simulate(parser.parse("a*"), "aaa"));
+        assertEquals(5, registry.counter(MetricsRegistry.DFA_TRANSITIONS).sum());
+        assertEquals(3, registry.counter(MetricsRegistry.NFA_STEPS).sum());
+    }
+
+    @Test
+    public void testLazyDfaCacheHitRate() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LazyDfa dfa = new LazyDfa(new RegexParser().parse("(a|b)*abb"), 100, null, registry);
+        assertTrue(dfa.matches("abb"));
+        assertEquals(3, registry.counter(MetricsRegistry.MATCHER_CACHE_MISSES).sum());
+        for (int i = 0; i < 9; i++) {
+            assertTrue(dfa.matches("abb"));
+        }
+        assertEquals(27, registry.counter(MetricsRegistry.MATCHER_CACHE_HITS).sum());
+        assertEquals(30, registry.counter(MetricsRegistry.DFA_TRANSITIONS).sum());
+        assertEquals(0.9, registry.getMatcherCacheHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testParserMetricsAndReporter() {
+        MetricsRegistry registry = new MetricsRegistry();
+        LALR1Parser parser = expressionParser();
+        parser.setMetrics(registry, "expr");
+        assertTrue(parser.parse(ParserFixtures.tokens("id + id * id")));
+        assertFalse(parser.parse(ParserFixtures.tokens("id + * id")));
+        int errors = parser.parseWithRecovery(ParserFixtures.tokens("id + * id ) id")).getErrors().size();
+        assertTrue(errors > 0);
+
+        Map<String, Long> counters = new TreeMap<>();
+        Map<String, HistogramSummary> histograms = new TreeMap<>();
+        registry.report(new MetricsReporter() {
+            @Override
+            public void counter(String name, long value, double ratePerSecond) {
+                counters.put(name, value);
+                assertTrue(ratePerSecond >= 0);
+            }
+
+            @Override
+            public void histogram(String name, HistogramSummary summary) {
+                histograms.put(name, summary);
+            }
+        });
+        assertEquals(3, counters.get("parser.expr.parses"));
+        assertEquals(1 + errors, counters.get("parser.expr.errors"));
+        HistogramSummary latency = histograms.get("parser.expr.latency");
+        assertEquals(3, latency.getCount());
+        assertTrue(latency.getP50() <= latency.getP99() && latency.getP99() <= latency.getMax());
+
+        registry.reset();
+        assertEquals(0, registry.getCounters().get("parser.expr.parses"));
+        assertEquals(0, registry.getHistograms().get("parser.expr.latency").getCount());
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        ObjectName name = registry.registerMBean("com.compiler.test:type=Metrics");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            assertThrows(IllegalStateException.class, () -> registry.registerMBean("com.compiler.test:type=Metrics"));
+            LALR1Parser parser = expressionParser();
+            parser.setMetrics(registry, "expr");
+            parser.parse(ParserFixtures.tokens("id * id"));
+
+            TabularData counters = (TabularData) server.getAttribute(name, "Counters");
+            CompositeData parses = counters.get(new Object[] {"parser.expr.parses"});
+            assertEquals(1L, parses.get("value"));
+            TabularData histograms = (TabularData) server.getAttribute(name, "Histograms");
+            CompositeData latency = (CompositeData) histograms.get(new Object[] {"parser.expr.latency"}).get("value");
+            assertEquals(1, HistogramSummary.from(latency).getCount());
+            assertEquals(0.0, (Double) server.getAttribute(name, "MatcherCacheHitRate"));
+
+            server.invoke(name, "reset", null, null);
+            assertEquals(0, registry.counter("parser.expr.parses").sum());
+        } finally {
+            server.unregisterMBean(name);
+        }
+        assertThrows(IllegalArgumentException.class, () -> registry.registerMBean("no colon"));
+    }
+}
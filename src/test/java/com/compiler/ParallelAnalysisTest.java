@@ -0,0 +1,85 @@
+package com.compiler;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.grammar.Symbol;
+import com.compiler.parser.lr.LRAutomaton;
+import com.compiler.parser.syntax.StaticAnalyzer;
+
+public class ParallelAnalysisTest {
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    /**
+     * Generates a random grammar with cycles, ε-productions and unreachable parts.
+     */
+    static String randomGrammar(Random random, int nonTerminals, int terminals) {
+        StringBuilder grammar = new StringBuilder();
+        for (int a = 0; a < nonTerminals; a++) {
+            grammar.append('N').append(a).append(" ->");
+            int alternatives = 1 + random.nextInt(3);
+            for (int alt = 0; alt < alternatives; alt++) {
+                if (alt > 0) {
+                    grammar.append(" |");
+                }
+                int length = random.nextInt(4);
+                if (length == 0) {
+                    grammar.append(" ε");
+                }
+                for (int i = 0; i < length; i++) {
+                    if (random.nextInt(3) == 0) {
+                        grammar.append(" t").append(random.nextInt(terminals));
+                    } else {
+                        grammar.append(" N").append(random.nextInt(nonTerminals));
+                    }
+                }
+            }
+            grammar.append('\n');
+        }
+        return grammar.toString();
+    }
+
+    @Test
+    public void testParallelFirstAndFollowMatchSequential() {
+        Random random = new Random(11);
+        for (int round = 0; round < 30; round++) {
+            Grammar grammar = new Grammar(randomGrammar(random, 5 + random.nextInt(60), 1 + random.nextInt(8)));
+            StaticAnalyzer sequential = new StaticAnalyzer(grammar);
+            StaticAnalyzer parallel = new StaticAnalyzer(grammar, POOL);
+            Map<Symbol, Set<Symbol>> first = sequential.getFirstSets();
+            assertEquals(first, parallel.getFirstSets(), "round " + round);
+            assertEquals(sequential.getFollowSets(), parallel.getFollowSets(), "round " + round);
+        }
+    }
+
+    @Test
+    public void testParallelAutomatonMatchesSequential() {
+        Random random = new Random(5);
+        for (int round = 0; round < 10; round++) {
+            Grammar grammar = new Grammar(randomGrammar(random, 5 + random.nextInt(30), 1 + random.nextInt(6)));
+            LRAutomaton sequential = new LRAutomaton(grammar);
+            sequential.build();
+            LRAutomaton parallel = new LRAutomaton(grammar);
+            parallel.build(POOL);
+            assertEquals(sequential.getStates().size(), parallel.getStates().size());
+            for (int state = 0; state < sequential.getStates().size(); state++) {
+                // Items refer to each automaton's own augmented production, so compare them as text.
+                assertEquals(sequential.getKernel(state).toString(), parallel.getKernel(state).toString());
+                assertEquals(sequential.getStates().get(state).toString(), parallel.getStates().get(state).toString());
+                assertEquals(sequential.getTransitions(state), parallel.getTransitions(state));
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.compiler;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.compiler.lexer.CompileBudget;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.dfa.DfaState;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.regex.GlushkovBuilder;
+import com.compiler.lexer.regex.RegexParser;
+
+public class ParallelSubsetTest {
+    private static final String RULES;
+
+    static {
+        StringBuilder rules = new StringBuilder("[a-zA-Z_][a-zA-Z0-9_]*|[0-9]+(\\.[0-9]+)?|(a|b)*a(a|b){6}");
+        for (int i = 0; i < 200; i++) {
+            rules.append("|kw").append(Integer.toString(i * 7919, 36)).append("[0-9]*");
+        }
+        RULES = rules.toString();
+    }
+
+    /**
+     * Describes every state of a DFA by id, finality and transitions, in id order.
+     */
+    private static String describe(DFA dfa) {
+        StringBuilder sb = new StringBuilder("start " + dfa.startState.id + "\n");
+        for (DfaState state : dfa.allStates) {
+            sb.append(state.id).append(state.isFinal() ? " final" : "").append(':');
+            for (int i = 0; i < state.getIntervalCount(); i++) {
+                sb.append(' ').append(state.getIntervalLow(i)).append('-').append(state.getIntervalHigh(i))
+                        .append("->").append(state.getIntervalTarget(i).id);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 4, 7})
+    public void testSameDfaAsSequential(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (NFA nfa : new NFA[] {new RegexParser().parse(RULES), new GlushkovBuilder().parse("(a|b)*a(a|b){8}")}) {
+                DFA sequential = NfaToDfaConverter.convertNfaToDfa(nfa);
+                DFA parallel = NfaToDfaConverter.convertNfaToDfa(nfa, pool);
+                assertEquals(sequential.allStates.size(), parallel.allStates.size());
+                assertEquals(describe(sequential), describe(parallel));
+                for (int i = 0; i < sequential.allStates.size(); i++) {
+                    assertEquals(sequential.allStates.get(i).getNfaStates(), parallel.allStates.get(i).getNfaStates());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    public void testBudgetExceeded(int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            NFA explosive = new RegexParser().parse("(a|b)*a(a|b){20}");
+            IllegalStateException states = assertThrows(IllegalStateException.class,
+                    () -> NfaToDfaConverter.convertNfaToDfa(explosive, pool, CompileBudget.DEFAULT));
+            assertTrue(states.getMessage().contains("state budget"), states.getMessage());
+            NFA nfa = new RegexParser().parse("(a|b)*a(a|b){10}");
+            IllegalStateException memory = assertThrows(IllegalStateException.class, () -> NfaToDfaConverter
+                    .convertNfaToDfa(nfa, pool, new CompileBudget(Integer.MAX_VALUE, 10_000, Long.MAX_VALUE)));
+            assertTrue(memory.getMessage().contains("memory budget"), memory.getMessage());
+            // The last level alone crosses a limit of 2048 states.
+            assertThrows(IllegalStateException.class, () -> NfaToDfaConverter
+                    .convertNfaToDfa(nfa, pool, new CompileBudget(2048, Long.MAX_VALUE, Long.MAX_VALUE)));
+            assertEquals(2049, NfaToDfaConverter.convertNfaToDfa(nfa, pool, CompileBudget.DEFAULT).allStates.size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
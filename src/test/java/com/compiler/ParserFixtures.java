@@ -0,0 +1,57 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.compiler.lexer.Token;
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.lr.LALR1Table;
+import com.compiler.parser.lr.LRAutomaton;
+
+/**
+ * Grammars, token streams and parse tables shared by the parser, driver and daemon tests.
+ */
+final class ParserFixtures {
+    /** The left-recursive expression grammar over {@code + * ( ) id}. */
+    static final String EXPRESSIONS = "E -> E + T | T\nT -> T * F | F\nF -> ( E ) | id";
+
+    private ParserFixtures() {
+    }
+
+    /**
+     * Returns a token stream whose token types are the whitespace-separated words of a string.
+     * @param input The token types, separated by whitespace.
+     * @return The tokens.
+     */
+    static List<Token> tokens(String input) {
+        List<Token> tokens = new ArrayList<>();
+        for (String type : input.trim().split("\\s+")) {
+            if (!type.isEmpty()) {
+                tokens.add(new Token(type));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Builds the LALR(1) table of a grammar, conflicts included.
+     * @param grammar The grammar.
+     * @return The built table.
+     */
+    static LALR1Table lalrTable(Grammar grammar) {
+        LRAutomaton automaton = new LRAutomaton(grammar);
+        automaton.build();
+        LALR1Table table = new LALR1Table(automaton);
+        table.build();
+        return table;
+    }
+
+    /**
+     * Builds the LALR(1) table of a grammar definition, conflicts included.
+     * @param grammarDef The grammar definition.
+     * @return The built table.
+     */
+    static LALR1Table lalrTable(String grammarDef) {
+        return lalrTable(new Grammar(grammarDef));
+    }
+}
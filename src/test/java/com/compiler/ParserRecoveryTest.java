@@ -0,0 +1,95 @@
+package com.compiler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.parser.ParseResult;
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.ll.LL1Parser;
+import com.compiler.parser.ll.LL1Table;
+import com.compiler.parser.lr.LALR1Parser;
+import com.compiler.parser.lr.LALR1Table;
+import com.compiler.parser.syntax.StaticAnalyzer;
+
+public class ParserRecoveryTest {
+    private static final String LL_EXPRESSIONS =
+            "E -> T E'\nE' -> + T E' | ε\nT -> F T'\nT' -> * F T' | ε\nF -> ( E ) | id";
+    private static final String LR_STATEMENTS =
+            "L -> L S | S\nS -> id = E ; | error ;\nE -> E + id | id";
+
+    private static LL1Parser llParser(String grammarDef) {
+        LL1Table table = new LL1Table(new StaticAnalyzer(new Grammar(grammarDef)));
+        table.build();
+        assertTrue(table.isLL1(), "Grammar should be LL(1): " + table.getConflicts());
+        return new LL1Parser(table);
+    }
+
+    private static LALR1Parser lalrParser(String grammarDef) {
+        LALR1Table table = ParserFixtures.lalrTable(grammarDef);
+        assertTrue(table.getConflicts().isEmpty(), "Grammar should be LALR(1): " + table.getConflicts());
+        return new LALR1Parser(table);
+    }
+
+    @Test
+    public void testLL1AcceptsAndRejects() {
+        LL1Parser parser = llParser(LL_EXPRESSIONS);
+        assertTrue(parser.parse(ParserFixtures.tokens("id + id * id")));
+        assertTrue(parser.parse(ParserFixtures.tokens("( id + id ) * id")));
+        assertFalse(parser.parse(ParserFixtures.tokens("id + * id")));
+        assertFalse(parser.parse(ParserFixtures.tokens("( id")));
+    }
+
+    @Test
+    public void testLL1ReportsEveryError() {
+        LL1Parser parser = llParser(LL_EXPRESSIONS);
+        ParseResult ok = parser.parseWithRecovery(ParserFixtures.tokens("id * ( id + id )"));
+        assertTrue(ok.isAccepted());
+        assertTrue(ok.getErrors().isEmpty());
+
+        ParseResult result = parser.parseWithRecovery(ParserFixtures.tokens("id + * id * ( id + ) + id id"));
+        assertFalse(result.isAccepted());
+        assertEquals(3, result.getErrors().size(), result.getErrors().toString());
+        assertEquals(2, result.getErrors().get(0).tokenIndex);
+        assertEquals(8, result.getErrors().get(1).tokenIndex);
+        assertEquals(11, result.getErrors().get(2).tokenIndex);
+    }
+
+    @Test
+    public void testLALR1AcceptsAndRejects() {
+        LALR1Parser parser = lalrParser(ParserFixtures.EXPRESSIONS);
+        assertTrue(parser.parse(ParserFixtures.tokens("id + id * id")));
+        assertTrue(parser.parse(ParserFixtures.tokens("( id + id ) * id")));
+        assertFalse(parser.parse(ParserFixtures.tokens("id + * id")));
+        assertFalse(parser.parse(ParserFixtures.tokens("( id")));
+    }
+
+    @Test
+    public void testLALR1HandlesNonSLRGrammar() {
+        LALR1Parser parser = lalrParser("S -> L = R | R\nL -> * R | id\nR -> L");
+        assertTrue(parser.parse(ParserFixtures.tokens("* id = id")));
+        assertTrue(parser.parse(ParserFixtures.tokens("id")));
+        assertFalse(parser.parse(ParserFixtures.tokens("id = = id")));
+    }
+
+    @Test
+    public void testLALR1RecoversWithErrorProductions() {
+        LALR1Parser parser = lalrParser(LR_STATEMENTS);
+        assertTrue(parser.parseWithRecovery(ParserFixtures.tokens("id = id ; id = id + id ;")).isAccepted());
+
+        ParseResult result = parser.parseWithRecovery(ParserFixtures.tokens("id = id ; id = + ; id = id id ; id = id ;"));
+        assertFalse(result.isAccepted());
+        assertEquals(2, result.getErrors().size(), result.getErrors().toString());
+        assertEquals(6, result.getErrors().get(0).tokenIndex);
+        assertEquals(11, result.getErrors().get(1).tokenIndex);
+    }
+
+    @Test
+    public void testLALR1WithoutErrorProductionsSkipsTokens() {
+        LALR1Parser parser = lalrParser(ParserFixtures.EXPRESSIONS);
+        ParseResult result = parser.parseWithRecovery(ParserFixtures.tokens("id + + id"));
+        assertFalse(result.isAccepted());
+        assertEquals(1, result.getErrors().size());
+    }
+}
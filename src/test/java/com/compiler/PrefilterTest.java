@@ -0,0 +1,91 @@
+package com.compiler;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.compiler.lexer.nfa.IntervalSet;
+import com.compiler.lexer.regex.RegexParser;
+import com.compiler.lexer.search.Match;
+import com.compiler.lexer.search.Prefilter;
+import com.compiler.lexer.search.RegexSet;
+
+public class PrefilterTest {
+    @ParameterizedTest
+    @CsvSource(value = {
+        "ERROR [0-9]+;'ERROR '",
+        "ab|ac;a",
+        "(foo|bar)x;''",
+        "abc*;ab",
+        "x(yz)+;xyz",
+        "[ab]c;''",
+        "a*[^\\s\\S];''"
+    }, delimiter = ';')
+    public void testLiteralPrefix(String regex, String prefix) {
+        assertEquals(prefix, Prefilter.of(new RegexParser().parse(regex)).getLiteralPrefix());
+    }
+
+    @Test
+    public void testStartSet() {
+        Prefilter prefilter = Prefilter.of(new RegexParser().parse("(foo|bar)x"));
+        assertEquals(IntervalSet.ofRanges('b', 'b', 'f', 'f'), prefilter.getStartSet());
+        assertEquals(4, prefilter.next("zzzzbarx", 0));
+        assertEquals(8, prefilter.next("zzzzbarx", 5));
+        assertFalse(Prefilter.of(new RegexParser().parse("a*")).isActive());
+        assertFalse(Prefilter.of(new RegexParser().parse("[^a]b")).isActive());
+    }
+
+    @Test
+    public void testNextOnCharSequence() {
+        Prefilter prefilter = Prefilter.of(new RegexParser().parse("ERROR [0-9]+"));
+        String text = "INFO ok\nERROR E1\nERROR 42\n";
+        assertEquals(8, prefilter.next(text, 0));
+        assertEquals(17, prefilter.next(text, 9));
+        assertEquals(17, prefilter.next(new StringBuilder(text), 9));
+        assertEquals(text.length(), prefilter.next(new StringBuilder(text), text.length() - 3));
+    }
+
+    @Test
+    public void testSupplementaryStart() {
+        Prefilter prefilter = Prefilter.of(new RegexParser().parse("[😀-😎]x|yx"));
+        String text = "aaa😃xbb";
+        assertEquals(3, prefilter.next(text, 0));
+    }
+
+    @Test
+    public void testRegexSetSameMatches() {
+        Random random = new Random(11);
+        String[] levels = {"INFO", "DEBUG", "WARN", "ERROR"};
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            log.append(levels[random.nextInt(levels.length)]).append(" request ").append(random.nextInt(100000))
+                    .append(" took ").append(random.nextInt(500)).append("ms\n");
+        }
+        String[][] patternSets = {
+            {"ERROR request [0-9]+"},
+            {"WARN", "ERROR request 9[0-9]*"},
+            {"took 4[0-9][0-9]ms", "took 49"},
+            {"[0-9]+ms"}
+        };
+        for (String[] patterns : patternSets) {
+            RegexSet set = new RegexSet();
+            for (String pattern : patterns) {
+                set.add(pattern);
+            }
+            set.build();
+            assertTrue(set.getPrefilter().isActive());
+            set.setPrefilterEnabled(false);
+            String text = log.toString();
+            List<Match> expected = set.findAll(text);
+            set.setPrefilterEnabled(true);
+            assertEquals(expected, set.findAll(text));
+            assertEquals(expected, set.findAll(new StringBuilder(text)));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.compiler;
+
+import java.util.Random;
+
+/**
+ * Random regular expressions and inputs for the tests that check an automaton construction against
+ * a reference construction.
+ */
+final class RandomRegex {
+    /** Atoms covering literals, classes, negated classes and the empty group. */
+    static final String[] ATOMS = {"a", "b", "[ab]", "[^a]", "()"};
+    /** Postfix operators; the empty string twice makes plain atoms more frequent. */
+    static final String[] OPS = {"", "", "*", "+", "?", "{1,2}", "{2,}"};
+    /** No postfix operators, for atoms that already carry their own. */
+    static final String[] NO_OPS = {""};
+
+    private RandomRegex() {
+    }
+
+    /**
+     * Returns a random regular expression of concatenations and alternations.
+     * @param random The source of randomness.
+     * @param atoms The leaves.
+     * @param ops The postfix operators applied to leaves and groups.
+     * @param depth The maximum nesting depth.
+     * @return The regular expression.
+     */
+    static String regex(Random random, String[] atoms, String[] ops, int depth) {
+        if (depth == 0 || random.nextInt(3) == 0) {
+            return atoms[random.nextInt(atoms.length)] + ops[random.nextInt(ops.length)];
+        }
+        String left = regex(random, atoms, ops, depth - 1);
+        String right = regex(random, atoms, ops, depth - 1);
+        String combined = random.nextBoolean() ? left + right : left + "|" + right;
+        return "(" + combined + ")" + ops[random.nextInt(ops.length)];
+    }
+
+    /**
+     * Returns a random input of up to five chars over {a, b, c}.
+     * @param random The source of randomness.
+     * @return The input.
+     */
+    static String input(Random random) {
+        return input(random, "abc", 5);
+    }
+
+    /**
+     * Returns a random input of up to a given length.
+     * @param random The source of randomness.
+     * @param alphabet The chars to draw from.
+     * @param maxLength The maximum length.
+     * @return The input.
+     */
+    static String input(Random random, String alphabet, int maxLength) {
+        return text(random, alphabet, random.nextInt(maxLength + 1));
+    }
+
+    /**
+     * Returns a random text of a given length, for the tests that search inside it.
+     * @param random The source of randomness.
+     * @param alphabet The chars to draw from.
+     * @param length The length.
+     * @return The text.
+     */
+    static String text(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
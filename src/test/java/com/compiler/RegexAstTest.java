@@ -0,0 +1,122 @@
+package com.compiler;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.nfa.State;
+import com.compiler.lexer.nfa.Transition;
+import com.compiler.lexer.regex.RegexAstParser;
+import com.compiler.lexer.regex.RegexNode;
+import com.compiler.lexer.regex.RegexParser;
+
+public class RegexAstTest {
+    private static int countStates(NFA nfa) {
+        Map<State, Boolean> seen = new IdentityHashMap<>();
+        Deque<State> pending = new ArrayDeque<>();
+        seen.put(nfa.startState, true);
+        pending.push(nfa.startState);
+        while (!pending.isEmpty()) {
+            for (Transition t : pending.pop().transitions) {
+                if (seen.put(t.toState, true) == null) {
+                    pending.push(t.toState);
+                }
+            }
+        }
+        return seen.size();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "if|int|in           ; (?:i(?:f|(?:nt?)))",
+        "a**                 ; a*",
+        "(a+)*               ; a*",
+        "(a*)?               ; a*",
+        "a|a                 ; a",
+        "x|y|z               ; [x-z]",
+        "ab|a                ; (?:ab?)",
+        "a|                  ; a?",
+        "a{0,}b{1,1}c{0,1}   ; (?:a*bc?)",
+    })
+    public void testSimplifiedTree(String regex, String tree) {
+        assertEquals(tree, new RegexAstParser().parse(regex, false).toString());
+    }
+
+    @Test
+    public void testCaptureIsBarrier() {
+        RegexNode node = new RegexAstParser().parse("(a)|(a)", true);
+        assertEquals(RegexNode.Kind.UNION, node.kind);
+        assertEquals("(?:(a)|(a))", node.toString());
+    }
+
+    @Test
+    public void testHashConsing() {
+        RegexAstParser parser = new RegexAstParser(false);
+        RegexNode node = parser.parse("(ab)*c|(ab)*d", false);
+        RegexNode left = node.children.get(0).children.get(0);
+        RegexNode right = node.children.get(1).children.get(0);
+        assertSame(left, right);
+        assertSame(left, parser.parse("(ab)*", false));
+    }
+
+    @Test
+    public void testMalformed() {
+        RegexAstParser parser = new RegexAstParser();
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("(a", false));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("a)", false));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("*a", false));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "if|int|in|for|float",
+        "a**b",
+        "(x|y|z)+",
+        "(ab|ab|ac)*",
+    })
+    public void testSmallerNfa(String regex) {
+        int simplified = countStates(new RegexParser().parse(regex));
+        int plain = countStates(new RegexParser(false).parse(regex));
+        assertTrue(simplified < plain, regex + ": " + simplified + " >= " + plain);
+    }
+
+    @Test
+    public void testSameLanguage() {
+        Random random = new Random(41);
+        String[] pieces = {"a", "b", "ab", "(a|b)", "(ab|a)", "a*", "(a|ab)+", "b?", "(a|a)", "(b|ab){1,2}"};
+        DfaSimulator simulator = new DfaSimulator();
+        for (int round = 0; round < 200; round++) {
+            String regex = RandomRegex.regex(random, pieces, RandomRegex.OPS, 2);
+            DFA simplified = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse(regex));
+            DFA plain = NfaToDfaConverter.convertNfaToDfa(new RegexParser(false).parse(regex));
+            for (int k = 0; k < 20; k++) {
+                String input = RandomRegex.input(random, "ab", 5);
+                assertEquals(simulator.simulate(plain, input), simulator.simulate(simplified, input),
+                        regex + " on " + input);
+            }
+        }
+    }
+
+    @Test
+    public void testCapturesUnchanged() {
+        String regex = "(a|ab)(c|bcd)(d*)|(a|a)b";
+        assertArrayEquals(
+                NfaToDfaConverter.convertTaggedNfaToDfa(new RegexParser(false).parseWithCaptures(regex)).match("abcd"),
+                NfaToDfaConverter.convertTaggedNfaToDfa(new RegexParser().parseWithCaptures(regex)).match("abcd"));
+    }
+}
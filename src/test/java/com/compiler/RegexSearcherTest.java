@@ -0,0 +1,115 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.CompileBudget;
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.regex.RegexParser;
+import com.compiler.lexer.search.Match;
+import com.compiler.lexer.search.RegexSearcher;
+
+public class RegexSearcherTest {
+    /**
+     * Leftmost-longest match by trying every start and every end.
+     */
+    private static Match bruteForce(DFA dfa, String text, int from) {
+        DfaSimulator simulator = new DfaSimulator();
+        for (int start = from; start <= text.length(); start++) {
+            for (int end = text.length(); end >= start; end--) {
+                if (simulator.simulate(dfa, text.substring(start, end))) {
+                    return new Match(0, start, end);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Match> bruteForceAll(DFA dfa, String text) {
+        List<Match> matches = new ArrayList<>();
+        int position = 0;
+        while (position <= text.length()) {
+            Match match = bruteForce(dfa, text, position);
+            if (match == null) {
+                break;
+            }
+            matches.add(match);
+            position = match.end > match.start ? match.end : match.end + 1;
+        }
+        return matches;
+    }
+
+    @Test
+    public void testFind() {
+        RegexSearcher searcher = new RegexSearcher("[0-9]+(\\.[0-9]+)?");
+        assertEquals(new Match(0, 6, 10), searcher.find("pi is 3.14", 0));
+        assertEquals(new Match(0, 9, 10), searcher.find("pi is 3.14", 9));
+        assertNull(searcher.find("no digits", 0));
+        assertEquals(List.of(new Match(0, 0, 1), new Match(0, 3, 5), new Match(0, 10, 13)),
+                searcher.findAll("1, 22 and 333"));
+        assertThrows(IndexOutOfBoundsException.class, () -> searcher.find("abc", 4));
+    }
+
+    @Test
+    public void testLeftmostBeatsEarliestEnd() {
+        // "c" ends first, but "abcd" starts first.
+        assertEquals(new Match(0, 0, 4), new RegexSearcher("abcd|c").find("abcd", 0));
+        // Longest among the matches that start leftmost.
+        assertEquals(new Match(0, 1, 7), new RegexSearcher("ab|abab(ab)?").find("xababab", 0));
+        assertEquals(new Match(0, 1, 5), new RegexSearcher("ab|abab(ab)?").find("xababa", 0));
+    }
+
+    @Test
+    public void testEmptyMatches() {
+        RegexSearcher searcher = new RegexSearcher("a*");
+        assertEquals(List.of(new Match(0, 0, 0), new Match(0, 1, 4), new Match(0, 4, 4)), searcher.findAll("baaa"));
+        assertEquals(List.of(new Match(0, 0, 0), new Match(0, 2, 2)), searcher.findAll("😀"));
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(8);
+        String[] pieces = {"a", "b", "ab", "(a|b)", "[ab]c", "a*", "b+", "(ab|ba)", "c?", "(a|bc)*"};
+        for (int round = 0; round < 150; round++) {
+            String regex = RandomRegex.regex(random, pieces, RandomRegex.OPS, 2);
+            String text = RandomRegex.text(random, "abcd", 14);
+            DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse(regex));
+            RegexSearcher searcher = new RegexSearcher(regex);
+            assertEquals(bruteForceAll(dfa, text), searcher.findAll(text), regex + " on " + text);
+            int from = random.nextInt(text.length() + 1);
+            assertEquals(bruteForce(dfa, text, from), searcher.find(text, from), regex + " on " + text);
+        }
+    }
+
+    @Test
+    public void testLongTextStaysLinear() {
+        RegexSearcher searcher = new RegexSearcher("ERROR [0-9]+");
+        String text = "INFO all good\n".repeat(50_000) + "ERROR 42\n";
+        assertEquals(List.of(new Match(0, text.length() - 9, text.length() - 1)), searcher.findAll(text));
+        assertTrue(searcher.getCachedStateCount() < 20);
+    }
+
+    @Test
+    public void testBoundedCache() {
+        String regex = "(a|b)*a(a|b){5}";
+        RegexSearcher bounded = new RegexSearcher(regex, new CompileBudget(16, Long.MAX_VALUE, Long.MAX_VALUE));
+        RegexSearcher unbounded = new RegexSearcher(regex);
+        Random random = new Random(38);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("ab ".charAt(random.nextInt(3)));
+        }
+        assertEquals(unbounded.findAll(text), bounded.findAll(text));
+        assertTrue(unbounded.getCachedStateCount() > 16);
+        assertEquals(16, bounded.getCachedStateCount());
+    }
+}
@@ -0,0 +1,141 @@
+package com.compiler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.regex.RegexParser;
+import com.compiler.lexer.search.AhoCorasick;
+import com.compiler.lexer.search.Match;
+import com.compiler.lexer.search.RegexSet;
+
+public class RegexSetTest {
+    private static List<Match> bruteForce(List<String> patterns, String text) {
+        DfaSimulator simulator = new DfaSimulator();
+        List<DFA> dfas = new ArrayList<>();
+        for (String pattern : patterns) {
+            dfas.add(NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse(pattern)));
+        }
+        List<Match> matches = new ArrayList<>();
+        for (int end = 1; end <= text.length(); end++) {
+            for (int id = 0; id < patterns.size(); id++) {
+                for (int start = 0; start < end; start++) {
+                    if (simulator.simulate(dfas.get(id), text.substring(start, end))) {
+                        matches.add(new Match(id, start, end));
+                        break;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(4);
+        String[] pieces = {"a", "b", "ab", "ba", "[ab]", "a+", "b*a", "(ab|ba)", "c"};
+        for (int round = 0; round < 40; round++) {
+            List<String> patterns = new ArrayList<>();
+            RegexSet set = new RegexSet();
+            int count = 1 + random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                String pattern = RandomRegex.regex(random, pieces, RandomRegex.OPS, 1);
+                patterns.add(pattern);
+                assertEquals(i, set.add(pattern));
+            }
+            set.build();
+            String text = RandomRegex.text(random, "abc", 25);
+            assertEquals(bruteForce(patterns, text), set.findAll(text), patterns + " on " + text);
+        }
+    }
+
+    @Test
+    public void testLogScan() {
+        RegexSet set = new RegexSet();
+        int error = set.add("ERROR");
+        int code = set.add("E[0-9]{3}");
+        int ip = set.add("[0-9]+\\.[0-9]+\\.[0-9]+\\.[0-9]+");
+        int never = set.add("PANIC");
+        set.build();
+        String log = "10.0.0.1 ERROR E042 café";
+        List<Match> matches = set.findAll(log);
+        assertTrue(matches.contains(new Match(error, 9, 14)));
+        assertTrue(matches.contains(new Match(code, 15, 19)));
+        assertTrue(matches.contains(new Match(ip, 0, 8)));
+        assertEquals(false, set.matchingPatterns(log).get(never));
+        assertEquals(3, set.matchingPatterns(log).cardinality());
+    }
+
+    @Test
+    public void testLongMatchesShareReverseScans() {
+        RegexSet set = new RegexSet();
+        int word = set.add("[a-z]+");
+        set.add("(aa)+");
+        set.build();
+        String text = "a".repeat(100_000);
+        List<Match> matches = set.findAll(text);
+        assertEquals(199_999, matches.size());
+        for (Match match : matches) {
+            // (aa)+ ends everywhere but at 1, starting at 0 or, for an odd end, at 1.
+            assertEquals(match.patternId == word ? 0 : match.end % 2, match.start);
+        }
+    }
+
+    private static RegexSet logPatterns() {
+        RegexSet set = new RegexSet();
+        set.add("E[0-9]{3}");
+        set.add("[0-9]+\\.[0-9]+");
+        set.add("ERROR");
+        set.build();
+        return set;
+    }
+
+    @Test
+    public void testConcurrentSearches() {
+        String log = "ERROR E042 at 10.5, E7 E123 and 3.14 ".repeat(50);
+        List<Match> expected = logPatterns().findAll(log);
+        // Reverse DFAs are compiled lazily, by whichever thread needs them first.
+        RegexSet set = logPatterns();
+        IntStream.range(0, 64).parallel().forEach(i -> assertEquals(expected, set.findAll(log)));
+    }
+
+    @Test
+    public void testManyLiterals() {
+        RegexSet set = new RegexSet();
+        for (int i = 0; i < 2000; i++) {
+            set.add("token" + i + ";");
+        }
+        set.add("x[0-9]+y");
+        set.build();
+        List<Match> matches = set.findAll("a token17; b token1999; x42y token20000;");
+        assertEquals(List.of(new Match(17, 2, 10), new Match(1999, 13, 23), new Match(2000, 24, 28)), matches);
+    }
+
+    @Test
+    public void testAhoCorasickOverlaps() {
+        AhoCorasick ac = new AhoCorasick();
+        ac.add("he", 0);
+        ac.add("she", 1);
+        ac.add("his", 2);
+        ac.add("hers", 3);
+        ac.build();
+        List<String> found = new ArrayList<>();
+        int state = 0;
+        String text = "ushers";
+        for (int i = 0; i < text.length(); i++) {
+            state = ac.next(state, text.charAt(i));
+            for (int id : ac.getOutputs(state)) {
+                found.add(id + "@" + (i + 1));
+            }
+        }
+        assertEquals(List.of("1@4", "0@4", "3@6"), found);
+    }
+}
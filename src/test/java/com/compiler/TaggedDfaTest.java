@@ -0,0 +1,91 @@
+package com.compiler;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.CompileBudget;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.TaggedDfa;
+import com.compiler.lexer.regex.RegexParser;
+
+public class TaggedDfaTest {
+    private static TaggedDfa compile(String regex) {
+        return NfaToDfaConverter.convertTaggedNfaToDfa(new RegexParser().parseWithCaptures(regex));
+    }
+
+    /**
+     * Groups of a whole-input match by java.util.regex, in the layout of {@link TaggedDfa#match}.
+     */
+    private static int[] expected(String regex, String input) {
+        Matcher matcher = Pattern.compile(regex).matcher(input);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int[] groups = new int[2 * (matcher.groupCount() + 1)];
+        for (int g = 0; g <= matcher.groupCount(); g++) {
+            groups[2 * g] = matcher.start(g);
+            groups[2 * g + 1] = matcher.end(g);
+        }
+        return groups;
+    }
+
+    @Test
+    public void testGroups() {
+        TaggedDfa tdfa = compile("([a-z]+)@([a-z]+)(\\.com)?");
+        assertEquals(3, tdfa.getGroupCount());
+        assertArrayEquals(new int[] {0, 11, 0, 3, 4, 11, -1, -1}, tdfa.match("joe@example"));
+        assertArrayEquals(new int[] {0, 15, 0, 3, 4, 11, 11, 15}, tdfa.match("joe@example.com"));
+        assertNull(tdfa.match("joe@"));
+    }
+
+    @Test
+    public void testNonCapturingGroup() {
+        TaggedDfa tdfa = compile("(?:ab)+(c)");
+        assertEquals(1, tdfa.getGroupCount());
+        assertArrayEquals(new int[] {0, 5, 4, 5}, tdfa.match("ababc"));
+    }
+
+    @Test
+    public void testGreedyAndLastIteration() {
+        assertArrayEquals(expected("(a*)(a*)", "aaa"), compile("(a*)(a*)").match("aaa"));
+        assertArrayEquals(expected("(a|ab)(c|bcd)(d*)", "abcd"), compile("(a|ab)(c|bcd)(d*)").match("abcd"));
+        assertArrayEquals(expected("((a)|b)+", "aab"), compile("((a)|b)+").match("aab"));
+        assertArrayEquals(expected("(ab){2,3}", "ababab"), compile("(ab){2,3}").match("ababab"));
+    }
+
+    @Test
+    public void testMatchesJavaRegex() {
+        Random random = new Random(21);
+        String[] pieces = {"a", "b", "(a)", "(b+)", "(a|b)", "(ab|a)", "(a*)", "(?:ab)?", "(b|ab)*", "([ab]c?)"};
+        for (int round = 0; round < 300; round++) {
+            String regex = RandomRegex.regex(random, pieces, RandomRegex.NO_OPS, 2);
+            TaggedDfa tdfa = compile(regex);
+            for (int k = 0; k < 10; k++) {
+                String input = RandomRegex.input(random, "abc", 6);
+                assertArrayEquals(expected(regex, input), tdfa.match(input), regex + " on " + input);
+            }
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        String regex = "(((ba?){1,3}[a-c]{1,3})?|([a-c]([a-c]{2,}[^a]{2,}){2}))+";
+        CompileBudget budget = new CompileBudget(2_000, Long.MAX_VALUE, Long.MAX_VALUE);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> NfaToDfaConverter.convertTaggedNfaToDfa(new RegexParser().parseWithCaptures(regex), budget));
+        assertTrue(e.getMessage().contains("capture groups") && e.getMessage().contains("state budget"), e.getMessage());
+
+        // Tags that every path to acceptance sets again hold no register, saving 2 of the 8 states.
+        TaggedDfa tdfa = compile("((a|b)*c)+");
+        assertEquals(6, tdfa.getStateCount());
+        assertArrayEquals(expected("((a|b)*c)+", "abcbc"), tdfa.match("abcbc"));
+    }
+}
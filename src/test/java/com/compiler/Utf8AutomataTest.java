@@ -0,0 +1,141 @@
+package com.compiler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.Token;
+import com.compiler.lexer.Utf8Compiler;
+import com.compiler.lexer.dfa.ByteDfa;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.nfa.IntervalSet;
+import com.compiler.lexer.nfa.Utf8Sequences;
+import com.compiler.lexer.regex.RegexParser;
+
+public class Utf8AutomataTest {
+    private static boolean matchesSequence(List<IntervalSet[]> sequences, byte[] encoded) {
+        int found = 0;
+        for (IntervalSet[] sequence : sequences) {
+            if (sequence.length != encoded.length) {
+                continue;
+            }
+            boolean all = true;
+            for (int i = 0; i < sequence.length; i++) {
+                all &= sequence[i].contains(encoded[i] & 0xFF);
+            }
+            if (all) {
+                found++;
+            }
+        }
+        assertTrue(found <= 1, "sequences overlap");
+        return found == 1;
+    }
+
+    @Test
+    public void testSequencesCoverExactlyTheSet() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int[] bounds = new int[4];
+            for (int i = 0; i < bounds.length; i += 2) {
+                int low = random.nextInt(round % 2 == 0 ? 0x1000 : Character.MAX_CODE_POINT);
+                bounds[i] = low;
+                bounds[i + 1] = Math.min(Character.MAX_CODE_POINT, low + random.nextInt(0x20000));
+            }
+            IntervalSet set = IntervalSet.ofRanges(bounds);
+            List<IntervalSet[]> sequences = Utf8Sequences.of(set);
+            for (int probe = 0; probe < 300; probe++) {
+                int cp = random.nextBoolean() ? random.nextInt(Character.MAX_CODE_POINT + 1)
+                        : set.getLow(0) + random.nextInt(3) - 1;
+                if (cp < 0 || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+                    continue;
+                }
+                byte[] encoded = new String(Character.toChars(cp)).getBytes(StandardCharsets.UTF_8);
+                assertEquals(set.contains(cp), matchesSequence(sequences, encoded), "code point " + cp);
+            }
+        }
+        assertEquals(1, Utf8Sequences.of(IntervalSet.range('a', 'z')).size());
+        assertEquals(2, Utf8Sequences.of(IntervalSet.range(0xE0, 0x17F)).size());
+    }
+
+    @Test
+    public void testByteDfaAgreesWithCharacterDfa() {
+        String[] regexes = {"[a-zà-ÿ]+", "[^a]*b", "\\u{1F600}|é{2,3}", "[α-ω]+[0-9]?", "[^\\u{0}-\\u{7F}]"};
+        String[] inputs = {"déjà", "abc", "xyzb", "😀", "éé", "ééé", "αβγ9", "ω", "é", "a", "", "b"};
+        DfaSimulator simulator = new DfaSimulator();
+        for (String regex : regexes) {
+            DFA dfa = NfaToDfaConverter.convertNfaToDfa(new RegexParser().parse(regex));
+            ByteDfa bytes = Utf8Compiler.compile(regex);
+            for (String input : inputs) {
+                byte[] encoded = input.getBytes(StandardCharsets.UTF_8);
+                assertEquals(simulator.simulate(dfa, input), bytes.matches(encoded), regex + " / " + input);
+                assertEquals(bytes.matches(encoded), bytes.matches(ByteBuffer.wrap(encoded)));
+            }
+        }
+        ByteDfa any = Utf8Compiler.compile("[^a]");
+        assertFalse(any.matches(new byte[] {(byte) 0xC3}));
+        assertFalse(any.matches(new byte[] {(byte) 0xED, (byte) 0xA0, (byte) 0x80}), "encoded surrogate");
+    }
+
+    @Test
+    public void testLexerTokenizesBytes() {
+        Lexer lexer = new Lexer();
+        lexer.addRule("word", "[a-zà-ÿα-ω]+");
+        lexer.addRule("num", "[0-9]+");
+        lexer.addIgnoredRule("ws", "[ \\n]+");
+        lexer.build();
+        String text = "café 42 αβ\nnaïve x";
+        List<Token> fromString = lexer.tokenize(text);
+        List<Token> fromBytes = lexer.tokenize(text.getBytes(StandardCharsets.UTF_8));
+        assertEquals(fromString.size(), fromBytes.size());
+        for (int i = 0; i < fromString.size(); i++) {
+            assertEquals(fromString.get(i).type, fromBytes.get(i).type);
+            assertEquals(fromString.get(i).lexeme, fromBytes.get(i).lexeme);
+        }
+        assertEquals(6, fromBytes.get(1).offset);
+
+        List<Token> invalid = lexer.tokenize(new byte[] {'a', (byte) 0xFF, 'b'});
+        assertEquals(3, invalid.size());
+        assertEquals(Lexer.ERROR, invalid.get(1).type);
+    }
+
+    @Test
+    public void testConcurrentFirstByteScan() throws Exception {
+        Lexer lexer = new Lexer();
+        lexer.addRule("word", "[a-zà-ÿα-ω]+");
+        lexer.addIgnoredRule("ws", "[ \\n]+");
+        lexer.build();
+        byte[] input = "café αβ naïve".getBytes(StandardCharsets.UTF_8);
+        int threads = 8;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    barrier.await();
+                    return lexer.tokenize(input).stream().map(t -> t.lexeme).collect(Collectors.joining("|"));
+                }));
+            }
+            for (Future<String> result : results) {
+                assertEquals("café|αβ|naïve", result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.compiler.bench;
+
+import com.compiler.lexer.Lexer;
+
+/**
+ * Compares tokenization with and without acceleration of self-looping DFA states on inputs made of
+ * long string literals and long comments.
+ * Run with {@code java -cp target/classes:target/test-classes com.compiler.bench.AccelerationBenchmark}.
+ */
+public class AccelerationBenchmark {
+    public static void main(String[] args) {
+        int bodyLength = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Lexer lexer = new Lexer();
+        lexer.addRule("string", "\"([^\"\\\\]|\\\\.)*\"");
+        lexer.addIgnoredRule("block", "/\\*([^*]|\\*+[^*/])*\\*+/");
+        lexer.addIgnoredRule("line", "//[^\\n]*");
+        lexer.addRule("id", "[a-zA-Z_][a-zA-Z0-9_]*");
+        lexer.addRule("op", "[=;(){}]");
+        lexer.addIgnoredRule("ws", "[ \\t\\n]+");
+        lexer.build();
+
+        String body = "lorem ipsum dolor sit amet, consectetur adipiscing elit ".repeat(bodyLength / 56 + 1)
+                .substring(0, bodyLength);
+        String strings = ("s = \"" + body + "\";\n").repeat(500);
+        String comments = ("/* " + body + " */\n// " + body + "\nx = y;\n").repeat(500);
+
+        for (int run = 0; run < 5; run++) {
+            report(lexer, "string literals", strings);
+            report(lexer, "comments", comments);
+        }
+    }
+
+    private static void report(Lexer lexer, String name, String input) {
+        lexer.setAccelerationEnabled(false);
+        long start = System.nanoTime();
+        int plain = lexer.tokenize(input).size();
+        long plainTime = System.nanoTime() - start;
+        lexer.setAccelerationEnabled(true);
+        start = System.nanoTime();
+        int accelerated = lexer.tokenize(input).size();
+        long acceleratedTime = System.nanoTime() - start;
+        if (plain != accelerated) {
+            throw new IllegalStateException("Acceleration changed the tokens of " + name);
+        }
+        System.out.printf("%-16s %8d chars, %5d tokens, stepped %7.2f ms (%6.1f MB/s), accelerated %7.2f ms (%6.1f MB/s)%n",
+                name, input.length(), accelerated, plainTime / 1e6, input.length() * 1e3 / plainTime,
+                acceleratedTime / 1e6, input.length() * 1e3 / acceleratedTime);
+    }
+}
@@ -0,0 +1,74 @@
+package com.compiler.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.compiler.lexer.BatchMatcher;
+import com.compiler.lexer.DfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.dfa.DFA;
+import com.compiler.lexer.regex.RegexParser;
+
+/**
+ * Validates a batch of short codes one at a time with {@link DfaSimulator}, with the interleaved
+ * {@link BatchMatcher} on one thread, and with the fork-join split, and reports strings per second.
+ * Run with {@code java -cp target/classes:target/test-classes com.compiler.bench.BatchMatchBenchmark}.
+ */
+public class BatchMatchBenchmark {
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        DFA dfa = NfaToDfaConverter.convertNfaToDfa(
+                new RegexParser().parse("[A-Z]{2}[0-9]{2}[A-Z0-9]{4}([0-9]{7}([A-Z0-9]{1,16})?)?"));
+        Random random = new Random(2);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Mostly valid codes, some with a corrupted character.
+            StringBuilder code = new StringBuilder();
+            code.append((char) ('A' + random.nextInt(26))).append((char) ('A' + random.nextInt(26)));
+            code.append(random.nextInt(10)).append(random.nextInt(10));
+            int length = 8 + random.nextInt(24);
+            for (int k = 4; k < length; k++) {
+                code.append(k < 8 || k >= 15 ? alphabet.charAt(random.nextInt(alphabet.length()))
+                        : (char) ('0' + random.nextInt(10)));
+            }
+            if (random.nextInt(10) == 0) {
+                code.setCharAt(random.nextInt(code.length()), '-');
+            }
+            inputs.add(code.toString());
+        }
+        DfaSimulator simulator = new DfaSimulator();
+        BatchMatcher matcher = new BatchMatcher(dfa);
+        System.out.printf("%d inputs, %d character classes, %d processors%n", count, matcher.getClassCount(),
+                Runtime.getRuntime().availableProcessors());
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            int accepted = 0;
+            for (String input : inputs) {
+                if (simulator.simulate(dfa, input)) {
+                    accepted++;
+                }
+            }
+            long simulateTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            boolean[] sequential = matcher.matchAllSequential(inputs);
+            long sequentialTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            boolean[] parallel = matcher.matchAll(inputs);
+            long parallelTime = System.nanoTime() - start;
+            int batchAccepted = 0;
+            for (int i = 0; i < count; i++) {
+                if (sequential[i] != parallel[i]) {
+                    throw new IllegalStateException("Sequential and parallel results differ at " + i);
+                }
+                batchAccepted += sequential[i] ? 1 : 0;
+            }
+            if (batchAccepted != accepted) {
+                throw new IllegalStateException("Batch and simulator disagree");
+            }
+            System.out.printf("simulate %6.2f M/s, interleaved %6.2f M/s, fork-join %6.2f M/s (%d accepted)%n",
+                    count * 1e3 / simulateTime, count * 1e3 / sequentialTime, count * 1e3 / parallelTime, accepted);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.compiler.bench;
+
+import com.compiler.lexer.NfaSimulator;
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.nfa.CompactNfa;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.regex.RegexParser;
+
+/**
+ * Measures the heap used by a large Thompson NFA as an object graph and as a {@link CompactNfa}, and
+ * the time of simulation and subset construction.
+ * Run with {@code java -cp target/classes:target/test-classes com.compiler.bench.CompactNfaBenchmark}.
+ */
+public class CompactNfaBenchmark {
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) {
+        int keywords = args.length > 0 ? Integer.parseInt(args[0]) : 12000;
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < keywords; i++) {
+            if (i > 0) {
+                regex.append('|');
+            }
+            regex.append("kw").append(Integer.toString(i * 7919, 36)).append("[_a-z]*");
+        }
+        RegexParser parser = new RegexParser(false);
+
+        long base = usedMemory();
+        NFA nfa = parser.parse(regex.toString());
+        long graphBytes = usedMemory() - base;
+        CompactNfa compact = CompactNfa.of(nfa);
+        nfa = null;
+        long compactBytes = usedMemory() - base;
+        System.out.printf("%d NFA states: object graph %.1f MB, compact %.1f MB%n", compact.getStateCount(),
+                graphBytes / 1e6, compactBytes / 1e6);
+
+        nfa = parser.parse(regex.toString());
+        NfaSimulator simulator = new NfaSimulator();
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            boolean accepted = false;
+            for (int i = 0; i < 20; i++) {
+                accepted |= simulator.simulate(compact, "kw" + Integer.toString(i * 7919, 36) + "_abc");
+            }
+            long simulateTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            int dfaStates = NfaToDfaConverter.convertNfaToDfa(nfa).allStates.size();
+            long convertTime = System.nanoTime() - start;
+            System.out.printf("simulate %.2f ms/input (%b), subset construction %.1f ms (%d DFA states)%n",
+                    simulateTime / 1e6 / 20, accepted, convertTime / 1e6, dfaStates);
+        }
+    }
+}
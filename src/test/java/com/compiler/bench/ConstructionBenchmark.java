@@ -0,0 +1,46 @@
+package com.compiler.bench;
+
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.regex.GlushkovBuilder;
+import com.compiler.lexer.regex.RegexParser;
+
+/**
+ * Compares determinization time of Thompson NFAs and Glushkov position automata.
+ * Run with {@code java -cp target/classes:target/test-classes com.compiler.bench.ConstructionBenchmark}.
+ */
+public class ConstructionBenchmark {
+    private static final String[] REGEXES = {
+        "[a-zA-Z_][a-zA-Z0-9_]*|[0-9]+(\\.[0-9]+)?([eE][+-]?[0-9]+)?|\"([^\"\\\\]|\\\\.)*\"|[ \\t\\n]+",
+        "(a|b)*a(a|b){12}",
+        "(if|then|else|while|do|for|return|break|continue|switch|case|default)[ ]*\\(",
+        "((ab|cd)*(ef|gh)+(ij)?){3,6}",
+    };
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        RegexParser thompson = new RegexParser();
+        GlushkovBuilder glushkov = new GlushkovBuilder();
+        for (int run = 0; run < 5; run++) {
+            for (String regex : REGEXES) {
+                NFA thompsonNfa = thompson.parse(regex);
+                NFA positionNfa = glushkov.parse(regex);
+                long start = System.nanoTime();
+                int thompsonStates = 0;
+                for (int i = 0; i < iterations; i++) {
+                    thompsonStates = NfaToDfaConverter.convertNfaToDfa(thompsonNfa).allStates.size();
+                }
+                long thompsonTime = System.nanoTime() - start;
+                start = System.nanoTime();
+                int positionStates = 0;
+                for (int i = 0; i < iterations; i++) {
+                    positionStates = NfaToDfaConverter.convertNfaToDfa(positionNfa).allStates.size();
+                }
+                long positionTime = System.nanoTime() - start;
+                System.out.printf("%-40.40s Thompson %7.2f ms (%d DFA states), Glushkov %7.2f ms (%d DFA states)%n",
+                        regex, thompsonTime / 1e6 / iterations, thompsonStates,
+                        positionTime / 1e6 / iterations, positionStates);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.compiler.bench;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import com.compiler.driver.CompileClient;
+import com.compiler.driver.CompileDaemon;
+import com.compiler.metrics.Histogram;
+import com.compiler.metrics.HistogramSummary;
+
+/**
+ * Load test of the compile daemon: 1, 4 and 16 concurrent clients, each on its own connection, send
+ * parse requests for a small expression as fast as they can, and the client-side round-trip latency
+ * is reported as p50, p99 and max together with the request rate. The first round at each level is a
+ * warm-up and is not reported.
+ * Run with {@code java -cp target/classes:target/test-classes com.compiler.bench.DaemonLoadBenchmark}.
+ */
+public class DaemonLoadBenchmark {
+    private static final String SPEC = "id [a-z]+\n+ \\+\n* \\*\n( \\(\n) \\)\nignore ws [ ]+\n";
+    private static final String GRAMMAR = "E -> E + T | T\nT -> T * F | F\nF -> ( E ) | id";
+    private static final String INPUT = "a + b * ( c + d ) * e";
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        try (CompileDaemon daemon = new CompileDaemon(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            SocketAddress address = daemon.start();
+            try (CompileClient client = new CompileClient(address)) {
+                client.loadLexer("expr", SPEC);
+                client.loadGrammar("expr", GRAMMAR);
+            }
+            System.out.printf("%-8s %10s %10s %10s %12s%n", "clients", "p50 us", "p99 us", "max us", "req/s");
+            for (int clients : new int[] {1, 4, 16}) {
+                round(address, clients, requests / clients);
+                Histogram latency = new Histogram();
+                long nanos = round(address, clients, requests, latency);
+                HistogramSummary s = latency.summarize();
+                System.out.printf("%-8d %10.1f %10.1f %10.1f %12.0f%n", clients, s.getP50() / 1e3, s.getP99() / 1e3,
+                        s.getMax() / 1e3, s.getCount() / (nanos / 1e9));
+            }
+        }
+    }
+
+    private static void round(SocketAddress address, int clients, int requests) throws Exception {
+        round(address, clients, requests, new Histogram());
+    }
+
+    /**
+     * Runs the clients until each has sent its requests and returns the elapsed time.
+     */
+    private static long round(SocketAddress address, int clients, int requests, Histogram latency) throws Exception {
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        Exception[] failure = new Exception[1];
+        for (int c = 0; c < clients; c++) {
+            Thread thread = new Thread(() -> {
+                try (CompileClient client = new CompileClient(address)) {
+                    ready.countDown();
+                    go.await();
+                    for (int i = 0; i < requests; i++) {
+                        long start = System.nanoTime();
+                        client.parse("expr", "expr", INPUT);
+                        latency.record(System.nanoTime() - start);
+                    }
+                } catch (Exception e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long nanos = System.nanoTime() - start;
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return nanos;
+    }
+}
@@ -0,0 +1,74 @@
+package com.compiler.bench;
+
+import java.util.List;
+
+import com.compiler.lexer.Lexer;
+import com.compiler.lexer.Token;
+import com.compiler.metrics.MetricsRegistry;
+import com.compiler.parser.grammar.Grammar;
+import com.compiler.parser.lr.LALR1Parser;
+import com.compiler.parser.lr.LALR1Table;
+import com.compiler.parser.lr.LRAutomaton;
+
+/**
+ * Measures the cost of metrics on the lexing and parsing hot paths: the same inputs are tokenized
+ * and parsed with and without a {@link MetricsRegistry}, alternating to cancel JIT and GC drift, and
+ * the best time of each is compared.
+ * Run with {@code java -cp target/classes:target/test-classes com.compiler.bench.MetricsOverheadBenchmark}.
+ */
+public class MetricsOverheadBenchmark {
+    public static void main(String[] args) {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        Lexer lexer = new Lexer();
+        lexer.addRule("id", "[a-z_][a-z0-9_]*");
+        lexer.addRule("num", "[0-9]+");
+        lexer.addRule("+", "\\+");
+        lexer.addRule("*", "\\*");
+        lexer.addRule("(", "\\(");
+        lexer.addRule(")", "\\)");
+        lexer.addIgnoredRule("ws", "[ \\n]+");
+        lexer.build();
+        LALR1Table table = new LALR1Table(new LRAutomaton(new Grammar("E -> E + T | T\nT -> T * F | F\nF -> ( E ) | id")));
+        table.build();
+        LALR1Parser parser = new LALR1Parser(table);
+
+        String input = "alpha + beta * ( gamma_1 + delta ) * epsilon\n".repeat(lines);
+        List<Token> small = lexer.tokenize("a + b * ( c + d ) * e");
+        List<Token> large = lexer.tokenize("a + b * ( c + d ) * e + ".repeat(80) + "f");
+        MetricsRegistry registry = new MetricsRegistry();
+
+        long[] lexBest = {Long.MAX_VALUE, Long.MAX_VALUE};
+        long[] smallBest = {Long.MAX_VALUE, Long.MAX_VALUE};
+        long[] largeBest = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int run = 0; run < 20; run++) {
+            for (int instrumented = 0; instrumented < 2; instrumented++) {
+                lexer.setMetrics(instrumented == 1 ? registry : null);
+                parser.setMetrics(instrumented == 1 ? registry : null, "expr");
+                long start = System.nanoTime();
+                lexer.tokenize(input);
+                lexBest[instrumented] = Math.min(lexBest[instrumented], System.nanoTime() - start);
+                smallBest[instrumented] = Math.min(smallBest[instrumented], time(parser, small, 20_000));
+                largeBest[instrumented] = Math.min(largeBest[instrumented], time(parser, large, 200));
+            }
+        }
+        report("tokenize " + input.length() + " chars", lexBest);
+        report("20000 parses of " + small.size() + " tokens", smallBest);
+        report("200 parses of " + large.size() + " tokens", largeBest);
+        System.out.println(registry.getCounters());
+    }
+
+    private static long time(LALR1Parser parser, List<Token> tokens, int parses) {
+        long start = System.nanoTime();
+        for (int i = 0; i < parses; i++) {
+            if (!parser.parse(tokens)) {
+                throw new IllegalStateException("Benchmark input rejected");
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, long[] best) {
+        System.out.printf("%-26s plain %7.2f ms, with metrics %7.2f ms (%+.1f%%)%n", name, best[0] / 1e6,
+                best[1] / 1e6, 100.0 * (best[1] - best[0]) / best[0]);
+    }
+}
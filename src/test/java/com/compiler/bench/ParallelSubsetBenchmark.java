@@ -0,0 +1,36 @@
+package com.compiler.bench;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.compiler.lexer.NfaToDfaConverter;
+import com.compiler.lexer.nfa.NFA;
+import com.compiler.lexer.regex.RegexParser;
+
+/**
+ * Compares the sequential and the parallel subset construction on a combined lexer with thousands of
+ * rules.
+ * Run with {@code java -cp target/classes:target/test-classes com.compiler.bench.ParallelSubsetBenchmark [rules] [threads]}.
+ */
+public class ParallelSubsetBenchmark {
+    public static void main(String[] args) {
+        int rules = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        StringBuilder regex = new StringBuilder("[a-zA-Z_][a-zA-Z0-9_]*|[0-9]+(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+        for (int i = 0; i < rules; i++) {
+            regex.append("|kw").append(Integer.toString(i * 7919, 36)).append("(_[a-z]+)?");
+        }
+        NFA nfa = new RegexParser().parse(regex.toString());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            int sequentialStates = NfaToDfaConverter.convertNfaToDfa(nfa).allStates.size();
+            long sequentialTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            int parallelStates = NfaToDfaConverter.convertNfaToDfa(nfa, pool).allStates.size();
+            long parallelTime = System.nanoTime() - start;
+            System.out.printf("%d rules: sequential %.1f ms (%d states), parallel on %d threads %.1f ms (%d states)%n",
+                    rules, sequentialTime / 1e6, sequentialStates, threads, parallelTime / 1e6, parallelStates);
+        }
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,64 @@
+package com.compiler.bench;
+
+import java.util.Random;
+
+import com.compiler.lexer.search.RegexSet;
+
+/**
+ * Compares unanchored log search with and without the prefilter, and reports the fraction of the
+ * text that the prefilter leaves for the DFA.
+ * Run with {@code java -cp target/classes:target/test-classes com.compiler.bench.PrefilterBenchmark}.
+ */
+public class PrefilterBenchmark {
+    private static final String[][] PATTERN_SETS = {
+        {"FATAL [a-z]+ failed"},
+        {"OutOfMemoryError", "StackOverflowError"},
+        {"user=root(@[a-z.]+)?"},
+        {"[0-9]+ms"},
+    };
+
+    public static void main(String[] args) {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Random random = new Random(1);
+        String[] levels = {"INFO", "DEBUG", "WARN"};
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            log.append("2024-05-01T12:00:00 ").append(levels[random.nextInt(levels.length)])
+                    .append(" service handled request id=").append(random.nextInt(1_000_000))
+                    .append(" user=u").append(random.nextInt(1000)).append(" in ").append(random.nextInt(500))
+                    .append("ms\n");
+            if (random.nextInt(10_000) == 0) {
+                log.append("2024-05-01T12:00:00 FATAL disk failed\n");
+            }
+        }
+        String text = log.toString();
+        for (int run = 0; run < 5; run++) {
+            for (String[] patterns : PATTERN_SETS) {
+                RegexSet set = new RegexSet();
+                for (String pattern : patterns) {
+                    set.add(pattern);
+                }
+                set.build();
+                set.setPrefilterEnabled(false);
+                long start = System.nanoTime();
+                int plain = set.findAll(text).size();
+                long plainTime = System.nanoTime() - start;
+                set.setPrefilterEnabled(true);
+                start = System.nanoTime();
+                int filtered = set.findAll(text).size();
+                long filteredTime = System.nanoTime() - start;
+                int candidates = 0;
+                for (int i = set.getPrefilter().next(text, 0); i < text.length();
+                        i = set.getPrefilter().next(text, i + 1)) {
+                    candidates++;
+                }
+                System.out.printf("%-40.40s %6d matches, DFA %7.2f ms, prefilter %7.2f ms, %.4f%% candidate positions%n",
+                        String.join(" | ", patterns), filtered, plainTime / 1e6, filteredTime / 1e6,
+                        100.0 * candidates / text.length());
+                if (plain != filtered) {
+                    throw new IllegalStateException("Prefilter changed the matches of " + String.join(", ", patterns));
+                }
+            }
+        }
+    }
+}